@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>
+ * Runs the benchmarks. Accepts the standard JMH command line, but writes the results as JSON
+ * to <code>jmh-result.json</code> unless <code>-rf</code>/<code>-rff</code> are given. Keep the JSON
+ * of a release and use {@link CompareResults} to check later runs for regressions.
+ * </p>
+ *
+ * Usage:<br/>
+ * <code><pre>
+ * mvn -P benchmarks -pl curator-benchmarks -am package -DskipTests
+ * java -jar curator-benchmarks/target/benchmarks.jar [JMH options] [benchmark regex]
+ * </pre></code>
+ */
+public class BenchmarkRunner
+{
+    public static final String      DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws Exception
+    {
+        CommandLineOptions      commandLineOptions = new CommandLineOptions(args);
+        if ( commandLineOptions.shouldHelp() || commandLineOptions.shouldList() || commandLineOptions.shouldListWithParams() || commandLineOptions.shouldListProfilers() || commandLineOptions.shouldListResultFormats() )
+        {
+            Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder   builder = new OptionsBuilder().parent(commandLineOptions);
+        if ( !commandLineOptions.getResultFormat().hasValue() )
+        {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if ( !commandLineOptions.getResult().hasValue() )
+        {
+            builder.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(builder.build()).run();
+    }
+
+    private BenchmarkRunner()
+    {
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import com.google.common.collect.Maps;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import java.io.File;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * <p>
+ * Compares two JSON result files written by {@link BenchmarkRunner} (or JMH with <code>-rf json</code>).
+ * Results are matched by benchmark, parameters and mode. A benchmark has regressed if its score is
+ * worse than the baseline by more than the threshold percentage (default 10) and by more than the
+ * combined score errors. For throughput modes, higher scores are better. For time modes, lower
+ * scores are better.
+ * </p>
+ *
+ * <p>
+ * Usage: <code>CompareResults baseline.json current.json [thresholdPercent]</code>. The exit
+ * status is 1 if anything regressed.
+ * </p>
+ */
+public class CompareResults
+{
+    private static class Score
+    {
+        private final String    mode;
+        private final double    score;
+        private final double    error;
+        private final String    unit;
+
+        private Score(String mode, double score, double error, String unit)
+        {
+            this.mode = mode;
+            this.score = score;
+            this.error = Double.isNaN(error) ? 0 : error;
+            this.unit = unit;
+        }
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        if ( (args.length < 2) || (args.length > 3) )
+        {
+            System.err.println("Usage: CompareResults baseline.json current.json [thresholdPercent]");
+            System.exit(2);
+        }
+
+        double                  threshold = (args.length > 2) ? Double.parseDouble(args[2]) : 10;
+        Map<String, Score>      baseline = read(new File(args[0]));
+        Map<String, Score>      current = read(new File(args[1]));
+
+        int     regressions = 0;
+        for ( Map.Entry<String, Score> entry : current.entrySet() )
+        {
+            Score   currentScore = entry.getValue();
+            Score   baselineScore = baseline.get(entry.getKey());
+            if ( baselineScore == null )
+            {
+                System.out.println(String.format("NEW         %s: %.3f %s", entry.getKey(), currentScore.score, currentScore.unit));
+                continue;
+            }
+
+            boolean higherIsBetter = currentScore.mode.equals("thrpt");
+            double  change = (baselineScore.score != 0) ? ((currentScore.score - baselineScore.score) / baselineScore.score) * 100 : 0;
+            double  worsening = higherIsBetter ? -change : change;
+            boolean beyondError = Math.abs(currentScore.score - baselineScore.score) > (currentScore.error + baselineScore.error);
+            boolean regressed = (worsening > threshold) && beyondError;
+            if ( regressed )
+            {
+                ++regressions;
+            }
+            System.out.println(String.format("%-11s %s: %.3f -> %.3f %s (%+.1f%%)", regressed ? "REGRESSION" : "OK", entry.getKey(), baselineScore.score, currentScore.score, currentScore.unit, change));
+        }
+
+        for ( String key : baseline.keySet() )
+        {
+            if ( !current.containsKey(key) )
+            {
+                System.out.println("MISSING     " + key);
+            }
+        }
+
+        System.out.println(regressions + " regression(s)");
+        System.exit((regressions > 0) ? 1 : 0);
+    }
+
+    private static Map<String, Score> read(File file) throws Exception
+    {
+        Map<String, Score>      scores = Maps.newTreeMap();
+        JsonNode                root = new ObjectMapper().readTree(file);
+        for ( JsonNode result : root )
+        {
+            StringBuilder   key = new StringBuilder(result.get("benchmark").getTextValue());
+            JsonNode        params = result.get("params");
+            if ( params != null )
+            {
+                Iterator<Map.Entry<String, JsonNode>> fields = params.getFields();
+                while ( fields.hasNext() )
+                {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    key.append(key.indexOf("[") < 0 ? "[" : ",").append(field.getKey()).append('=').append(field.getValue().getTextValue());
+                }
+                key.append(']');
+            }
+
+            // a benchmark can run in several modes (e.g. thrpt and sample) - each is a separate result
+            String          mode = result.get("mode").getTextValue();
+            key.append(' ').append(mode);
+
+            JsonNode        metric = result.get("primaryMetric");
+            scores.put(key.toString(), new Score(mode, metric.get("score").getDoubleValue(), metric.get("scoreError").asDouble(), metric.get("scoreUnit").getTextValue()));
+        }
+        return scores;
+    }
+
+    private CompareResults()
+    {
+    }
+}
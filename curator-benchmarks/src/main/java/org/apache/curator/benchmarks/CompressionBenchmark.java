@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import com.google.common.io.Closeables;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.CompressionProvider;
+import org.apache.curator.framework.imps.CodecCompressionProvider;
+import org.apache.curator.framework.imps.DictionaryCompressionProvider;
+import org.apache.curator.framework.imps.GzipCompressionProvider;
+import org.apache.curator.framework.imps.LZ4CompressionProvider;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.TestingServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compress/decompress time for each compression provider
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionBenchmark
+{
+    @Param({"gzip", "lz4", "codec-lz4", "dictionary"})
+    public String provider;
+
+    @Param({"256", "4096", "65536"})
+    public int payloadSize;
+
+    private CompressionProvider     compressionProvider;
+    private byte[]                  payload;
+    private byte[]                  compressed;
+    private TestingServer           server;
+    private CuratorFramework        client;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        payload = Payloads.json(payloadSize, 1);
+        if ( provider.equals("gzip") )
+        {
+            compressionProvider = new GzipCompressionProvider();
+        }
+        else if ( provider.equals("lz4") )
+        {
+            compressionProvider = new LZ4CompressionProvider();
+        }
+        else if ( provider.equals("codec-lz4") )
+        {
+            compressionProvider = new CodecCompressionProvider(CodecCompressionProvider.LZ4);
+        }
+        else if ( provider.equals("dictionary") )
+        {
+            server = new TestingServer();
+            client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+            client.start();
+            DictionaryCompressionProvider.publishDictionary(client, "/dictionaries", Payloads.json(8192, 2));
+            DictionaryCompressionProvider dictionaryProvider = new DictionaryCompressionProvider("/dictionaries");
+            dictionaryProvider.start(client);
+            compressionProvider = dictionaryProvider;
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unknown provider: " + provider);
+        }
+
+        compressed = compressionProvider.compress("/", payload);
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        Closeables.closeQuietly(client);
+        Closeables.closeQuietly(server);
+    }
+
+    @Benchmark
+    public byte[] compress() throws Exception
+    {
+        return compressionProvider.compress("/", payload);
+    }
+
+    @Benchmark
+    public byte[] decompress() throws Exception
+    {
+        return compressionProvider.decompress("/", compressed);
+    }
+}
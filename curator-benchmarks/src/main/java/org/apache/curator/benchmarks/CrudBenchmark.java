@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Foreground and background CRUD throughput against a single server and a 3 instance cluster
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CrudBenchmark
+{
+    private static final String     PATH = "/crud/node";
+    private static final int        BACKGROUND_BATCH = 100;
+
+    private static final AtomicInteger      threadIds = new AtomicInteger();
+
+    @State(Scope.Benchmark)
+    public static class Data
+    {
+        @Param({"100", "10000"})
+        public int dataSize;
+
+        private byte[]  data;
+
+        @Setup
+        public void setup(EnsembleState ensemble) throws Exception
+        {
+            data = new byte[dataSize];
+            new Random(dataSize).nextBytes(data);
+
+            CuratorFramework    client = ensemble.getClient();
+            if ( client.checkExists().forPath(PATH) == null )
+            {
+                client.create().creatingParentsIfNeeded().forPath(PATH, data);
+            }
+            else
+            {
+                client.setData().forPath(PATH, data);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadPath
+    {
+        private String  path;
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            path = "/crud/thread-" + threadIds.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public byte[] foregroundGetData(EnsembleState ensemble, Data data) throws Exception
+    {
+        return ensemble.getClient().getData().forPath(PATH);
+    }
+
+    @Benchmark
+    public Object foregroundSetData(EnsembleState ensemble, Data data) throws Exception
+    {
+        return ensemble.getClient().setData().forPath(PATH, data.data);
+    }
+
+    @Benchmark
+    public void foregroundCreateDelete(EnsembleState ensemble, Data data, ThreadPath threadPath) throws Exception
+    {
+        ensemble.getClient().create().forPath(threadPath.path, data.data);
+        ensemble.getClient().delete().forPath(threadPath.path);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BACKGROUND_BATCH)
+    public void backgroundGetData(EnsembleState ensemble, Data data) throws Exception
+    {
+        CuratorFramework        client = ensemble.getClient();
+        BatchCallback           callback = new BatchCallback();
+        for ( int i = 0; i < BACKGROUND_BATCH; ++i )
+        {
+            client.getData().inBackground(callback).forPath(PATH);
+        }
+        callback.await();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BACKGROUND_BATCH)
+    public void backgroundSetData(EnsembleState ensemble, Data data) throws Exception
+    {
+        CuratorFramework        client = ensemble.getClient();
+        BatchCallback           callback = new BatchCallback();
+        for ( int i = 0; i < BACKGROUND_BATCH; ++i )
+        {
+            client.setData().inBackground(callback).forPath(PATH, data.data);
+        }
+        callback.await();
+    }
+
+    private static class BatchCallback implements BackgroundCallback
+    {
+        private final CountDownLatch    latch = new CountDownLatch(BACKGROUND_BATCH);
+        private volatile int            lastErrorCode = 0;
+
+        @Override
+        public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+        {
+            if ( event.getResultCode() != 0 )
+            {
+                lastErrorCode = event.getResultCode();
+            }
+            latch.countDown();
+        }
+
+        void await() throws Exception
+        {
+            if ( !latch.await(1, TimeUnit.MINUTES) )
+            {
+                throw new IllegalStateException("Timed out waiting for background operations");
+            }
+            if ( lastErrorCode != 0 )
+            {
+                throw new IllegalStateException("Background operation failed: " + lastErrorCode);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import org.apache.curator.framework.recipes.atomic.AtomicValue;
+import org.apache.curator.framework.recipes.atomic.DistributedAtomicLong;
+import org.apache.curator.framework.recipes.atomic.PromotedToLock;
+import org.apache.curator.retry.RetryNTimes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DistributedAtomicLong} increments on a single counter from several clients, either
+ * purely optimistic or promoted to a lock after a few optimistic failures
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class DistributedAtomicLongBenchmark
+{
+    private static final String     PATH = "/bench/counter";
+    private static final String     LOCK_PATH = "/bench/counter-lock";
+
+    @State(Scope.Thread)
+    public static class Counter
+    {
+        @Param({"optimistic", "promoted"})
+        public String mode;
+
+        private DistributedAtomicLong   counter;
+
+        @Setup
+        public void setup(ThreadClientState client)
+        {
+            if ( mode.equals("promoted") )
+            {
+                PromotedToLock promotedToLock = PromotedToLock.builder().lockPath(LOCK_PATH).retryPolicy(new RetryNTimes(100, 1)).build();
+                counter = new DistributedAtomicLong(client.getClient(), PATH, new RetryNTimes(3, 1), promotedToLock);
+            }
+            else
+            {
+                counter = new DistributedAtomicLong(client.getClient(), PATH, new RetryNTimes(1000, 1));
+            }
+        }
+    }
+
+    @Benchmark
+    public long increment(Counter counter) throws Exception
+    {
+        AtomicValue<Long> value = counter.counter.increment();
+        if ( !value.succeeded() )
+        {
+            throw new IllegalStateException("Increment did not succeed");
+        }
+        return value.postValue();
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Queues;
+import com.google.common.io.Closeables;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.queue.DistributedQueue;
+import org.apache.curator.framework.recipes.queue.QueueBuilder;
+import org.apache.curator.framework.recipes.queue.QueueConsumer;
+import org.apache.curator.framework.recipes.queue.QueueSerializer;
+import org.apache.curator.framework.state.ConnectionState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link DistributedQueue} put throughput, and the round trip latency of an item from put until
+ * a consumer on a separate client receives it
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DistributedQueueBenchmark
+{
+    private static final String     PATH = "/bench/queue";
+    private static final int        MAX_WAIT_SECONDS = 30;
+
+    private static final QueueSerializer<String>    serializer = new QueueSerializer<String>()
+    {
+        @Override
+        public byte[] serialize(String item)
+        {
+            return item.getBytes(Charsets.UTF_8);
+        }
+
+        @Override
+        public String deserialize(byte[] bytes)
+        {
+            return new String(bytes, Charsets.UTF_8);
+        }
+    };
+
+    @State(Scope.Benchmark)
+    public static class Queue
+    {
+        private final BlockingQueue<String>     received = Queues.newLinkedBlockingQueue();
+        private final AtomicLong                ids = new AtomicLong();
+        private CuratorFramework                consumerClient;
+        private DistributedQueue<String>        consumerQueue;
+        private DistributedQueue<String>        producerQueue;
+
+        @Setup
+        public void setup(EnsembleState ensemble) throws Exception
+        {
+            QueueConsumer<String>   consumer = new QueueConsumer<String>()
+            {
+                @Override
+                public void consumeMessage(String message)
+                {
+                    received.add(message);
+                }
+
+                @Override
+                public void stateChanged(CuratorFramework client, ConnectionState newState)
+                {
+                }
+            };
+
+            consumerClient = ensemble.newClient();
+            consumerClient.start();
+            consumerQueue = QueueBuilder.builder(consumerClient, consumer, serializer, PATH).buildQueue();
+            consumerQueue.start();
+
+            producerQueue = QueueBuilder.builder(ensemble.getClient(), null, serializer, PATH).putInBackground(false).buildQueue();
+            producerQueue.start();
+        }
+
+        @TearDown
+        public void teardown()
+        {
+            Closeables.closeQuietly(producerQueue);
+            Closeables.closeQuietly(consumerQueue);
+            Closeables.closeQuietly(consumerClient);
+        }
+    }
+
+    @Benchmark
+    public void put(Queue queue) throws Exception
+    {
+        queue.producerQueue.put(Long.toString(queue.ids.incrementAndGet()));
+    }
+
+    @Benchmark
+    public String roundTrip(Queue queue) throws Exception
+    {
+        String      item = Long.toString(queue.ids.incrementAndGet());
+        queue.producerQueue.put(item);
+        for(;;)
+        {
+            String  message = queue.received.poll(MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+            if ( message == null )
+            {
+                throw new IllegalStateException("Timed out waiting for: " + item);
+            }
+            if ( message.equals(item) )
+            {
+                return message;
+            }
+        }
+    }
+}
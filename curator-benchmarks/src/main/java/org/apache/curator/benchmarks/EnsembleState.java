@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import com.google.common.io.Closeables;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingCluster;
+import org.apache.curator.test.TestingServer;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import java.io.Closeable;
+
+/**
+ * A started ZooKeeper ensemble - either a single {@link TestingServer} or a 3 instance
+ * {@link TestingCluster} - and a started client connected to it
+ */
+@State(Scope.Benchmark)
+public class EnsembleState
+{
+    public static final String  SERVER = "server";
+    public static final String  CLUSTER = "cluster";
+
+    @Param({SERVER, CLUSTER})
+    public String ensemble;
+
+    private Closeable           testingEnsemble;
+    private String              connectString;
+    private CuratorFramework    client;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        if ( ensemble.equals(CLUSTER) )
+        {
+            TestingCluster cluster = new TestingCluster(3);
+            cluster.start();
+            testingEnsemble = cluster;
+            connectString = cluster.getConnectString();
+        }
+        else
+        {
+            TestingServer server = new TestingServer();
+            testingEnsemble = server;
+            connectString = server.getConnectString();
+        }
+
+        client = newClient();
+        client.start();
+        client.getZookeeperClient().blockUntilConnectedOrTimedOut();
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        Closeables.closeQuietly(client);
+        Closeables.closeQuietly(testingEnsemble);
+    }
+
+    /**
+     * Allocate a new (unstarted) client for the ensemble
+     *
+     * @return client
+     */
+    public CuratorFramework newClient()
+    {
+        return CuratorFrameworkFactory.newClient(connectString, new ExponentialBackoffRetry(100, 3));
+    }
+
+    public CuratorFramework getClient()
+    {
+        return client;
+    }
+
+    public String getConnectString()
+    {
+        return connectString;
+    }
+}
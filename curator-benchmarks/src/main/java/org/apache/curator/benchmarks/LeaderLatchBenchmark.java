@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import com.google.common.io.Closeables;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.leader.LeaderLatch;
+import org.apache.curator.test.KillSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LeaderLatch} failover time: from the leader going away until the standby has leadership.
+ * The leader either closes its latch or has its session expired.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class LeaderLatchBenchmark
+{
+    private static final String     PATH = "/bench/leader";
+    private static final int        MAX_WAIT_SECONDS = 30;
+
+    public static final String      CLOSE = "close";
+    public static final String      SESSION_EXPIRY = "sessionExpiry";
+
+    @State(Scope.Benchmark)
+    public static class Latches
+    {
+        @Param({CLOSE, SESSION_EXPIRY})
+        public String failover;
+
+        private String              connectString;
+        private CuratorFramework    leaderClient;
+        private CuratorFramework    standbyClient;
+        private LeaderLatch         leader;
+        private LeaderLatch         standby;
+
+        @Setup(Level.Trial)
+        public void setupClients(EnsembleState ensemble) throws Exception
+        {
+            connectString = ensemble.getConnectString();
+            leaderClient = ensemble.newClient();
+            leaderClient.start();
+            standbyClient = ensemble.newClient();
+            standbyClient.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void teardownClients()
+        {
+            Closeables.closeQuietly(standbyClient);
+            Closeables.closeQuietly(leaderClient);
+        }
+
+        @Setup(Level.Invocation)
+        public void setupLatches() throws Exception
+        {
+            leaderClient.getZookeeperClient().blockUntilConnectedOrTimedOut();
+            leader = new LeaderLatch(leaderClient, PATH);
+            leader.start();
+            if ( !leader.await(MAX_WAIT_SECONDS, TimeUnit.SECONDS) )
+            {
+                throw new IllegalStateException("Leader did not get leadership");
+            }
+
+            standby = new LeaderLatch(standbyClient, PATH);
+            standby.start();
+            while ( standby.getParticipants().size() < 2 )
+            {
+                Thread.sleep(1);
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void teardownLatches()
+        {
+            Closeables.closeQuietly(standby);
+            if ( leader.getState() == LeaderLatch.State.STARTED )
+            {
+                Closeables.closeQuietly(leader);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean failover(Latches latches) throws Exception
+    {
+        if ( latches.failover.equals(SESSION_EXPIRY) )
+        {
+            KillSession.kill(latches.leaderClient.getZookeeperClient().getZooKeeper(), latches.connectString);
+        }
+        else
+        {
+            latches.leader.close();
+        }
+
+        if ( !latches.standby.await(MAX_WAIT_SECONDS, TimeUnit.SECONDS) )
+        {
+            throw new IllegalStateException("Standby did not get leadership");
+        }
+        return latches.standby.hasLeadership();
+    }
+}
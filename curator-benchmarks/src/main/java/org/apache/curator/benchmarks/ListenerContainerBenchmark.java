@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import com.google.common.base.Function;
+import org.apache.curator.framework.listen.ListenerContainer;
+import org.apache.curator.framework.listen.ListenerFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatching an event to same-thread listeners via both forms of {@link ListenerContainer#forEach}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListenerContainerBenchmark
+{
+    @Param({"1", "10"})
+    public int listenerCount;
+
+    private final ListenerContainer<Listener>   container = new ListenerContainer<Listener>();
+    private final Object                        event = new Object();
+
+    private final ListenerFunction<Listener, Object> listenerFunction = new ListenerFunction<Listener, Object>()
+    {
+        @Override
+        public void apply(Listener listener, Object event)
+        {
+            listener.consume(event);
+        }
+    };
+
+    public static class Listener
+    {
+        private int     count = 0;
+
+        public void consume(Object event)
+        {
+            if ( event != null )
+            {
+                ++count;
+            }
+        }
+    }
+
+    @Setup
+    public void setup()
+    {
+        for ( int i = 0; i < listenerCount; ++i )
+        {
+            container.addListener(new Listener());
+        }
+    }
+
+    @Benchmark
+    public void forEachListenerFunction()
+    {
+        container.forEach(listenerFunction, event);
+    }
+
+    @Benchmark
+    public void forEachFunction()
+    {
+        container.forEach
+        (
+            new Function<Listener, Void>()
+            {
+                @Override
+                public Void apply(Listener listener)
+                {
+                    listener.consume(event);
+                    return null;
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import com.google.common.collect.Queues;
+import com.google.common.io.Closeables;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.recipes.cache.PathChildrenCache;
+import org.apache.curator.framework.recipes.cache.PathChildrenCacheEvent;
+import org.apache.curator.framework.recipes.cache.PathChildrenCacheListener;
+import org.apache.curator.utils.ZKPaths;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PathChildrenCache} with a large number of children: the lag from a change to one child
+ * until the cache posts the event, and the time for a new cache to load all the children
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PathChildrenCacheBenchmark
+{
+    private static final String     PATH = "/bench/cache";
+    private static final int        MAX_WAIT_SECONDS = 60;
+
+    @State(Scope.Benchmark)
+    public static class Children
+    {
+        @Param({"1000", "10000"})
+        public int children;
+
+        private final BlockingQueue<PathChildrenCacheEvent>     events = Queues.newLinkedBlockingQueue();
+        private final Random                                    random = new Random();
+        private CuratorFramework                                client;
+        private PathChildrenCache                               cache;
+
+        @Setup
+        public void setup(EnsembleState ensemble) throws Exception
+        {
+            client = ensemble.getClient();
+            client.create().creatingParentsIfNeeded().forPath(PATH);
+
+            final CountDownLatch    createdLatch = new CountDownLatch(children);
+            BackgroundCallback      callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event)
+                {
+                    createdLatch.countDown();
+                }
+            };
+            for ( int i = 0; i < children; ++i )
+            {
+                client.create().inBackground(callback).forPath(childPath(i), Payloads.json(100, i));
+            }
+            if ( !createdLatch.await(MAX_WAIT_SECONDS, TimeUnit.SECONDS) )
+            {
+                throw new IllegalStateException("Timed out creating children");
+            }
+
+            cache = new PathChildrenCache(client, PATH, true);
+            cache.getListenable().addListener
+            (
+                new PathChildrenCacheListener()
+                {
+                    @Override
+                    public void childEvent(CuratorFramework client, PathChildrenCacheEvent event)
+                    {
+                        events.add(event);
+                    }
+                }
+            );
+            startAndAwaitInitialized(cache, events);
+        }
+
+        @TearDown
+        public void teardown()
+        {
+            Closeables.closeQuietly(cache);
+        }
+
+        private String childPath(int index)
+        {
+            return ZKPaths.makePath(PATH, String.format("child-%06d", index));
+        }
+    }
+
+    /**
+     * Time from setData() on a random child until the cache posts CHILD_UPDATED for it
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public PathChildrenCacheEvent updateLag(Children children) throws Exception
+    {
+        String      path = children.childPath(children.random.nextInt(children.children));
+        children.client.setData().forPath(path, Payloads.json(100, children.random.nextInt()));
+        for(;;)
+        {
+            PathChildrenCacheEvent  event = children.events.poll(MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+            if ( event == null )
+            {
+                throw new IllegalStateException("Timed out waiting for update to: " + path);
+            }
+            if ( (event.getType() == PathChildrenCacheEvent.Type.CHILD_UPDATED) && event.getData().getPath().equals(path) )
+            {
+                return event;
+            }
+        }
+    }
+
+    /**
+     * Time for a new cache to load all the children
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public int initialLoad(Children children) throws Exception
+    {
+        final BlockingQueue<PathChildrenCacheEvent> events = Queues.newLinkedBlockingQueue();
+        PathChildrenCache                           cache = new PathChildrenCache(children.client, PATH, true);
+        try
+        {
+            cache.getListenable().addListener
+            (
+                new PathChildrenCacheListener()
+                {
+                    @Override
+                    public void childEvent(CuratorFramework client, PathChildrenCacheEvent event)
+                    {
+                        events.add(event);
+                    }
+                }
+            );
+            startAndAwaitInitialized(cache, events);
+            return cache.getCurrentData().size();
+        }
+        finally
+        {
+            Closeables.closeQuietly(cache);
+        }
+    }
+
+    private static void startAndAwaitInitialized(PathChildrenCache cache, BlockingQueue<PathChildrenCacheEvent> events) throws Exception
+    {
+        cache.start(PathChildrenCache.StartMode.POST_INITIALIZED_EVENT);
+        for(;;)
+        {
+            PathChildrenCacheEvent  event = events.poll(MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+            if ( event == null )
+            {
+                throw new IllegalStateException("Timed out waiting for the cache to initialize");
+            }
+            if ( event.getType() == PathChildrenCacheEvent.Type.INITIALIZED )
+            {
+                return;
+            }
+        }
+    }
+}
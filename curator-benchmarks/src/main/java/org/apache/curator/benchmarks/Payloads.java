@@ -0,0 +1,52 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Deterministic test payloads
+ */
+public class Payloads
+{
+    private static final String     TEMPLATE = "{\"name\":\"service-%d\",\"id\":\"%08x-%04x-%04x\",\"address\":\"10.%d.%d.%d\",\"port\":%d,\"sslPort\":null,\"payload\":null,\"registrationTimeUTC\":%d,\"serviceType\":\"DYNAMIC\",\"uriSpec\":{\"parts\":[{\"value\":\"scheme\",\"variable\":true},{\"value\":\"://\",\"variable\":false}]}}";
+
+    /**
+     * Return JSON documents, similar to service instances, totalling the given size
+     *
+     * @param size size in bytes
+     * @param seed random seed
+     * @return payload
+     */
+    public static byte[] json(int size, long seed)
+    {
+        Random          random = new Random(seed);
+        StringBuilder   str = new StringBuilder(size + TEMPLATE.length() * 2);
+        while ( str.length() < size )
+        {
+            str.append(String.format(TEMPLATE, random.nextInt(10), random.nextInt(), random.nextInt(0xffff), random.nextInt(0xffff), random.nextInt(256), random.nextInt(256), random.nextInt(256), 1024 + random.nextInt(60000), 1370000000000L + random.nextInt()));
+        }
+        str.setLength(size);
+        return str.toString().getBytes();
+    }
+
+    private Payloads()
+    {
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import com.google.common.io.Closeables;
+import org.apache.curator.CuratorZookeeperClient;
+import org.apache.curator.RetryLoop;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.TestingServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The overhead RetryLoop adds to an operation that succeeds the first time. The
+ * callable doesn't contact the server - <code>direct</code> is the baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RetryLoopBenchmark
+{
+    private TestingServer               server;
+    private CuratorZookeeperClient      client;
+
+    private final Callable<Integer>     callable = new Callable<Integer>()
+    {
+        private int     count = 0;
+
+        @Override
+        public Integer call() throws Exception
+        {
+            return ++count;
+        }
+    };
+
+    @Setup
+    public void setup() throws Exception
+    {
+        server = new TestingServer();
+        client = new CuratorZookeeperClient(server.getConnectString(), 10000, 10000, null, new RetryOneTime(1));
+        client.start();
+        client.blockUntilConnectedOrTimedOut();
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        Closeables.closeQuietly(client);
+        Closeables.closeQuietly(server);
+    }
+
+    @Benchmark
+    public Integer direct() throws Exception
+    {
+        return callable.call();
+    }
+
+    @Benchmark
+    public Integer callWithRetry() throws Exception
+    {
+        return RetryLoop.callWithRetry(client, callable);
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.x.discovery.UriSpec;
+import org.apache.curator.x.discovery.details.JsonInstanceSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service discovery instance serialization - done for every instance read by ServiceDiscovery/ServiceCache
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark
+{
+    public static class Details
+    {
+        public String   description = "an example payload";
+        public int      weight = 10;
+    }
+
+    private final JsonInstanceSerializer<Details>   serializer = new JsonInstanceSerializer<Details>(Details.class);
+    private ServiceInstance<Details>                instance;
+    private byte[]                                  bytes;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        instance = ServiceInstance.<Details>builder()
+            .name("service")
+            .address("10.0.0.1")
+            .port(8080)
+            .payload(new Details())
+            .uriSpec(new UriSpec("{scheme}://{address}:{port}"))
+            .build();
+        bytes = serializer.serialize(instance);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception
+    {
+        return serializer.serialize(instance);
+    }
+
+    @Benchmark
+    public ServiceInstance<Details> deserialize() throws Exception
+    {
+        return serializer.deserialize(bytes);
+    }
+}
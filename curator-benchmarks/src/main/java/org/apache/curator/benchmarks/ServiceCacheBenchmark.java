@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Closeables;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.x.discovery.ServiceCache;
+import org.apache.curator.x.discovery.ServiceDiscovery;
+import org.apache.curator.x.discovery.ServiceDiscoveryBuilder;
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.x.discovery.details.ServiceCacheListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ServiceCache} refresh time: from an instance being updated by one client until a cache on
+ * another client reflects it, and the time for a new cache to load all the instances
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceCacheBenchmark
+{
+    private static final String     BASE_PATH = "/bench/discovery";
+    private static final String     NAME = "service";
+    private static final int        MAX_WAIT_SECONDS = 30;
+
+    @State(Scope.Benchmark)
+    public static class Discovery
+    {
+        @Param({"10", "1000"})
+        public int instances;
+
+        private final Semaphore                 changes = new Semaphore(0);
+        private final Random                    random = new Random();
+        private final List<ServiceInstance<String>> registered = Lists.newArrayList();
+        private CuratorFramework                cacheClient;
+        private ServiceDiscovery<String>        registrationDiscovery;
+        private ServiceDiscovery<String>        cacheDiscovery;
+        private ServiceCache<String>            cache;
+
+        @Setup
+        public void setup(EnsembleState ensemble) throws Exception
+        {
+            registrationDiscovery = ServiceDiscoveryBuilder.builder(String.class).client(ensemble.getClient()).basePath(BASE_PATH).build();
+            registrationDiscovery.start();
+            for ( int i = 0; i < instances; ++i )
+            {
+                ServiceInstance<String> instance = ServiceInstance.<String>builder().name(NAME).id("instance-" + i).port(1000 + i).payload("0").build();
+                registrationDiscovery.registerService(instance);
+                registered.add(instance);
+            }
+
+            cacheClient = ensemble.newClient();
+            cacheClient.start();
+            cacheDiscovery = ServiceDiscoveryBuilder.builder(String.class).client(cacheClient).basePath(BASE_PATH).build();
+            cacheDiscovery.start();
+            cache = cacheDiscovery.serviceCacheBuilder().name(NAME).build();
+            cache.addListener
+            (
+                new ServiceCacheListener()
+                {
+                    @Override
+                    public void cacheChanged()
+                    {
+                        changes.release();
+                    }
+
+                    @Override
+                    public void stateChanged(CuratorFramework client, ConnectionState newState)
+                    {
+                    }
+                }
+            );
+            cache.start();
+        }
+
+        @TearDown
+        public void teardown()
+        {
+            Closeables.closeQuietly(cache);
+            Closeables.closeQuietly(cacheDiscovery);
+            Closeables.closeQuietly(cacheClient);
+            Closeables.closeQuietly(registrationDiscovery);
+        }
+    }
+
+    /**
+     * Time from updateService() on a random instance until the cache returns the new payload
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public ServiceInstance<String> refresh(Discovery discovery) throws Exception
+    {
+        ServiceInstance<String> instance = discovery.registered.get(discovery.random.nextInt(discovery.instances));
+        String                  payload = Long.toString(discovery.random.nextLong());
+        ServiceInstance<String> updated = ServiceInstance.<String>builder().name(NAME).id(instance.getId()).address(instance.getAddress()).port(instance.getPort()).payload(payload).build();
+        discovery.changes.drainPermits();
+        discovery.registrationDiscovery.updateService(updated);
+        for(;;)
+        {
+            for ( ServiceInstance<String> cached : discovery.cache.getInstances() )
+            {
+                if ( cached.getId().equals(updated.getId()) && payload.equals(cached.getPayload()) )
+                {
+                    return cached;
+                }
+            }
+            if ( !discovery.changes.tryAcquire(MAX_WAIT_SECONDS, TimeUnit.SECONDS) )
+            {
+                throw new IllegalStateException("Timed out waiting for update to: " + updated.getId());
+            }
+        }
+    }
+
+    /**
+     * Time for a new cache to load all the instances
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public int initialLoad(Discovery discovery) throws Exception
+    {
+        ServiceCache<String>    cache = discovery.cacheDiscovery.serviceCacheBuilder().name(NAME).build();
+        try
+        {
+            cache.start();
+            return cache.getInstances().size();
+        }
+        finally
+        {
+            Closeables.closeQuietly(cache);
+        }
+    }
+}
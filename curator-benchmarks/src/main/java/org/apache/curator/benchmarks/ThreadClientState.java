@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import com.google.common.io.Closeables;
+import org.apache.curator.framework.CuratorFramework;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A started client per benchmark thread so that contention benchmarks compete across
+ * sessions the way separate processes would
+ */
+@State(Scope.Thread)
+public class ThreadClientState
+{
+    private CuratorFramework    client;
+
+    @Setup
+    public void setup(EnsembleState ensemble) throws Exception
+    {
+        client = ensemble.newClient();
+        client.start();
+        client.getZookeeperClient().blockUntilConnectedOrTimedOut();
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        Closeables.closeQuietly(client);
+    }
+
+    public CuratorFramework getClient()
+    {
+        return client;
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.benchmarks;
+
+import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ZKPaths;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path helpers that are called for every operation and for every child in recipes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ZKPathsBenchmark
+{
+    private String  parent = "/app/locks/resource";
+    private String  child = "_c_8d6e3a2b-1f4c-4a8e-9b1d-5c7e2f3a4b5c-lock-0000000042";
+    private String  fullPath = parent + "/" + child;
+    private String  namespace = "myapp";
+
+    @Benchmark
+    public String makePath()
+    {
+        return ZKPaths.makePath(parent, child);
+    }
+
+    @Benchmark
+    public String getNodeFromPath()
+    {
+        return ZKPaths.getNodeFromPath(fullPath);
+    }
+
+    @Benchmark
+    public ZKPaths.PathAndNode getPathAndNode()
+    {
+        return ZKPaths.getPathAndNode(fullPath);
+    }
+
+    @Benchmark
+    public String validatePath()
+    {
+        PathUtils.validatePath(fullPath);
+        return fullPath;
+    }
+
+    @Benchmark
+    public String fixForNamespace()
+    {
+        return ZKPaths.fixForNamespace(namespace, fullPath);
+    }
+}
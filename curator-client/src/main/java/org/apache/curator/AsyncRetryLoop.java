@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Continuation based version of {@link RetryLoop#callWithRetry(CuratorZookeeperClient, Callable)}.
+ * Instead of sleeping between attempts (or while waiting for the connection) the next attempt
+ * is scheduled on the given scheduler so that no thread is parked while retrying.
+ */
+class AsyncRetryLoop<T> implements Runnable, RetrySleeper
+{
+    private final CuratorZookeeperClient            client;
+    private final ScheduledExecutorService          scheduler;
+    private final Callable<ListenableFuture<T>>     proc;
+    private final RetryLoop                         retryLoop;
+    private final SettableFuture<T>                 future = SettableFuture.create();
+
+    // attempts never overlap and each one is handed off via the scheduler or the attempt's future so no further synchronization is needed
+    private long            connectionWaitStartMs = 0;
+    private long            nextDelayMs = 0;
+
+    private static final int        CONNECTION_POLL_MS = 100;
+
+    AsyncRetryLoop(CuratorZookeeperClient client, ScheduledExecutorService scheduler, Callable<ListenableFuture<T>> proc)
+    {
+        this.client = client;
+        this.scheduler = scheduler;
+        this.proc = proc;
+        retryLoop = client.newRetryLoop();
+    }
+
+    ListenableFuture<T> start()
+    {
+        run();
+        return future;
+    }
+
+    @Override
+    public void run()
+    {
+        if ( future.isDone() )
+        {
+            // cancelled by the caller
+            return;
+        }
+
+        try
+        {
+            if ( client.isCircuitBreakerOpen() )
+            {
+                // don't wait for the connection - fail now
+                throw new CuratorConnectionLossException();
+            }
+
+            if ( !client.isConnected() )
+            {
+                long        now = System.currentTimeMillis();
+                if ( connectionWaitStartMs == 0 )
+                {
+                    connectionWaitStartMs = now;
+                }
+                long        remainingMs = client.getConnectionTimeoutMs() - (now - connectionWaitStartMs);
+                if ( remainingMs > 0 )
+                {
+                    schedule(Math.min(CONNECTION_POLL_MS, remainingMs));
+                    return;
+                }
+            }
+            connectionWaitStartMs = 0;
+
+            ListenableFuture<T>     attempt = proc.call();
+            Futures.addCallback(attempt, new FutureCallback<T>()
+            {
+                @Override
+                public void onSuccess(T result)
+                {
+                    retryLoop.markComplete();
+                    future.set(result);
+                }
+
+                @Override
+                public void onFailure(Throwable t)
+                {
+                    takeException(t);
+                }
+            }, MoreExecutors.sameThreadExecutor());
+        }
+        catch ( Exception e )
+        {
+            takeException(e);
+        }
+    }
+
+    @Override
+    public void sleepFor(long time, TimeUnit unit)
+    {
+        nextDelayMs = unit.toMillis(time);
+    }
+
+    private void takeException(Throwable t)
+    {
+        if ( !(t instanceof Exception) )
+        {
+            future.setException(t);
+            return;
+        }
+
+        nextDelayMs = 0;
+        try
+        {
+            retryLoop.takeException((Exception)t, this);
+        }
+        catch ( Exception e )
+        {
+            future.setException(e);
+            return;
+        }
+        schedule(nextDelayMs);
+    }
+
+    private void schedule(long delayMs)
+    {
+        try
+        {
+            scheduler.schedule(this, delayMs, TimeUnit.MILLISECONDS);
+        }
+        catch ( RejectedExecutionException e )
+        {
+            future.setException(e);
+        }
+    }
+}
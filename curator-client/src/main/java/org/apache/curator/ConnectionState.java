@@ -49,7 +49,9 @@ class ConnectionState implements Watcher, Closeable
     private final AtomicReference<TracerDriver> tracer;
     private final Queue<Exception> backgroundExceptions = new ConcurrentLinkedQueue<Exception>();
     private final Queue<Watcher> parentWatchers = new ConcurrentLinkedQueue<Watcher>();
+    private final AtomicReference<Thread> eventThread = new AtomicReference<Thread>();
     private volatile long connectionStartMs = 0;
+    private volatile long disconnectedSinceMs = 0;
 
     ConnectionState(ZookeeperFactory zookeeperFactory, EnsembleProvider ensembleProvider, int sessionTimeoutMs, int connectionTimeoutMs, Watcher parentWatcher, AtomicReference<TracerDriver> tracer, boolean canBeReadOnly)
     {
@@ -94,6 +96,21 @@ class ConnectionState implements Watcher, Closeable
         return isConnected.get();
     }
 
+    boolean isEventThread()
+    {
+        return Thread.currentThread() == eventThread.get();
+    }
+
+    long getDisconnectedTimeMs()
+    {
+        long localDisconnectedSinceMs = disconnectedSinceMs;
+        if ( isConnected.get() || (localDisconnectedSinceMs == 0) )
+        {
+            return 0;
+        }
+        return System.currentTimeMillis() - localDisconnectedSinceMs;
+    }
+
     void start() throws Exception
     {
         log.debug("Starting");
@@ -134,6 +151,9 @@ class ConnectionState implements Watcher, Closeable
     @Override
     public void process(WatchedEvent event)
     {
+        // this is the default watcher so it sees the first event of each new ZooKeeper instance
+        eventThread.set(Thread.currentThread());
+
         if ( LOG_EVENTS )
         {
             log.debug("ConnectState watcher: " + event);
@@ -157,6 +177,7 @@ class ConnectionState implements Watcher, Closeable
         {
             isConnected.set(newIsConnected);
             connectionStartMs = System.currentTimeMillis();
+            disconnectedSinceMs = newIsConnected ? 0 : connectionStartMs;
         }
     }
 
@@ -204,8 +225,12 @@ class ConnectionState implements Watcher, Closeable
     {
         log.debug("reset");
 
-        isConnected.set(false);
+        boolean wasConnected = isConnected.getAndSet(false);
         connectionStartMs = System.currentTimeMillis();
+        if ( wasConnected || (disconnectedSinceMs == 0) )
+        {
+            disconnectedSinceMs = connectionStartMs;
+        }
         zooKeeper.closeAndReset();
         zooKeeper.getZooKeeper();   // initiate connection
     }
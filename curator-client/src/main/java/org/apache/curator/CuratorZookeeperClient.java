@@ -19,6 +19,7 @@
 package org.apache.curator;
 
 import com.google.common.base.Preconditions;
+import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.drivers.TracerDriver;
 import org.apache.curator.ensemble.EnsembleProvider;
 import org.apache.curator.ensemble.fixed.FixedEnsembleProvider;
@@ -49,6 +50,7 @@ public class CuratorZookeeperClient implements Closeable
     private final int                               connectionTimeoutMs;
     private final AtomicBoolean                     started = new AtomicBoolean(false);
     private final AtomicReference<TracerDriver>     tracer = new AtomicReference<TracerDriver>(new DefaultTracerDriver());
+    private volatile int                            circuitBreakerThresholdMs = 0;
 
     /**
      *
@@ -120,7 +122,7 @@ public class CuratorZookeeperClient implements Closeable
      */
     public RetryLoop newRetryLoop()
     {
-        return new RetryLoop(retryPolicy.get(), tracer);
+        return new RetryLoop(retryPolicy.get(), tracer, this);
     }
 
     /**
@@ -145,6 +147,18 @@ public class CuratorZookeeperClient implements Closeable
         return state.isConnected();
     }
 
+    /**
+     * Returns true if the calling thread is ZooKeeper's event thread, i.e. the thread that calls
+     * watchers and background callbacks. Blocking on the result of a background operation in
+     * this thread deadlocks.
+     *
+     * @return true/false
+     */
+    public boolean isEventThread()
+    {
+        return state.isEventThread();
+    }
+
     /**
      * This method blocks until the connection to ZK succeeds. Use with caution. The block
      * will timeout after the connection timeout (as passed to the constructor) has elapsed
@@ -228,6 +242,54 @@ public class CuratorZookeeperClient implements Closeable
         return retryPolicy.get();
     }
 
+    /**
+     * Set the circuit breaker threshold. Once the connection has been down for at least this
+     * long, the circuit breaker opens: retry loops fail immediately with a connection loss instead of
+     * waiting for the connection and consulting the retry policy. The breaker closes as soon as the
+     * connection is re-established. This keeps threads from piling up (and retrying in lock step)
+     * during a long ensemble outage. The default is 0 (disabled).
+     *
+     * @param thresholdMs threshold in milliseconds or 0 to disable
+     */
+    public void     setCircuitBreakerThresholdMs(int thresholdMs)
+    {
+        Preconditions.checkArgument(thresholdMs >= 0, "thresholdMs cannot be negative");
+
+        circuitBreakerThresholdMs = thresholdMs;
+    }
+
+    /**
+     * Return the circuit breaker threshold
+     *
+     * @return threshold in milliseconds or 0 if disabled
+     */
+    public int      getCircuitBreakerThresholdMs()
+    {
+        return circuitBreakerThresholdMs;
+    }
+
+    /**
+     * Return true if the circuit breaker is enabled and the connection has been down for at least
+     * the threshold. See {@link #setCircuitBreakerThresholdMs(int)}
+     *
+     * @return true/false
+     */
+    public boolean  isCircuitBreakerOpen()
+    {
+        int     localThresholdMs = circuitBreakerThresholdMs;
+        return (localThresholdMs > 0) && (state.getDisconnectedTimeMs() >= localThresholdMs);
+    }
+
+    /**
+     * Return how long the connection has been down
+     *
+     * @return time in milliseconds or 0 if connected
+     */
+    public long     getDisconnectedTimeMs()
+    {
+        return state.getDisconnectedTimeMs();
+    }
+
     /**
      * Start a new tracer
      * @param name name of the event
@@ -238,6 +300,18 @@ public class CuratorZookeeperClient implements Closeable
         return new TimeTrace(name, tracer.get());
     }
 
+    /**
+     * Start a new operation tracer. Unlike {@link #startTracer(String)}, the trace
+     * can carry details of the operation (path, bytes, retries, etc.)
+     *
+     * @param name name of the operation
+     * @return the new tracer ({@link OperationTrace#commit()} must be called)
+     */
+    public OperationTrace     startAdvancedTracer(String name)
+    {
+        return new OperationTrace(name, tracer.get());
+    }
+
     /**
      * Return the current tracing driver
      *
@@ -269,6 +343,16 @@ public class CuratorZookeeperClient implements Closeable
         return state.getEnsembleProvider().getConnectionString();
     }
 
+    /**
+     * Return the configured connection timeout
+     *
+     * @return timeout in milliseconds
+     */
+    public int          getConnectionTimeoutMs()
+    {
+        return connectionTimeoutMs;
+    }
+
     void        addParentWatcher(Watcher watcher)
     {
         state.addParentWatcher(watcher);
@@ -18,12 +18,16 @@
  */
 package org.apache.curator;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.drivers.TracerDriver;
 import org.apache.curator.utils.DebugUtils;
+import org.apache.curator.utils.ThreadUtils;
 import org.apache.zookeeper.KeeperException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -37,6 +41,11 @@ import java.util.concurrent.atomic.AtomicReference;
  * the exception
  * </p>
  *
+ * <p>
+ * If the client's circuit breaker is open (see {@link CuratorZookeeperClient#setCircuitBreakerThresholdMs(int)})
+ * retry-able exceptions are re-thrown without consulting the retry policy
+ * </p>
+ *
  * Canonical usage:<br/>
  * <code><pre>
  * RetryLoop retryLoop = client.newRetryLoop();
@@ -65,6 +74,7 @@ public class RetryLoop
     private final long              startTimeMs = System.currentTimeMillis();
     private final RetryPolicy       retryPolicy;
     private final AtomicReference<TracerDriver>     tracer;
+    private final CuratorZookeeperClient            client;
 
     private static final RetrySleeper  sleeper = new RetrySleeper()
     {
@@ -75,6 +85,11 @@ public class RetryLoop
         }
     };
 
+    private static class SharedScheduler
+    {
+        private static final ScheduledExecutorService  instance = ThreadUtils.newSingleThreadScheduledExecutor("RetryLoop");
+    }
+
     /**
      * Returns the default retry sleeper
      *
@@ -95,30 +110,114 @@ public class RetryLoop
      * @throws Exception any non-retriable errors
      */
     public static<T> T      callWithRetry(CuratorZookeeperClient client, Callable<T> proc) throws Exception
+    {
+        return callWithRetry(client, proc, null);
+    }
+
+    /**
+     * Convenience utility: creates a retry loop calling the given proc and retrying if needed.
+     * The number of retries is recorded in the given trace. If the call fails, the trace is committed
+     * with the result code of the failure. On success, committing the trace is left to the caller so
+     * that it can add the details of the result.
+     *
+     * @param client Zookeeper
+     * @param proc procedure to call with retry
+     * @param trace trace to record the retry count in or null
+     * @param <T> return type
+     * @return procedure result
+     * @throws Exception any non-retriable errors
+     */
+    public static<T> T      callWithRetry(CuratorZookeeperClient client, Callable<T> proc, OperationTrace trace) throws Exception
     {
         T               result = null;
         RetryLoop       retryLoop = client.newRetryLoop();
-        while ( retryLoop.shouldContinue() )
+        boolean         success = false;
+        try
         {
-            try
+            while ( retryLoop.shouldContinue() )
             {
-                client.internalBlockUntilConnectedOrTimedOut();
-                
-                result = proc.call();
-                retryLoop.markComplete();
+                try
+                {
+                    if ( client.isCircuitBreakerOpen() )
+                    {
+                        // don't wait for the connection - fail now
+                        throw new CuratorConnectionLossException();
+                    }
+                    client.internalBlockUntilConnectedOrTimedOut();
+
+                    result = proc.call();
+                    retryLoop.markComplete();
+                }
+                catch ( Exception e )
+                {
+                    retryLoop.takeException(e);
+                }
             }
-            catch ( Exception e )
+            success = true;
+        }
+        catch ( Exception e )
+        {
+            if ( trace != null )
+            {
+                trace.setReturnCode(getReturnCode(e));
+            }
+            throw e;
+        }
+        finally
+        {
+            if ( trace != null )
             {
-                retryLoop.takeException(e);
+                trace.setRetryCount(retryLoop.getRetryCount());
+                if ( !success )
+                {
+                    trace.commit();
+                }
             }
         }
         return result;
     }
 
+    /**
+     * Non-blocking version of {@link #callWithRetry(CuratorZookeeperClient, Callable)} for procs that are themselves
+     * asynchronous. Instead of sleeping between attempts (or while waiting for the connection) the next attempt is
+     * scheduled on a timer that is shared by all callers so that many concurrent retrying calls don't each tie up a thread.
+     * The proc is called on the timer's thread for retries and must not block.
+     *
+     * @param client Zookeeper
+     * @param proc procedure that starts an attempt and returns its future
+     * @param <T> return type
+     * @return future for the procedure result or the first non-retriable error
+     */
+    public static<T> ListenableFuture<T>    callWithRetryAsync(CuratorZookeeperClient client, Callable<ListenableFuture<T>> proc)
+    {
+        return callWithRetryAsync(client, SharedScheduler.instance, proc);
+    }
+
+    /**
+     * Non-blocking version of {@link #callWithRetry(CuratorZookeeperClient, Callable)} for procs that are themselves
+     * asynchronous. Retries are scheduled on the given scheduler instead of sleeping.
+     *
+     * @param client Zookeeper
+     * @param scheduler scheduler for retries and connection checks - retried procs are called on its threads
+     * @param proc procedure that starts an attempt and returns its future
+     * @param <T> return type
+     * @return future for the procedure result or the first non-retriable error
+     */
+    public static<T> ListenableFuture<T>    callWithRetryAsync(CuratorZookeeperClient client, ScheduledExecutorService scheduler, Callable<ListenableFuture<T>> proc)
+    {
+        return new AsyncRetryLoop<T>(client, scheduler, proc).start();
+    }
+
     RetryLoop(RetryPolicy retryPolicy, AtomicReference<TracerDriver> tracer)
+    {
+        this(retryPolicy, tracer, null);
+    }
+
+    RetryLoop(RetryPolicy retryPolicy, AtomicReference<TracerDriver> tracer, CuratorZookeeperClient client)
     {
         this.retryPolicy = retryPolicy;
         this.tracer = tracer;
+        this.client = client;
     }
 
     /**
@@ -131,6 +230,16 @@ public class RetryLoop
         return !isDone;
     }
 
+    /**
+     * Return the number of retries so far
+     *
+     * @return retry count
+     */
+    public int      getRetryCount()
+    {
+        return retryCount;
+    }
+
     /**
      * Call this when your operation has successfully completed
      */
@@ -139,6 +248,26 @@ public class RetryLoop
         isDone = true;
     }
 
+    /**
+     * Utility - return the Zookeeper result code that corresponds to the given exception
+     *
+     * @param e exception
+     * @return result code - {@link KeeperException.Code#BADARGUMENTS} for an {@link IllegalArgumentException} and
+     * {@link KeeperException.Code#SYSTEMERROR} for other exceptions that aren't from Zookeeper
+     */
+    public static int getReturnCode(Exception e)
+    {
+        if ( e instanceof KeeperException )
+        {
+            return ((KeeperException)e).code().intValue();
+        }
+        if ( e instanceof IllegalArgumentException )
+        {
+            return KeeperException.Code.BADARGUMENTS.intValue();
+        }
+        return KeeperException.Code.SYSTEMERROR.intValue();
+    }
+
     /**
      * Utility - return true if the given Zookeeper result code is retry-able
      *
@@ -176,6 +305,11 @@ public class RetryLoop
      * @throws Exception if not retry-able or the retry policy returned negative
      */
     public void         takeException(Exception exception) throws Exception
+    {
+        takeException(exception, sleeper);
+    }
+
+    void                takeException(Exception exception, RetrySleeper retrySleeper) throws Exception
     {
         boolean     rethrow = true;
         if ( isRetryException(exception) )
@@ -185,7 +319,15 @@ public class RetryLoop
                 log.debug("Retry-able exception received", exception);
             }
 
-            if ( retryPolicy.allowRetry(retryCount++, System.currentTimeMillis() - startTimeMs, sleeper) )
+            if ( (client != null) && client.isCircuitBreakerOpen() )
+            {
+                tracer.get().addCount("retries-short-circuited", 1);
+                if ( !Boolean.getBoolean(DebugUtils.PROPERTY_DONT_LOG_CONNECTION_ISSUES) )
+                {
+                    log.debug("Circuit breaker is open - not retrying");
+                }
+            }
+            else if ( retryPolicy.allowRetry(retryCount++, System.currentTimeMillis() - startTimeMs, retrySleeper) )
             {
                 tracer.get().addCount("retries-allowed", 1);
                 if ( !Boolean.getBoolean(DebugUtils.PROPERTY_DONT_LOG_CONNECTION_ISSUES) )
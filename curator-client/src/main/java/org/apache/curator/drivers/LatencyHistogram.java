@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.drivers;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Lock-free latency histogram with log-linear buckets (in the style of HdrHistogram). Values
+ * below 32 are counted exactly. Larger values are grouped by their highest bit and then the
+ * next 5 bits so that every bucket is within ~3% of the recorded values.
+ * </p>
+ *
+ * <p>
+ * Recording is wait-free apart from the max value CAS. Reads are not atomic with respect to
+ * concurrent writers - percentiles are computed from a best-effort view of the buckets.
+ * </p>
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    private static final int BUCKET_QTY = SUB_BUCKET_COUNT + ((63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT);
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_QTY);
+    private final AtomicLong count = new AtomicLong(0);
+    private final AtomicLong total = new AtomicLong(0);
+    private final AtomicLong max = new AtomicLong(0);
+
+    /**
+     * Record a value. Negative values are recorded as 0.
+     *
+     * @param value the value
+     */
+    public void record(long value)
+    {
+        if ( value < 0 )
+        {
+            value = 0;
+        }
+
+        buckets.incrementAndGet(indexFor(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+
+        long currentMax = max.get();
+        while ( (value > currentMax) && !max.compareAndSet(currentMax, value) )
+        {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Return the number of recorded values
+     *
+     * @return count
+     */
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    /**
+     * Return the largest recorded value
+     *
+     * @return max
+     */
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /**
+     * Return the mean of the recorded values
+     *
+     * @return mean or 0 if there are no values
+     */
+    public double getMean()
+    {
+        long localCount = count.get();
+        return (localCount > 0) ? ((double)total.get() / localCount) : 0;
+    }
+
+    /**
+     * Return the value at the given percentile. The result is the highest value
+     * that is equivalent to the bucket the percentile falls in, but never more than the
+     * max recorded value.
+     *
+     * @param percentile percentile between 0 and 100
+     * @return value or 0 if there are no values
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+        long localCount = 0;
+        long[] localBuckets = new long[BUCKET_QTY];
+        for ( int i = 0; i < BUCKET_QTY; ++i )
+        {
+            localBuckets[i] = buckets.get(i);
+            localCount += localBuckets[i];
+        }
+        if ( localCount == 0 )
+        {
+            return 0;
+        }
+
+        double boundedPercentile = Math.max(0, Math.min(100, percentile));
+        long target = Math.max(1, (long)Math.ceil((boundedPercentile / 100) * localCount));
+        long cumulative = 0;
+        for ( int i = 0; i < BUCKET_QTY; ++i )
+        {
+            cumulative += localBuckets[i];
+            if ( cumulative >= target )
+            {
+                return Math.min(highestEquivalentValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clear all recorded values
+     */
+    public void reset()
+    {
+        for ( int i = 0; i < BUCKET_QTY; ++i )
+        {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    static int indexFor(long value)
+    {
+        if ( value < SUB_BUCKET_COUNT )
+        {
+            return (int)value;
+        }
+
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int shift = highestBit - SUB_BUCKET_BITS;
+        int subBucket = (int)((value >>> shift) & SUB_BUCKET_MASK);
+        return SUB_BUCKET_COUNT + (shift * SUB_BUCKET_COUNT) + subBucket;
+    }
+
+    static long highestEquivalentValue(int index)
+    {
+        if ( index < SUB_BUCKET_COUNT )
+        {
+            return index;
+        }
+
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        long lowestValue = (1L << (shift + SUB_BUCKET_BITS)) | (subBucket << shift);
+        return lowestValue + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,277 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.drivers;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * A {@link TracerDriver} that keeps latency histograms for each trace name and
+ * a counter for each counter name. Values can be read via {@link #getLatencies()}/{@link #getCounters()}
+ * or through JMX once {@link #registerMBean(ObjectName)} has been called.
+ * </p>
+ *
+ * <p>
+ * In addition to the full trace name, each trace is recorded against its "group" - the
+ * portion of the name before the first '-'. Curator's traces are named <code>[operation]-[mode]</code>
+ * (e.g. <code>GetDataBuilderImpl-Background</code>) so the groups give per-operation latencies
+ * regardless of mode. Recipes can use the same convention (e.g. <code>LeaderLatch-xxx</code>) to get
+ * per-recipe latencies.
+ * </p>
+ *
+ * <p>
+ * For {@link OperationTrace}s the following counters are also maintained: <code>[name]-bytesOut</code>,
+ * <code>[name]-bytesIn</code>, <code>[name]-retries</code>, <code>[name]-compressed</code> and
+ * <code>[name]-errors</code> (non-zero result codes).
+ * </p>
+ *
+ * Usage:<br/>
+ * <code><pre>
+ * MetricsTracerDriver driver = new MetricsTracerDriver();
+ * client.getZookeeperClient().setTracerDriver(driver);
+ * driver.registerMBean(new ObjectName("org.apache.curator:type=MetricsTracerDriver,name=myClient"));
+ * </pre></code>
+ */
+public class MetricsTracerDriver implements AdvancedTracerDriver, MetricsTracerDriverMXBean, Closeable
+{
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final ConcurrentMap<String, LatencyHistogram> histograms = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, LatencyHistogram> groupHistograms = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, StripedCounter> counters = Maps.newConcurrentMap();
+    private final AtomicReference<ObjectName> registeredName = new AtomicReference<ObjectName>();
+
+    @Override
+    public void addTrace(String name, long time, TimeUnit unit)
+    {
+        long nanos = unit.toNanos(time);
+        getHistogram(histograms, name).record(nanos);
+
+        String group = getGroup(name);
+        if ( group != null )
+        {
+            getHistogram(groupHistograms, group).record(nanos);
+        }
+    }
+
+    @Override
+    public void addTrace(OperationTrace trace)
+    {
+        String name = trace.getName();
+        addTrace(name, trace.getElapsedTimeNanos(), TimeUnit.NANOSECONDS);
+
+        if ( trace.getRequestBytesLength() > 0 )
+        {
+            getCounter(name + "-bytesOut").add(trace.getRequestBytesLength());
+        }
+        if ( trace.getResponseBytesLength() > 0 )
+        {
+            getCounter(name + "-bytesIn").add(trace.getResponseBytesLength());
+        }
+        if ( trace.getRetryCount() > 0 )
+        {
+            getCounter(name + "-retries").add(trace.getRetryCount());
+        }
+        if ( trace.isCompressed() )
+        {
+            getCounter(name + "-compressed").add(1);
+        }
+        if ( trace.getReturnCode() != 0 )
+        {
+            getCounter(name + "-errors").add(1);
+        }
+    }
+
+    @Override
+    public void addCount(String name, int increment)
+    {
+        getCounter(name).add(increment);
+    }
+
+    /**
+     * Return a snapshot of the latencies for the given trace name
+     *
+     * @param name trace name
+     * @return snapshot or null if nothing has been recorded for the name
+     */
+    public LatencySnapshot getLatencySnapshot(String name)
+    {
+        LatencyHistogram histogram = histograms.get(name);
+        return (histogram != null) ? makeSnapshot(histogram) : null;
+    }
+
+    /**
+     * Return the current value of the given counter
+     *
+     * @param name counter name
+     * @return value (0 if nothing has been counted for the name)
+     */
+    public long getCount(String name)
+    {
+        StripedCounter counter = counters.get(name);
+        return (counter != null) ? counter.get() : 0;
+    }
+
+    @Override
+    public Map<String, LatencySnapshot> getLatencies()
+    {
+        return makeSnapshots(histograms);
+    }
+
+    @Override
+    public Map<String, LatencySnapshot> getGroupLatencies()
+    {
+        return makeSnapshots(groupHistograms);
+    }
+
+    @Override
+    public Map<String, Long> getCounters()
+    {
+        ImmutableMap.Builder<String, Long> builder = ImmutableMap.builder();
+        for ( Map.Entry<String, StripedCounter> entry : counters.entrySet() )
+        {
+            builder.put(entry.getKey(), entry.getValue().get());
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void reset()
+    {
+        for ( LatencyHistogram histogram : histograms.values() )
+        {
+            histogram.reset();
+        }
+        for ( LatencyHistogram histogram : groupHistograms.values() )
+        {
+            histogram.reset();
+        }
+        for ( StripedCounter counter : counters.values() )
+        {
+            counter.reset();
+        }
+    }
+
+    /**
+     * Register this driver with the platform MBean server
+     *
+     * @param name the JMX name to use
+     * @throws JMException errors registering
+     */
+    public void registerMBean(ObjectName name) throws JMException
+    {
+        if ( !registeredName.compareAndSet(null, name) )
+        {
+            throw new IllegalStateException("Already registered as: " + registeredName.get());
+        }
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+    }
+
+    /**
+     * Unregisters from the platform MBean server if {@link #registerMBean(ObjectName)} was called
+     */
+    @Override
+    public void close()
+    {
+        ObjectName name = registeredName.getAndSet(null);
+        if ( name != null )
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            try
+            {
+                server.unregisterMBean(name);
+            }
+            catch ( JMException e )
+            {
+                log.error("Could not unregister MBean: " + name, e);
+            }
+        }
+    }
+
+    private StripedCounter getCounter(String name)
+    {
+        StripedCounter counter = counters.get(name);
+        if ( counter == null )
+        {
+            StripedCounter newCounter = new StripedCounter();
+            counter = counters.putIfAbsent(name, newCounter);
+            if ( counter == null )
+            {
+                counter = newCounter;
+            }
+        }
+        return counter;
+    }
+
+    private static String getGroup(String name)
+    {
+        int index = name.indexOf('-');
+        return (index > 0) ? name.substring(0, index) : null;
+    }
+
+    private static LatencyHistogram getHistogram(ConcurrentMap<String, LatencyHistogram> map, String name)
+    {
+        LatencyHistogram histogram = map.get(name);
+        if ( histogram == null )
+        {
+            LatencyHistogram newHistogram = new LatencyHistogram();
+            histogram = map.putIfAbsent(name, newHistogram);
+            if ( histogram == null )
+            {
+                histogram = newHistogram;
+            }
+        }
+        return histogram;
+    }
+
+    private static Map<String, LatencySnapshot> makeSnapshots(Map<String, LatencyHistogram> map)
+    {
+        ImmutableMap.Builder<String, LatencySnapshot> builder = ImmutableMap.builder();
+        for ( Map.Entry<String, LatencyHistogram> entry : map.entrySet() )
+        {
+            builder.put(entry.getKey(), makeSnapshot(entry.getValue()));
+        }
+        return builder.build();
+    }
+
+    private static LatencySnapshot makeSnapshot(LatencyHistogram histogram)
+    {
+        return new LatencySnapshot
+        (
+            histogram.getCount(),
+            histogram.getMean() / 1000,
+            TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(50)),
+            TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(90)),
+            TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(99)),
+            TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(99.9)),
+            TimeUnit.NANOSECONDS.toMicros(histogram.getMax())
+        );
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.drivers;
+
+import java.util.Map;
+
+/**
+ * JMX view of a {@link MetricsTracerDriver}
+ */
+public interface MetricsTracerDriverMXBean
+{
+    /**
+     * Return latency percentiles for each trace name
+     *
+     * @return trace name to snapshot
+     */
+    public Map<String, LatencySnapshot> getLatencies();
+
+    /**
+     * Return latency percentiles for each trace group (the portion of the trace name before the first '-')
+     *
+     * @return group name to snapshot
+     */
+    public Map<String, LatencySnapshot> getGroupLatencies();
+
+    /**
+     * Return the value of each counter
+     *
+     * @return counter name to value
+     */
+    public Map<String, Long> getCounters();
+
+    /**
+     * Clear all recorded values
+     */
+    public void reset();
+}
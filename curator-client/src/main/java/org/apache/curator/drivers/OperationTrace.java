@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.drivers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Times a single ZooKeeper operation and records details about it: the path,
+ * the result code, the number of retries, the number of bytes sent and received and
+ * whether the data was compressed.
+ * </p>
+ *
+ * <p>
+ * If the driver is an {@link AdvancedTracerDriver} the whole trace is passed to it. Otherwise
+ * only the name and elapsed time are passed via {@link TracerDriver#addTrace(String, long, TimeUnit)}.
+ * </p>
+ */
+public class OperationTrace
+{
+    private final String name;
+    private final TracerDriver driver;
+    private final long startTimeNanos = System.nanoTime();
+
+    private volatile String path;
+    private volatile int returnCode = 0;
+    private volatile int retryCount = 0;
+    private volatile long requestBytesLength = 0;
+    private volatile long responseBytesLength = 0;
+    private volatile boolean compressed = false;
+    private volatile long elapsedTimeNanos = 0;
+
+    /**
+     * Create and start a timer
+     *
+     * @param name name of the operation
+     * @param driver driver
+     */
+    public OperationTrace(String name, TracerDriver driver)
+    {
+        this.name = name;
+        this.driver = driver;
+    }
+
+    public OperationTrace setPath(String path)
+    {
+        this.path = path;
+        return this;
+    }
+
+    public OperationTrace setReturnCode(int returnCode)
+    {
+        this.returnCode = returnCode;
+        return this;
+    }
+
+    public OperationTrace setRetryCount(int retryCount)
+    {
+        this.retryCount = retryCount;
+        return this;
+    }
+
+    public OperationTrace setRequestBytesLength(long length)
+    {
+        this.requestBytesLength = length;
+        return this;
+    }
+
+    public OperationTrace setRequestBytesLength(byte[] data)
+    {
+        return setRequestBytesLength((data != null) ? data.length : 0);
+    }
+
+    public OperationTrace setResponseBytesLength(long length)
+    {
+        this.responseBytesLength = length;
+        return this;
+    }
+
+    public OperationTrace setResponseBytesLength(byte[] data)
+    {
+        return setResponseBytesLength((data != null) ? data.length : 0);
+    }
+
+    public OperationTrace setCompressed(boolean compressed)
+    {
+        this.compressed = compressed;
+        return this;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public String getPath()
+    {
+        return path;
+    }
+
+    public int getReturnCode()
+    {
+        return returnCode;
+    }
+
+    public int getRetryCount()
+    {
+        return retryCount;
+    }
+
+    public long getRequestBytesLength()
+    {
+        return requestBytesLength;
+    }
+
+    public long getResponseBytesLength()
+    {
+        return responseBytesLength;
+    }
+
+    public boolean isCompressed()
+    {
+        return compressed;
+    }
+
+    /**
+     * Return the time between creating the trace and calling {@link #commit()}
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedTimeNanos()
+    {
+        return elapsedTimeNanos;
+    }
+
+    /**
+     * Record the elapsed time and send the trace to the driver
+     */
+    public void commit()
+    {
+        elapsedTimeNanos = System.nanoTime() - startTimeNanos;
+        if ( driver instanceof AdvancedTracerDriver )
+        {
+            ((AdvancedTracerDriver)driver).addTrace(this);
+        }
+        else
+        {
+            driver.addTrace(name, elapsedTimeNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
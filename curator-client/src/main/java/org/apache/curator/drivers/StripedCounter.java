@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.drivers;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that spreads increments over several padded cells to reduce
+ * contention between threads
+ */
+class StripedCounter
+{
+    private static final int STRIPES = 16;     // must be a power of 2
+    private static final int PADDING = 8;      // 8 longs == one 64 byte cache line
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    void add(long increment)
+    {
+        int stripe = (int)(Thread.currentThread().getId() & (STRIPES - 1));
+        cells.addAndGet(stripe * PADDING, increment);
+    }
+
+    long get()
+    {
+        long sum = 0;
+        for ( int i = 0; i < STRIPES; ++i )
+        {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    void reset()
+    {
+        for ( int i = 0; i < STRIPES; ++i )
+        {
+            cells.set(i * PADDING, 0);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.retry;
+
+import com.google.common.base.Preconditions;
+import org.apache.curator.RetryPolicy;
+import org.apache.curator.RetrySleeper;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Retry policy that wraps another policy so that each retry also needs a token from a
+ * {@link RetryBudget}. The wrapped policy decides first, so retries that it refuses don't use
+ * up the budget. Its sleep only happens once a token has been taken: when the budget is used up,
+ * the retry is refused without sleeping.
+ * </p>
+ *
+ * Usage:<br/>
+ * <code><pre>
+ * RetryBudget budget = new RetryBudget(100, 10);  // bursts of 100 retries, 10 per second after that
+ * RetryPolicy policy = new BudgetedRetry(new DecorrelatedJitterRetry(100, 10000, 10), budget);
+ * </pre></code>
+ */
+public class BudgetedRetry implements RetryPolicy
+{
+    private final RetryPolicy retryPolicy;
+    private final RetryBudget budget;
+
+    /**
+     * @param retryPolicy the policy that decides whether to retry and how long to sleep
+     * @param budget the budget - can be shared with other policies
+     */
+    public BudgetedRetry(RetryPolicy retryPolicy, RetryBudget budget)
+    {
+        this.retryPolicy = Preconditions.checkNotNull(retryPolicy, "retryPolicy cannot be null");
+        this.budget = Preconditions.checkNotNull(budget, "budget cannot be null");
+    }
+
+    @Override
+    public boolean allowRetry(int retryCount, long elapsedTimeMs, RetrySleeper sleeper)
+    {
+        DeferredSleeper     deferredSleeper = new DeferredSleeper();
+        if ( !retryPolicy.allowRetry(retryCount, elapsedTimeMs, deferredSleeper) || !budget.tryAcquire() )
+        {
+            return false;
+        }
+
+        try
+        {
+            sleeper.sleepFor(deferredSleeper.sleepNanos, TimeUnit.NANOSECONDS);
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    public RetryPolicy getRetryPolicy()
+    {
+        return retryPolicy;
+    }
+
+    public RetryBudget getBudget()
+    {
+        return budget;
+    }
+
+    private static class DeferredSleeper implements RetrySleeper
+    {
+        private long sleepNanos = 0;
+
+        @Override
+        public void sleepFor(long time, TimeUnit unit)
+        {
+            sleepNanos += unit.toNanos(time);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.retry;
+
+import com.google.common.base.Preconditions;
+import java.util.Random;
+
+/**
+ * <p>
+ * Retry policy that retries a set number of times using "decorrelated jitter": each sleep is a random
+ * time between the base sleep time and three times the previous sleep, bounded by a maximum. Unlike
+ * {@link ExponentialBackoffRetry}, whose sleeps double for every client at the same pace, clients that
+ * failed at the same moment spread out quickly and don't return to the ensemble in waves.
+ * </p>
+ *
+ * <p>
+ * A retry policy is shared by all operations and only sees the retry count, not the previous sleep.
+ * Instead, each call runs the recurrence from the base sleep time up to the retry count. Each sleep
+ * therefore has the same distribution that it would have in the stateful algorithm.
+ * </p>
+ */
+public class DecorrelatedJitterRetry extends SleepingRetry
+{
+    // the bounded recurrence settles long before this
+    private static final int    MAX_ITERATIONS = 64;
+
+    private final Random random = new Random();
+    private final int baseSleepTimeMs;
+    private final int maxSleepTimeMs;
+
+    /**
+     * @param baseSleepTimeMs minimum amount of time to wait between retries
+     * @param maxSleepTimeMs maximum amount of time to wait between retries
+     * @param maxRetries maximum number of times to retry
+     */
+    public DecorrelatedJitterRetry(int baseSleepTimeMs, int maxSleepTimeMs, int maxRetries)
+    {
+        super(maxRetries);
+        Preconditions.checkArgument(baseSleepTimeMs > 0, "baseSleepTimeMs must be greater than 0");
+        Preconditions.checkArgument(maxSleepTimeMs >= baseSleepTimeMs, "maxSleepTimeMs cannot be less than baseSleepTimeMs");
+        this.baseSleepTimeMs = baseSleepTimeMs;
+        this.maxSleepTimeMs = maxSleepTimeMs;
+    }
+
+    public int getBaseSleepTimeMs()
+    {
+        return baseSleepTimeMs;
+    }
+
+    public int getMaxSleepTimeMs()
+    {
+        return maxSleepTimeMs;
+    }
+
+    @Override
+    protected int getSleepTimeMs(int retryCount, long elapsedTimeMs)
+    {
+        long    sleepMs = baseSleepTimeMs;
+        int     iterations = Math.min(retryCount, MAX_ITERATIONS);
+        for ( int i = 0; i <= iterations; ++i )
+        {
+            long    upperMs = Math.min(maxSleepTimeMs, sleepMs * 3);
+            sleepMs = baseSleepTimeMs + (long)(random.nextDouble() * (upperMs - baseSleepTimeMs + 1));
+            sleepMs = Math.min(sleepMs, upperMs);
+        }
+        return (int)sleepMs;
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.retry;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * A token bucket that limits how many retries can be made. Each retry takes a token. Tokens are
+ * added back at a fixed rate, up to a maximum. Share one budget between the retry policies of a client
+ * (or of all the clients in a process) via {@link BudgetedRetry}.
+ * </p>
+ *
+ * <p>
+ * Retry policies are per-operation: during an ensemble outage every thread retries on its own
+ * schedule and they all hit the ensemble when it returns. With a budget, once the tokens are used up
+ * operations fail instead of retrying, so the total retry rate stays bounded no matter how many
+ * threads are waiting.
+ * </p>
+ */
+public class RetryBudget
+{
+    private final int maxTokens;
+    private final double tokensPerNano;
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param maxTokens the maximum (and initial) number of tokens - i.e. the largest burst of retries allowed
+     * @param tokensPerSecond the rate at which tokens are added back
+     */
+    public RetryBudget(int maxTokens, double tokensPerSecond)
+    {
+        Preconditions.checkArgument(maxTokens > 0, "maxTokens must be greater than 0");
+        Preconditions.checkArgument(tokensPerSecond >= 0, "tokensPerSecond cannot be negative");
+        this.maxTokens = maxTokens;
+        this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        tokens = maxTokens;
+        lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Take a token if one is available
+     *
+     * @return true if a token was taken and the retry can go ahead
+     */
+    public synchronized boolean tryAcquire()
+    {
+        refill();
+        if ( tokens >= 1 )
+        {
+            tokens -= 1;
+            return true;
+        }
+        rejectedCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Return the number of whole tokens currently available
+     *
+     * @return tokens
+     */
+    public synchronized int getAvailableTokens()
+    {
+        refill();
+        return (int)tokens;
+    }
+
+    /**
+     * Return the number of times a token was not available
+     *
+     * @return count
+     */
+    public long getRejectedCount()
+    {
+        return rejectedCount.get();
+    }
+
+    public int getMaxTokens()
+    {
+        return maxTokens;
+    }
+
+    private void refill()
+    {
+        long        now = System.nanoTime();
+        long        elapsedNanos = now - lastRefillNanos;
+        if ( elapsedNanos > 0 )
+        {
+            tokens = Math.min(maxTokens, tokens + (elapsedNanos * tokensPerNano));
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -63,10 +63,15 @@ public class PathUtils {
 
         String reason = null;
         char lastc = '/';
-        char chars[] = path.toCharArray();
+        int length = path.length();
         char c;
-        for (int i = 1; i < chars.length; lastc = chars[i], i++) {
-            c = chars[i];
+        for (int i = 1; i < length; lastc = c, i++) {
+            c = path.charAt(i);
+
+            if (c > '/' && c < '\u007f') {
+                // fast path - digits, letters and most punctuation are always valid
+                continue;
+            }
 
             if (c == 0) {
                 reason = "null character not allowed @" + i;
@@ -75,16 +80,16 @@ public class PathUtils {
                 reason = "empty node name specified @" + i;
                 break;
             } else if (c == '.' && lastc == '.') {
-                if (chars[i-2] == '/' &&
-                        ((i + 1 == chars.length)
-                                || chars[i+1] == '/')) {
+                if (path.charAt(i-2) == '/' &&
+                        ((i + 1 == length)
+                                || path.charAt(i+1) == '/')) {
                     reason = "relative paths not allowed @" + i;
                     break;
                 }
             } else if (c == '.') {
-                if (chars[i-1] == '/' &&
-                        ((i + 1 == chars.length)
-                                || chars[i+1] == '/')) {
+                if (path.charAt(i-1) == '/' &&
+                        ((i + 1 == length)
+                                || path.charAt(i+1) == '/')) {
                     reason = "relative paths not allowed @" + i;
                     break;
                 }
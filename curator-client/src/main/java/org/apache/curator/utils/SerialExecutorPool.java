@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.utils;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>
+ * A small pool of threads shared by any number of {@link SerialExecutorService}s. Each serial
+ * executor keeps its own task order while the number of threads stays fixed, so components that
+ * each need a single thread executor (e.g. caches) cost O(pool size) threads instead of one each.
+ * </p>
+ *
+ * <p>
+ * {@link #getDefault()} returns a JVM wide pool of daemon threads sized to the number of processors.
+ * </p>
+ */
+public class SerialExecutorPool implements Closeable
+{
+    private final ExecutorService executorService;
+
+    private static class DefaultHolder
+    {
+        private static final SerialExecutorPool instance = new SerialExecutorPool(Math.max(2, Runtime.getRuntime().availableProcessors()), ThreadUtils.newThreadFactory("CuratorSerialExecutor"));
+    }
+
+    /**
+     * Return the shared default pool. It must not be closed.
+     *
+     * @return pool
+     */
+    public static SerialExecutorPool getDefault()
+    {
+        return DefaultHolder.instance;
+    }
+
+    /**
+     * @param threadQty number of threads in the pool
+     * @param threadFactory factory for the pool's threads
+     */
+    public SerialExecutorPool(int threadQty, ThreadFactory threadFactory)
+    {
+        this(Executors.newFixedThreadPool(threadQty, threadFactory));
+    }
+
+    /**
+     * @param executorService the executor to multiplex onto. It is shut down when the pool is closed.
+     */
+    public SerialExecutorPool(ExecutorService executorService)
+    {
+        this.executorService = Preconditions.checkNotNull(executorService, "executorService cannot be null");
+    }
+
+    /**
+     * Allocate a new serial executor. Shutting it down does not affect the pool or other serial executors.
+     *
+     * @return new executor
+     */
+    public SerialExecutorService newSerialExecutor()
+    {
+        return new SerialExecutorService(executorService);
+    }
+
+    /**
+     * Shuts down the underlying executor. Any serial executors allocated from this pool can no longer run tasks.
+     */
+    @Override
+    public void close()
+    {
+        Preconditions.checkState(this != getDefault(), "The default pool cannot be closed");
+        executorService.shutdownNow();
+    }
+}
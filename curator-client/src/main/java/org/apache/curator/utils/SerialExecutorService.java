@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.utils;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ * An ExecutorService that behaves like a single thread executor - tasks are run one at a time in
+ * submission order - but that doesn't own a thread. Tasks are queued locally and drained on a shared
+ * executor so that many serial executors can be multiplexed onto a small pool.
+ * Instances are usually allocated from a {@link SerialExecutorPool}.
+ * </p>
+ *
+ * <p>
+ * At most {@link #MAX_TASKS_PER_TURN} tasks are run before the thread is given back to the
+ * shared executor, so a busy instance doesn't starve the others. However, a task that blocks holds on
+ * to one of the shared threads for as long as it blocks.
+ * </p>
+ *
+ * <p>
+ * As the running thread is shared, {@link #shutdownNow()} does not interrupt a running task. Use
+ * {@link java.util.concurrent.Future#cancel(boolean)} (e.g. via {@link CloseableExecutorService}) for that.
+ * </p>
+ */
+public class SerialExecutorService extends AbstractExecutorService
+{
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final Executor executor;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+    private final AtomicBoolean isScheduled = new AtomicBoolean(false);
+    private final CountDownLatch terminatedLatch = new CountDownLatch(1);
+    private volatile boolean isShutdown = false;
+    private final Runnable drainer = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            drain();
+        }
+    };
+
+    /**
+     * Max number of tasks run in a row before yielding the shared thread
+     */
+    public static final int MAX_TASKS_PER_TURN = 100;
+
+    /**
+     * @param executor the shared executor to run tasks on
+     */
+    public SerialExecutorService(Executor executor)
+    {
+        this.executor = Preconditions.checkNotNull(executor, "executor cannot be null");
+    }
+
+    @Override
+    public void execute(Runnable command)
+    {
+        Preconditions.checkNotNull(command, "command cannot be null");
+        if ( isShutdown )
+        {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        tasks.add(command);
+        schedule();
+    }
+
+    @Override
+    public void shutdown()
+    {
+        isShutdown = true;
+        checkTerminated();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow()
+    {
+        isShutdown = true;
+        List<Runnable> pending = Lists.newArrayList();
+        Runnable task;
+        while ( (task = tasks.poll()) != null )
+        {
+            pending.add(task);
+        }
+        checkTerminated();
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown()
+    {
+        return isShutdown;
+    }
+
+    @Override
+    public boolean isTerminated()
+    {
+        return terminatedLatch.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        return terminatedLatch.await(timeout, unit);
+    }
+
+    private void schedule()
+    {
+        if ( isScheduled.compareAndSet(false, true) )
+        {
+            try
+            {
+                executor.execute(drainer);
+            }
+            catch ( RejectedExecutionException e )
+            {
+                isScheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void drain()
+    {
+        try
+        {
+            for ( int i = 0; i < MAX_TASKS_PER_TURN; ++i )
+            {
+                Runnable task = tasks.poll();
+                if ( task == null )
+                {
+                    break;
+                }
+
+                // a task cancelled via Future.cancel(true) may have left the shared thread interrupted
+                Thread.interrupted();
+                try
+                {
+                    task.run();
+                }
+                catch ( RuntimeException e )
+                {
+                    log.error("Task threw an exception", e);
+                }
+            }
+        }
+        finally
+        {
+            isScheduled.set(false);
+
+            // tasks may have been added after the last poll by threads that saw isScheduled as true
+            if ( !tasks.isEmpty() )
+            {
+                try
+                {
+                    schedule();
+                }
+                catch ( RejectedExecutionException e )
+                {
+                    log.error("Shared executor rejected the remaining tasks", e);
+                }
+            }
+            checkTerminated();
+        }
+    }
+
+    private void checkTerminated()
+    {
+        if ( isShutdown && !isScheduled.get() && tasks.isEmpty() )
+        {
+            terminatedLatch.countDown();
+        }
+    }
+}
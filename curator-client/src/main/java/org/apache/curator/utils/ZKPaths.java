@@ -234,31 +234,26 @@ public class ZKPaths
      */
     public static String makePath(String parent, String child)
     {
-        StringBuilder path = new StringBuilder();
-
-        if ( !parent.startsWith("/") )
-        {
-            path.append("/");
-        }
-        path.append(parent);
+        int         parentLength = parent.length();
+        boolean     parentHasLeadingSlash = (parentLength > 0) && (parent.charAt(0) == '/');
         if ( (child == null) || (child.length() == 0) )
         {
-            return path.toString();
+            return parentHasLeadingSlash ? parent : ("/" + parent);
         }
 
-        if ( !parent.endsWith("/") )
+        // size the builder exactly so that there's no re-allocation
+        int         childStart = (child.charAt(0) == '/') ? 1 : 0;
+        StringBuilder path = new StringBuilder(parentLength + child.length() + 2);
+        if ( !parentHasLeadingSlash )
         {
-            path.append("/");
+            path.append('/');
         }
-
-        if ( child.startsWith("/") )
-        {
-            path.append(child.substring(1));
-        }
-        else
+        path.append(parent);
+        if ( (parentLength == 0) || (parent.charAt(parentLength - 1) != '/') )
         {
-            path.append(child);
+            path.append('/');
         }
+        path.append(child, childStart, child.length());
 
         return path.toString();
     }
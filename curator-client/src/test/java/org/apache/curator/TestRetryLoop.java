@@ -18,15 +18,26 @@
  */
 package org.apache.curator;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.curator.retry.BudgetedRetry;
+import org.apache.curator.retry.DecorrelatedJitterRetry;
 import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.retry.RetryBudget;
+import org.apache.curator.retry.RetryNTimes;
 import org.apache.curator.retry.RetryOneTime;
 import org.apache.curator.test.TestingServer;
+import org.apache.curator.test.Timing;
 import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.ZooDefs;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TestRetryLoop extends BaseClassForTests
 {
@@ -48,6 +59,224 @@ public class TestRetryLoop extends BaseClassForTests
         }
     }
 
+    @Test
+    public void     testDecorrelatedJitterRetry()
+    {
+        final AtomicInteger             minSleepMs = new AtomicInteger(Integer.MAX_VALUE);
+        final AtomicInteger             maxSleepMs = new AtomicInteger(0);
+        RetrySleeper                    sleeper = new RetrySleeper()
+        {
+            @Override
+            public void sleepFor(long time, TimeUnit unit) throws InterruptedException
+            {
+                int     sleepMs = (int)unit.toMillis(time);
+                minSleepMs.set(Math.min(minSleepMs.get(), sleepMs));
+                maxSleepMs.set(Math.max(maxSleepMs.get(), sleepMs));
+            }
+        };
+
+        DecorrelatedJitterRetry         retry = new DecorrelatedJitterRetry(10, 1000, 1000);
+        for ( int i = 0; i < 1000; ++i )
+        {
+            Assert.assertTrue(retry.allowRetry(i, 0, sleeper));
+        }
+        Assert.assertFalse(retry.allowRetry(1000, 0, sleeper));
+        Assert.assertTrue(minSleepMs.get() >= 10);
+        Assert.assertTrue(maxSleepMs.get() <= 1000);
+        Assert.assertTrue(maxSleepMs.get() > minSleepMs.get());
+    }
+
+    @Test
+    public void     testRetryBudget() throws Exception
+    {
+        RetrySleeper                    sleeper = new RetrySleeper()
+        {
+            @Override
+            public void sleepFor(long time, TimeUnit unit) throws InterruptedException
+            {
+            }
+        };
+
+        // two policies sharing a budget that never refills
+        RetryBudget                     budget = new RetryBudget(3, 0);
+        RetryPolicy                     retry1 = new BudgetedRetry(new RetryNTimes(100, 0), budget);
+        RetryPolicy                     retry2 = new BudgetedRetry(new RetryNTimes(100, 0), budget);
+        Assert.assertTrue(retry1.allowRetry(0, 0, sleeper));
+        Assert.assertTrue(retry2.allowRetry(0, 0, sleeper));
+        Assert.assertTrue(retry1.allowRetry(1, 0, sleeper));
+        Assert.assertFalse(retry2.allowRetry(1, 0, sleeper));
+        Assert.assertFalse(retry1.allowRetry(2, 0, sleeper));
+        Assert.assertEquals(budget.getAvailableTokens(), 0);
+        Assert.assertEquals(budget.getRejectedCount(), 2);
+
+        // the wrapped policy still applies, and its refusals don't use up the budget
+        budget = new RetryBudget(1, 0);
+        Assert.assertFalse(new BudgetedRetry(new RetryNTimes(1, 0), budget).allowRetry(1, 0, sleeper));
+        Assert.assertEquals(budget.getAvailableTokens(), 1);
+        Assert.assertEquals(budget.getRejectedCount(), 0);
+
+        // the wrapped policy's sleep only happens if the budget allows the retry
+        final AtomicInteger             sleepMs = new AtomicInteger();
+        RetrySleeper                    countingSleeper = new RetrySleeper()
+        {
+            @Override
+            public void sleepFor(long time, TimeUnit unit) throws InterruptedException
+            {
+                sleepMs.addAndGet((int)unit.toMillis(time));
+            }
+        };
+        RetryPolicy                     retry = new BudgetedRetry(new RetryNTimes(100, 10), budget);
+        Assert.assertTrue(retry.allowRetry(0, 0, countingSleeper));
+        Assert.assertEquals(sleepMs.get(), 10);
+        Assert.assertFalse(retry.allowRetry(1, 0, countingSleeper));
+        Assert.assertEquals(sleepMs.get(), 10);
+
+        budget = new RetryBudget(1, 20);
+        Assert.assertTrue(budget.tryAcquire());
+        Assert.assertFalse(budget.tryAcquire());
+        Thread.sleep(200);
+        Assert.assertTrue(budget.tryAcquire());
+    }
+
+    @Test
+    public void     testCallWithRetryAsync() throws Exception
+    {
+        Timing                  timing = new Timing();
+
+        CuratorZookeeperClient client = new CuratorZookeeperClient(server.getConnectString(), timing.session(), timing.connection(), null, new RetryNTimes(2, 10));
+        client.start();
+        try
+        {
+            final String            callerThread = Thread.currentThread().getName();
+            final AtomicInteger     callCount = new AtomicInteger();
+            final AtomicInteger     callsOnCallerThread = new AtomicInteger();
+            ListenableFuture<String> future = RetryLoop.callWithRetryAsync(client, new Callable<ListenableFuture<String>>()
+            {
+                @Override
+                public ListenableFuture<String> call() throws Exception
+                {
+                    if ( Thread.currentThread().getName().equals(callerThread) )
+                    {
+                        callsOnCallerThread.incrementAndGet();
+                    }
+                    if ( callCount.incrementAndGet() < 3 )
+                    {
+                        return Futures.immediateFailedFuture(new KeeperException.ConnectionLossException());
+                    }
+                    return Futures.immediateFuture("done");
+                }
+            });
+            Assert.assertEquals(future.get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS), "done");
+            Assert.assertEquals(callCount.get(), 3);
+            Assert.assertTrue(callsOnCallerThread.get() <= 1);  // retries happen on the scheduler
+
+            callCount.set(0);
+            future = RetryLoop.callWithRetryAsync(client, new Callable<ListenableFuture<String>>()
+            {
+                @Override
+                public ListenableFuture<String> call() throws Exception
+                {
+                    callCount.incrementAndGet();
+                    return Futures.immediateFailedFuture(new KeeperException.ConnectionLossException());
+                }
+            });
+            try
+            {
+                future.get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS);
+                Assert.fail();
+            }
+            catch ( ExecutionException e )
+            {
+                Assert.assertTrue(e.getCause() instanceof KeeperException.ConnectionLossException);
+            }
+            Assert.assertEquals(callCount.get(), 3);
+
+            callCount.set(0);
+            future = RetryLoop.callWithRetryAsync(client, new Callable<ListenableFuture<String>>()
+            {
+                @Override
+                public ListenableFuture<String> call() throws Exception
+                {
+                    callCount.incrementAndGet();
+                    throw new KeeperException.NoNodeException();
+                }
+            });
+            try
+            {
+                future.get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS);
+                Assert.fail();
+            }
+            catch ( ExecutionException e )
+            {
+                Assert.assertTrue(e.getCause() instanceof KeeperException.NoNodeException);
+            }
+            Assert.assertEquals(callCount.get(), 1);
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
+    @Test
+    public void     testCircuitBreaker() throws Exception
+    {
+        Timing                  timing = new Timing();
+        int                     serverPort = server.getPort();
+        File                    tempDirectory = server.getTempDirectory();
+
+        final CuratorZookeeperClient client = new CuratorZookeeperClient(server.getConnectString(), timing.session(), timing.connection(), null, new RetryNTimes(100, 100));
+        client.setCircuitBreakerThresholdMs(1000);
+        client.start();
+        try
+        {
+            Assert.assertTrue(client.blockUntilConnectedOrTimedOut());
+            Assert.assertFalse(client.isCircuitBreakerOpen());
+
+            server.stop();
+            long        startMs = System.currentTimeMillis();
+            while ( !client.isCircuitBreakerOpen() )
+            {
+                Assert.assertTrue((System.currentTimeMillis() - startMs) < timing.forWaiting().milliseconds());
+                Thread.sleep(100);
+            }
+            Assert.assertTrue(client.getDisconnectedTimeMs() >= 1000);
+
+            final AtomicInteger     callCount = new AtomicInteger();
+            Callable<Object>        proc = new Callable<Object>()
+            {
+                @Override
+                public Object call() throws Exception
+                {
+                    callCount.incrementAndGet();
+                    return client.getZooKeeper().exists("/", false);
+                }
+            };
+            startMs = System.currentTimeMillis();
+            try
+            {
+                RetryLoop.callWithRetry(client, proc);
+                Assert.fail();
+            }
+            catch ( KeeperException.ConnectionLossException e )
+            {
+                // expected
+            }
+            // failed without waiting for the connection or retrying
+            Assert.assertTrue((System.currentTimeMillis() - startMs) < timing.connection());
+            Assert.assertEquals(callCount.get(), 0);
+
+            server = new TestingServer(serverPort, tempDirectory);
+            Assert.assertTrue(client.blockUntilConnectedOrTimedOut());
+            Assert.assertFalse(client.isCircuitBreakerOpen());
+            Assert.assertNotNull(RetryLoop.callWithRetry(client, proc));
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
     @Test
     public void     testRetryLoopWithFailure() throws Exception
     {
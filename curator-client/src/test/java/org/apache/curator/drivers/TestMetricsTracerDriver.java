@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.drivers;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class TestMetricsTracerDriver
+{
+    @Test
+    public void testHistogramBuckets()
+    {
+        Random random = new Random();
+        for ( int i = 0; i < 10000; ++i )
+        {
+            long value = Math.abs(random.nextLong());
+            int index = LatencyHistogram.indexFor(value);
+            Assert.assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+            if ( index > 0 )
+            {
+                Assert.assertTrue(LatencyHistogram.highestEquivalentValue(index - 1) < value);
+            }
+        }
+        Assert.assertEquals(LatencyHistogram.indexFor(Long.MAX_VALUE), LatencyHistogram.indexFor(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    public void testPercentiles()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( int i = 1; i <= 1000; ++i )
+        {
+            histogram.record(i * 1000);
+        }
+
+        Assert.assertEquals(histogram.getCount(), 1000);
+        Assert.assertEquals(histogram.getMax(), 1000000);
+        assertWithinPercent(histogram.getValueAtPercentile(50), 500000);
+        assertWithinPercent(histogram.getValueAtPercentile(99), 990000);
+        Assert.assertEquals(histogram.getValueAtPercentile(100), 1000000);
+
+        histogram.reset();
+        Assert.assertEquals(histogram.getCount(), 0);
+        Assert.assertEquals(histogram.getValueAtPercentile(99), 0);
+    }
+
+    @Test
+    public void testDriver() throws Exception
+    {
+        MetricsTracerDriver driver = new MetricsTracerDriver();
+        for ( int i = 0; i < 100; ++i )
+        {
+            driver.addTrace("GetDataBuilderImpl-Foreground", 2, TimeUnit.MILLISECONDS);
+            driver.addTrace("GetDataBuilderImpl-Background", 4, TimeUnit.MILLISECONDS);
+            driver.addCount("retries-allowed", 1);
+        }
+
+        Assert.assertEquals(driver.getLatencySnapshot("GetDataBuilderImpl-Foreground").getCount(), 100);
+        assertWithinPercent(driver.getLatencySnapshot("GetDataBuilderImpl-Foreground").getP99Micros(), 2000);
+        Assert.assertNull(driver.getLatencySnapshot("foo"));
+        Assert.assertEquals(driver.getGroupLatencies().get("GetDataBuilderImpl").getCount(), 200);
+        Assert.assertEquals(driver.getCount("retries-allowed"), 100);
+        Assert.assertEquals(driver.getCounters().get("retries-allowed").longValue(), 100);
+
+        ObjectName name = new ObjectName("org.apache.curator:type=MetricsTracerDriver,name=test");
+        driver.registerMBean(name);
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            TabularData latencies = (TabularData)server.getAttribute(name, "Latencies");
+            Assert.assertEquals(latencies.size(), 2);
+            TabularData counters = (TabularData)server.getAttribute(name, "Counters");
+            Assert.assertEquals(counters.size(), 1);
+        }
+        finally
+        {
+            driver.close();
+        }
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    public void testOperationTrace() throws Exception
+    {
+        MetricsTracerDriver driver = new MetricsTracerDriver();
+        try
+        {
+            new OperationTrace("SetDataBuilderImpl-Foreground", driver).setPath("/a").setRequestBytesLength(new byte[10]).setRetryCount(2).setCompressed(true).commit();
+            new OperationTrace("SetDataBuilderImpl-Foreground", driver).setPath("/a").setRequestBytesLength(new byte[5]).commit();
+            new OperationTrace("GetDataBuilderImpl-Background", driver).setPath("/a").setReturnCode(-101).setResponseBytesLength((byte[])null).commit();
+
+            Assert.assertEquals(driver.getLatencySnapshot("SetDataBuilderImpl-Foreground").getCount(), 2);
+            Assert.assertEquals(driver.getCount("SetDataBuilderImpl-Foreground-bytesOut"), 15);
+            Assert.assertEquals(driver.getCount("SetDataBuilderImpl-Foreground-retries"), 2);
+            Assert.assertEquals(driver.getCount("SetDataBuilderImpl-Foreground-compressed"), 1);
+            Assert.assertEquals(driver.getCount("GetDataBuilderImpl-Background-bytesIn"), 0);
+            Assert.assertEquals(driver.getCount("GetDataBuilderImpl-Background-errors"), 1);
+        }
+        finally
+        {
+            driver.close();
+        }
+    }
+
+    private static void assertWithinPercent(long actual, long expected)
+    {
+        Assert.assertTrue(Math.abs(actual - expected) <= (expected * 0.035), actual + " vs " + expected);
+    }
+}
@@ -0,0 +1,198 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.utils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestSerialExecutorService
+{
+    private static final int THREAD_QTY = 3;
+
+    private volatile SerialExecutorPool pool;
+
+    @BeforeMethod
+    public void setup()
+    {
+        pool = new SerialExecutorPool(THREAD_QTY, ThreadUtils.newThreadFactory("TestSerialExecutorService"));
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        pool.close();
+    }
+
+    @Test
+    public void testOrderingAndSharing() throws Exception
+    {
+        final int EXECUTOR_QTY = 50;
+        final int TASK_QTY = 500;
+
+        final Set<Thread> threads = Collections.synchronizedSet(Sets.<Thread>newHashSet());
+        final AtomicInteger outOfOrder = new AtomicInteger();
+        final AtomicInteger overlapping = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(EXECUTOR_QTY * TASK_QTY);
+        List<SerialExecutorService> executors = Lists.newArrayList();
+        for ( int i = 0; i < EXECUTOR_QTY; ++i )
+        {
+            executors.add(pool.newSerialExecutor());
+        }
+
+        for ( SerialExecutorService executor : executors )
+        {
+            final AtomicInteger next = new AtomicInteger();
+            final AtomicInteger running = new AtomicInteger();
+            for ( int i = 0; i < TASK_QTY; ++i )
+            {
+                final int index = i;
+                executor.execute(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        if ( running.incrementAndGet() != 1 )
+                        {
+                            overlapping.incrementAndGet();
+                        }
+                        threads.add(Thread.currentThread());
+                        if ( next.getAndIncrement() != index )
+                        {
+                            outOfOrder.incrementAndGet();
+                        }
+                        running.decrementAndGet();
+                        latch.countDown();
+                    }
+                });
+            }
+        }
+
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(outOfOrder.get(), 0);
+        Assert.assertEquals(overlapping.get(), 0);
+        Assert.assertTrue(threads.size() <= THREAD_QTY);
+    }
+
+    @Test
+    public void testBlockedExecutorDoesNotBlockOthers() throws Exception
+    {
+        SerialExecutorService blocked = pool.newSerialExecutor();
+        SerialExecutorService other = pool.newSerialExecutor();
+
+        final CountDownLatch blockLatch = new CountDownLatch(1);
+        final CountDownLatch otherLatch = new CountDownLatch(1);
+        blocked.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    blockLatch.await();
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        other.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                otherLatch.countDown();
+            }
+        });
+        Assert.assertTrue(otherLatch.await(10, TimeUnit.SECONDS));
+        blockLatch.countDown();
+    }
+
+    @Test
+    public void testShutdown() throws Exception
+    {
+        SerialExecutorService executor = pool.newSerialExecutor();
+        SerialExecutorService other = pool.newSerialExecutor();
+
+        final CountDownLatch startedLatch = new CountDownLatch(1);
+        final CountDownLatch blockLatch = new CountDownLatch(1);
+        executor.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                startedLatch.countDown();
+                try
+                {
+                    blockLatch.await();
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        final AtomicInteger count = new AtomicInteger();
+        Runnable counter = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                count.incrementAndGet();
+            }
+        };
+        executor.execute(counter);
+        executor.execute(counter);
+        Assert.assertTrue(startedLatch.await(10, TimeUnit.SECONDS));
+
+        Assert.assertEquals(executor.shutdownNow().size(), 2);
+        Assert.assertTrue(executor.isShutdown());
+        Assert.assertFalse(executor.isTerminated());
+        try
+        {
+            executor.execute(counter);
+            Assert.fail();
+        }
+        catch ( RejectedExecutionException expected )
+        {
+            // expected
+        }
+
+        blockLatch.countDown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(count.get(), 0);
+
+        // other executors from the pool are not affected
+        other.submit(counter).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(count.get(), 1);
+        other.shutdown();
+        Assert.assertTrue(other.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestZKPaths
+{
+    @Test
+    public void testMakePath()
+    {
+        Assert.assertEquals(ZKPaths.makePath("", null), "/");
+        Assert.assertEquals(ZKPaths.makePath("/", null), "/");
+        Assert.assertEquals(ZKPaths.makePath("/", "/"), "/");
+        Assert.assertEquals(ZKPaths.makePath("", ""), "/");
+        Assert.assertEquals(ZKPaths.makePath("/", ""), "/");
+        Assert.assertEquals(ZKPaths.makePath("/test", "one"), "/test/one");
+        Assert.assertEquals(ZKPaths.makePath("/test", "/one"), "/test/one");
+        Assert.assertEquals(ZKPaths.makePath("/test/", "one"), "/test/one");
+        Assert.assertEquals(ZKPaths.makePath("test", "one"), "/test/one");
+        Assert.assertEquals(ZKPaths.makePath("test", null), "/test");
+        Assert.assertEquals(ZKPaths.makePath("/test", null), "/test");
+        Assert.assertEquals(ZKPaths.makePath("/", "one"), "/one");
+        Assert.assertEquals(ZKPaths.makePath("/", "/one"), "/one");
+        Assert.assertEquals(ZKPaths.makePath("/one/two", "three/four"), "/one/two/three/four");
+        Assert.assertEquals(ZKPaths.fixForNamespace("ns", "/one"), "/ns/one");
+        Assert.assertEquals(ZKPaths.fixForNamespace(null, "/one"), "/one");
+    }
+
+    @Test
+    public void testNodeFromPath()
+    {
+        Assert.assertEquals(ZKPaths.getNodeFromPath("/"), "");
+        Assert.assertEquals(ZKPaths.getNodeFromPath("/one"), "one");
+        Assert.assertEquals(ZKPaths.getNodeFromPath("/one/two"), "two");
+        Assert.assertEquals(ZKPaths.getPathAndNode("/one/two").getPath(), "/one");
+        Assert.assertEquals(ZKPaths.getPathAndNode("/one/two").getNode(), "two");
+        Assert.assertEquals(ZKPaths.getPathAndNode("/one").getPath(), "/");
+        Assert.assertEquals(ZKPaths.getPathAndNode("/").getPath(), "/");
+    }
+
+    @Test
+    public void testValidatePath()
+    {
+        for ( String path : new String[]{"/", "/a", "/a/b", "/a.b", "/..a", "/a-b_c:d@e/f~g", "/été", "/a/lock-0000000001"} )
+        {
+            PathUtils.validatePath(path);
+        }
+        PathUtils.validatePath("/a/", true);
+
+        for ( String path : new String[]{null, "", "a", "/a/", "//", "/a//b", "/.", "/./a", "/..", "/a/../b", "/a\u0000", "/a\u0001", "/a\u0085", "/a"} )
+        {
+            try
+            {
+                PathUtils.validatePath(path);
+                Assert.fail("Should be invalid: " + path);
+            }
+            catch ( IllegalArgumentException expected )
+            {
+                // expected
+            }
+        }
+    }
+}
@@ -21,12 +21,17 @@ package org.apache.curator.framework;
 
 import org.apache.curator.CuratorZookeeperClient;
 import org.apache.curator.framework.api.*;
+import org.apache.curator.framework.api.async.AsyncCuratorFramework;
+import org.apache.curator.framework.api.bulk.BulkReadBuilder;
+import org.apache.curator.framework.api.cache.ReadCache;
+import org.apache.curator.framework.api.transaction.BatchingWriter;
 import org.apache.curator.framework.api.transaction.CuratorTransaction;
 import org.apache.curator.framework.imps.CuratorFrameworkState;
 import org.apache.curator.framework.listen.Listenable;
 import org.apache.curator.framework.state.ConnectionStateListener;
 import org.apache.curator.utils.EnsurePath;
 import java.io.Closeable;
+import java.util.concurrent.Executor;
 
 /**
  * Zookeeper framework-style client
@@ -124,6 +129,51 @@ public interface CuratorFramework extends Closeable
      */
     public CuratorTransaction inTransaction();
 
+    /**
+     * Allocate a writer that packs independent writes into transactions. The writer must be closed
+     * when no longer needed.
+     *
+     * @param maxBatchSize max writes per transaction
+     * @param maxDelayMs max time to wait for more writes once the first write of a batch has arrived
+     * @return new writer
+     * @see BatchingWriter
+     */
+    public BatchingWriter newBatchingWriter(int maxBatchSize, int maxDelayMs);
+
+    /**
+     * Return a future based view of this client. Futures are completed in the
+     * thread that processed the result (usually the ZooKeeper event thread).
+     *
+     * @return async view
+     */
+    public AsyncCuratorFramework async();
+
+    /**
+     * Return a future based view of this client. Futures are completed using the given executor.
+     *
+     * @param executor executor used to complete futures
+     * @return async view
+     */
+    public AsyncCuratorFramework async(Executor executor);
+
+    /**
+     * Start a bulk read builder. Must not be used from watchers or background callbacks -
+     * see {@link BulkReadBuilder} for details.
+     *
+     * @return builder object
+     */
+    public BulkReadBuilder bulk();
+
+    /**
+     * Allocate a watch-invalidated read-through cache scoped to this client's namespace. The cache
+     * must be closed when no longer needed.
+     *
+     * @param maxEntries max number of cached values
+     * @return new cache
+     * @see ReadCache
+     */
+    public ReadCache newReadCache(int maxEntries);
+
     /**
      * Perform a sync on the given path - syncs are always in the background
      *
@@ -45,6 +45,7 @@ public class CuratorFrameworkFactory
 {
     private static final int        DEFAULT_SESSION_TIMEOUT_MS = Integer.getInteger("curator-default-session-timeout", 60 * 1000);
     private static final int        DEFAULT_CONNECTION_TIMEOUT_MS = Integer.getInteger("curator-default-connection-timeout", 15 * 1000);
+    private static final int        DEFAULT_BACKGROUND_THREADS = Integer.getInteger("curator-default-background-threads", 1);
 
     private static final byte[]     LOCAL_ADDRESS = getLocalAddress();
 
@@ -111,6 +112,12 @@ public class CuratorFrameworkFactory
         private ZookeeperFactory    zookeeperFactory = DEFAULT_ZOOKEEPER_FACTORY;
         private ACLProvider         aclProvider = DEFAULT_ACL_PROVIDER;
         private boolean             canBeReadOnly = false;
+        private int                 backgroundThreads = DEFAULT_BACKGROUND_THREADS;
+        private int                 backgroundBatchSize = 1;
+        private int                 maxBackgroundInFlight = 0;
+        private int                 connectionStateCoalescingMs = 0;
+        private boolean             watcherMultiplexing = false;
+        private int                 circuitBreakerThresholdMs = 0;
 
         /**
          * Apply the current values and build a new CuratorFramework
@@ -259,6 +266,9 @@ public class CuratorFrameworkFactory
         }
 
         /**
+         * The default is {@link GzipCompressionProvider}. Use {@link org.apache.curator.framework.imps.CodecCompressionProvider}
+         * to choose between codecs (e.g. LZ4) while still being able to read nodes written with any of them.
+         *
          * @param compressionProvider the compression provider
          * @return this
          */
@@ -301,6 +311,89 @@ public class CuratorFrameworkFactory
             return this;
         }
 
+        /**
+         * Set the number of threads used to process queued background operations (retries,
+         * creating parents, etc.). Operations are assigned to a thread by path so that operations
+         * on the same path are still processed in order. Queued operations for different paths are
+         * not ordered relative to each other. The default is 1.
+         *
+         * @param backgroundThreads number of background threads
+         * @return this
+         */
+        public Builder backgroundThreads(int backgroundThreads)
+        {
+            this.backgroundThreads = backgroundThreads;
+            return this;
+        }
+
+        /**
+         * Enable pipelined background operations. New background operations are handed to the
+         * background threads which drain up to <code>batchSize</code> operations at a time and
+         * issue them all to ZooKeeper before waiting on any result. At most <code>maxInFlight</code>
+         * operations (including their retries) can be awaiting a result at once - further operations
+         * wait in the background queues. New operations are issued in the order they were made,
+         * regardless of the number of background threads. By default, background operations are
+         * issued in the calling thread and there is no in-flight limit.
+         *
+         * @param batchSize max operations to issue per background thread iteration
+         * @param maxInFlight max operations awaiting a result or 0 for no limit
+         * @return this
+         */
+        public Builder backgroundPipelining(int batchSize, int maxInFlight)
+        {
+            this.backgroundBatchSize = batchSize;
+            this.maxBackgroundInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Enable coalescing of connection state changes. When the connection is
+         * {@link org.apache.curator.framework.state.ConnectionState#SUSPENDED} and then {@link org.apache.curator.framework.state.ConnectionState#RECONNECTED} within
+         * the given window, neither event is sent to {@link org.apache.curator.framework.state.ConnectionStateListener}s. The trade-off is
+         * that SUSPENDED is delivered up to <code>windowMs</code> late. The default is 0 (no coalescing).
+         *
+         * @param windowMs coalescing window in milliseconds or 0 to disable
+         * @return this
+         */
+        public Builder connectionStateCoalescingMs(int windowMs)
+        {
+            this.connectionStateCoalescingMs = windowMs;
+            return this;
+        }
+
+        /**
+         * Enable watcher multiplexing. Instead of registering each watcher with ZooKeeper, one watcher
+         * is registered per path and watch type (data/exists or children), and its events are fanned out
+         * to the watchers set for that path. This saves client memory and dispatch work when many
+         * watchers watch the same paths (e.g. many NodeCaches on shared config nodes). The trade-off is
+         * that a watcher set by a call that failed (e.g. getData() of a missing node) may still be
+         * notified if another watcher's watch on the path fires. The default is false.
+         *
+         * @param watcherMultiplexing true to enable
+         * @return this
+         */
+        public Builder watcherMultiplexing(boolean watcherMultiplexing)
+        {
+            this.watcherMultiplexing = watcherMultiplexing;
+            return this;
+        }
+
+        /**
+         * Enable the retry circuit breaker. Once the connection has been down for at least the given
+         * time, foreground and background operations fail with a connection loss straight away instead of
+         * waiting for the connection and retrying. Operations work normally again as soon as the connection
+         * is re-established. The default is 0 (disabled).
+         *
+         * @param thresholdMs threshold in milliseconds or 0 to disable
+         * @return this
+         * @see org.apache.curator.CuratorZookeeperClient#setCircuitBreakerThresholdMs(int)
+         */
+        public Builder circuitBreakerThresholdMs(int thresholdMs)
+        {
+            this.circuitBreakerThresholdMs = thresholdMs;
+            return this;
+        }
+
         public ACLProvider getAclProvider()
         {
             return aclProvider;
@@ -366,6 +459,36 @@ public class CuratorFrameworkFactory
             return canBeReadOnly;
         }
 
+        public int getBackgroundThreads()
+        {
+            return backgroundThreads;
+        }
+
+        public int getBackgroundBatchSize()
+        {
+            return backgroundBatchSize;
+        }
+
+        public int getMaxBackgroundInFlight()
+        {
+            return maxBackgroundInFlight;
+        }
+
+        public int getConnectionStateCoalescingMs()
+        {
+            return connectionStateCoalescingMs;
+        }
+
+        public boolean useWatcherMultiplexing()
+        {
+            return watcherMultiplexing;
+        }
+
+        public int getCircuitBreakerThresholdMs()
+        {
+            return circuitBreakerThresholdMs;
+        }
+
         private Builder()
         {
         }
@@ -26,7 +26,9 @@ import org.apache.curator.framework.CuratorFramework;
 public interface BackgroundCallback
 {
     /**
-     * Called when the async background operation completes
+     * Called when the async background operation completes. This is also called if the operation
+     * fails without a result from ZooKeeper (e.g. the retry policy gave up after a connection loss). In that
+     * case the event has the type and path of the operation and an error result code.
      *
      * @param client the client
      * @param event operation result details
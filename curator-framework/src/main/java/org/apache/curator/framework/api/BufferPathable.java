@@ -0,0 +1,36 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.api;
+
+import java.nio.ByteBuffer;
+
+public interface BufferPathable
+{
+    /**
+     * Commit the currently building operation using the given path and return the
+     * result as a read-only buffer. The buffer wraps the data read (or decompressed) without
+     * further copying. In the background, <code>null</code> is returned and the result is
+     * sent to the callback/listener as usual.
+     *
+     * @param path the path
+     * @return read-only buffer or null
+     * @throws Exception errors
+     */
+    public ByteBuffer   forPathAsBuffer(String path) throws Exception;
+}
@@ -22,6 +22,7 @@ public interface GetDataBuilder extends
     Watchable<BackgroundPathable<byte[]>>,
     BackgroundPathable<byte[]>,
     Statable<WatchPathable<byte[]>>,
-    Decompressible<GetDataWatchBackgroundStatable>
+    Decompressible<GetDataWatchBackgroundStatable>,
+    BufferPathable
 {
 }
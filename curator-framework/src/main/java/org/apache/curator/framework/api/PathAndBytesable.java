@@ -19,6 +19,7 @@
 package org.apache.curator.framework.api;
 
 import org.apache.curator.framework.CuratorFrameworkFactory;
+import java.nio.ByteBuffer;
 
 public interface PathAndBytesable<T>
 {
@@ -32,6 +33,20 @@ public interface PathAndBytesable<T>
      */
     public T        forPath(String path, byte[] data) throws Exception;
 
+    /**
+     * Commit the currently building operation using the given path and the remaining
+     * bytes of the given buffer. The buffer's position is not changed. ZooKeeper only accepts
+     * byte arrays, so if the buffer is not backed by an array that exactly matches its remaining
+     * bytes, the bytes are copied. If the operation is compressed and the client's compression
+     * provider is a {@link BufferCompressionProvider}, the buffer is passed to it directly.
+     *
+     * @param path the path
+     * @param data the data
+     * @return operation result if any
+     * @throws Exception errors
+     */
+    public T        forPathFromBuffer(String path, ByteBuffer data) throws Exception;
+
     /**
      * Commit the currently building operation using the given path and the default data
      * for the client (usually a byte[0] unless changed via
@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.api.async;
+
+/**
+ * Future based view of a {@link org.apache.curator.framework.CuratorFramework}. Each operation
+ * is performed in the background (the same as <code>inBackground()</code>) and returns a
+ * {@link com.google.common.util.concurrent.ListenableFuture} that can be composed with
+ * {@link com.google.common.util.concurrent.Futures}. The future is completed using the
+ * executor given to {@link org.apache.curator.framework.CuratorFramework#async(java.util.concurrent.Executor)}.
+ */
+public interface AsyncCuratorFramework
+{
+    /**
+     * Start a create builder
+     *
+     * @return builder object
+     */
+    public AsyncCreateBuilder       create();
+
+    /**
+     * Start a delete builder
+     *
+     * @return builder object
+     */
+    public AsyncDeleteBuilder       delete();
+
+    /**
+     * Start an exists builder. The future's value is null if the node does not exist.
+     *
+     * @return builder object
+     */
+    public AsyncExistsBuilder       checkExists();
+
+    /**
+     * Start a get data builder
+     *
+     * @return builder object
+     */
+    public AsyncGetDataBuilder      getData();
+
+    /**
+     * Start a set data builder
+     *
+     * @return builder object
+     */
+    public AsyncSetDataBuilder      setData();
+
+    /**
+     * Start a get children builder
+     *
+     * @return builder object
+     */
+    public AsyncGetChildrenBuilder  getChildren();
+}
@@ -0,0 +1,37 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.api.bulk;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface BulkPathsable<T>
+{
+    /**
+     * Read all of the given paths. The reads are issued in the background and this
+     * method blocks until every read has completed. A failure reading one path does not affect the
+     * others - check {@link BulkResult#isSuccess()} for each path. As results are delivered by the
+     * ZooKeeper event thread, this method must not be called from a watcher or background callback.
+     *
+     * @param paths the paths to read
+     * @return results in the same order as the given paths (duplicate paths are read once)
+     * @throws Exception errors
+     */
+    public Map<String, BulkResult<T>>   forPaths(Collection<String> paths) throws Exception;
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.api.bulk;
+
+import java.util.List;
+
+/**
+ * <p>Reads many paths with a single call. Reads are pipelined via the ZooKeeper async API instead
+ * of paying one round trip per path. Each path is retried individually using the client's retry policy.</p>
+ *
+ * <p><b>IMPORTANT</b> - the results of pipelined reads are delivered on ZooKeeper's event thread, which is also
+ * the thread that calls watchers and background callbacks. Don't use bulk reads from watchers or
+ * callbacks. If they are called from there, the reads fall back to one synchronous read per path instead of deadlocking.</p>
+ */
+public interface BulkReadBuilder
+{
+    /**
+     * Set the maximum number of reads that can be outstanding at once. The default is 100.
+     *
+     * @param window max outstanding reads
+     * @return this
+     */
+    public BulkReadBuilder              withWindow(int window);
+
+    /**
+     * Start a bulk get data builder
+     *
+     * @return builder object
+     */
+    public BulkGetDataBuilder           getData();
+
+    /**
+     * Start a bulk get children builder
+     *
+     * @return builder object
+     */
+    public BulkPathsable<List<String>>  getChildren();
+}
@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.api.bulk;
+
+import org.apache.zookeeper.data.Stat;
+
+/**
+ * Holds the result of reading one path of a bulk read
+ */
+public class BulkResult<T>
+{
+    private final String    path;
+    private final T         value;
+    private final Stat      stat;
+    private final Exception error;
+
+    public BulkResult(String path, T value, Stat stat, Exception error)
+    {
+        this.path = path;
+        this.value = value;
+        this.stat = stat;
+        this.error = error;
+    }
+
+    /**
+     * Returns the path that was read
+     *
+     * @return path
+     */
+    public String getPath()
+    {
+        return path;
+    }
+
+    /**
+     * Returns true if the read succeeded
+     *
+     * @return true/false
+     */
+    public boolean isSuccess()
+    {
+        return error == null;
+    }
+
+    /**
+     * Returns the value read or <code>null</code> if the read failed
+     *
+     * @return value or null
+     */
+    public T getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Returns the node's stat or <code>null</code> if the read failed
+     *
+     * @return stat or null
+     */
+    public Stat getStat()
+    {
+        return stat;
+    }
+
+    /**
+     * Returns the error if the read failed or <code>null</code>. ZooKeeper errors are reported
+     * as the corresponding {@link org.apache.zookeeper.KeeperException} - e.g. a path that doesn't exist
+     * results in a {@link org.apache.zookeeper.KeeperException.NoNodeException}.
+     *
+     * @return error or null
+     */
+    public Exception getError()
+    {
+        return error;
+    }
+}
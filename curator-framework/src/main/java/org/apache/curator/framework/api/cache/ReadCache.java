@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.api.cache;
+
+import org.apache.zookeeper.data.Stat;
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * <p>
+ * A bounded, read-through cache of getData/checkExists/getChildren results. A miss reads from
+ * the server and leaves a watch. The entry is invalidated when the watch fires
+ * (NodeDataChanged, NodeCreated, NodeDeleted or NodeChildrenChanged). All entries are dropped
+ * when the session is lost. When the cache is full, the least recently used entries are evicted.
+ * </p>
+ *
+ * <p>
+ * The cache is scoped to the namespace of the client it was allocated from. Paths are relative to that namespace.
+ * </p>
+ *
+ * <p>
+ * IMPORTANT: results are only as current as the watch notifications that have been processed. That is
+ * ZooKeeper's usual guarantee for watched data, but it means a client may briefly read its own
+ * previous value right after a write. Data arrays are shared between callers and must not be modified.
+ * </p>
+ */
+public interface ReadCache extends Closeable
+{
+    /**
+     * Return the data of the given node
+     *
+     * @param path the path
+     * @return data
+     * @throws Exception errors - e.g. {@link org.apache.zookeeper.KeeperException.NoNodeException}
+     */
+    public byte[]       getData(String path) throws Exception;
+
+    /**
+     * Return the data of the given node
+     *
+     * @param path the path
+     * @param stat if not null, the node's stat is copied into this object
+     * @return data
+     * @throws Exception errors - e.g. {@link org.apache.zookeeper.KeeperException.NoNodeException}
+     */
+    public byte[]       getData(String path, Stat stat) throws Exception;
+
+    /**
+     * Return the stat of the given node. Non-existence is cached as well.
+     *
+     * @param path the path
+     * @return stat or null if the node doesn't exist
+     * @throws Exception errors
+     */
+    public Stat         checkExists(String path) throws Exception;
+
+    /**
+     * Return the children of the given node
+     *
+     * @param path the path
+     * @return unmodifiable list of children
+     * @throws Exception errors - e.g. {@link org.apache.zookeeper.KeeperException.NoNodeException}
+     */
+    public List<String> getChildren(String path) throws Exception;
+
+    /**
+     * Remove all cached values for the given path
+     *
+     * @param path the path
+     */
+    public void         invalidate(String path);
+
+    /**
+     * Remove all cached values
+     */
+    public void         clear();
+
+    /**
+     * @return number of cached values
+     */
+    public long         size();
+
+    /**
+     * @return number of reads served from the cache
+     */
+    public long         getHitCount();
+
+    /**
+     * @return number of reads that went to the server
+     */
+    public long         getMissCount();
+
+    /**
+     * @return number of values evicted due to the size bound
+     */
+    public long         getEvictionCount();
+
+    /**
+     * @return number of values removed due to watch notifications or session loss
+     */
+    public long         getInvalidationCount();
+}
@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.api.transaction;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.zookeeper.CreateMode;
+import java.io.Closeable;
+
+/**
+ * <p>
+ *     Accepts independent writes from any number of threads and packs them into
+ *     transactions (ZooKeeper <code>multi()</code>) so that many writes cost a single round trip.
+ *     Once the first write of a batch arrives, the writer waits up to the configured delay for more
+ *     writes, or until the maximum batch size is reached, and then commits the batch.
+ * </p>
+ *
+ * <p>
+ *     The writes are independent - a transaction is all or nothing, so when a batch fails
+ *     the failing write's future is completed with its {@link org.apache.zookeeper.KeeperException}
+ *     and the rest of the batch is committed again without it. Writes are committed in the order
+ *     they were submitted.
+ * </p>
+ */
+public interface BatchingWriter extends Closeable
+{
+    /**
+     * Queue a create
+     *
+     * @param path the path
+     * @param data the data
+     * @param mode create mode
+     * @return future for the result
+     */
+    public ListenableFuture<CuratorTransactionResult> create(String path, byte[] data, CreateMode mode);
+
+    /**
+     * Queue a set data
+     *
+     * @param path the path
+     * @param data the data
+     * @param version expected version or -1 for any version
+     * @return future for the result
+     */
+    public ListenableFuture<CuratorTransactionResult> setData(String path, byte[] data, int version);
+
+    /**
+     * Queue a delete
+     *
+     * @param path the path
+     * @param version expected version or -1 for any version
+     * @return future for the result
+     */
+    public ListenableFuture<CuratorTransactionResult> delete(String path, int version);
+
+    /**
+     * Stop the writer. Writes that have not been committed are failed.
+     */
+    @Override
+    public void close();
+}
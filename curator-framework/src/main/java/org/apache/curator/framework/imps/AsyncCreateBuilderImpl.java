@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.async.AsyncCreateBuilder;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.data.ACL;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+class AsyncCreateBuilderImpl implements AsyncCreateBuilder
+{
+    private final CreateBuilderImpl builder;
+    private final Executor          executor;
+
+    AsyncCreateBuilderImpl(CreateBuilderImpl builder, Executor executor)
+    {
+        this.builder = builder;
+        this.executor = executor;
+    }
+
+    @Override
+    public AsyncCreateBuilder creatingParentsIfNeeded()
+    {
+        builder.creatingParentsIfNeeded();
+        return this;
+    }
+
+    @Override
+    public AsyncCreateBuilder withMode(CreateMode mode)
+    {
+        builder.withMode(mode);
+        return this;
+    }
+
+    @Override
+    public AsyncCreateBuilder withACL(List<ACL> aclList)
+    {
+        builder.withACL(aclList);
+        return this;
+    }
+
+    @Override
+    public AsyncCreateBuilder compressed()
+    {
+        builder.compressed();
+        return this;
+    }
+
+    @Override
+    public ListenableFuture<String> forPath(String path)
+    {
+        FutureBackgroundCallback<String> callback = newCallback();
+        try
+        {
+            builder.inBackground(callback).forPath(path);
+        }
+        catch ( Exception e )
+        {
+            callback.processException(e);
+        }
+        return callback.getFuture();
+    }
+
+    @Override
+    public ListenableFuture<String> forPath(String path, byte[] data)
+    {
+        FutureBackgroundCallback<String> callback = newCallback();
+        try
+        {
+            builder.inBackground(callback).forPath(path, data);
+        }
+        catch ( Exception e )
+        {
+            callback.processException(e);
+        }
+        return callback.getFuture();
+    }
+
+    private FutureBackgroundCallback<String> newCallback()
+    {
+        return new FutureBackgroundCallback<String>(executor)
+        {
+            @Override
+            String getResult(CuratorEvent event)
+            {
+                return event.getName();
+            }
+        };
+    }
+}
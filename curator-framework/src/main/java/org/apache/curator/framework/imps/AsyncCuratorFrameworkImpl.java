@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.base.Preconditions;
+import org.apache.curator.framework.api.async.AsyncCreateBuilder;
+import org.apache.curator.framework.api.async.AsyncCuratorFramework;
+import org.apache.curator.framework.api.async.AsyncDeleteBuilder;
+import org.apache.curator.framework.api.async.AsyncExistsBuilder;
+import org.apache.curator.framework.api.async.AsyncGetChildrenBuilder;
+import org.apache.curator.framework.api.async.AsyncGetDataBuilder;
+import org.apache.curator.framework.api.async.AsyncSetDataBuilder;
+import org.apache.zookeeper.data.Stat;
+import java.util.concurrent.Executor;
+
+class AsyncCuratorFrameworkImpl implements AsyncCuratorFramework
+{
+    private final CuratorFrameworkImpl  client;
+    private final Executor              executor;
+
+    AsyncCuratorFrameworkImpl(CuratorFrameworkImpl client, Executor executor)
+    {
+        this.client = client;
+        this.executor = Preconditions.checkNotNull(executor, "executor cannot be null");
+    }
+
+    @Override
+    public AsyncCreateBuilder create()
+    {
+        checkState();
+        return new AsyncCreateBuilderImpl(new CreateBuilderImpl(client), executor);
+    }
+
+    @Override
+    public AsyncDeleteBuilder delete()
+    {
+        checkState();
+        return new AsyncDeleteBuilderImpl(new DeleteBuilderImpl(client), executor);
+    }
+
+    @Override
+    public AsyncExistsBuilder checkExists()
+    {
+        checkState();
+        return new AsyncExistsBuilderImpl(new ExistsBuilderImpl(client), executor);
+    }
+
+    @Override
+    public AsyncGetDataBuilder getData()
+    {
+        checkState();
+        return new AsyncGetDataBuilderImpl(new GetDataBuilderImpl(client), executor);
+    }
+
+    @Override
+    public AsyncSetDataBuilder setData()
+    {
+        checkState();
+        return new AsyncSetDataBuilderImpl(new SetDataBuilderImpl(client), executor);
+    }
+
+    @Override
+    public AsyncGetChildrenBuilder getChildren()
+    {
+        checkState();
+        return new AsyncGetChildrenBuilderImpl(new GetChildrenBuilderImpl(client), executor);
+    }
+
+    static void copyStat(Stat from, Stat to)
+    {
+        if ( (from != null) && (to != null) )
+        {
+            to.setAversion(from.getAversion());
+            to.setCtime(from.getCtime());
+            to.setCversion(from.getCversion());
+            to.setCzxid(from.getCzxid());
+            to.setDataLength(from.getDataLength());
+            to.setEphemeralOwner(from.getEphemeralOwner());
+            to.setMtime(from.getMtime());
+            to.setMzxid(from.getMzxid());
+            to.setNumChildren(from.getNumChildren());
+            to.setPzxid(from.getPzxid());
+            to.setVersion(from.getVersion());
+        }
+    }
+
+    private void checkState()
+    {
+        Preconditions.checkState(client.isStarted(), "instance must be started before calling this method");
+    }
+}
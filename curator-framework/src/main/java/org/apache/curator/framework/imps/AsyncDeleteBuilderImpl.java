@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.async.AsyncDeleteBuilder;
+import java.util.concurrent.Executor;
+
+class AsyncDeleteBuilderImpl implements AsyncDeleteBuilder
+{
+    private final DeleteBuilderImpl builder;
+    private final Executor          executor;
+
+    AsyncDeleteBuilderImpl(DeleteBuilderImpl builder, Executor executor)
+    {
+        this.builder = builder;
+        this.executor = executor;
+    }
+
+    @Override
+    public AsyncDeleteBuilder deletingChildrenIfNeeded()
+    {
+        builder.deletingChildrenIfNeeded();
+        return this;
+    }
+
+    @Override
+    public AsyncDeleteBuilder withVersion(int version)
+    {
+        builder.withVersion(version);
+        return this;
+    }
+
+    @Override
+    public ListenableFuture<Void> forPath(String path)
+    {
+        FutureBackgroundCallback<Void> callback = new FutureBackgroundCallback<Void>(executor)
+        {
+            @Override
+            Void getResult(CuratorEvent event)
+            {
+                return null;
+            }
+        };
+        try
+        {
+            builder.inBackground(callback).forPath(path);
+        }
+        catch ( Exception e )
+        {
+            callback.processException(e);
+        }
+        return callback.getFuture();
+    }
+}
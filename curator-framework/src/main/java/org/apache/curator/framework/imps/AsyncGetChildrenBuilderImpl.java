@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.curator.framework.api.async.AsyncGetChildrenBuilder;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.data.Stat;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+class AsyncGetChildrenBuilderImpl implements AsyncGetChildrenBuilder
+{
+    private final GetChildrenBuilderImpl    builder;
+    private final Executor                  executor;
+    private Stat                            responseStat = null;
+
+    AsyncGetChildrenBuilderImpl(GetChildrenBuilderImpl builder, Executor executor)
+    {
+        this.builder = builder;
+        this.executor = executor;
+    }
+
+    @Override
+    public AsyncGetChildrenBuilder watched()
+    {
+        builder.watched();
+        return this;
+    }
+
+    @Override
+    public AsyncGetChildrenBuilder usingWatcher(Watcher watcher)
+    {
+        builder.usingWatcher(watcher);
+        return this;
+    }
+
+    @Override
+    public AsyncGetChildrenBuilder usingWatcher(CuratorWatcher watcher)
+    {
+        builder.usingWatcher(watcher);
+        return this;
+    }
+
+    @Override
+    public AsyncGetChildrenBuilder storingStatIn(Stat stat)
+    {
+        responseStat = stat;
+        return this;
+    }
+
+    @Override
+    public ListenableFuture<List<String>> forPath(String path)
+    {
+        final Stat                                  localResponseStat = responseStat;
+        FutureBackgroundCallback<List<String>>      callback = new FutureBackgroundCallback<List<String>>(executor)
+        {
+            @Override
+            List<String> getResult(CuratorEvent event)
+            {
+                AsyncCuratorFrameworkImpl.copyStat(event.getStat(), localResponseStat);
+                return event.getChildren();
+            }
+        };
+        try
+        {
+            builder.inBackground(callback).forPath(path);
+        }
+        catch ( Exception e )
+        {
+            callback.processException(e);
+        }
+        return callback.getFuture();
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.curator.framework.api.async.AsyncGetDataBuilder;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.data.Stat;
+import java.util.concurrent.Executor;
+
+class AsyncGetDataBuilderImpl implements AsyncGetDataBuilder
+{
+    private final GetDataBuilderImpl    builder;
+    private final Executor              executor;
+    private Stat                        responseStat = null;
+
+    AsyncGetDataBuilderImpl(GetDataBuilderImpl builder, Executor executor)
+    {
+        this.builder = builder;
+        this.executor = executor;
+    }
+
+    @Override
+    public AsyncGetDataBuilder watched()
+    {
+        builder.watched();
+        return this;
+    }
+
+    @Override
+    public AsyncGetDataBuilder usingWatcher(Watcher watcher)
+    {
+        builder.usingWatcher(watcher);
+        return this;
+    }
+
+    @Override
+    public AsyncGetDataBuilder usingWatcher(CuratorWatcher watcher)
+    {
+        builder.usingWatcher(watcher);
+        return this;
+    }
+
+    @Override
+    public AsyncGetDataBuilder storingStatIn(Stat stat)
+    {
+        responseStat = stat;
+        return this;
+    }
+
+    @Override
+    public AsyncGetDataBuilder decompressed()
+    {
+        builder.decompressed();
+        return this;
+    }
+
+    @Override
+    public ListenableFuture<byte[]> forPath(String path)
+    {
+        final Stat                          localResponseStat = responseStat;
+        FutureBackgroundCallback<byte[]>    callback = new FutureBackgroundCallback<byte[]>(executor)
+        {
+            @Override
+            byte[] getResult(CuratorEvent event)
+            {
+                AsyncCuratorFrameworkImpl.copyStat(event.getStat(), localResponseStat);
+                return event.getData();
+            }
+        };
+        try
+        {
+            builder.inBackground(callback).forPath(path);
+        }
+        catch ( Exception e )
+        {
+            callback.processException(e);
+        }
+        return callback.getFuture();
+    }
+}
@@ -0,0 +1,348 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Runs queued background operations (retries, parent creation, etc.) on a configurable
+ * number of worker threads. Each worker owns its own queue and operations are assigned
+ * to a worker by hashing their path so that operations for the same path are always
+ * processed in order. Operations for different paths may be processed in any order.
+ * </p>
+ *
+ * <p>
+ * When pipelining is enabled, new background operations are also submitted here instead
+ * of being performed in the calling thread. Workers drain up to <code>batchSize</code>
+ * operations at a time and issue them all asynchronously. The number of operations awaiting
+ * a result from ZooKeeper is bounded by <code>maxInFlight</code>. Retries of an operation
+ * keep the permit of the original attempt so that they can't be starved by new operations.
+ * New operations are all dispatched by the first worker so that they reach ZooKeeper in the
+ * order they were submitted, as they would if issued in the calling thread.
+ * </p>
+ */
+class BackgroundOperationEngine implements Closeable
+{
+    private final CuratorFrameworkImpl client;
+    private final ThreadFactory threadFactory;
+    private final ImmutableList<Worker> workers;
+    private final int batchSize;
+    private final Semaphore inFlightPermits;
+
+    private volatile ExecutorService executorService;
+    private volatile ScheduledExecutorService delayedService;
+
+    /**
+     * Operations that can run immediately go to a lock-free queue. Only operations
+     * that have a retry delay are handed to the scheduler which moves them to the
+     * queue once the delay has elapsed.
+     */
+    private class Worker
+    {
+        private final Queue<OperationAndData<?>> queue = new ConcurrentLinkedQueue<OperationAndData<?>>();
+        private final Queue<OperationAndData<?>> waitingForPermit = new ArrayDeque<OperationAndData<?>>();   // only accessed by the worker thread
+        private final AtomicBoolean isParked = new AtomicBoolean(false);
+        private volatile Thread thread;
+
+        void add(OperationAndData<?> operationAndData)
+        {
+            queue.offer(operationAndData);
+            wake();
+        }
+
+        void wake()
+        {
+            if ( isParked.get() && isParked.compareAndSet(true, false) )
+            {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        void park() throws InterruptedException
+        {
+            isParked.set(true);
+            if ( !canProceed() )  // re-check after publishing the parked flag so an add() or permit release can't be missed
+            {
+                LockSupport.park(this);
+            }
+            isParked.set(false);
+
+            if ( Thread.interrupted() )
+            {
+                throw new InterruptedException();
+            }
+        }
+
+        private boolean canProceed()
+        {
+            if ( !queue.isEmpty() )
+            {
+                return true;
+            }
+            return !waitingForPermit.isEmpty() && (inFlightPermits != null) && (inFlightPermits.availablePermits() > 0);
+        }
+    }
+
+    /**
+     * @param client the client
+     * @param threadQty number of worker threads
+     * @param threadFactory thread factory
+     * @param batchSize max operations to drain per worker iteration
+     * @param maxInFlight max operations awaiting a result or 0 for no limit
+     */
+    BackgroundOperationEngine(CuratorFrameworkImpl client, int threadQty, ThreadFactory threadFactory, int batchSize, int maxInFlight)
+    {
+        Preconditions.checkArgument(threadQty > 0, "threadQty must be greater than 0");
+        Preconditions.checkArgument(batchSize > 0, "batchSize must be greater than 0");
+        Preconditions.checkArgument(maxInFlight >= 0, "maxInFlight cannot be negative");
+
+        this.client = client;
+        this.threadFactory = threadFactory;
+        this.batchSize = batchSize;
+        inFlightPermits = (maxInFlight > 0) ? new Semaphore(maxInFlight) : null;
+
+        ImmutableList.Builder<Worker> builder = ImmutableList.builder();
+        for ( int i = 0; i < threadQty; ++i )
+        {
+            builder.add(new Worker());
+        }
+        workers = builder.build();
+    }
+
+    /**
+     * Start the worker threads
+     */
+    void start()
+    {
+        delayedService = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        executorService = Executors.newFixedThreadPool(workers.size(), threadFactory);
+        for ( final Worker worker : workers )
+        {
+            executorService.submit
+            (
+                new Callable<Object>()
+                {
+                    @Override
+                    public Object call() throws Exception
+                    {
+                        workerLoop(worker);
+                        return null;
+                    }
+                }
+            );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if ( delayedService != null )
+        {
+            delayedService.shutdownNow();
+        }
+        if ( executorService != null )
+        {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns true if new background operations should be submitted via {@link #submit(OperationAndData)}
+     * instead of being performed in the calling thread
+     *
+     * @return true/false
+     */
+    boolean isPipelined()
+    {
+        return (batchSize > 1) || (inFlightPermits != null);
+    }
+
+    /**
+     * Submit a new background operation. It will count against the in-flight limit
+     * until {@link #release(OperationAndData)} is called for it.
+     *
+     * @param operationAndData the operation
+     */
+    void submit(OperationAndData<?> operationAndData)
+    {
+        if ( inFlightPermits != null )
+        {
+            operationAndData.markNeedsInFlightPermit();
+        }
+
+        // ZooKeeper orders operations per session - sharding new operations by path could reorder e.g. "create /a" and "create /a/b"
+        workers.get(0).add(operationAndData);
+    }
+
+    /**
+     * Called when an operation has completed (successfully or not) and will not be retried
+     *
+     * @param operationAndData the operation
+     */
+    void release(OperationAndData<?> operationAndData)
+    {
+        if ( operationAndData.clearInFlightPermit() )
+        {
+            inFlightPermits.release();
+            for ( Worker worker : workers )
+            {
+                worker.wake();
+            }
+        }
+    }
+
+    /**
+     * Queue the given operation. It will be run once its delay (if any) has elapsed.
+     *
+     * @param operationAndData the operation
+     */
+    void queue(final OperationAndData<?> operationAndData)
+    {
+        final Worker worker = getWorker(operationAndData);
+        long delayMs = operationAndData.getDelay(TimeUnit.MILLISECONDS);
+        ScheduledExecutorService localDelayedService = delayedService;
+        if ( (delayMs > 0) && (localDelayedService != null) )
+        {
+            localDelayedService.schedule
+            (
+                new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        worker.add(operationAndData);
+                    }
+                },
+                delayMs,
+                TimeUnit.MILLISECONDS
+            );
+        }
+        else
+        {
+            worker.add(operationAndData);
+        }
+    }
+
+    /**
+     * Return the number of worker threads
+     *
+     * @return thread qty
+     */
+    int getThreadQty()
+    {
+        return workers.size();
+    }
+
+    private Worker getWorker(OperationAndData<?> operationAndData)
+    {
+        if ( workers.size() == 1 )
+        {
+            return workers.get(0);
+        }
+
+        String path = getPath(operationAndData);
+        int index = (path != null) ? ((path.hashCode() & Integer.MAX_VALUE) % workers.size()) : 0;
+        return workers.get(index);
+    }
+
+    private static String getPath(OperationAndData<?> operationAndData)
+    {
+        Object data = operationAndData.getData();
+        if ( data instanceof String )
+        {
+            return (String)data;
+        }
+        if ( data instanceof PathAndBytes )
+        {
+            return ((PathAndBytes)data).getPath();
+        }
+        return null;
+    }
+
+    private void workerLoop(Worker worker)
+    {
+        worker.thread = Thread.currentThread();
+        while ( !Thread.currentThread().isInterrupted() )
+        {
+            try
+            {
+                if ( !processBatch(worker) )
+                {
+                    worker.park();
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private boolean processBatch(Worker worker)
+    {
+        int processed = 0;
+        while ( (processed < batchSize) && !worker.waitingForPermit.isEmpty() && inFlightPermits.tryAcquire() )
+        {
+            OperationAndData<?> operationAndData = worker.waitingForPermit.remove();
+            operationAndData.markHoldsInFlightPermit();
+            client.performQueuedOperation(operationAndData);
+            ++processed;
+        }
+
+        while ( processed < batchSize )
+        {
+            OperationAndData<?> operationAndData = worker.queue.poll();
+            if ( operationAndData == null )
+            {
+                break;
+            }
+
+            if ( operationAndData.needsInFlightPermit() )
+            {
+                if ( !worker.waitingForPermit.isEmpty() || !inFlightPermits.tryAcquire() )
+                {
+                    worker.waitingForPermit.add(operationAndData);
+                    continue;
+                }
+                operationAndData.markHoldsInFlightPermit();
+            }
+
+            client.performQueuedOperation(operationAndData);
+            ++processed;
+        }
+
+        return processed > 0;
+    }
+}
@@ -18,7 +18,7 @@
  */
 package org.apache.curator.framework.imps;
 
-import org.apache.curator.TimeTrace;
+import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.api.CuratorEventType;
 import org.apache.zookeeper.AsyncCallback;
 
@@ -36,7 +36,7 @@ class BackgroundSyncImpl implements BackgroundOperation<String>
     @Override
     public void performBackgroundOperation(final OperationAndData<String> operationAndData) throws Exception
     {
-        final TimeTrace trace = client.getZookeeperClient().startTracer("BackgroundSyncImpl");
+        final OperationTrace trace = client.getZookeeperClient().startAdvancedTracer("BackgroundSyncImpl");
         client.getZooKeeper().sync
         (
             operationAndData.getData(),
@@ -45,7 +45,7 @@ class BackgroundSyncImpl implements BackgroundOperation<String>
                 @Override
                 public void processResult(int rc, String path, Object ctx)
                 {
-                    trace.commit();
+                    trace.setReturnCode(rc).setPath(path).setRetryCount(operationAndData.getRetryCount()).commit();
                     CuratorEventImpl event = new CuratorEventImpl(client, CuratorEventType.SYNC, rc, path, null, ctx, null, null, null, null, null);
                     client.processBackgroundOperation(operationAndData, event);
                 }
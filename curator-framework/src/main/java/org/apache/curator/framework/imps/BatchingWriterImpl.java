@@ -0,0 +1,296 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.apache.curator.framework.api.transaction.BatchingWriter;
+import org.apache.curator.framework.api.transaction.CuratorTransaction;
+import org.apache.curator.framework.api.transaction.CuratorTransactionFinal;
+import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
+import org.apache.curator.framework.api.transaction.OperationType;
+import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ThreadUtils;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.OpResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class BatchingWriterImpl implements BatchingWriter
+{
+    private final Logger                        log = LoggerFactory.getLogger(getClass());
+    private final CuratorFrameworkImpl          client;
+    private final int                           maxBatchSize;
+    private final long                          maxDelayNanos;
+    private final BlockingQueue<Write>          queue = new LinkedBlockingQueue<Write>();
+    private final AtomicBoolean                 isOpen = new AtomicBoolean(true);
+    private final ExecutorService               service = ThreadUtils.newSingleThreadExecutor("BatchingWriter");
+
+    private static class Write
+    {
+        private final OperationType                             type;
+        private final String                                    path;
+        private final byte[]                                    data;
+        private final CreateMode                                mode;
+        private final int                                       version;
+        private final SettableFuture<CuratorTransactionResult>  future = SettableFuture.create();
+
+        private Write(OperationType type, String path, byte[] data, CreateMode mode, int version)
+        {
+            this.type = type;
+            this.path = path;
+            this.data = data;
+            this.mode = mode;
+            this.version = version;
+        }
+
+        private CuratorTransactionFinal addTo(CuratorTransaction transaction) throws Exception
+        {
+            switch ( type )
+            {
+                case CREATE:
+                {
+                    return transaction.create().withMode(mode).forPath(path, data).and();
+                }
+
+                case SET_DATA:
+                {
+                    return transaction.setData().withVersion(version).forPath(path, data).and();
+                }
+
+                default:
+                {
+                    return transaction.delete().withVersion(version).forPath(path).and();
+                }
+            }
+        }
+    }
+
+    BatchingWriterImpl(CuratorFrameworkImpl client, int maxBatchSize, int maxDelayMs)
+    {
+        Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be greater than 0");
+        Preconditions.checkArgument(maxDelayMs >= 0, "maxDelayMs cannot be negative");
+
+        this.client = client;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+
+        service.submit
+        (
+            new Callable<Object>()
+            {
+                @Override
+                public Object call() throws Exception
+                {
+                    processWrites();
+                    return null;
+                }
+            }
+        );
+    }
+
+    @Override
+    public ListenableFuture<CuratorTransactionResult> create(String path, byte[] data, CreateMode mode)
+    {
+        return add(new Write(OperationType.CREATE, path, data, mode, -1));
+    }
+
+    @Override
+    public ListenableFuture<CuratorTransactionResult> setData(String path, byte[] data, int version)
+    {
+        return add(new Write(OperationType.SET_DATA, path, data, null, version));
+    }
+
+    @Override
+    public ListenableFuture<CuratorTransactionResult> delete(String path, int version)
+    {
+        return add(new Write(OperationType.DELETE, path, null, null, version));
+    }
+
+    @Override
+    public void close()
+    {
+        if ( isOpen.compareAndSet(true, false) )
+        {
+            service.shutdownNow();
+            failPending();
+        }
+    }
+
+    private ListenableFuture<CuratorTransactionResult> add(Write write)
+    {
+        try
+        {
+            PathUtils.validatePath(write.path, (write.mode != null) && write.mode.isSequential());
+        }
+        catch ( IllegalArgumentException e )
+        {
+            return Futures.immediateFailedFuture(e);
+        }
+
+        if ( !isOpen.get() )
+        {
+            return Futures.immediateFailedFuture(new IllegalStateException("BatchingWriter is closed"));
+        }
+
+        queue.add(write);
+        if ( !isOpen.get() )
+        {
+            failPending();  // raced with close()
+        }
+        return write.future;
+    }
+
+    private void failPending()
+    {
+        List<Write>     pending = Lists.newArrayList();
+        queue.drainTo(pending);
+        failAll(pending, new IllegalStateException("BatchingWriter is closed"));
+    }
+
+    private void processWrites()
+    {
+        List<Write>     batch = Lists.newArrayList();
+        try
+        {
+            while ( !Thread.currentThread().isInterrupted() )
+            {
+                batch.add(queue.take());
+
+                long            startNanos = System.nanoTime();
+                while ( batch.size() < maxBatchSize )
+                {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long        remainingNanos = maxDelayNanos - (System.nanoTime() - startNanos);
+                    if ( (batch.size() >= maxBatchSize) || (remainingNanos <= 0) )
+                    {
+                        break;
+                    }
+
+                    Write       write = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if ( write == null )
+                    {
+                        break;
+                    }
+                    batch.add(write);
+                }
+
+                commit(batch);
+                batch.clear();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            failAll(batch, new IllegalStateException("BatchingWriter is closed"));
+        }
+    }
+
+    private void commit(List<Write> writes)
+    {
+        List<Write>     batch = Lists.newArrayList(writes);
+        while ( !batch.isEmpty() )
+        {
+            try
+            {
+                CuratorTransactionFinal     transaction = null;
+                for ( Write write : batch )
+                {
+                    transaction = write.addTo((transaction != null) ? transaction : client.inTransaction());
+                }
+
+                Collection<CuratorTransactionResult>    results = transaction.commit();
+                Iterator<CuratorTransactionResult>      iterator = results.iterator();
+                for ( Write write : batch )
+                {
+                    write.future.set(iterator.next());
+                }
+                return;
+            }
+            catch ( KeeperException e )
+            {
+                int     index = findFailedIndex(e);
+                if ( index < 0 )
+                {
+                    failAll(batch, e);
+                    return;
+                }
+
+                // a transaction is all or nothing - fail the write that caused the failure and commit the rest again
+                Write   failed = batch.remove(index);
+                int     resultCode = ((OpResult.ErrorResult)e.getResults().get(index)).getErr();
+                failed.future.setException(KeeperException.create(KeeperException.Code.get(resultCode), failed.path));
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                failAll(batch, e);
+                return;
+            }
+            catch ( Exception e )
+            {
+                log.error("Committing batch", e);
+                failAll(batch, e);
+                return;
+            }
+        }
+    }
+
+    private static int findFailedIndex(KeeperException e)
+    {
+        List<OpResult>  results = e.getResults();
+        if ( results != null )
+        {
+            for ( int i = 0; i < results.size(); ++i )
+            {
+                OpResult    result = results.get(i);
+                if ( result instanceof OpResult.ErrorResult )
+                {
+                    int     resultCode = ((OpResult.ErrorResult)result).getErr();
+                    if ( (resultCode != KeeperException.Code.OK.intValue()) && (resultCode != KeeperException.Code.RUNTIMEINCONSISTENCY.intValue()) )
+                    {
+                        return i;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static void failAll(List<Write> writes, Throwable e)
+    {
+        for ( Write write : writes )
+        {
+            write.future.setException(e);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.curator.framework.api.async.AsyncCuratorFramework;
+import org.apache.curator.framework.api.async.AsyncGetDataBuilder;
+import org.apache.curator.framework.api.bulk.BulkGetDataBuilder;
+import org.apache.curator.framework.api.bulk.BulkPathsable;
+import org.apache.curator.framework.api.bulk.BulkReadBuilder;
+import org.apache.curator.framework.api.bulk.BulkResult;
+import org.apache.zookeeper.data.Stat;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+class BulkReadBuilderImpl implements BulkReadBuilder
+{
+    private final CuratorFrameworkImpl  client;
+    private final AsyncCuratorFramework async;
+    private int                         window = DEFAULT_WINDOW;
+
+    private static final int        DEFAULT_WINDOW = 100;
+
+    private interface Reader<T>
+    {
+        ListenableFuture<T> read(String path, Stat stat);
+
+        T readInForeground(String path, Stat stat) throws Exception;
+    }
+
+    BulkReadBuilderImpl(CuratorFrameworkImpl client)
+    {
+        this.client = client;
+        async = client.async(MoreExecutors.sameThreadExecutor());
+    }
+
+    @Override
+    public BulkReadBuilder withWindow(int window)
+    {
+        Preconditions.checkArgument(window > 0, "window must be greater than 0");
+        this.window = window;
+        return this;
+    }
+
+    @Override
+    public BulkGetDataBuilder getData()
+    {
+        return new BulkGetDataBuilder()
+        {
+            private boolean decompress = false;
+
+            @Override
+            public BulkPathsable<byte[]> decompressed()
+            {
+                decompress = true;
+                return this;
+            }
+
+            @Override
+            public Map<String, BulkResult<byte[]>> forPaths(Collection<String> paths) throws Exception
+            {
+                return readAll
+                (
+                    paths,
+                    new Reader<byte[]>()
+                    {
+                        @Override
+                        public ListenableFuture<byte[]> read(String path, Stat stat)
+                        {
+                            AsyncGetDataBuilder     builder = async.getData();
+                            if ( decompress )
+                            {
+                                builder.decompressed();
+                            }
+                            return builder.storingStatIn(stat).forPath(path);
+                        }
+
+                        @Override
+                        public byte[] readInForeground(String path, Stat stat) throws Exception
+                        {
+                            return decompress ? client.getData().decompressed().storingStatIn(stat).forPath(path) : client.getData().storingStatIn(stat).forPath(path);
+                        }
+                    }
+                );
+            }
+        };
+    }
+
+    @Override
+    public BulkPathsable<List<String>> getChildren()
+    {
+        return new BulkPathsable<List<String>>()
+        {
+            @Override
+            public Map<String, BulkResult<List<String>>> forPaths(Collection<String> paths) throws Exception
+            {
+                return readAll
+                (
+                    paths,
+                    new Reader<List<String>>()
+                    {
+                        @Override
+                        public ListenableFuture<List<String>> read(String path, Stat stat)
+                        {
+                            return async.getChildren().storingStatIn(stat).forPath(path);
+                        }
+
+                        @Override
+                        public List<String> readInForeground(String path, Stat stat) throws Exception
+                        {
+                            return client.getChildren().storingStatIn(stat).forPath(path);
+                        }
+                    }
+                );
+            }
+        };
+    }
+
+    private <T> Map<String, BulkResult<T>> readAll(Collection<String> paths, Reader<T> reader) throws Exception
+    {
+        if ( client.isEventThread() )
+        {
+            // the background results are delivered on this very thread - waiting for them would deadlock
+            return readAllInForeground(paths, reader);
+        }
+
+        final Semaphore                         permits = new Semaphore(window);
+        Runnable                                releaser = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                permits.release();
+            }
+        };
+
+        Map<String, ListenableFuture<T>>        futures = Maps.newLinkedHashMap();
+        Map<String, Stat>                       stats = Maps.newHashMap();
+        for ( String path : paths )
+        {
+            if ( futures.containsKey(path) )
+            {
+                continue;
+            }
+
+            permits.acquire();
+            Stat                    stat = new Stat();
+            ListenableFuture<T>     future = reader.read(path, stat);
+            future.addListener(releaser, MoreExecutors.sameThreadExecutor());
+            futures.put(path, future);
+            stats.put(path, stat);
+        }
+
+        Map<String, BulkResult<T>>              results = Maps.newLinkedHashMap();
+        for ( Map.Entry<String, ListenableFuture<T>> entry : futures.entrySet() )
+        {
+            String          path = entry.getKey();
+            BulkResult<T>   result;
+            try
+            {
+                result = new BulkResult<T>(path, entry.getValue().get(), stats.get(path), null);
+            }
+            catch ( ExecutionException e )
+            {
+                Throwable   cause = e.getCause();
+                Throwables.propagateIfInstanceOf(cause, Error.class);
+                result = new BulkResult<T>(path, null, null, (Exception)cause);
+            }
+            results.put(path, result);
+        }
+        return Collections.unmodifiableMap(results);
+    }
+
+    private <T> Map<String, BulkResult<T>> readAllInForeground(Collection<String> paths, Reader<T> reader) throws Exception
+    {
+        Map<String, BulkResult<T>>              results = Maps.newLinkedHashMap();
+        for ( String path : paths )
+        {
+            if ( results.containsKey(path) )
+            {
+                continue;
+            }
+
+            Stat            stat = new Stat();
+            BulkResult<T>   result;
+            try
+            {
+                result = new BulkResult<T>(path, reader.readInForeground(path, stat), stat, null);
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+            catch ( Exception e )
+            {
+                result = new BulkResult<T>(path, null, null, e);
+            }
+            results.put(path, result);
+        }
+        return Collections.unmodifiableMap(results);
+    }
+}
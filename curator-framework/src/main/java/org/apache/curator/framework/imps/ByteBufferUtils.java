@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import java.nio.ByteBuffer;
+
+class ByteBufferUtils
+{
+    /**
+     * Return the remaining bytes of the buffer without changing its position. If the buffer
+     * is backed by an array that exactly matches the remaining bytes, the array is returned
+     * instead of a copy.
+     *
+     * @param buffer the buffer or null
+     * @return bytes or null
+     */
+    static byte[] toBytes(ByteBuffer buffer)
+    {
+        if ( buffer == null )
+        {
+            return null;
+        }
+
+        if ( buffer.hasArray() && (buffer.arrayOffset() == 0) && (buffer.position() == 0) && (buffer.remaining() == buffer.array().length) )
+        {
+            return buffer.array();
+        }
+
+        byte[]      bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private ByteBufferUtils()
+    {
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import org.apache.curator.framework.api.CompressionProvider;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * <p>
+ * A compression provider that writes a single header byte identifying the codec in front of
+ * the compressed data. When decompressing, the header byte selects the codec, so nodes written
+ * with different codecs can be read by the same provider. Data written by {@link GzipCompressionProvider}
+ * (the default provider), which has no header byte, is recognized from the gzip magic number and
+ * is also readable. Clients can therefore switch codecs without rewriting existing nodes. Note,
+ * however, that clients using a plain {@link GzipCompressionProvider} cannot read nodes written
+ * by this provider.
+ * </p>
+ *
+ * <p>
+ * The built in codecs are {@link #GZIP} and {@link #LZ4}. Additional codecs can be registered
+ * with their own ids. If the chosen codec does not make the data smaller, the data is
+ * stored uncompressed ({@link #STORED}) instead.
+ * </p>
+ */
+public class CodecCompressionProvider implements CompressionProvider
+{
+    /**
+     * Codec id: data is stored uncompressed
+     */
+    public static final byte        STORED = 0;
+
+    /**
+     * Codec id: gzip - see {@link GzipCompressionProvider}
+     */
+    public static final byte        GZIP = 1;
+
+    /**
+     * Codec id: LZ4 - see {@link LZ4CompressionProvider}
+     */
+    public static final byte        LZ4 = 2;
+
+    // first byte of the gzip magic number - i.e. data written by GzipCompressionProvider
+    private static final byte       UNPREFIXED_GZIP = 0x1f;
+
+    private static final int        HEADER_SIZE = 1;
+
+    private final byte                  writeCodec;
+    private final CompressionProvider[] additionalCodecs = new CompressionProvider[256];
+
+    /**
+     * Write with {@link #LZ4}
+     */
+    public CodecCompressionProvider()
+    {
+        this(LZ4);
+    }
+
+    /**
+     * @param writeCodec id of the codec to compress with - {@link #STORED}, {@link #GZIP} or {@link #LZ4}
+     */
+    public CodecCompressionProvider(byte writeCodec)
+    {
+        this(writeCodec, ImmutableMap.<Byte, CompressionProvider>of());
+    }
+
+    /**
+     * @param writeCodec id of the codec to compress with - a built in id or one of the additional codecs
+     * @param additionalCodecs additional codecs mapped by id. The ids must not clash with the built in
+     *                         ids or with <code>0x1f</code> (the first byte of gzip data)
+     */
+    public CodecCompressionProvider(byte writeCodec, Map<Byte, CompressionProvider> additionalCodecs)
+    {
+        for ( Map.Entry<Byte, CompressionProvider> entry : additionalCodecs.entrySet() )
+        {
+            byte        id = entry.getKey();
+            Preconditions.checkArgument(!isBuiltIn(id) && (id != UNPREFIXED_GZIP), "Reserved codec id: " + id);
+            this.additionalCodecs[id & 0xff] = Preconditions.checkNotNull(entry.getValue(), "codec cannot be null");
+        }
+        Preconditions.checkArgument(isBuiltIn(writeCodec) || (this.additionalCodecs[writeCodec & 0xff] != null), "Unknown codec id: " + writeCodec);
+        this.writeCodec = writeCodec;
+    }
+
+    @Override
+    public byte[] compress(String path, byte[] data) throws Exception
+    {
+        byte[]      bytes;
+        switch ( writeCodec )
+        {
+            case STORED:
+            {
+                bytes = null;
+                break;
+            }
+
+            case GZIP:
+            {
+                bytes = GzipCompressionProvider.compress(data, 0, data.length, HEADER_SIZE);
+                break;
+            }
+
+            case LZ4:
+            {
+                bytes = LZ4CompressionProvider.compress(data, 0, data.length, HEADER_SIZE);
+                break;
+            }
+
+            default:
+            {
+                byte[]      compressed = additionalCodecs[writeCodec & 0xff].compress(path, data);
+                bytes = new byte[HEADER_SIZE + compressed.length];
+                System.arraycopy(compressed, 0, bytes, HEADER_SIZE, compressed.length);
+                break;
+            }
+        }
+
+        if ( (bytes == null) || (bytes.length > (HEADER_SIZE + data.length)) )
+        {
+            bytes = new byte[HEADER_SIZE + data.length];
+            bytes[0] = STORED;
+            System.arraycopy(data, 0, bytes, HEADER_SIZE, data.length);
+        }
+        else
+        {
+            bytes[0] = writeCodec;
+        }
+        return bytes;
+    }
+
+    @Override
+    public byte[] decompress(String path, byte[] compressedData) throws Exception
+    {
+        if ( compressedData.length < HEADER_SIZE )
+        {
+            throw new IOException("Missing codec header: " + path);
+        }
+
+        byte        codec = compressedData[0];
+        switch ( codec )
+        {
+            case UNPREFIXED_GZIP:
+            {
+                return GzipCompressionProvider.decompress(compressedData, 0, compressedData.length);
+            }
+
+            case STORED:
+            {
+                return Arrays.copyOfRange(compressedData, HEADER_SIZE, compressedData.length);
+            }
+
+            case GZIP:
+            {
+                return GzipCompressionProvider.decompress(compressedData, HEADER_SIZE, compressedData.length - HEADER_SIZE);
+            }
+
+            case LZ4:
+            {
+                return LZ4CompressionProvider.decompress(compressedData, HEADER_SIZE, compressedData.length - HEADER_SIZE);
+            }
+
+            default:
+            {
+                CompressionProvider     additionalCodec = additionalCodecs[codec & 0xff];
+                if ( additionalCodec == null )
+                {
+                    throw new IOException("Unknown codec id " + codec + " for: " + path);
+                }
+                return additionalCodec.decompress(path, Arrays.copyOfRange(compressedData, HEADER_SIZE, compressedData.length));
+            }
+        }
+    }
+
+    private static boolean isBuiltIn(byte id)
+    {
+        return (id == STORED) || (id == GZIP) || (id == LZ4);
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+/**
+ * Per-thread scratch space for the compression providers. Compressed output is first
+ * written into the scratch array and then copied into an array of the exact size so
+ * that only one array is allocated per call.
+ */
+class CompressionBuffers
+{
+    // large enough for any znode allowed by ZooKeeper's default jute.maxbuffer plus codec overhead
+    private static final int                MAX_CACHED_SIZE = 2 * 1024 * 1024;
+
+    private static final ThreadLocal<byte[]> scratch = new ThreadLocal<byte[]>();
+
+    /**
+     * Return the calling thread's scratch array. The array is only valid until the next call
+     * from the same thread.
+     *
+     * @param minSize minimum size needed
+     * @return array at least <code>minSize</code> in length
+     */
+    static byte[] getScratch(int minSize)
+    {
+        byte[]      bytes = scratch.get();
+        if ( (bytes == null) || (bytes.length < minSize) )
+        {
+            bytes = new byte[minSize];
+            if ( minSize <= MAX_CACHED_SIZE )
+            {
+                scratch.set(bytes);
+            }
+        }
+        return bytes;
+    }
+
+    private CompressionBuffers()
+    {
+    }
+}
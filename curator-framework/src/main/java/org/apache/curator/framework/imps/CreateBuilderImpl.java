@@ -23,7 +23,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import org.apache.curator.RetryLoop;
-import org.apache.curator.TimeTrace;
+import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.api.*;
 import org.apache.curator.framework.api.transaction.CuratorTransactionBridge;
@@ -35,6 +35,7 @@ import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Op;
 import org.apache.zookeeper.data.ACL;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.Callable;
@@ -101,6 +102,12 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
                 transaction.add(Op.create(fixedPath, data, acling.getAclList(path), createMode), OperationType.CREATE, path);
                 return curatorTransaction;
             }
+
+            @Override
+            public CuratorTransactionBridge forPathFromBuffer(String path, ByteBuffer data) throws Exception
+            {
+                return forPath(path, ByteBufferUtils.toBytes(data));
+            }
         };
     }
 
@@ -177,6 +184,12 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
                 return CreateBuilderImpl.this.forPath(path, data);
             }
 
+            @Override
+            public String forPathFromBuffer(String path, ByteBuffer data) throws Exception
+            {
+                return CreateBuilderImpl.this.forPathFromBuffer(path, data);
+            }
+
             @Override
             public String forPath(String path) throws Exception
             {
@@ -239,6 +252,12 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
                 return CreateBuilderImpl.this.forPath(path, data);
             }
 
+            @Override
+            public String forPathFromBuffer(String path, ByteBuffer data) throws Exception
+            {
+                return CreateBuilderImpl.this.forPathFromBuffer(path, data);
+            }
+
             @Override
             public String forPath(String path) throws Exception
             {
@@ -313,6 +332,12 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
                 return CreateBuilderImpl.this.forPath(path, data);
             }
 
+            @Override
+            public String forPathFromBuffer(String path, ByteBuffer data) throws Exception
+            {
+                return CreateBuilderImpl.this.forPathFromBuffer(path, data);
+            }
+
             @Override
             public String forPath(String path) throws Exception
             {
@@ -348,6 +373,12 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
                 return CreateBuilderImpl.this.forPath(path, data);
             }
 
+            @Override
+            public String forPathFromBuffer(String path, ByteBuffer data) throws Exception
+            {
+                return CreateBuilderImpl.this.forPathFromBuffer(path, data);
+            }
+
             @Override
             public String forPath(String path) throws Exception
             {
@@ -418,7 +449,23 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
         {
             data = client.getCompressionProvider().compress(givenPath, data);
         }
+        return internalForPath(givenPath, data);
+    }
+
+    @Override
+    public String forPathFromBuffer(String givenPath, ByteBuffer data) throws Exception
+    {
+        CompressionProvider     compressionProvider = client.getCompressionProvider();
+        if ( compress && (compressionProvider instanceof BufferCompressionProvider) )
+        {
+            ByteBuffer      compressedData = ((BufferCompressionProvider)compressionProvider).compress(givenPath, data);
+            return internalForPath(givenPath, ByteBufferUtils.toBytes(compressedData));
+        }
+        return forPath(givenPath, ByteBufferUtils.toBytes(data));
+    }
 
+    private String internalForPath(String givenPath, byte[] data) throws Exception
+    {
         final String adjustedPath = adjustPath(client.fixForNamespace(givenPath));
 
         String returnPath = null;
@@ -462,7 +509,7 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
     @Override
     public void performBackgroundOperation(final OperationAndData<PathAndBytes> operationAndData) throws Exception
     {
-        final TimeTrace trace = client.getZookeeperClient().startTracer("CreateBuilderImpl-Background");
+        final OperationTrace trace = client.getZookeeperClient().startAdvancedTracer("CreateBuilderImpl-Background");
         client.getZooKeeper().create
             (
                 operationAndData.getData().getPath(),
@@ -474,7 +521,7 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
                     @Override
                     public void processResult(int rc, String path, Object ctx, String name)
                     {
-                        trace.commit();
+                        trace.setReturnCode(rc).setPath(path).setRequestBytesLength(operationAndData.getData().getData()).setRetryCount(operationAndData.getRetryCount()).setCompressed(compress).commit();
 
                         if ( (rc == KeeperException.Code.NONODE.intValue()) && createParentsIfNeeded )
                         {
@@ -513,7 +560,7 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
                 client.queueOperation(mainOperationAndData);
             }
         };
-        OperationAndData<PathAndBytes> parentOperation = new OperationAndData<PathAndBytes>(operation, mainOperationAndData.getData(), null, null, backgrounding.getContext());
+        OperationAndData<PathAndBytes> parentOperation = new OperationAndData<PathAndBytes>(operation, mainOperationAndData.getData(), mainOperationAndData.getCallback(), null, backgrounding.getContext(), CuratorEventType.CREATE);
         client.queueOperation(parentOperation);
     }
 
@@ -560,6 +607,12 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
                         return CreateBuilderImpl.this.forPath(path, data);
                     }
 
+                    @Override
+                    public String forPathFromBuffer(String path, ByteBuffer data) throws Exception
+                    {
+                        return CreateBuilderImpl.this.forPathFromBuffer(path, data);
+                    }
+
                     @Override
                     public String forPath(String path) throws Exception
                     {
@@ -574,6 +627,12 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
                 return CreateBuilderImpl.this.forPath(path, data);
             }
 
+            @Override
+            public String forPathFromBuffer(String path, ByteBuffer data) throws Exception
+            {
+                return CreateBuilderImpl.this.forPathFromBuffer(path, data);
+            }
+
             @Override
             public String forPath(String path) throws Exception
             {
@@ -599,7 +658,7 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
                     }
                 }
             },
-            backgrounding.getContext())
+            backgrounding.getContext(), CuratorEventType.CREATE)
         {
             @Override
             void callPerformBackgroundOperation() throws Exception
@@ -650,7 +709,7 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
 
     private String pathInForeground(final String path, final byte[] data) throws Exception
     {
-        TimeTrace trace = client.getZookeeperClient().startTracer("CreateBuilderImpl-Foreground");
+        OperationTrace trace = client.getZookeeperClient().startAdvancedTracer("CreateBuilderImpl-Foreground").setPath(path).setRequestBytesLength(data).setCompressed(compress);
 
         final AtomicBoolean firstTime = new AtomicBoolean(true);
         String returnPath = RetryLoop.callWithRetry
@@ -696,7 +755,8 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
                         }
                         return createdPath;
                     }
-                }
+                },
+                trace
             );
 
         trace.commit();
@@ -705,7 +765,7 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
 
     private String findProtectedNodeInForeground(final String path) throws Exception
     {
-        TimeTrace trace = client.getZookeeperClient().startTracer("CreateBuilderImpl-findProtectedNodeInForeground");
+        OperationTrace trace = client.getZookeeperClient().startAdvancedTracer("CreateBuilderImpl-findProtectedNodeInForeground").setPath(path);
 
         String returnPath = RetryLoop.callWithRetry
             (
@@ -729,7 +789,8 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
                         }
                         return foundNode;
                     }
-                }
+                },
+                trace
             );
 
         trace.commit();
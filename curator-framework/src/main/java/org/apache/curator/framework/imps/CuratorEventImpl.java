@@ -39,6 +39,7 @@ class CuratorEventImpl implements CuratorEvent
     private final byte[]            data;
     private final WatchedEvent      watchedEvent;
     private final List<ACL>         aclList;
+    private final Throwable         exception;
 
     @Override
     public CuratorEventType getType()
@@ -118,6 +119,27 @@ class CuratorEventImpl implements CuratorEvent
     }
 
     CuratorEventImpl(CuratorFrameworkImpl client, CuratorEventType type, int resultCode, String path, String name, Object context, Stat stat, byte[] data, List<String> children, WatchedEvent watchedEvent, List<ACL> aclList)
+    {
+        this(client, type, resultCode, path, name, context, stat, data, children, watchedEvent, aclList, null);
+    }
+
+    /**
+     * Create an event for a background operation that failed with an exception instead of a ZooKeeper result
+     */
+    CuratorEventImpl(CuratorFrameworkImpl client, CuratorEventType type, int resultCode, String path, Object context, Throwable exception)
+    {
+        this(client, type, resultCode, path, null, context, null, null, null, null, null, exception);
+    }
+
+    /**
+     * @return the exception that failed the operation or null
+     */
+    Throwable getException()
+    {
+        return exception;
+    }
+
+    private CuratorEventImpl(CuratorFrameworkImpl client, CuratorEventType type, int resultCode, String path, String name, Object context, Stat stat, byte[] data, List<String> children, WatchedEvent watchedEvent, List<ACL> aclList, Throwable exception)
     {
         this.type = type;
         this.resultCode = resultCode;
@@ -129,5 +151,6 @@ class CuratorEventImpl implements CuratorEvent
         this.children = children;
         this.watchedEvent = (watchedEvent != null) ? new NamespaceWatchedEvent(client, watchedEvent) : watchedEvent;
         this.aclList = (aclList != null) ? ImmutableList.copyOf(aclList) : null;
+        this.exception = exception;
     }
 }
@@ -20,6 +20,7 @@ package org.apache.curator.framework.imps;
 
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.curator.CuratorConnectionLossException;
 import org.apache.curator.CuratorZookeeperClient;
 import org.apache.curator.RetryLoop;
@@ -27,9 +28,14 @@ import org.apache.curator.TimeTrace;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.framework.api.*;
+import org.apache.curator.framework.api.async.AsyncCuratorFramework;
+import org.apache.curator.framework.api.bulk.BulkReadBuilder;
+import org.apache.curator.framework.api.cache.ReadCache;
+import org.apache.curator.framework.api.transaction.BatchingWriter;
 import org.apache.curator.framework.api.transaction.CuratorTransaction;
 import org.apache.curator.framework.listen.Listenable;
 import org.apache.curator.framework.listen.ListenerContainer;
+import org.apache.curator.framework.listen.ListenerFunction;
 import org.apache.curator.framework.state.ConnectionState;
 import org.apache.curator.framework.state.ConnectionStateListener;
 import org.apache.curator.framework.state.ConnectionStateManager;
@@ -44,11 +50,7 @@ import org.apache.zookeeper.ZooKeeper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.Arrays;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Callable;
-import java.util.concurrent.DelayQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -58,8 +60,25 @@ public class CuratorFrameworkImpl implements CuratorFramework
     private final CuratorZookeeperClient                                client;
     private final ListenerContainer<CuratorListener>                    listeners;
     private final ListenerContainer<UnhandledErrorListener>             unhandledErrorListeners;
+    private final ListenerFunction<CuratorListener, CuratorEvent>       eventListenerFunction = new ListenerFunction<CuratorListener, CuratorEvent>()
+    {
+        @Override
+        public void apply(CuratorListener listener, CuratorEvent event)
+        {
+            try
+            {
+                TimeTrace trace = client.startTracer("EventListener");
+                listener.eventReceived(CuratorFrameworkImpl.this, event);
+                trace.commit();
+            }
+            catch ( Exception e )
+            {
+                logError("Event listener threw exception", e);
+            }
+        }
+    };
     private final ThreadFactory                                         threadFactory;
-    private final BlockingQueue<OperationAndData<?>>                    backgroundOperations;
+    private final BackgroundOperationEngine                             backgroundOperations;
     private final NamespaceImpl                                         namespace;
     private final ConnectionStateManager                                connectionStateManager;
     private final AtomicReference<AuthInfo>                             authInfo = new AtomicReference<AuthInfo>();
@@ -69,8 +88,7 @@ public class CuratorFrameworkImpl implements CuratorFramework
     private final ACLProvider                                           aclProvider;
     private final NamespaceFacadeCache                                  namespaceFacadeCache;
     private final NamespaceWatcherMap                                   namespaceWatcherMap = new NamespaceWatcherMap(this);
-
-    private volatile ExecutorService                                    executorService;
+    private final WatcherMultiplexer                                    watcherMultiplexer;
 
     interface DebugBackgroundListener
     {
@@ -135,15 +153,17 @@ public class CuratorFrameworkImpl implements CuratorFramework
             builder.getRetryPolicy(),
             builder.canBeReadOnly()
         );
+        client.setCircuitBreakerThresholdMs(builder.getCircuitBreakerThresholdMs());
 
         listeners = new ListenerContainer<CuratorListener>();
         unhandledErrorListeners = new ListenerContainer<UnhandledErrorListener>();
-        backgroundOperations = new DelayQueue<OperationAndData<?>>();
         namespace = new NamespaceImpl(this, builder.getNamespace());
         threadFactory = getThreadFactory(builder);
-        connectionStateManager = new ConnectionStateManager(this, builder.getThreadFactory());
+        backgroundOperations = new BackgroundOperationEngine(this, builder.getBackgroundThreads(), threadFactory, builder.getBackgroundBatchSize(), builder.getMaxBackgroundInFlight());
+        connectionStateManager = new ConnectionStateManager(this, builder.getThreadFactory(), builder.getConnectionStateCoalescingMs());
         compressionProvider = builder.getCompressionProvider();
         aclProvider = builder.getAclProvider();
+        watcherMultiplexer = builder.useWatcherMultiplexing() ? new WatcherMultiplexer() : null;
         state = new AtomicReference<CuratorFrameworkState>(CuratorFrameworkState.LATENT);
 
         byte[]      builderDefaultData = builder.getDefaultData();
@@ -200,10 +220,23 @@ public class CuratorFrameworkImpl implements CuratorFramework
         compressionProvider = parent.compressionProvider;
         aclProvider = parent.aclProvider;
         namespaceFacadeCache = parent.namespaceFacadeCache;
+        watcherMultiplexer = parent.watcherMultiplexer;
         namespace = new NamespaceImpl(this, null);
         state = parent.state;
     }
 
+    /**
+     * Returns true if the calling thread is ZooKeeper's event thread, i.e. the thread that calls
+     * watchers and background callbacks. Blocking on the result of a background operation in
+     * this thread deadlocks.
+     *
+     * @return true/false
+     */
+    boolean isEventThread()
+    {
+        return client.isEventThread();
+    }
+
     @Override
     public CuratorFrameworkState getState()
     {
@@ -231,20 +264,7 @@ public class CuratorFrameworkImpl implements CuratorFramework
         {
             connectionStateManager.start(); // ordering dependency - must be called before client.start()
             client.start();
-            executorService = Executors.newFixedThreadPool(2, threadFactory);  // 1 for listeners, 1 for background ops
-
-            executorService.submit
-            (
-                new Callable<Object>()
-                {
-                    @Override
-                    public Object call() throws Exception
-                    {
-                        backgroundOperationsLoop();
-                        return null;
-                    }
-                }
-            );
+            backgroundOperations.start();
         }
         catch ( Exception e )
         {
@@ -284,10 +304,11 @@ public class CuratorFrameworkImpl implements CuratorFramework
             connectionStateManager.close();
             client.close();
             namespaceWatcherMap.close();
-            if ( executorService != null )
+            if ( watcherMultiplexer != null )
             {
-                executorService.shutdownNow();
+                watcherMultiplexer.clear();
             }
+            backgroundOperations.close();
         }
     }
 
@@ -384,6 +405,42 @@ public class CuratorFrameworkImpl implements CuratorFramework
         return new CuratorTransactionImpl(this);
     }
 
+    @Override
+    public BatchingWriter newBatchingWriter(int maxBatchSize, int maxDelayMs)
+    {
+        Preconditions.checkState(isStarted(), "instance must be started before calling this method");
+
+        return new BatchingWriterImpl(this, maxBatchSize, maxDelayMs);
+    }
+
+    @Override
+    public AsyncCuratorFramework async()
+    {
+        return async(MoreExecutors.sameThreadExecutor());
+    }
+
+    @Override
+    public AsyncCuratorFramework async(Executor executor)
+    {
+        return new AsyncCuratorFrameworkImpl(this, executor);
+    }
+
+    @Override
+    public BulkReadBuilder bulk()
+    {
+        Preconditions.checkState(isStarted(), "instance must be started before calling this method");
+
+        return new BulkReadBuilderImpl(this);
+    }
+
+    @Override
+    public ReadCache newReadCache(int maxEntries)
+    {
+        Preconditions.checkState(isStarted(), "instance must be started before calling this method");
+
+        return new ReadCacheImpl(this, maxEntries);
+    }
+
     @Override
     public Listenable<ConnectionStateListener> getConnectionStateListenable()
     {
@@ -421,7 +478,7 @@ public class CuratorFrameworkImpl implements CuratorFramework
     protected void internalSync(CuratorFrameworkImpl impl, String path, Object context)
     {
         BackgroundOperation<String> operation = new BackgroundSyncImpl(impl, context);
-        performBackgroundOperation(new OperationAndData<String>(operation, path, null, null, context));
+        performBackgroundOperation(new OperationAndData<String>(operation, path, null, null, context, CuratorEventType.SYNC));
     }
 
     @Override
@@ -466,7 +523,14 @@ public class CuratorFrameworkImpl implements CuratorFramework
         boolean     isInitialExecution = (event == null);
         if ( isInitialExecution )
         {
-            performBackgroundOperation(operationAndData);
+            if ( backgroundOperations.isPipelined() )
+            {
+                backgroundOperations.submit(operationAndData);
+            }
+            else
+            {
+                performBackgroundOperation(operationAndData);
+            }
             return;
         }
 
@@ -492,11 +556,15 @@ public class CuratorFrameworkImpl implements CuratorFramework
         {
             queueOperation(operationAndData);
         }
+        else
+        {
+            backgroundOperations.release(operationAndData);
+        }
     }
 
     <DATA_TYPE> void queueOperation(OperationAndData<DATA_TYPE> operationAndData)
     {
-        backgroundOperations.offer(operationAndData);
+        backgroundOperations.queue(operationAndData);
     }
 
     void logError(String reason, final Throwable e)
@@ -556,11 +624,16 @@ public class CuratorFrameworkImpl implements CuratorFramework
         return namespaceWatcherMap;
     }
 
+    WatcherMultiplexer getWatcherMultiplexer()
+    {
+        return watcherMultiplexer;
+    }
+
     @SuppressWarnings({"ThrowableResultOfMethodCallIgnored"})
     private <DATA_TYPE> boolean checkBackgroundRetry(OperationAndData<DATA_TYPE> operationAndData, CuratorEvent event)
     {
         boolean doRetry = false;
-        if ( client.getRetryPolicy().allowRetry(operationAndData.getThenIncrementRetryCount(), operationAndData.getElapsedTimeMs(), operationAndData) )
+        if ( allowBackgroundRetry(operationAndData) )
         {
             doRetry = true;
         }
@@ -594,6 +667,16 @@ public class CuratorFrameworkImpl implements CuratorFramework
         return doRetry;
     }
 
+    private boolean allowBackgroundRetry(OperationAndData<?> operationAndData)
+    {
+        if ( client.isCircuitBreakerOpen() )
+        {
+            client.getTracerDriver().addCount("retries-short-circuited", 1);
+            return false;
+        }
+        return client.getRetryPolicy().allowRetry(operationAndData.getThenIncrementRetryCount(), operationAndData.getElapsedTimeMs(), operationAndData);
+    }
+
     private <DATA_TYPE> void sendToBackgroundCallback(OperationAndData<DATA_TYPE> operationAndData, CuratorEvent event)
     {
         try
@@ -602,11 +685,36 @@ public class CuratorFrameworkImpl implements CuratorFramework
         }
         catch ( Exception e )
         {
-            handleBackgroundOperationException(operationAndData, e);
+            // the callback itself failed - don't send it an error event for its own exception
+            handleBackgroundOperationException(operationAndData, e, false);
         }
     }
 
     private<DATA_TYPE> void handleBackgroundOperationException(OperationAndData<DATA_TYPE> operationAndData, Throwable e)
+    {
+        handleBackgroundOperationException(operationAndData, e, true);
+    }
+
+    /**
+     * Sends an event with an error result code to the operation's callback. This is how callbacks learn
+     * about operations that failed before ZooKeeper could produce a result (e.g. retries gave up on a
+     * connection loss or the operation threw).
+     */
+    private<DATA_TYPE> void sendErrorToBackgroundCallback(OperationAndData<DATA_TYPE> operationAndData, Throwable e)
+    {
+        int             resultCode = (e instanceof Exception) ? RetryLoop.getReturnCode((Exception)e) : KeeperException.Code.SYSTEMERROR.intValue();
+        CuratorEvent    event = new CuratorEventImpl(this, operationAndData.getEventType(), resultCode, operationAndData.getPath(), operationAndData.getContext(), e);
+        try
+        {
+            operationAndData.getCallback().processResult(this, event);
+        }
+        catch ( Exception callbackException )
+        {
+            logError("Background callback threw while handling an error", callbackException);
+        }
+    }
+
+    private<DATA_TYPE> void handleBackgroundOperationException(OperationAndData<DATA_TYPE> operationAndData, Throwable e, boolean notifyCallback)
     {
         do
         {
@@ -616,13 +724,13 @@ public class CuratorFrameworkImpl implements CuratorFramework
                 {
                     log.debug("Retry-able exception received", e);
                 }
-                if ( client.getRetryPolicy().allowRetry(operationAndData.getThenIncrementRetryCount(), operationAndData.getElapsedTimeMs(), operationAndData) )
+                if ( allowBackgroundRetry(operationAndData) )
                 {
                     if ( !Boolean.getBoolean(DebugUtils.PROPERTY_DONT_LOG_CONNECTION_ISSUES) )
                     {
                         log.debug("Retrying operation");
                     }
-                    backgroundOperations.offer(operationAndData);
+                    backgroundOperations.queue(operationAndData);
                     break;
                 }
                 else
@@ -638,31 +746,26 @@ public class CuratorFrameworkImpl implements CuratorFramework
                 }
             }
 
+            if ( operationAndData != null )
+            {
+                backgroundOperations.release(operationAndData);
+                if ( notifyCallback && (operationAndData.getCallback() != null) )
+                {
+                    sendErrorToBackgroundCallback(operationAndData, e);
+                }
+            }
             logError("Background exception was not retry-able or retry gave up", e);
         } while ( false );
     }
 
-    private void backgroundOperationsLoop()
+    void performQueuedOperation(OperationAndData<?> operationAndData)
     {
-        while ( !Thread.interrupted() )
+        if ( debugListener != null )
         {
-            OperationAndData<?>         operationAndData;
-            try
-            {
-                operationAndData = backgroundOperations.take();
-                if ( debugListener != null )
-                {
-                    debugListener.listen(operationAndData);
-                }
-            }
-            catch ( InterruptedException e )
-            {
-                Thread.currentThread().interrupt();
-                break;
-            }
-
-            performBackgroundOperation(operationAndData);
+            debugListener.listen(operationAndData);
         }
+
+        performBackgroundOperation(operationAndData);
     }
 
     private void performBackgroundOperation(OperationAndData<?> operationAndData)
@@ -688,7 +791,8 @@ public class CuratorFrameworkImpl implements CuratorFramework
                 }
                 else
                 {
-                    handleBackgroundOperationException(operationAndData, e);
+                    // checkBackgroundRetry() has already sent the event to the callback
+                    handleBackgroundOperationException(operationAndData, e, false);
                 }
             }
             else
@@ -702,27 +806,7 @@ public class CuratorFrameworkImpl implements CuratorFramework
     {
         validateConnection(curatorEvent);
 
-        listeners.forEach
-        (
-            new Function<CuratorListener, Void>()
-            {
-                @Override
-                public Void apply(CuratorListener listener)
-                {
-                    try
-                    {
-                        TimeTrace trace = client.startTracer("EventListener");
-                        listener.eventReceived(CuratorFrameworkImpl.this, curatorEvent);
-                        trace.commit();
-                    }
-                    catch ( Exception e )
-                    {
-                        logError("Event listener threw exception", e);
-                    }
-                    return null;
-                }
-            }
-        );
+        listeners.forEach(eventListenerFunction, curatorEvent);
     }
 
     private void validateConnection(CuratorEvent curatorEvent)
@@ -21,12 +21,16 @@ package org.apache.curator.framework.imps;
 import com.google.common.collect.Lists;
 import org.apache.curator.framework.api.transaction.OperationType;
 import org.apache.zookeeper.MultiTransactionRecord;
+import org.apache.jute.Record;
 import org.apache.zookeeper.Op;
+import org.apache.zookeeper.proto.CreateRequest;
+import org.apache.zookeeper.proto.SetDataRequest;
 import java.util.List;
 
 class CuratorMultiTransactionRecord extends MultiTransactionRecord
 {
     private final List<TypeAndPath>     metadata = Lists.newArrayList();
+    private long                        dataBytesLength = 0;
 
     static class TypeAndPath
     {
@@ -50,6 +54,7 @@ class CuratorMultiTransactionRecord extends MultiTransactionRecord
     {
         super.add(op);
         metadata.add(new TypeAndPath(type, forPath));
+        dataBytesLength += getDataBytesLength(op);
     }
     
     TypeAndPath     getMetadata(int index)
@@ -61,4 +66,24 @@ class CuratorMultiTransactionRecord extends MultiTransactionRecord
     {
         return metadata.size();
     }
+
+    long            getDataBytesLength()
+    {
+        return dataBytesLength;
+    }
+
+    private static long getDataBytesLength(Op op)
+    {
+        Record      record = op.toRequestRecord();
+        byte[]      data = null;
+        if ( record instanceof CreateRequest )
+        {
+            data = ((CreateRequest)record).getData();
+        }
+        else if ( record instanceof SetDataRequest )
+        {
+            data = ((SetDataRequest)record).getData();
+        }
+        return (data != null) ? data.length : 0;
+    }
 }
@@ -21,6 +21,7 @@ package org.apache.curator.framework.imps;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import org.apache.curator.RetryLoop;
+import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.api.Pathable;
 import org.apache.curator.framework.api.transaction.CuratorTransaction;
 import org.apache.curator.framework.api.transaction.CuratorTransactionBridge;
@@ -117,6 +118,7 @@ class CuratorTransactionImpl implements CuratorTransaction, CuratorTransactionBr
         Preconditions.checkState(!isCommitted, "transaction already committed");
         isCommitted = true;
 
+        OperationTrace      trace = client.getZookeeperClient().startAdvancedTracer("CuratorTransactionImpl-Foreground").setRequestBytesLength(transaction.getDataBytesLength());
         final AtomicBoolean firstTime = new AtomicBoolean(true);
         List<OpResult>      resultList = RetryLoop.callWithRetry
         (
@@ -128,9 +130,11 @@ class CuratorTransactionImpl implements CuratorTransaction, CuratorTransactionBr
                 {
                     return doOperation(firstTime);
                 }
-            }
+            },
+            trace
         );
-        
+        trace.commit();
+
         if ( resultList.size() != transaction.metadataSize() )
         {
             throw new IllegalStateException(String.format("Result size (%d) doesn't match input size (%d)", resultList.size(), transaction.metadataSize()));
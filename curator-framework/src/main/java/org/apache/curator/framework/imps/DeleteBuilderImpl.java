@@ -19,7 +19,7 @@
 package org.apache.curator.framework.imps;
 
 import org.apache.curator.RetryLoop;
-import org.apache.curator.TimeTrace;
+import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.api.BackgroundCallback;
 import org.apache.curator.framework.api.BackgroundPathable;
 import org.apache.curator.framework.api.BackgroundVersionable;
@@ -143,7 +143,7 @@ class DeleteBuilderImpl implements DeleteBuilder, BackgroundOperation<String>
     @Override
     public void performBackgroundOperation(final OperationAndData<String> operationAndData) throws Exception
     {
-        final TimeTrace   trace = client.getZookeeperClient().startTracer("DeleteBuilderImpl-Background");
+        final OperationTrace trace = client.getZookeeperClient().startAdvancedTracer("DeleteBuilderImpl-Background");
         client.getZooKeeper().delete
         (
             operationAndData.getData(),
@@ -153,7 +153,7 @@ class DeleteBuilderImpl implements DeleteBuilder, BackgroundOperation<String>
                 @Override
                 public void processResult(int rc, String path, Object ctx)
                 {
-                    trace.commit();
+                    trace.setReturnCode(rc).setPath(path).setRetryCount(operationAndData.getRetryCount()).commit();
                     if ((rc == KeeperException.Code.NOTEMPTY.intValue()) && deletingChildrenIfNeeded) {
                         backgroundDeleteChildrenThenNode(operationAndData);
                     } else {
@@ -184,7 +184,7 @@ class DeleteBuilderImpl implements DeleteBuilder, BackgroundOperation<String>
                 client.queueOperation(mainOperationAndData);
             }
         };
-        OperationAndData<String> parentOperation = new OperationAndData<String>(operation, mainOperationAndData.getData(), null, null, backgrounding.getContext());
+        OperationAndData<String> parentOperation = new OperationAndData<String>(operation, mainOperationAndData.getData(), mainOperationAndData.getCallback(), null, backgrounding.getContext(), CuratorEventType.DELETE);
         client.queueOperation(parentOperation);
     }
 
@@ -208,7 +208,7 @@ class DeleteBuilderImpl implements DeleteBuilder, BackgroundOperation<String>
                     }
                 };
             }
-            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), errorCallback, backgrounding.getContext()), null);
+            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), errorCallback, backgrounding.getContext(), CuratorEventType.DELETE), null);
         }
         else
         {
@@ -224,7 +224,7 @@ class DeleteBuilderImpl implements DeleteBuilder, BackgroundOperation<String>
 
     private void pathInForeground(final String path, String unfixedPath) throws Exception
     {
-        TimeTrace       trace = client.getZookeeperClient().startTracer("DeleteBuilderImpl-Foreground");
+        OperationTrace  trace = client.getZookeeperClient().startAdvancedTracer("DeleteBuilderImpl-Foreground").setPath(path);
         try
         {
             RetryLoop.callWithRetry
@@ -246,7 +246,8 @@ class DeleteBuilderImpl implements DeleteBuilder, BackgroundOperation<String>
                         }
                         return null;
                     }
-                }
+                },
+                trace
             );
         }
         catch ( KeeperException.NodeExistsException e )
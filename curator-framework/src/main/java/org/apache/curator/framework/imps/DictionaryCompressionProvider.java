@@ -0,0 +1,375 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CompressionProvider;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * <p>
+ * Deflate compression using a preset dictionary. Small payloads such as JSON documents
+ * compress poorly on their own because there is no shared context to draw from. A dictionary
+ * containing representative content (e.g. a few typical payloads concatenated, most common
+ * content last - only the final 32K is used) gives far better ratios for sub-1K payloads.
+ * </p>
+ *
+ * <p>
+ * Dictionaries are stored as sequential children of a dictionary path and published via
+ * {@link #publishDictionary(CuratorFramework, String, byte[])}. Each published dictionary is
+ * a new version and versions are never modified. Compressed data records the version it was written
+ * with so that older data remains readable after a new dictionary is published. New data is written
+ * with the version loaded by {@link #start(CuratorFramework)}/{@link #refresh()}, which also load and cache
+ * every other published version. A dictionary published since the last refresh is loaded on demand when data
+ * that uses it is read - except in ZooKeeper's event thread (i.e. for background reads) where blocking would
+ * stall all watchers and callbacks. There, the read fails with an IOException and the dictionary is loaded
+ * in the background.
+ * </p>
+ *
+ * Usage:<br/>
+ * <code><pre>
+ * DictionaryCompressionProvider provider = new DictionaryCompressionProvider("/dictionaries/instances");
+ * CuratorFramework client = CuratorFrameworkFactory.builder().compressionProvider(provider)...build();
+ * client.start();
+ * provider.start(client);
+ * </pre></code>
+ */
+public class DictionaryCompressionProvider implements CompressionProvider
+{
+    private static final String         DICTIONARY_PREFIX = "dictionary-";
+    private static final int            NO_DICTIONARY = -1;
+    private static final int            MAX_DEFLATE_RATIO = 1032;
+
+    private final String                                dictionaryPath;
+    private final AtomicReference<CuratorFramework>     client = new AtomicReference<CuratorFramework>();
+    private final ConcurrentMap<Integer, byte[]>        dictionaries = Maps.newConcurrentMap();
+    private final Set<Integer>                          loadingVersions = Sets.newSetFromMap(Maps.<Integer, Boolean>newConcurrentMap());
+    private volatile int                                currentVersion = NO_DICTIONARY;
+
+    private static final ThreadLocal<Deflater> deflaters = new ThreadLocal<Deflater>()
+    {
+        @Override
+        protected Deflater initialValue()
+        {
+            return new Deflater(Deflater.BEST_COMPRESSION, true);
+        }
+    };
+
+    private static final ThreadLocal<Inflater> inflaters = new ThreadLocal<Inflater>()
+    {
+        @Override
+        protected Inflater initialValue()
+        {
+            return new Inflater(true);
+        }
+    };
+
+    /**
+     * Publish a new dictionary version
+     *
+     * @param client the client
+     * @param dictionaryPath parent path of the dictionaries
+     * @param dictionary the dictionary
+     * @return the new version
+     * @throws Exception ZooKeeper errors
+     */
+    public static int publishDictionary(CuratorFramework client, String dictionaryPath, byte[] dictionary) throws Exception
+    {
+        Preconditions.checkArgument(dictionary.length > 0, "dictionary cannot be empty");
+        String      path = client.create().creatingParentsIfNeeded().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(ZKPaths.makePath(dictionaryPath, DICTIONARY_PREFIX), dictionary);
+        return getVersion(ZKPaths.getNodeFromPath(path));
+    }
+
+    /**
+     * @param dictionaryPath parent path of the dictionaries
+     */
+    public DictionaryCompressionProvider(String dictionaryPath)
+    {
+        this.dictionaryPath = Preconditions.checkNotNull(dictionaryPath, "dictionaryPath cannot be null");
+    }
+
+    /**
+     * Load the latest dictionary. Must be called once the client has been started. Until then, data
+     * is compressed without a dictionary and data written with a dictionary cannot be read.
+     *
+     * @param client the client that dictionaries are read with
+     * @throws Exception ZooKeeper errors
+     */
+    public void start(CuratorFramework client) throws Exception
+    {
+        Preconditions.checkState(this.client.compareAndSet(null, client), "Cannot be started more than once");
+        refresh();
+    }
+
+    /**
+     * Load any dictionaries that aren't loaded yet and use the latest for new data
+     *
+     * @throws Exception ZooKeeper errors
+     */
+    public void refresh() throws Exception
+    {
+        CuratorFramework    localClient = getClient();
+
+        List<String>        children;
+        try
+        {
+            children = localClient.getChildren().forPath(dictionaryPath);
+        }
+        catch ( KeeperException.NoNodeException ignore )
+        {
+            return;
+        }
+
+        int     latestVersion = NO_DICTIONARY;
+        for ( String child : children )
+        {
+            if ( child.startsWith(DICTIONARY_PREFIX) )
+            {
+                int     version = getVersion(child);
+                if ( !dictionaries.containsKey(version) )
+                {
+                    loadDictionary(version);
+                }
+                latestVersion = Math.max(latestVersion, version);
+            }
+        }
+        if ( latestVersion > currentVersion )
+        {
+            currentVersion = latestVersion;
+        }
+    }
+
+    /**
+     * Return the dictionary version used for new data
+     *
+     * @return version or -1 if there is no dictionary
+     */
+    public int getDictionaryVersion()
+    {
+        return currentVersion;
+    }
+
+    @Override
+    public byte[] compress(String path, byte[] data) throws Exception
+    {
+        int         version = currentVersion;
+        byte[]      dictionary = (version != NO_DICTIONARY) ? dictionaries.get(version) : null;
+
+        // header: dictionary version + 1 (0 is no dictionary) and the uncompressed length, both as varints
+        byte[]      output = CompressionBuffers.getScratch(10 + data.length + (data.length >> 12) + (data.length >> 14) + 13);
+        int         outputLength = writeVarInt(output, 0, version + 1);
+        outputLength = writeVarInt(output, outputLength, data.length);
+
+        Deflater    deflater = deflaters.get();
+        try
+        {
+            if ( dictionary != null )
+            {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(data);
+            deflater.finish();
+            while ( !deflater.finished() )
+            {
+                if ( outputLength == output.length )
+                {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                outputLength += deflater.deflate(output, outputLength, output.length - outputLength);
+            }
+        }
+        finally
+        {
+            deflater.reset();
+        }
+        return Arrays.copyOf(output, outputLength);
+    }
+
+    @Override
+    public byte[] decompress(String path, byte[] compressedData) throws Exception
+    {
+        int[]       position = new int[1];
+        int         version = readVarInt(compressedData, position) - 1;
+        int         length = readVarInt(compressedData, position);
+        if ( (length < 0) || ((long)length > ((long)compressedData.length * MAX_DEFLATE_RATIO)) )
+        {
+            throw new IOException("Invalid uncompressed length " + length + " for: " + path);
+        }
+        byte[]      dictionary = (version != NO_DICTIONARY) ? getDictionary(version) : null;
+
+        byte[]      bytes = new byte[length];
+        Inflater    inflater = inflaters.get();
+        try
+        {
+            if ( dictionary != null )
+            {
+                inflater.setDictionary(dictionary);
+            }
+            inflater.setInput(compressedData, position[0], compressedData.length - position[0]);
+            int     bytesRead = 0;
+            while ( !inflater.finished() && (bytesRead < bytes.length) )
+            {
+                int     count = inflater.inflate(bytes, bytesRead, bytes.length - bytesRead);
+                if ( (count == 0) && !inflater.finished() )
+                {
+                    throw new IOException("Compressed data is truncated: " + path);
+                }
+                bytesRead += count;
+            }
+            if ( bytesRead != bytes.length )
+            {
+                throw new IOException("Uncompressed length mismatch for: " + path);
+            }
+        }
+        catch ( DataFormatException e )
+        {
+            throw new IOException("Corrupt compressed data for: " + path, e);
+        }
+        finally
+        {
+            inflater.reset();
+        }
+        return bytes;
+    }
+
+    private byte[] getDictionary(int version) throws Exception
+    {
+        byte[]      dictionary = dictionaries.get(version);
+        if ( dictionary != null )
+        {
+            return dictionary;
+        }
+
+        CuratorFramework    localClient = getClient();
+        if ( (localClient instanceof CuratorFrameworkImpl) && ((CuratorFrameworkImpl)localClient).isEventThread() )
+        {
+            loadDictionaryInBackground(version);
+            throw new IOException("Dictionary version " + version + " is not loaded yet");
+        }
+        return loadDictionary(version);
+    }
+
+    private byte[] loadDictionary(int version) throws Exception
+    {
+        byte[]      dictionary;
+        try
+        {
+            dictionary = getClient().getData().forPath(getDictionaryPath(version));
+        }
+        catch ( KeeperException.NoNodeException e )
+        {
+            throw new IOException("Dictionary version " + version + " does not exist", e);
+        }
+        byte[]      existing = dictionaries.putIfAbsent(version, dictionary);
+        return (existing != null) ? existing : dictionary;
+    }
+
+    private void loadDictionaryInBackground(final int version) throws Exception
+    {
+        if ( !loadingVersions.add(version) )
+        {
+            return;
+        }
+
+        BackgroundCallback  callback = new BackgroundCallback()
+        {
+            @Override
+            public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+            {
+                if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+                {
+                    dictionaries.putIfAbsent(version, event.getData());
+                }
+                loadingVersions.remove(version);
+            }
+        };
+        try
+        {
+            getClient().getData().inBackground(callback).forPath(getDictionaryPath(version));
+        }
+        catch ( Exception e )
+        {
+            loadingVersions.remove(version);
+            throw e;
+        }
+    }
+
+    private String getDictionaryPath(int version)
+    {
+        return ZKPaths.makePath(dictionaryPath, DICTIONARY_PREFIX + String.format("%010d", version));
+    }
+
+    private CuratorFramework getClient()
+    {
+        CuratorFramework    localClient = client.get();
+        Preconditions.checkState(localClient != null, "start() has not been called");
+        return localClient;
+    }
+
+    private static int getVersion(String nodeName)
+    {
+        return Integer.parseInt(nodeName.substring(DICTIONARY_PREFIX.length()));
+    }
+
+    private static int writeVarInt(byte[] bytes, int offset, int value)
+    {
+        while ( (value & ~0x7f) != 0 )
+        {
+            bytes[offset++] = (byte)((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        bytes[offset++] = (byte)value;
+        return offset;
+    }
+
+    private static int readVarInt(byte[] bytes, int[] position) throws IOException
+    {
+        int     value = 0;
+        for ( int shift = 0; shift < 32; shift += 7 )
+        {
+            if ( position[0] >= bytes.length )
+            {
+                throw new IOException("Compressed data is truncated");
+            }
+            int     b = bytes[position[0]++];
+            value |= (b & 0x7f) << shift;
+            if ( (b & 0x80) == 0 )
+            {
+                return value;
+            }
+        }
+        throw new IOException("Invalid compressed data header");
+    }
+}
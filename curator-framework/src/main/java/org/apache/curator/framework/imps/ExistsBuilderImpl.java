@@ -19,7 +19,7 @@
 package org.apache.curator.framework.imps;
 
 import org.apache.curator.RetryLoop;
-import org.apache.curator.TimeTrace;
+import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.api.BackgroundCallback;
 import org.apache.curator.framework.api.BackgroundPathable;
 import org.apache.curator.framework.api.CuratorEvent;
@@ -28,6 +28,7 @@ import org.apache.curator.framework.api.CuratorWatcher;
 import org.apache.curator.framework.api.ExistsBuilder;
 import org.apache.curator.framework.api.Pathable;
 import org.apache.zookeeper.AsyncCallback;
+import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.data.Stat;
 import java.util.concurrent.Callable;
@@ -112,24 +113,34 @@ class ExistsBuilderImpl implements ExistsBuilder, BackgroundOperation<String>
     @Override
     public void performBackgroundOperation(final OperationAndData<String> operationAndData) throws Exception
     {
-        final TimeTrace   trace = client.getZookeeperClient().startTracer("ExistsBuilderImpl-Background");
+        final OperationTrace trace = client.getZookeeperClient().startAdvancedTracer("ExistsBuilderImpl-Background");
+        final Watcher watcher = watching.getWatcher(operationAndData.getData(), WatcherMultiplexer.WatchType.DATA);
         AsyncCallback.StatCallback callback = new AsyncCallback.StatCallback()
         {
             @Override
             public void processResult(int rc, String path, Object ctx, Stat stat)
             {
-                trace.commit();
+                watching.commitWatcher(watcher, rc, true);
+                trace.setReturnCode(rc).setPath(path).setRetryCount(operationAndData.getRetryCount()).commit();
                 CuratorEvent event = new CuratorEventImpl(client, CuratorEventType.EXISTS, rc, path, null, ctx, stat, null, null, null, null);
                 client.processBackgroundOperation(operationAndData, event);
             }
         };
-        if ( watching.isWatched() )
+        try
         {
-            client.getZooKeeper().exists(operationAndData.getData(), true, callback, backgrounding.getContext());
+            if ( watching.isWatched() )
+            {
+                client.getZooKeeper().exists(operationAndData.getData(), true, callback, backgrounding.getContext());
+            }
+            else
+            {
+                client.getZooKeeper().exists(operationAndData.getData(), watcher, callback, backgrounding.getContext());
+            }
         }
-        else
+        catch ( Exception e )
         {
-            client.getZooKeeper().exists(operationAndData.getData(), watching.getWatcher(), callback, backgrounding.getContext());
+            watching.commitWatcher(watcher, RetryLoop.getReturnCode(e), true);
+            throw e;
         }
     }
 
@@ -141,7 +152,7 @@ class ExistsBuilderImpl implements ExistsBuilder, BackgroundOperation<String>
         Stat        returnStat = null;
         if ( backgrounding.inBackground() )
         {
-            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext()), null);
+            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext(), CuratorEventType.EXISTS), null);
         }
         else
         {
@@ -153,7 +164,7 @@ class ExistsBuilderImpl implements ExistsBuilder, BackgroundOperation<String>
 
     private Stat pathInForeground(final String path) throws Exception
     {
-        TimeTrace   trace = client.getZookeeperClient().startTracer("ExistsBuilderImpl-Foreground");
+        OperationTrace trace = client.getZookeeperClient().startAdvancedTracer("ExistsBuilderImpl-Foreground").setPath(path);
         Stat        returnStat = RetryLoop.callWithRetry
         (
             client.getZookeeperClient(),
@@ -169,11 +180,22 @@ class ExistsBuilderImpl implements ExistsBuilder, BackgroundOperation<String>
                     }
                     else
                     {
-                        returnStat = client.getZooKeeper().exists(path, watching.getWatcher());
+                        Watcher     watcher = watching.getWatcher(path, WatcherMultiplexer.WatchType.DATA);
+                        try
+                        {
+                            returnStat = client.getZooKeeper().exists(path, watcher);
+                        }
+                        catch ( Exception e )
+                        {
+                            watching.commitWatcher(watcher, RetryLoop.getReturnCode(e), true);
+                            throw e;
+                        }
+                        watching.commitWatcher(watcher, KeeperException.Code.OK.intValue(), true);
                     }
                     return returnStat;
                 }
-            }
+            },
+            trace
         );
         trace.commit();
         return returnStat;
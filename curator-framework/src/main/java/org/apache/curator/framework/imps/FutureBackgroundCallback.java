@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.zookeeper.KeeperException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Background callback that completes a future. Used by the async facade. Failures of the background
+ * operation arrive as events with an error result code (and the exception, if there was one).
+ * {@link #processException(Throwable)} is for exceptions thrown while starting the operation.
+ */
+abstract class FutureBackgroundCallback<T> implements BackgroundCallback
+{
+    private final SettableFuture<T>     future = SettableFuture.create();
+    private final Executor              executor;
+
+    FutureBackgroundCallback(Executor executor)
+    {
+        this.executor = executor;
+    }
+
+    ListenableFuture<T> getFuture()
+    {
+        return future;
+    }
+
+    @Override
+    public void processResult(CuratorFramework client, final CuratorEvent event) throws Exception
+    {
+        complete
+        (
+            new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        int         resultCode = event.getResultCode();
+                        Throwable   exception = (event instanceof CuratorEventImpl) ? ((CuratorEventImpl)event).getException() : null;
+                        if ( exception != null )
+                        {
+                            future.setException(exception);
+                        }
+                        else if ( isSuccess(resultCode) )
+                        {
+                            future.set(getResult(event));
+                        }
+                        else
+                        {
+                            future.setException(KeeperException.create(KeeperException.Code.get(resultCode), event.getPath()));
+                        }
+                    }
+                    catch ( Throwable e )
+                    {
+                        future.setException(e);
+                    }
+                }
+            }
+        );
+    }
+
+    void processException(final Throwable e)
+    {
+        complete
+        (
+            new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    future.setException(e);
+                }
+            }
+        );
+    }
+
+    /**
+     * Return true if the result code represents success
+     *
+     * @param resultCode ZooKeeper result code
+     * @return true/false
+     */
+    boolean isSuccess(int resultCode)
+    {
+        return resultCode == KeeperException.Code.OK.intValue();
+    }
+
+    /**
+     * Extract the future's value from a successful event
+     *
+     * @param event the event
+     * @return value
+     * @throws Exception errors
+     */
+    abstract T getResult(CuratorEvent event) throws Exception;
+
+    private void complete(Runnable runnable)
+    {
+        try
+        {
+            executor.execute(runnable);
+        }
+        catch ( RejectedExecutionException e )
+        {
+            future.setException(e);
+        }
+    }
+}
@@ -19,7 +19,7 @@
 package org.apache.curator.framework.imps;
 
 import org.apache.curator.RetryLoop;
-import org.apache.curator.TimeTrace;
+import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.api.BackgroundCallback;
 import org.apache.curator.framework.api.CuratorEventType;
 import org.apache.curator.framework.api.GetACLBuilder;
@@ -97,13 +97,13 @@ class GetACLBuilderImpl implements GetACLBuilder, BackgroundOperation<String>
     @Override
     public void performBackgroundOperation(final OperationAndData<String> operationAndData) throws Exception
     {
-        final TimeTrace             trace = client.getZookeeperClient().startTracer("GetACLBuilderImpl-Background");
+        final OperationTrace        trace = client.getZookeeperClient().startAdvancedTracer("GetACLBuilderImpl-Background");
         AsyncCallback.ACLCallback   callback = new AsyncCallback.ACLCallback()
         {
             @Override
             public void processResult(int rc, String path, Object ctx, List<ACL> acl, Stat stat)
             {
-                trace.commit();
+                trace.setReturnCode(rc).setPath(path).setRetryCount(operationAndData.getRetryCount()).commit();
                 CuratorEventImpl event = new CuratorEventImpl(client, CuratorEventType.GET_ACL, rc, path, null, ctx, stat, null, null, null, acl);
                 client.processBackgroundOperation(operationAndData, event);
             }
@@ -119,7 +119,7 @@ class GetACLBuilderImpl implements GetACLBuilder, BackgroundOperation<String>
         List<ACL>       result = null;
         if ( backgrounding.inBackground() )
         {
-            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext()), null);
+            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext(), CuratorEventType.GET_ACL), null);
         }
         else
         {
@@ -130,7 +130,7 @@ class GetACLBuilderImpl implements GetACLBuilder, BackgroundOperation<String>
 
     private List<ACL> pathInForeground(final String path) throws Exception
     {
-        TimeTrace    trace = client.getZookeeperClient().startTracer("GetACLBuilderImpl-Foreground");
+        OperationTrace trace = client.getZookeeperClient().startAdvancedTracer("GetACLBuilderImpl-Foreground").setPath(path);
         List<ACL>    result = RetryLoop.callWithRetry
         (
             client.getZookeeperClient(),
@@ -141,7 +141,8 @@ class GetACLBuilderImpl implements GetACLBuilder, BackgroundOperation<String>
                 {
                     return client.getZooKeeper().getACL(path, responseStat);
                 }
-            }
+            },
+            trace
         );
         trace.commit();
         return result;
@@ -20,7 +20,7 @@ package org.apache.curator.framework.imps;
 
 import com.google.common.collect.Lists;
 import org.apache.curator.RetryLoop;
-import org.apache.curator.TimeTrace;
+import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.api.BackgroundCallback;
 import org.apache.curator.framework.api.BackgroundPathable;
 import org.apache.curator.framework.api.CuratorEventType;
@@ -29,6 +29,7 @@ import org.apache.curator.framework.api.GetChildrenBuilder;
 import org.apache.curator.framework.api.Pathable;
 import org.apache.curator.framework.api.WatchPathable;
 import org.apache.zookeeper.AsyncCallback;
+import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.data.Stat;
 import java.util.List;
@@ -151,13 +152,15 @@ class GetChildrenBuilderImpl implements GetChildrenBuilder, BackgroundOperation<
     @Override
     public void performBackgroundOperation(final OperationAndData<String> operationAndData) throws Exception
     {
-        final TimeTrace       trace = client.getZookeeperClient().startTracer("GetChildrenBuilderImpl-Background");
+        final OperationTrace  trace = client.getZookeeperClient().startAdvancedTracer("GetChildrenBuilderImpl-Background");
+        final Watcher watcher = watching.getWatcher(operationAndData.getData(), WatcherMultiplexer.WatchType.CHILDREN);
         AsyncCallback.Children2Callback callback = new AsyncCallback.Children2Callback()
         {
             @Override
             public void processResult(int rc, String path, Object o, List<String> strings, Stat stat)
             {
-                trace.commit();
+                watching.commitWatcher(watcher, rc, false);
+                trace.setReturnCode(rc).setPath(path).setResponseBytesLength(getChildrenBytesLength(strings)).setRetryCount(operationAndData.getRetryCount()).commit();
                 if ( strings == null )
                 {
                     strings = Lists.newArrayList();
@@ -166,13 +169,21 @@ class GetChildrenBuilderImpl implements GetChildrenBuilder, BackgroundOperation<
                 client.processBackgroundOperation(operationAndData, event);
             }
         };
-        if ( watching.isWatched() )
+        try
         {
-            client.getZooKeeper().getChildren(operationAndData.getData(), true, callback, backgrounding.getContext());
+            if ( watching.isWatched() )
+            {
+                client.getZooKeeper().getChildren(operationAndData.getData(), true, callback, backgrounding.getContext());
+            }
+            else
+            {
+                client.getZooKeeper().getChildren(operationAndData.getData(), watcher, callback, backgrounding.getContext());
+            }
         }
-        else
+        catch ( Exception e )
         {
-            client.getZooKeeper().getChildren(operationAndData.getData(), watching.getWatcher(), callback, backgrounding.getContext());
+            watching.commitWatcher(watcher, RetryLoop.getReturnCode(e), false);
+            throw e;
         }
     }
 
@@ -184,7 +195,7 @@ class GetChildrenBuilderImpl implements GetChildrenBuilder, BackgroundOperation<
         List<String>        children = null;
         if ( backgrounding.inBackground() )
         {
-            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext()), null);
+            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext(), CuratorEventType.CHILDREN), null);
         }
         else
         {
@@ -195,7 +206,7 @@ class GetChildrenBuilderImpl implements GetChildrenBuilder, BackgroundOperation<
 
     private List<String> pathInForeground(final String path) throws Exception
     {
-        TimeTrace       trace = client.getZookeeperClient().startTracer("GetChildrenBuilderImpl-Foreground");
+        OperationTrace  trace = client.getZookeeperClient().startAdvancedTracer("GetChildrenBuilderImpl-Foreground").setPath(path);
         List<String>    children = RetryLoop.callWithRetry
         (
             client.getZookeeperClient(),
@@ -211,13 +222,37 @@ class GetChildrenBuilderImpl implements GetChildrenBuilder, BackgroundOperation<
                     }
                     else
                     {
-                        children = client.getZooKeeper().getChildren(path, watching.getWatcher(), responseStat);
+                        Watcher     watcher = watching.getWatcher(path, WatcherMultiplexer.WatchType.CHILDREN);
+                        try
+                        {
+                            children = client.getZooKeeper().getChildren(path, watcher, responseStat);
+                        }
+                        catch ( Exception e )
+                        {
+                            watching.commitWatcher(watcher, RetryLoop.getReturnCode(e), false);
+                            throw e;
+                        }
+                        watching.commitWatcher(watcher, KeeperException.Code.OK.intValue(), false);
                     }
                     return children;
                 }
-            }
+            },
+            trace
         );
-        trace.commit();
+        trace.setResponseBytesLength(getChildrenBytesLength(children)).commit();
         return children;
     }
+
+    private static long getChildrenBytesLength(List<String> children)
+    {
+        long length = 0;
+        if ( children != null )
+        {
+            for ( String child : children )
+            {
+                length += child.length();
+            }
+        }
+        return length;
+    }
 }
@@ -19,9 +19,11 @@
 package org.apache.curator.framework.imps;
 
 import org.apache.curator.RetryLoop;
-import org.apache.curator.TimeTrace;
+import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.api.BackgroundCallback;
 import org.apache.curator.framework.api.BackgroundPathable;
+import org.apache.curator.framework.api.BufferCompressionProvider;
+import org.apache.curator.framework.api.CompressionProvider;
 import org.apache.curator.framework.api.CuratorEvent;
 import org.apache.curator.framework.api.CuratorEventType;
 import org.apache.curator.framework.api.CuratorWatcher;
@@ -35,6 +37,7 @@ import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.nio.ByteBuffer;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 
@@ -104,6 +107,12 @@ class GetDataBuilderImpl implements GetDataBuilder, BackgroundOperation<String>
                 return GetDataBuilderImpl.this.forPath(path);
             }
 
+            @Override
+            public ByteBuffer forPathAsBuffer(String path) throws Exception
+            {
+                return GetDataBuilderImpl.this.forPathAsBuffer(path);
+            }
+
             @Override
             public WatchPathable<byte[]> storingStatIn(Stat stat)
             {
@@ -231,13 +240,15 @@ class GetDataBuilderImpl implements GetDataBuilder, BackgroundOperation<String>
     @Override
     public void performBackgroundOperation(final OperationAndData<String> operationAndData) throws Exception
     {
-        final TimeTrace   trace = client.getZookeeperClient().startTracer("GetDataBuilderImpl-Background");
+        final OperationTrace trace = client.getZookeeperClient().startAdvancedTracer("GetDataBuilderImpl-Background");
+        final Watcher watcher = watching.getWatcher(operationAndData.getData(), WatcherMultiplexer.WatchType.DATA);
         AsyncCallback.DataCallback callback = new AsyncCallback.DataCallback()
         {
             @Override
             public void processResult(int rc, String path, Object ctx, byte[] data, Stat stat)
             {
-                trace.commit();
+                watching.commitWatcher(watcher, rc, false);
+                trace.setReturnCode(rc).setPath(path).setResponseBytesLength(data).setRetryCount(operationAndData.getRetryCount()).setCompressed(decompress).commit();
                 if ( decompress && (data != null) )
                 {
                     try
@@ -254,13 +265,21 @@ class GetDataBuilderImpl implements GetDataBuilder, BackgroundOperation<String>
                 client.processBackgroundOperation(operationAndData, event);
             }
         };
-        if ( watching.isWatched() )
+        try
         {
-            client.getZooKeeper().getData(operationAndData.getData(), true, callback, backgrounding.getContext());
+            if ( watching.isWatched() )
+            {
+                client.getZooKeeper().getData(operationAndData.getData(), true, callback, backgrounding.getContext());
+            }
+            else
+            {
+                client.getZooKeeper().getData(operationAndData.getData(), watcher, callback, backgrounding.getContext());
+            }
         }
-        else
+        catch ( Exception e )
         {
-            client.getZooKeeper().getData(operationAndData.getData(), watching.getWatcher(), callback, backgrounding.getContext());
+            watching.commitWatcher(watcher, RetryLoop.getReturnCode(e), false);
+            throw e;
         }
     }
 
@@ -272,18 +291,59 @@ class GetDataBuilderImpl implements GetDataBuilder, BackgroundOperation<String>
         byte[]      responseData = null;
         if ( backgrounding.inBackground() )
         {
-            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext()), null);
+            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext(), CuratorEventType.GET_DATA), null);
         }
         else
         {
             responseData = pathInForeground(path);
+            if ( decompress )
+            {
+                responseData = client.getCompressionProvider().decompress(path, responseData);
+            }
         }
         return responseData;
     }
 
+    @Override
+    public ByteBuffer forPathAsBuffer(String path) throws Exception
+    {
+        path = client.fixForNamespace(path);
+
+        if ( backgrounding.inBackground() )
+        {
+            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext(), CuratorEventType.GET_DATA), null);
+            return null;
+        }
+
+        byte[]      responseData = pathInForeground(path);
+        if ( responseData == null )
+        {
+            return null;
+        }
+
+        ByteBuffer  buffer;
+        if ( decompress )
+        {
+            CompressionProvider     compressionProvider = client.getCompressionProvider();
+            if ( compressionProvider instanceof BufferCompressionProvider )
+            {
+                buffer = ((BufferCompressionProvider)compressionProvider).decompress(path, ByteBuffer.wrap(responseData));
+            }
+            else
+            {
+                buffer = ByteBuffer.wrap(compressionProvider.decompress(path, responseData));
+            }
+        }
+        else
+        {
+            buffer = ByteBuffer.wrap(responseData);
+        }
+        return buffer.asReadOnlyBuffer();
+    }
+
     private byte[] pathInForeground(final String path) throws Exception
     {
-        TimeTrace   trace = client.getZookeeperClient().startTracer("GetDataBuilderImpl-Foreground");
+        OperationTrace trace = client.getZookeeperClient().startAdvancedTracer("GetDataBuilderImpl-Foreground").setPath(path).setCompressed(decompress);
         byte[]      responseData = RetryLoop.callWithRetry
         (
             client.getZookeeperClient(),
@@ -299,14 +359,25 @@ class GetDataBuilderImpl implements GetDataBuilder, BackgroundOperation<String>
                     }
                     else
                     {
-                        responseData = client.getZooKeeper().getData(path, watching.getWatcher(), responseStat);
+                        Watcher     watcher = watching.getWatcher(path, WatcherMultiplexer.WatchType.DATA);
+                        try
+                        {
+                            responseData = client.getZooKeeper().getData(path, watcher, responseStat);
+                        }
+                        catch ( Exception e )
+                        {
+                            watching.commitWatcher(watcher, RetryLoop.getReturnCode(e), false);
+                            throw e;
+                        }
+                        watching.commitWatcher(watcher, KeeperException.Code.OK.intValue(), false);
                     }
                     return responseData;
                 }
-            }
+            },
+            trace
         );
-        trace.commit();
+        trace.setResponseBytesLength(responseData).commit();
 
-        return decompress ? client.getCompressionProvider().decompress(path, responseData) : responseData;
+        return responseData;
     }
 }
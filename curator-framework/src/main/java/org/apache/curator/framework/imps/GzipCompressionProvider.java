@@ -18,39 +18,259 @@
  */
 package org.apache.curator.framework.imps;
 
-import org.apache.curator.framework.api.CompressionProvider;
+import org.apache.curator.framework.api.BufferCompressionProvider;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
 
-public class GzipCompressionProvider implements CompressionProvider
+/**
+ * Gzip compression. Data is deflated directly into a single output array and, as the gzip trailer
+ * holds the uncompressed size, inflated directly into an array of the exact size. The
+ * {@link Deflater}/{@link Inflater} instances and the output scratch space are kept per thread
+ * and reused across calls.
+ */
+public class GzipCompressionProvider implements BufferCompressionProvider
 {
+    private static final int        GZIP_MAGIC = 0x8b1f;
+    private static final int        GZIP_HEADER_SIZE = 10;
+    private static final int        GZIP_TRAILER_SIZE = 8;
+    private static final int        MAX_DEFLATE_RATIO = 1032;
+
+    private static final ThreadLocal<Deflater> deflaters = new ThreadLocal<Deflater>()
+    {
+        @Override
+        protected Deflater initialValue()
+        {
+            return new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        }
+    };
+
+    private static final ThreadLocal<Inflater> inflaters = new ThreadLocal<Inflater>()
+    {
+        @Override
+        protected Inflater initialValue()
+        {
+            return new Inflater(true);
+        }
+    };
+
     @Override
     public byte[] compress(String path, byte[] data) throws Exception
     {
-        ByteArrayOutputStream       bytes = new ByteArrayOutputStream();
-        GZIPOutputStream            out = new GZIPOutputStream(bytes);
-        out.write(data);
-        out.finish();
-        return bytes.toByteArray();
+        return compress(data, 0, data.length, 0);
     }
 
     @Override
     public byte[] decompress(String path, byte[] compressedData) throws Exception
     {
-        ByteArrayOutputStream       bytes = new ByteArrayOutputStream(compressedData.length);
-        GZIPInputStream             in = new GZIPInputStream(new ByteArrayInputStream(compressedData));
-        byte[]                      buffer = new byte[compressedData.length];
-        for(;;)
+        return decompress(compressedData, 0, compressedData.length);
+    }
+
+    @Override
+    public ByteBuffer compress(String path, ByteBuffer data) throws Exception
+    {
+        byte[]      bytes;
+        if ( data.hasArray() )
+        {
+            bytes = compress(data.array(), data.arrayOffset() + data.position(), data.remaining(), 0);
+        }
+        else
+        {
+            byte[]  uncompressedBytes = ByteBufferUtils.toBytes(data);
+            bytes = compress(uncompressedBytes, 0, uncompressedBytes.length, 0);
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+
+    @Override
+    public ByteBuffer decompress(String path, ByteBuffer compressedData) throws Exception
+    {
+        byte[]      bytes;
+        if ( compressedData.hasArray() )
+        {
+            bytes = decompress(compressedData.array(), compressedData.arrayOffset() + compressedData.position(), compressedData.remaining());
+        }
+        else
+        {
+            byte[]  compressedBytes = ByteBufferUtils.toBytes(compressedData);
+            bytes = decompress(compressedBytes, 0, compressedBytes.length);
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Compress the given range
+     *
+     * @param data data
+     * @param offset start of the range
+     * @param length length of the range
+     * @param headerSpace number of unused bytes to leave at the start of the result
+     * @return gzip data
+     */
+    static byte[] compress(byte[] data, int offset, int length, int headerSpace)
+    {
+        byte[]      output = CompressionBuffers.getScratch(headerSpace + GZIP_HEADER_SIZE + maxDeflatedLength(length) + GZIP_TRAILER_SIZE);
+
+        // header - same as java.util.zip.GZIPOutputStream
+        Arrays.fill(output, headerSpace, headerSpace + GZIP_HEADER_SIZE, (byte)0);
+        output[headerSpace] = (byte)GZIP_MAGIC;
+        output[headerSpace + 1] = (byte)(GZIP_MAGIC >> 8);
+        output[headerSpace + 2] = Deflater.DEFLATED;
+        int         outputLength = headerSpace + GZIP_HEADER_SIZE;
+
+        Deflater    deflater = deflaters.get();
+        try
+        {
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            while ( !deflater.finished() )
+            {
+                if ( outputLength == output.length )
+                {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                outputLength += deflater.deflate(output, outputLength, output.length - outputLength);
+            }
+        }
+        finally
+        {
+            deflater.reset();
+        }
+
+        CRC32       crc = new CRC32();
+        crc.update(data, offset, length);
+        byte[]      bytes = Arrays.copyOf(output, outputLength + GZIP_TRAILER_SIZE);
+        writeInt(bytes, outputLength, (int)crc.getValue());
+        writeInt(bytes, outputLength + 4, length);
+        return bytes;
+    }
+
+    /**
+     * Decompress the given range
+     *
+     * @param compressedData gzip data
+     * @param offset start of the range
+     * @param length length of the range
+     * @return uncompressed data
+     * @throws IOException if the data is not valid gzip
+     */
+    static byte[] decompress(byte[] compressedData, int offset, int length) throws IOException
+    {
+        byte[]      bytes = inflateSingleMember(compressedData, offset, length);
+        if ( bytes != null )
+        {
+            return bytes;
+        }
+
+        // optional header fields, concatenated members, corrupt data, etc. - let GZIPInputStream sort it out
+        GZIPInputStream     in = new GZIPInputStream(new ByteArrayInputStream(compressedData, offset, length));
+        try
         {
-            int     bytesRead = in.read(buffer, 0, buffer.length);
-            if ( bytesRead < 0 )
+            ByteArrayOutputStream   out = new ByteArrayOutputStream(Math.max(length * 2, 32));
+            byte[]                  buffer = new byte[4096];
+            for(;;)
             {
-                break;
+                int     bytesRead = in.read(buffer, 0, buffer.length);
+                if ( bytesRead < 0 )
+                {
+                    break;
+                }
+                out.write(buffer, 0, bytesRead);
             }
-            bytes.write(buffer, 0, bytesRead);
+            return out.toByteArray();
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * Fast path for the common case: a single member with a plain header (as written by
+     * this class and by {@link java.util.zip.GZIPOutputStream}).
+     *
+     * @return the data or null if the fast path can't be used
+     */
+    private static byte[] inflateSingleMember(byte[] compressedData, int offset, int length)
+    {
+        if ( (length < (GZIP_HEADER_SIZE + GZIP_TRAILER_SIZE))
+            || (compressedData[offset] != (byte)GZIP_MAGIC)
+            || (compressedData[offset + 1] != (byte)(GZIP_MAGIC >> 8))
+            || (compressedData[offset + 2] != Deflater.DEFLATED)
+            || (compressedData[offset + 3] != 0) )
+        {
+            return null;
+        }
+
+        int         trailerOffset = offset + length - GZIP_TRAILER_SIZE;
+        int         expectedCrc = readInt(compressedData, trailerOffset);
+        int         uncompressedLength = readInt(compressedData, trailerOffset + 4);
+        if ( (uncompressedLength < 0) || ((long)uncompressedLength > ((long)length * MAX_DEFLATE_RATIO)) )
+        {
+            return null;
         }
-        return bytes.toByteArray();
+
+        byte[]      bytes = new byte[uncompressedLength];
+        Inflater    inflater = inflaters.get();
+        try
+        {
+            inflater.setInput(compressedData, offset + GZIP_HEADER_SIZE, length - GZIP_HEADER_SIZE);
+            int     bytesRead = 0;
+            while ( !inflater.finished() && (bytesRead < bytes.length) )
+            {
+                int     count = inflater.inflate(bytes, bytesRead, bytes.length - bytesRead);
+                if ( (count == 0) && !inflater.finished() )
+                {
+                    return null;
+                }
+                bytesRead += count;
+            }
+            if ( !inflater.finished() && (inflater.inflate(new byte[1]) > 0) )
+            {
+                return null;
+            }
+            if ( !inflater.finished() || (bytesRead != bytes.length) || (inflater.getRemaining() != GZIP_TRAILER_SIZE) )
+            {
+                return null;
+            }
+        }
+        catch ( DataFormatException e )
+        {
+            return null;
+        }
+        finally
+        {
+            inflater.reset();
+        }
+
+        CRC32       crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return ((int)crc.getValue() == expectedCrc) ? bytes : null;
+    }
+
+    private static int maxDeflatedLength(int length)
+    {
+        // same bound as zlib's compressBound()
+        return length + (length >> 12) + (length >> 14) + (length >> 25) + 13;
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value)
+    {
+        bytes[offset] = (byte)value;
+        bytes[offset + 1] = (byte)(value >> 8);
+        bytes[offset + 2] = (byte)(value >> 16);
+        bytes[offset + 3] = (byte)(value >> 24);
+    }
+
+    private static int readInt(byte[] bytes, int offset)
+    {
+        return (bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8) | ((bytes[offset + 2] & 0xff) << 16) | ((bytes[offset + 3] & 0xff) << 24);
     }
 }
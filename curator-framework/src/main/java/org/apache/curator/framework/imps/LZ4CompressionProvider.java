@@ -0,0 +1,329 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import org.apache.curator.framework.api.CompressionProvider;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A fast, pure Java compression provider using the LZ4 block format. It compresses
+ * considerably less than gzip but is many times faster in both directions which makes it
+ * a better fit for small, frequently read values.
+ * </p>
+ *
+ * <p>
+ * The compressed form is the uncompressed length (4 bytes, big endian) followed by a
+ * single LZ4 block. It is not the LZ4 frame format.
+ * </p>
+ */
+public class LZ4CompressionProvider implements CompressionProvider
+{
+    private static final int        LENGTH_SIZE = 4;
+    private static final int        MIN_MATCH = 4;
+    private static final int        LAST_LITERALS = 5;
+    private static final int        MATCH_FIND_LIMIT = 12;
+    private static final int        MAX_DISTANCE = 0xffff;
+    private static final int        HASH_LOG = 12;
+    private static final int        SKIP_TRIGGER = 6;
+    private static final int        RUN_MASK = 0x0f;
+    private static final int        MAX_DECOMPRESS_RATIO = 255;
+
+    private static final ThreadLocal<int[]> hashTables = new ThreadLocal<int[]>()
+    {
+        @Override
+        protected int[] initialValue()
+        {
+            return new int[1 << HASH_LOG];
+        }
+    };
+
+    @Override
+    public byte[] compress(String path, byte[] data) throws Exception
+    {
+        return compress(data, 0, data.length, 0);
+    }
+
+    @Override
+    public byte[] decompress(String path, byte[] compressedData) throws Exception
+    {
+        return decompress(compressedData, 0, compressedData.length);
+    }
+
+    /**
+     * Compress the given range
+     *
+     * @param data data
+     * @param offset start of the range
+     * @param length length of the range
+     * @param headerSpace number of unused bytes to leave at the start of the result
+     * @return compressed data
+     */
+    static byte[] compress(byte[] data, int offset, int length, int headerSpace)
+    {
+        byte[]      scratch = CompressionBuffers.getScratch(headerSpace + LENGTH_SIZE + maxCompressedLength(length));
+        writeIntBigEndian(scratch, headerSpace, length);
+        int         compressedLength = compressBlock(data, offset, length, scratch, headerSpace + LENGTH_SIZE);
+        return Arrays.copyOf(scratch, headerSpace + LENGTH_SIZE + compressedLength);
+    }
+
+    /**
+     * Decompress the given range
+     *
+     * @param compressedData compressed data
+     * @param offset start of the range
+     * @param length length of the range
+     * @return uncompressed data
+     * @throws IOException if the data is not valid
+     */
+    static byte[] decompress(byte[] compressedData, int offset, int length) throws IOException
+    {
+        if ( length < LENGTH_SIZE )
+        {
+            throw new IOException("LZ4 data is truncated");
+        }
+        int         uncompressedLength = readIntBigEndian(compressedData, offset);
+        if ( (uncompressedLength < 0) || ((long)uncompressedLength > ((long)length * MAX_DECOMPRESS_RATIO)) )
+        {
+            throw new IOException("Invalid LZ4 uncompressed length: " + uncompressedLength);
+        }
+
+        byte[]      bytes = new byte[uncompressedLength];
+        decompressBlock(compressedData, offset + LENGTH_SIZE, length - LENGTH_SIZE, bytes);
+        return bytes;
+    }
+
+    private static int maxCompressedLength(int length)
+    {
+        return length + (length / 255) + 16;
+    }
+
+    private static int compressBlock(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset)
+    {
+        int         srcEnd = srcOffset + srcLength;
+        int         anchor = srcOffset;
+        int         destIndex = destOffset;
+
+        if ( srcLength > MATCH_FIND_LIMIT )
+        {
+            int[]       hashTable = hashTables.get();
+            Arrays.fill(hashTable, -1);
+
+            int         matchLimit = srcEnd - LAST_LITERALS;
+            int         matchFindLimit = srcEnd - MATCH_FIND_LIMIT;
+            int         index = srcOffset;
+            int         searchCount = 1 << SKIP_TRIGGER;
+            while ( index < matchFindLimit )
+            {
+                int         sequence = readInt(src, index);
+                int         hash = hash(sequence);
+                int         ref = hashTable[hash];
+                hashTable[hash] = index;
+                if ( (ref < 0) || ((index - ref) > MAX_DISTANCE) || (readInt(src, ref) != sequence) )
+                {
+                    // step further ahead the longer nothing has matched - quickly skips incompressible data
+                    index += searchCount++ >>> SKIP_TRIGGER;
+                    continue;
+                }
+                searchCount = 1 << SKIP_TRIGGER;
+
+                while ( (index > anchor) && (ref > srcOffset) && (src[index - 1] == src[ref - 1]) )
+                {
+                    --index;
+                    --ref;
+                }
+
+                int         matchLength = MIN_MATCH;
+                while ( ((index + matchLength) < matchLimit) && (src[index + matchLength] == src[ref + matchLength]) )
+                {
+                    ++matchLength;
+                }
+
+                destIndex = writeSequence(src, anchor, index - anchor, index - ref, matchLength, dest, destIndex);
+                index += matchLength;
+                anchor = index;
+            }
+        }
+
+        destIndex = writeSequence(src, anchor, srcEnd - anchor, 0, 0, dest, destIndex);
+        return destIndex - destOffset;
+    }
+
+    private static int writeSequence(byte[] src, int literalOffset, int literalLength, int matchOffset, int matchLength, byte[] dest, int destIndex)
+    {
+        int         tokenIndex = destIndex++;
+        int         token;
+        if ( literalLength >= RUN_MASK )
+        {
+            token = RUN_MASK << 4;
+            destIndex = writeLength(literalLength - RUN_MASK, dest, destIndex);
+        }
+        else
+        {
+            token = literalLength << 4;
+        }
+        System.arraycopy(src, literalOffset, dest, destIndex, literalLength);
+        destIndex += literalLength;
+
+        if ( matchLength > 0 )
+        {
+            dest[destIndex++] = (byte)matchOffset;
+            dest[destIndex++] = (byte)(matchOffset >>> 8);
+
+            int     encodedLength = matchLength - MIN_MATCH;
+            if ( encodedLength >= RUN_MASK )
+            {
+                token |= RUN_MASK;
+                destIndex = writeLength(encodedLength - RUN_MASK, dest, destIndex);
+            }
+            else
+            {
+                token |= encodedLength;
+            }
+        }
+
+        dest[tokenIndex] = (byte)token;
+        return destIndex;
+    }
+
+    private static int writeLength(int length, byte[] dest, int destIndex)
+    {
+        while ( length >= 0xff )
+        {
+            dest[destIndex++] = (byte)0xff;
+            length -= 0xff;
+        }
+        dest[destIndex++] = (byte)length;
+        return destIndex;
+    }
+
+    private static void decompressBlock(byte[] src, int srcOffset, int srcLength, byte[] dest) throws IOException
+    {
+        int         srcIndex = srcOffset;
+        int         srcEnd = srcOffset + srcLength;
+        int         destIndex = 0;
+        for(;;)
+        {
+            if ( srcIndex >= srcEnd )
+            {
+                throw new IOException("LZ4 data is truncated");
+            }
+            int     token = src[srcIndex++] & 0xff;
+
+            int     literalLength = token >>> 4;
+            if ( literalLength == RUN_MASK )
+            {
+                int     lengthByte;
+                do
+                {
+                    if ( srcIndex >= srcEnd )
+                    {
+                        throw new IOException("LZ4 data is truncated");
+                    }
+                    lengthByte = src[srcIndex++] & 0xff;
+                    literalLength += lengthByte;
+                } while ( lengthByte == 0xff );
+            }
+            if ( (literalLength > (srcEnd - srcIndex)) || (literalLength > (dest.length - destIndex)) )
+            {
+                throw new IOException("Corrupt LZ4 data");
+            }
+            System.arraycopy(src, srcIndex, dest, destIndex, literalLength);
+            srcIndex += literalLength;
+            destIndex += literalLength;
+
+            if ( srcIndex == srcEnd )
+            {
+                // the last sequence has no match
+                break;
+            }
+
+            if ( (srcIndex + 2) > srcEnd )
+            {
+                throw new IOException("LZ4 data is truncated");
+            }
+            int     matchOffset = (src[srcIndex] & 0xff) | ((src[srcIndex + 1] & 0xff) << 8);
+            srcIndex += 2;
+
+            int     matchLength = token & RUN_MASK;
+            if ( matchLength == RUN_MASK )
+            {
+                int     lengthByte;
+                do
+                {
+                    if ( srcIndex >= srcEnd )
+                    {
+                        throw new IOException("LZ4 data is truncated");
+                    }
+                    lengthByte = src[srcIndex++] & 0xff;
+                    matchLength += lengthByte;
+                } while ( lengthByte == 0xff );
+            }
+            matchLength += MIN_MATCH;
+
+            int     ref = destIndex - matchOffset;
+            if ( (matchOffset == 0) || (ref < 0) || (matchLength > (dest.length - destIndex)) )
+            {
+                throw new IOException("Corrupt LZ4 data");
+            }
+            if ( matchOffset >= matchLength )
+            {
+                System.arraycopy(dest, ref, dest, destIndex, matchLength);
+                destIndex += matchLength;
+            }
+            else
+            {
+                // overlapping copy - repeats the last matchOffset bytes
+                for ( int i = 0; i < matchLength; ++i )
+                {
+                    dest[destIndex++] = dest[ref++];
+                }
+            }
+        }
+
+        if ( destIndex != dest.length )
+        {
+            throw new IOException("LZ4 uncompressed length mismatch. Expected: " + dest.length + " Actual: " + destIndex);
+        }
+    }
+
+    private static int hash(int sequence)
+    {
+        return (sequence * -1640531535) >>> ((MIN_MATCH * 8) - HASH_LOG);
+    }
+
+    private static int readInt(byte[] bytes, int offset)
+    {
+        return (bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8) | ((bytes[offset + 2] & 0xff) << 16) | ((bytes[offset + 3] & 0xff) << 24);
+    }
+
+    private static int readIntBigEndian(byte[] bytes, int offset)
+    {
+        return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16) | ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+    }
+
+    private static void writeIntBigEndian(byte[] bytes, int offset, int value)
+    {
+        bytes[offset] = (byte)(value >>> 24);
+        bytes[offset + 1] = (byte)(value >>> 16);
+        bytes[offset + 2] = (byte)(value >>> 8);
+        bytes[offset + 3] = (byte)value;
+    }
+}
@@ -26,6 +26,7 @@ class NamespaceImpl
 {
     private final CuratorFrameworkImpl client;
     private final String namespace;
+    private final String namespacePath;
     private final EnsurePath ensurePath;
 
     NamespaceImpl(CuratorFrameworkImpl client, String namespace)
@@ -44,7 +45,8 @@ class NamespaceImpl
 
         this.client = client;
         this.namespace = namespace;
-        ensurePath = (namespace != null) ? new EnsurePath(ZKPaths.makePath("/", namespace)) : null;
+        namespacePath = (namespace != null) ? ZKPaths.makePath("/", namespace) : null;
+        ensurePath = (namespacePath != null) ? new EnsurePath(namespacePath) : null;
     }
 
     String getNamespace()
@@ -54,9 +56,8 @@ class NamespaceImpl
 
     String    unfixForNamespace(String path)
     {
-        if ( (namespace != null) && (path != null) )
+        if ( (namespacePath != null) && (path != null) )
         {
-            String      namespacePath = ZKPaths.makePath(namespace, null);
             if ( path.startsWith(namespacePath) )
             {
                 path = (path.length() > namespacePath.length()) ? path.substring(namespacePath.length()) : "/";
@@ -79,7 +80,7 @@ class NamespaceImpl
             }
         }
 
-        return ZKPaths.fixForNamespace(namespace, path);
+        return (namespacePath != null) ? ZKPaths.makePath(namespacePath, path) : path;
     }
 
     EnsurePath newNamespaceAwareEnsurePath(String path)
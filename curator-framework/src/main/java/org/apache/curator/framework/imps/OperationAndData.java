@@ -22,8 +22,10 @@ package org.apache.curator.framework.imps;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.curator.RetrySleeper;
 import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEventType;
 import java.util.concurrent.Delayed;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -40,19 +42,23 @@ class OperationAndData<T> implements Delayed, RetrySleeper
     private final AtomicLong sleepUntilTimeMs = new AtomicLong(0);
     private final long ordinal = nextOrdinal.getAndIncrement();
     private final Object context;
+    private final CuratorEventType eventType;
+    private final AtomicBoolean holdsInFlightPermit = new AtomicBoolean(false);
+    private volatile boolean needsInFlightPermit = false;
 
     interface ErrorCallback<T>
     {
         void retriesExhausted(OperationAndData<T> operationAndData);
     }
 
-    OperationAndData(BackgroundOperation<T> operation, T data, BackgroundCallback callback, ErrorCallback<T> errorCallback, Object context)
+    OperationAndData(BackgroundOperation<T> operation, T data, BackgroundCallback callback, ErrorCallback<T> errorCallback, Object context, CuratorEventType eventType)
     {
         this.operation = operation;
         this.data = data;
         this.callback = callback;
         this.errorCallback = errorCallback;
         this.context = context;
+        this.eventType = eventType;
     }
 
     Object getContext()
@@ -60,6 +66,26 @@ class OperationAndData<T> implements Delayed, RetrySleeper
         return context;
     }
 
+    /**
+     * @return the type of the events this operation sends to its callback
+     */
+    CuratorEventType getEventType()
+    {
+        return eventType;
+    }
+
+    /**
+     * @return the (namespace fixed) path of the operation
+     */
+    String getPath()
+    {
+        if ( data instanceof PathAndBytes )
+        {
+            return ((PathAndBytes)data).getPath();
+        }
+        return (data instanceof String) ? (String)data : null;
+    }
+
     void callPerformBackgroundOperation() throws Exception
     {
         operation.performBackgroundOperation(this);
@@ -75,6 +101,11 @@ class OperationAndData<T> implements Delayed, RetrySleeper
         return System.currentTimeMillis() - startTimeMs;
     }
 
+    int getRetryCount()
+    {
+        return retryCount.get();
+    }
+
     int getThenIncrementRetryCount()
     {
         return retryCount.getAndIncrement();
@@ -90,6 +121,36 @@ class OperationAndData<T> implements Delayed, RetrySleeper
         return errorCallback;
     }
 
+    /**
+     * Used by {@link BackgroundOperationEngine} when pipelining is enabled. The operation
+     * must acquire an in-flight permit before it is first performed.
+     */
+    void markNeedsInFlightPermit()
+    {
+        needsInFlightPermit = true;
+    }
+
+    boolean needsInFlightPermit()
+    {
+        return needsInFlightPermit && !holdsInFlightPermit.get();
+    }
+
+    void markHoldsInFlightPermit()
+    {
+        holdsInFlightPermit.set(true);
+    }
+
+    /**
+     * Clear the in-flight permit flag
+     *
+     * @return true if the operation was holding a permit that now must be released
+     */
+    boolean clearInFlightPermit()
+    {
+        needsInFlightPermit = false;
+        return holdsInFlightPermit.compareAndSet(true, false);
+    }
+
     @VisibleForTesting
     BackgroundOperation<T> getOperation()
     {
@@ -0,0 +1,379 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.cache.ReadCache;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.data.Stat;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ReadCacheImpl implements ReadCache
+{
+    private final CuratorFrameworkImpl              client;
+    private final Cache<Key, Object>                cache;
+    private final ConcurrentMap<Key, Object>        loadTokens = Maps.newConcurrentMap();
+    private final AtomicLong                        invalidationCount = new AtomicLong();
+    private final AtomicBoolean                     isOpen = new AtomicBoolean(true);
+
+    // cached value for checkExists() of a node that doesn't exist
+    private static final Object                     NO_NODE = new Object();
+
+    private final Watcher watcher = new Watcher()
+    {
+        @Override
+        public void process(WatchedEvent event)
+        {
+            processWatchedEvent(event);
+        }
+    };
+
+    private final ConnectionStateListener connectionStateListener = new ConnectionStateListener()
+    {
+        @Override
+        public void stateChanged(CuratorFramework client, ConnectionState newState)
+        {
+            if ( newState == ConnectionState.LOST )
+            {
+                invalidateAll();
+            }
+        }
+    };
+
+    private enum Type
+    {
+        DATA,
+        EXISTS,
+        CHILDREN
+    }
+
+    private static class Key
+    {
+        private final Type      type;
+        private final String    path;
+
+        private Key(Type type, String path)
+        {
+            this.type = type;
+            this.path = path;
+        }
+
+        @SuppressWarnings("RedundantIfStatement")
+        @Override
+        public boolean equals(Object o)
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+            if ( o == null || getClass() != o.getClass() )
+            {
+                return false;
+            }
+
+            Key key = (Key)o;
+
+            if ( !path.equals(key.path) )
+            {
+                return false;
+            }
+            if ( type != key.type )
+            {
+                return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = type.hashCode();
+            result = 31 * result + path.hashCode();
+            return result;
+        }
+    }
+
+    private static class DataValue
+    {
+        private final byte[]    data;
+        private final Stat      stat;
+
+        private DataValue(byte[] data, Stat stat)
+        {
+            this.data = data;
+            this.stat = stat;
+        }
+    }
+
+    ReadCacheImpl(CuratorFrameworkImpl client, int maxEntries)
+    {
+        Preconditions.checkArgument(maxEntries > 0, "maxEntries must be greater than 0");
+
+        this.client = client;
+        cache = CacheBuilder.newBuilder().maximumSize(maxEntries).recordStats().build();
+        client.getConnectionStateListenable().addListener(connectionStateListener);
+    }
+
+    @Override
+    public void close()
+    {
+        if ( isOpen.compareAndSet(true, false) )
+        {
+            // watches that are already set can't be removed - they are ignored once closed
+            client.getConnectionStateListenable().removeListener(connectionStateListener);
+            loadTokens.clear();
+            cache.invalidateAll();
+        }
+    }
+
+    @Override
+    public byte[] getData(String path) throws Exception
+    {
+        return getData(path, null);
+    }
+
+    @Override
+    public byte[] getData(String path, Stat stat) throws Exception
+    {
+        Key         key = new Key(Type.DATA, path);
+        DataValue   value = (DataValue)cache.getIfPresent(key);
+        if ( value == null )
+        {
+            Object  token = startLoad(key);
+            try
+            {
+                Stat    loadedStat = new Stat();
+                byte[]  data = client.getData().storingStatIn(loadedStat).usingWatcher(watcher).forPath(path);
+                value = new DataValue(data, loadedStat);
+                endLoad(key, token, value);
+            }
+            finally
+            {
+                abandonLoad(key, token);
+            }
+        }
+
+        AsyncCuratorFrameworkImpl.copyStat(value.stat, stat);
+        return value.data;
+    }
+
+    @Override
+    public Stat checkExists(String path) throws Exception
+    {
+        Key         key = new Key(Type.EXISTS, path);
+        Object      value = cache.getIfPresent(key);
+        if ( value == null )
+        {
+            Object  token = startLoad(key);
+            try
+            {
+                Stat    stat = client.checkExists().usingWatcher(watcher).forPath(path);
+                value = (stat != null) ? stat : NO_NODE;
+                endLoad(key, token, value);
+            }
+            finally
+            {
+                abandonLoad(key, token);
+            }
+        }
+
+        if ( value == NO_NODE )
+        {
+            return null;
+        }
+        Stat        stat = new Stat();
+        AsyncCuratorFrameworkImpl.copyStat((Stat)value, stat);
+        return stat;
+    }
+
+    @Override
+    public List<String> getChildren(String path) throws Exception
+    {
+        Key         key = new Key(Type.CHILDREN, path);
+        @SuppressWarnings("unchecked")
+        List<String> value = (List<String>)cache.getIfPresent(key);
+        if ( value == null )
+        {
+            Object  token = startLoad(key);
+            try
+            {
+                value = ImmutableList.copyOf(client.getChildren().usingWatcher(watcher).forPath(path));
+                endLoad(key, token, value);
+            }
+            finally
+            {
+                abandonLoad(key, token);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void invalidate(String path)
+    {
+        for ( Type type : Type.values() )
+        {
+            Key     key = new Key(type, path);
+            loadTokens.remove(key);
+            cache.invalidate(key);
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        loadTokens.clear();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public long size()
+    {
+        return cache.size();
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Override
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    @Override
+    public long getInvalidationCount()
+    {
+        return invalidationCount.get();
+    }
+
+    private Object startLoad(Key key)
+    {
+        Preconditions.checkState(isOpen.get(), "cache has been closed");
+
+        Object      token = new Object();
+        loadTokens.put(key, token);
+        return token;
+    }
+
+    private void endLoad(Key key, Object token, Object value)
+    {
+        // if the watch fired (or the cache was cleared) while loading, the token is gone and the
+        // value may already be stale - it's returned to the caller but not cached
+        if ( loadTokens.remove(key, token) && isOpen.get() )
+        {
+            cache.put(key, value);
+        }
+    }
+
+    /**
+     * Remove the token if the load failed before reaching {@link #endLoad(Key, Object, Object)}
+     */
+    private void abandonLoad(Key key, Object token)
+    {
+        loadTokens.remove(key, token);
+    }
+
+    @VisibleForTesting
+    int getLoadingCount()
+    {
+        return loadTokens.size();
+    }
+
+    private void processWatchedEvent(WatchedEvent event)
+    {
+        if ( !isOpen.get() )
+        {
+            return;
+        }
+
+        switch ( event.getType() )
+        {
+            case None:
+            {
+                if ( event.getState() == Watcher.Event.KeeperState.Expired )
+                {
+                    invalidateAll();
+                }
+                break;
+            }
+
+            case NodeCreated:
+            case NodeDataChanged:
+            {
+                invalidate(Type.DATA, event.getPath());
+                invalidate(Type.EXISTS, event.getPath());
+                break;
+            }
+
+            case NodeDeleted:
+            {
+                invalidate(Type.DATA, event.getPath());
+                invalidate(Type.EXISTS, event.getPath());
+                invalidate(Type.CHILDREN, event.getPath());
+                break;
+            }
+
+            case NodeChildrenChanged:
+            {
+                invalidate(Type.CHILDREN, event.getPath());
+                break;
+            }
+        }
+    }
+
+    private void invalidate(Type type, String path)
+    {
+        Key     key = new Key(type, path);
+        loadTokens.remove(key);
+        if ( cache.asMap().remove(key) != null )
+        {
+            invalidationCount.incrementAndGet();
+        }
+    }
+
+    private void invalidateAll()
+    {
+        loadTokens.clear();
+        invalidationCount.addAndGet(cache.size());
+        cache.invalidateAll();
+    }
+}
@@ -19,9 +19,11 @@
 package org.apache.curator.framework.imps;
 
 import org.apache.curator.RetryLoop;
-import org.apache.curator.TimeTrace;
+import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.api.BackgroundCallback;
 import org.apache.curator.framework.api.BackgroundPathAndBytesable;
+import org.apache.curator.framework.api.BufferCompressionProvider;
+import org.apache.curator.framework.api.CompressionProvider;
 import org.apache.curator.framework.api.CuratorEvent;
 import org.apache.curator.framework.api.CuratorEventType;
 import org.apache.curator.framework.api.PathAndBytesable;
@@ -33,6 +35,7 @@ import org.apache.curator.framework.api.transaction.TransactionSetDataBuilder;
 import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.Op;
 import org.apache.zookeeper.data.Stat;
+import java.nio.ByteBuffer;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 
@@ -63,6 +66,12 @@ class SetDataBuilderImpl implements SetDataBuilder, BackgroundOperation<PathAndB
                 return curatorTransaction;
             }
 
+            @Override
+            public CuratorTransactionBridge forPathFromBuffer(String path, ByteBuffer data) throws Exception
+            {
+                return forPath(path, ByteBufferUtils.toBytes(data));
+            }
+
             @Override
             public CuratorTransactionBridge forPath(String path) throws Exception
             {
@@ -126,6 +135,12 @@ class SetDataBuilderImpl implements SetDataBuilder, BackgroundOperation<PathAndB
                 return SetDataBuilderImpl.this.forPath(path, data);
             }
 
+            @Override
+            public Stat forPathFromBuffer(String path, ByteBuffer data) throws Exception
+            {
+                return SetDataBuilderImpl.this.forPathFromBuffer(path, data);
+            }
+
             @Override
             public Stat forPath(String path) throws Exception
             {
@@ -192,7 +207,7 @@ class SetDataBuilderImpl implements SetDataBuilder, BackgroundOperation<PathAndB
     @Override
     public void performBackgroundOperation(final OperationAndData<PathAndBytes> operationAndData) throws Exception
     {
-        final TimeTrace   trace = client.getZookeeperClient().startTracer("SetDataBuilderImpl-Background");
+        final OperationTrace trace = client.getZookeeperClient().startAdvancedTracer("SetDataBuilderImpl-Background");
         client.getZooKeeper().setData
         (
             operationAndData.getData().getPath(),
@@ -204,7 +219,7 @@ class SetDataBuilderImpl implements SetDataBuilder, BackgroundOperation<PathAndB
                 @Override
                 public void processResult(int rc, String path, Object ctx, Stat stat)
                 {
-                    trace.commit();
+                    trace.setReturnCode(rc).setPath(path).setRequestBytesLength(operationAndData.getData().getData()).setRetryCount(operationAndData.getRetryCount()).setCompressed(compress).commit();
                     CuratorEvent event = new CuratorEventImpl(client, CuratorEventType.SET_DATA, rc, path, null, ctx, stat, null, null, null, null);
                     client.processBackgroundOperation(operationAndData, event);
                 }
@@ -226,13 +241,29 @@ class SetDataBuilderImpl implements SetDataBuilder, BackgroundOperation<PathAndB
         {
             data = client.getCompressionProvider().compress(path, data);
         }
+        return internalForPath(path, data);
+    }
+
+    @Override
+    public Stat forPathFromBuffer(String path, ByteBuffer data) throws Exception
+    {
+        CompressionProvider     compressionProvider = client.getCompressionProvider();
+        if ( compress && (compressionProvider instanceof BufferCompressionProvider) )
+        {
+            ByteBuffer      compressedData = ((BufferCompressionProvider)compressionProvider).compress(path, data);
+            return internalForPath(path, ByteBufferUtils.toBytes(compressedData));
+        }
+        return forPath(path, ByteBufferUtils.toBytes(data));
+    }
 
+    private Stat internalForPath(String path, byte[] data) throws Exception
+    {
         path = client.fixForNamespace(path);
 
         Stat        resultStat = null;
         if ( backgrounding.inBackground()  )
         {
-            client.processBackgroundOperation(new OperationAndData<PathAndBytes>(this, new PathAndBytes(path, data), backgrounding.getCallback(), null, backgrounding.getContext()), null);
+            client.processBackgroundOperation(new OperationAndData<PathAndBytes>(this, new PathAndBytes(path, data), backgrounding.getCallback(), null, backgrounding.getContext(), CuratorEventType.SET_DATA), null);
         }
         else
         {
@@ -248,7 +279,7 @@ class SetDataBuilderImpl implements SetDataBuilder, BackgroundOperation<PathAndB
 
     private Stat pathInForeground(final String path, final byte[] data) throws Exception
     {
-        TimeTrace   trace = client.getZookeeperClient().startTracer("SetDataBuilderImpl-Foreground");
+        OperationTrace trace = client.getZookeeperClient().startAdvancedTracer("SetDataBuilderImpl-Foreground").setPath(path).setRequestBytesLength(data).setCompressed(compress);
         Stat        resultStat = RetryLoop.callWithRetry
         (
             client.getZookeeperClient(),
@@ -259,7 +290,8 @@ class SetDataBuilderImpl implements SetDataBuilder, BackgroundOperation<PathAndB
                 {
                     return client.getZooKeeper().setData(path, data, version);
                 }
-            }
+            },
+            trace
         );
         trace.commit();
         return resultStat;
@@ -0,0 +1,282 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Sets;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registers a single ZooKeeper watcher per (path, watch type) and fans each event out to the
+ * local subscribers. ZooKeeper's client keeps every distinct watcher object per path and
+ * dispatches to each one. With many watchers on the same paths (e.g. many NodeCaches on shared
+ * config nodes) this keeps ZooKeeper's watch tables to one entry per path.
+ */
+class WatcherMultiplexer
+{
+    private final Logger                                    log = LoggerFactory.getLogger(getClass());
+    private final ConcurrentMap<Key, MultiplexedWatcher>    watchers = Maps.newConcurrentMap();
+    private WatchedEvent                                    lastSessionEvent = null;
+
+    enum WatchType
+    {
+        /**
+         * getData() and checkExists() watches
+         */
+        DATA,
+
+        /**
+         * getChildren() watches
+         */
+        CHILDREN
+    }
+
+    private static class Key
+    {
+        private final String        path;
+        private final WatchType     type;
+
+        private Key(String path, WatchType type)
+        {
+            this.path = path;
+            this.type = type;
+        }
+
+        @SuppressWarnings("RedundantIfStatement")
+        @Override
+        public boolean equals(Object o)
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+            if ( o == null || getClass() != o.getClass() )
+            {
+                return false;
+            }
+
+            Key key = (Key)o;
+
+            if ( !path.equals(key.path) )
+            {
+                return false;
+            }
+            if ( type != key.type )
+            {
+                return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = path.hashCode();
+            result = 31 * result + type.hashCode();
+            return result;
+        }
+    }
+
+    private class MultiplexedWatcher implements Watcher
+    {
+        private final Key                   key;
+        private final Multiset<Watcher>     subscribers = HashMultiset.create();
+        private boolean                     registered = false;
+        private boolean                     retired = false;
+
+        private MultiplexedWatcher(Key key)
+        {
+            this.key = key;
+        }
+
+        private synchronized boolean subscribe(Watcher watcher)
+        {
+            if ( retired )
+            {
+                return false;
+            }
+            subscribers.add(watcher);
+            return true;
+        }
+
+        @Override
+        public void process(WatchedEvent event)
+        {
+            if ( event.getType() == Event.EventType.None )
+            {
+                processSessionEvent(event);
+                return;
+            }
+
+            List<Watcher>   watchersToNotify;
+            synchronized(this)
+            {
+                watchersToNotify = retire();
+            }
+            notifyWatchers(watchersToNotify, event);
+        }
+
+        // must be called while synchronized
+        private List<Watcher> retire()
+        {
+            List<Watcher>   watchersToNotify = ImmutableList.copyOf(subscribers.elementSet());
+            subscribers.clear();
+            retired = true;
+            watchers.remove(key, this);
+            return watchersToNotify;
+        }
+    }
+
+    /**
+     * Add a subscriber for the given path/type and return the watcher to register with ZooKeeper. The
+     * subscriber must be added before the ZooKeeper call so that no event can be missed. Once the call
+     * completes, the caller must pass the result to {@link #commit(Watcher, Watcher, boolean)}.
+     *
+     * @param path the full (namespaced) path
+     * @param type watch type
+     * @param watcher subscriber
+     * @return the watcher to register with ZooKeeper
+     */
+    Watcher subscribe(String path, WatchType type, Watcher watcher)
+    {
+        Key     key = new Key(path, type);
+        for(;;)
+        {
+            MultiplexedWatcher  multiplexedWatcher = watchers.get(key);
+            if ( multiplexedWatcher == null )
+            {
+                MultiplexedWatcher  newMultiplexedWatcher = new MultiplexedWatcher(key);
+                multiplexedWatcher = watchers.putIfAbsent(key, newMultiplexedWatcher);
+                if ( multiplexedWatcher == null )
+                {
+                    multiplexedWatcher = newMultiplexedWatcher;
+                }
+            }
+
+            if ( multiplexedWatcher.subscribe(watcher) )
+            {
+                return multiplexedWatcher;
+            }
+            // it fired in the meantime - try again with a new one
+        }
+    }
+
+    /**
+     * Complete a subscription made via {@link #subscribe(String, WatchType, Watcher)}. If ZooKeeper did not
+     * register the watch (e.g. getData() for a missing node or a connection loss) the subscription is
+     * removed. A multiplexed watcher that was never registered and has no subscribers left is discarded
+     * as no event will ever retire it.
+     *
+     * @param multiplexedWatcher the watcher returned by subscribe()
+     * @param watcher the subscriber
+     * @param registered true if ZooKeeper registered the watch
+     */
+    void commit(Watcher multiplexedWatcher, Watcher watcher, boolean registered)
+    {
+        MultiplexedWatcher  theWatcher = (MultiplexedWatcher)multiplexedWatcher;
+        synchronized(theWatcher)
+        {
+            if ( theWatcher.retired )
+            {
+                return;
+            }
+
+            if ( registered )
+            {
+                theWatcher.registered = true;
+            }
+            else
+            {
+                theWatcher.subscribers.remove(watcher);
+                if ( !theWatcher.registered && theWatcher.subscribers.isEmpty() )
+                {
+                    theWatcher.retire();
+                }
+            }
+        }
+    }
+
+    private void processSessionEvent(WatchedEvent event)
+    {
+        // ZooKeeper passes the same event instance to every watcher it has registered. Each subscriber
+        // should see it once, as it would without multiplexing, so the first multiplexed watcher to get it
+        // notifies the subscribers of all of them
+        synchronized(this)
+        {
+            if ( event == lastSessionEvent )
+            {
+                return;
+            }
+            lastSessionEvent = event;
+        }
+
+        Set<Watcher>    watchersToNotify = Sets.newLinkedHashSet();
+        for ( MultiplexedWatcher multiplexedWatcher : watchers.values() )
+        {
+            synchronized(multiplexedWatcher)
+            {
+                if ( event.getState() == Watcher.Event.KeeperState.Expired )
+                {
+                    // the session's watches are gone
+                    watchersToNotify.addAll(multiplexedWatcher.retire());
+                }
+                else
+                {
+                    watchersToNotify.addAll(multiplexedWatcher.subscribers.elementSet());
+                }
+            }
+        }
+        notifyWatchers(watchersToNotify, event);
+    }
+
+    private void notifyWatchers(Iterable<Watcher> watchersToNotify, WatchedEvent event)
+    {
+        for ( Watcher watcher : watchersToNotify )
+        {
+            try
+            {
+                watcher.process(event);
+            }
+            catch ( Throwable e )
+            {
+                log.error("Watcher exception", e);
+            }
+        }
+    }
+
+    int size()
+    {
+        return watchers.size();
+    }
+
+    void clear()
+    {
+        watchers.clear();
+    }
+}
@@ -19,40 +19,77 @@
 package org.apache.curator.framework.imps;
 
 import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Watcher;
 
 class Watching
 {
-    private final Watcher       watcher;
-    private final boolean       watched;
+    private final Watcher               watcher;
+    private final boolean               watched;
+    private final WatcherMultiplexer    multiplexer;
 
     Watching(boolean watched)
     {
         this.watcher = null;
         this.watched = watched;
+        this.multiplexer = null;
     }
 
     Watching(CuratorFrameworkImpl client, Watcher watcher)
     {
         this.watcher = (watcher != null) ? client.getNamespaceWatcherMap().getNamespaceWatcher(watcher) : null;
         this.watched = false;
+        this.multiplexer = client.getWatcherMultiplexer();
     }
 
     Watching(CuratorFrameworkImpl client, CuratorWatcher watcher)
     {
         this.watcher = (watcher != null) ? client.getNamespaceWatcherMap().getNamespaceWatcher(watcher) : null;
         this.watched = false;
+        this.multiplexer = client.getWatcherMultiplexer();
     }
 
     Watching()
     {
         watcher = null;
         watched = false;
+        multiplexer = null;
     }
 
-    Watcher getWatcher()
+    /**
+     * Return the watcher to pass to ZooKeeper for the given path. If watcher multiplexing is enabled,
+     * this subscribes the watcher and returns the shared watcher for the path. The result of the ZooKeeper
+     * call must then be passed to {@link #commitWatcher(Watcher, int, boolean)}.
+     *
+     * @param path the full (namespaced) path
+     * @param type watch type
+     * @return watcher or null
+     */
+    Watcher getWatcher(String path, WatcherMultiplexer.WatchType type)
     {
-        return watcher;
+        if ( (watcher == null) || (multiplexer == null) )
+        {
+            return watcher;
+        }
+        return multiplexer.subscribe(path, type, watcher);
+    }
+
+    /**
+     * Complete the watcher returned by {@link #getWatcher(String, WatcherMultiplexer.WatchType)} with the
+     * result of the ZooKeeper call. ZooKeeper only registers the watch if the call succeeded, or for
+     * exists() if the node was missing.
+     *
+     * @param zkWatcher the watcher that was passed to ZooKeeper
+     * @param rc the ZooKeeper return code
+     * @param isExists true for exists() calls
+     */
+    void commitWatcher(Watcher zkWatcher, int rc, boolean isExists)
+    {
+        if ( (multiplexer != null) && (zkWatcher != null) && (zkWatcher != watcher) )
+        {
+            boolean     registered = (rc == KeeperException.Code.OK.intValue()) || (isExists && (rc == KeeperException.Code.NONODE.intValue()));
+            multiplexer.commit(zkWatcher, watcher, registered);
+        }
     }
 
     boolean isWatched()
@@ -19,20 +19,21 @@
 package org.apache.curator.framework.listen;
 
 import com.google.common.base.Function;
-import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.MoreExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.concurrent.Executor;
 
 /**
- * Abstracts an object that has listeners
+ * Abstracts an object that has listeners. The listeners are held in a copy-on-write
+ * array so that dispatching an event does not allocate. Listeners added with a same-thread
+ * executor (the default) are called directly.
  */
 public class ListenerContainer<T> implements Listenable<T>
 {
     private final Logger                        log = LoggerFactory.getLogger(getClass());
-    private final Map<T, ListenerEntry<T>>      listeners = Maps.newConcurrentMap();
+    private volatile ListenerEntry<T>[]         listeners = emptyEntries();
 
     @Override
     public void addListener(T listener)
@@ -41,23 +42,43 @@ public class ListenerContainer<T> implements Listenable<T>
     }
 
     @Override
-    public void addListener(T listener, Executor executor)
+    public synchronized void addListener(T listener, Executor executor)
     {
-        listeners.put(listener, new ListenerEntry<T>(listener, executor));
+        ListenerEntry<T>    entry = new ListenerEntry<T>(listener, executor);
+        int                 index = indexOf(listener);
+        ListenerEntry<T>[]  newListeners;
+        if ( index >= 0 )
+        {
+            newListeners = listeners.clone();
+            newListeners[index] = entry;
+        }
+        else
+        {
+            newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+            newListeners[listeners.length] = entry;
+        }
+        listeners = newListeners;
     }
 
     @Override
-    public void removeListener(T listener)
+    public synchronized void removeListener(T listener)
     {
-        listeners.remove(listener);
+        int     index = indexOf(listener);
+        if ( index >= 0 )
+        {
+            ListenerEntry<T>[]  newListeners = emptyEntries(listeners.length - 1);
+            System.arraycopy(listeners, 0, newListeners, 0, index);
+            System.arraycopy(listeners, index + 1, newListeners, index, newListeners.length - index);
+            listeners = newListeners;
+        }
     }
 
     /**
      * Remove all listeners
      */
-    public void     clear()
+    public synchronized void     clear()
     {
-        listeners.clear();
+        listeners = emptyEntries();
     }
 
     /**
@@ -67,7 +88,7 @@ public class ListenerContainer<T> implements Listenable<T>
      */
     public int      size()
     {
-        return listeners.size();
+        return listeners.length;
     }
 
     /**
@@ -78,26 +99,97 @@ public class ListenerContainer<T> implements Listenable<T>
      */
     public void     forEach(final Function<T, Void> function)
     {
-        for ( final ListenerEntry<T> entry : listeners.values() )
+        forEach(FunctionAdapter.<T>instance(), function);
+    }
+
+    /**
+     * Utility - apply the given function to each listener passing the given event. As the event is
+     * an argument, the function can be allocated once and reused. Listeners that use a same-thread
+     * executor are called directly. Exceptions thrown by the function are logged.
+     *
+     * @param function function to call for each listener
+     * @param event the event to pass to the function
+     */
+    public <E> void forEach(ListenerFunction<T, E> function, E event)
+    {
+        for ( ListenerEntry<T> entry : listeners )
         {
-            entry.executor.execute
-            (
-                new Runnable()
+            if ( entry.direct )
+            {
+                apply(entry.listener, function, event);
+            }
+            else
+            {
+                execute(entry, function, event);
+            }
+        }
+    }
+
+    private <E> void execute(final ListenerEntry<T> entry, final ListenerFunction<T, E> function, final E event)
+    {
+        entry.executor.execute
+        (
+            new Runnable()
+            {
+                @Override
+                public void run()
                 {
-                    @Override
-                    public void run()
-                    {
-                        try
-                        {
-                            function.apply(entry.listener);
-                        }
-                        catch ( Throwable e )
-                        {
-                            log.error(String.format("Listener (%s) threw an exception", entry.listener), e);
-                        }
-                    }
+                    apply(entry.listener, function, event);
                 }
-            );
+            }
+        );
+    }
+
+    private <E> void apply(T listener, ListenerFunction<T, E> function, E event)
+    {
+        try
+        {
+            function.apply(listener, event);
+        }
+        catch ( Throwable e )
+        {
+            log.error(String.format("Listener (%s) threw an exception", listener), e);
+        }
+    }
+
+    private int indexOf(T listener)
+    {
+        ListenerEntry<T>[]  localListeners = listeners;
+        for ( int i = 0; i < localListeners.length; ++i )
+        {
+            if ( localListeners[i].listener.equals(listener) )
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static <T> ListenerEntry<T>[] emptyEntries()
+    {
+        return emptyEntries(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ListenerEntry<T>[] emptyEntries(int size)
+    {
+        return (ListenerEntry<T>[])new ListenerEntry<?>[size];
+    }
+
+    private static class FunctionAdapter<T> implements ListenerFunction<T, Function<T, Void>>
+    {
+        private static final FunctionAdapter<Object> instance = new FunctionAdapter<Object>();
+
+        @SuppressWarnings("unchecked")
+        static <T> FunctionAdapter<T> instance()
+        {
+            return (FunctionAdapter<T>)instance;
+        }
+
+        @Override
+        public void apply(T listener, Function<T, Void> function)
+        {
+            function.apply(listener);
         }
     }
 }
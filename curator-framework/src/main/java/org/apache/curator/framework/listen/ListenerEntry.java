@@ -18,6 +18,7 @@
  */
 package org.apache.curator.framework.listen;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import java.util.concurrent.Executor;
 
 /**
@@ -29,9 +30,14 @@ public class ListenerEntry<T>
     public final T        listener;
     public final Executor executor;
 
+    final boolean         direct;
+
+    private static final Class<?> SAME_THREAD_EXECUTOR_CLASS = MoreExecutors.sameThreadExecutor().getClass();
+
     public ListenerEntry(T listener, Executor executor)
     {
         this.listener = listener;
         this.executor = executor;
+        direct = (executor.getClass() == SAME_THREAD_EXECUTOR_CLASS);
     }
 }
@@ -0,0 +1,38 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.listen;
+
+/**
+ * Callback used by {@link ListenerContainer#forEach(ListenerFunction, Object)}. Unlike
+ * a Guava {@link com.google.common.base.Function}, the event is passed as an argument so that
+ * a single instance can be created once and reused for every event.
+ *
+ * @param <T> the listener type
+ * @param <E> the event type
+ */
+public interface ListenerFunction<T, E>
+{
+    /**
+     * Deliver the event to the listener
+     *
+     * @param listener the listener
+     * @param event the event
+     */
+    public void     apply(T listener, E event);
+}
@@ -19,10 +19,10 @@
 
 package org.apache.curator.framework.state;
 
-import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.listen.ListenerContainer;
+import org.apache.curator.framework.listen.ListenerFunction;
 import org.apache.curator.utils.ThreadUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,7 +33,9 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -65,10 +67,20 @@ public class ConnectionStateManager implements Closeable
     private final BlockingQueue<ConnectionState> eventQueue = new ArrayBlockingQueue<ConnectionState>(QUEUE_SIZE);
     private final CuratorFramework client;
     private final ListenerContainer<ConnectionStateListener> listeners = new ListenerContainer<ConnectionStateListener>();
+    private final ListenerFunction<ConnectionStateListener, ConnectionState> listenerFunction = new ListenerFunction<ConnectionStateListener, ConnectionState>()
+    {
+        @Override
+        public void apply(ConnectionStateListener listener, ConnectionState newState)
+        {
+            listener.stateChanged(client, newState);
+        }
+    };
     private final AtomicReference<ConnectionState> currentState = new AtomicReference<ConnectionState>();
     private final AtomicBoolean initialConnectMessageSent = new AtomicBoolean(false);
     private final ExecutorService service;
     private final AtomicReference<State> state = new AtomicReference<State>(State.LATENT);
+    private final int coalescingMs;
+    private final AtomicLong suppressedEventCount = new AtomicLong(0);
 
     private enum State
     {
@@ -82,8 +94,20 @@ public class ConnectionStateManager implements Closeable
      * @param threadFactory thread factory to use or null for a default
      */
     public ConnectionStateManager(CuratorFramework client, ThreadFactory threadFactory)
+    {
+        this(client, threadFactory, 0);
+    }
+
+    /**
+     * @param client        the client
+     * @param threadFactory thread factory to use or null for a default
+     * @param coalescingMs  if &gt; 0, a SUSPENDED followed by RECONNECTED within this many milliseconds
+     *                      is not sent to listeners
+     */
+    public ConnectionStateManager(CuratorFramework client, ThreadFactory threadFactory, int coalescingMs)
     {
         this.client = client;
+        this.coalescingMs = coalescingMs;
         if ( threadFactory == null )
         {
             threadFactory = ThreadUtils.newThreadFactory("ConnectionStateManager");
@@ -132,6 +156,16 @@ public class ConnectionStateManager implements Closeable
         return listeners;
     }
 
+    /**
+     * Return the number of state changes that were not sent to listeners due to coalescing
+     *
+     * @return count
+     */
+    public long getSuppressedEventCount()
+    {
+        return suppressedEventCount.get();
+    }
+
     /**
      * Post a state change. If the manager is already in that state the change
      * is ignored. Otherwise the change is queued for listeners.
@@ -172,25 +206,26 @@ public class ConnectionStateManager implements Closeable
         {
             while ( !Thread.currentThread().isInterrupted() )
             {
-                final ConnectionState newState = eventQueue.take();
-
-                if ( listeners.size() == 0 )
+                ConnectionState newState = eventQueue.take();
+                if ( (newState == ConnectionState.SUSPENDED) && (coalescingMs > 0) )
                 {
-                    log.warn("There are no ConnectionStateListeners registered.");
+                    ConnectionState nextState = eventQueue.poll(coalescingMs, TimeUnit.MILLISECONDS);
+                    if ( nextState == ConnectionState.RECONNECTED )
+                    {
+                        log.info("Suppressing SUSPENDED/RECONNECTED pair");
+                        suppressedEventCount.addAndGet(2);
+                        client.getZookeeperClient().getTracerDriver().addCount("connection-state-suppressed", 2);
+                        continue;
+                    }
+
+                    notifyListeners(newState);
+                    newState = nextState;
                 }
 
-                listeners.forEach
-                    (
-                        new Function<ConnectionStateListener, Void>()
-                        {
-                            @Override
-                            public Void apply(ConnectionStateListener listener)
-                            {
-                                listener.stateChanged(client, newState);
-                                return null;
-                            }
-                        }
-                    );
+                if ( newState != null )
+                {
+                    notifyListeners(newState);
+                }
             }
         }
         catch ( InterruptedException e )
@@ -198,4 +233,14 @@ public class ConnectionStateManager implements Closeable
             Thread.currentThread().interrupt();
         }
     }
+
+    private void notifyListeners(ConnectionState newState)
+    {
+        if ( listeners.size() == 0 )
+        {
+            log.warn("There are no ConnectionStateListeners registered.");
+        }
+
+        listeners.forEach(listenerFunction, newState);
+    }
 }
@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.async.AsyncCuratorFramework;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.Timing;
+import org.apache.curator.utils.ThreadUtils;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestAsync extends BaseClassForTests
+{
+    @Test
+    public void testBasic() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            AsyncCuratorFramework async = client.async();
+
+            Assert.assertEquals(async.create().creatingParentsIfNeeded().forPath("/a/b/c", "one".getBytes()).get(timing.forWaiting().seconds(), TimeUnit.SECONDS), "/a/b/c");
+            Assert.assertEquals(async.setData().forPath("/a/b/c", "two".getBytes()).get(timing.forWaiting().seconds(), TimeUnit.SECONDS).getVersion(), 1);
+
+            Stat stat = new Stat();
+            Assert.assertEquals(async.getData().storingStatIn(stat).forPath("/a/b/c").get(timing.forWaiting().seconds(), TimeUnit.SECONDS), "two".getBytes());
+            Assert.assertEquals(stat.getVersion(), 1);
+
+            Assert.assertEquals(async.getChildren().forPath("/a/b").get(timing.forWaiting().seconds(), TimeUnit.SECONDS), Lists.newArrayList("c"));
+            Assert.assertNotNull(async.checkExists().forPath("/a/b/c").get(timing.forWaiting().seconds(), TimeUnit.SECONDS));
+            Assert.assertNull(async.checkExists().forPath("/a/b/d").get(timing.forWaiting().seconds(), TimeUnit.SECONDS));
+
+            async.delete().withVersion(1).forPath("/a/b/c").get(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+            Assert.assertNull(client.checkExists().forPath("/a/b/c"));
+
+            try
+            {
+                async.getData().forPath("/a/b/c").get(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+                Assert.fail();
+            }
+            catch ( ExecutionException e )
+            {
+                Assert.assertTrue(e.getCause() instanceof KeeperException.NoNodeException);
+            }
+
+            try
+            {
+                async.getData().forPath("bad path").get(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+                Assert.fail();
+            }
+            catch ( ExecutionException e )
+            {
+                Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+            }
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testFanOutWithExecutor() throws Exception
+    {
+        Timing timing = new Timing();
+        final ExecutorService executorService = ThreadUtils.newSingleThreadExecutor("TestAsync");
+        final AtomicInteger executedCount = new AtomicInteger();
+        Executor executor = new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            {
+                executedCount.incrementAndGet();
+                executorService.execute(command);
+            }
+        };
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            AsyncCuratorFramework async = client.usingNamespace("ns").async(executor);
+
+            List<ListenableFuture<String>> creates = Lists.newArrayList();
+            for ( int i = 0; i < 100; ++i )
+            {
+                creates.add(async.create().creatingParentsIfNeeded().forPath("/parent/" + i, Integer.toString(i).getBytes()));
+            }
+            Futures.allAsList(creates).get(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+            Assert.assertEquals(client.getChildren().forPath("/ns/parent").size(), 100);
+
+            executedCount.set(0);
+            List<ListenableFuture<byte[]>> reads = Lists.newArrayList();
+            for ( int i = 0; i < 100; ++i )
+            {
+                reads.add(async.getData().forPath("/parent/" + i));
+            }
+            List<byte[]> values = Futures.allAsList(reads).get(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+            for ( int i = 0; i < 100; ++i )
+            {
+                Assert.assertEquals(new String(values.get(i)), Integer.toString(i));
+            }
+            Assert.assertEquals(executedCount.get(), 100);
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.curator.drivers.MetricsTracerDriver;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.transaction.BatchingWriter;
+import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
+import org.apache.curator.framework.api.transaction.OperationType;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.Timing;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class TestBatchingWriter extends BaseClassForTests
+{
+    @Test
+    public void testBatching() throws Exception
+    {
+        final int THREADS = 10;
+        final int WRITES_PER_THREAD = 50;
+
+        Timing timing = new Timing();
+        MetricsTracerDriver driver = new MetricsTracerDriver();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        BatchingWriter writer = null;
+        try
+        {
+            client.start();
+            client.getZookeeperClient().setTracerDriver(driver);
+            client.create().forPath("/test");
+            writer = client.newBatchingWriter(100, 10);
+
+            List<Future<List<ListenableFuture<CuratorTransactionResult>>>> submitters = Lists.newArrayList();
+            for ( int i = 0; i < THREADS; ++i )
+            {
+                final int       threadIndex = i;
+                final BatchingWriter localWriter = writer;
+                submitters.add
+                (
+                    executorService.submit
+                    (
+                        new Callable<List<ListenableFuture<CuratorTransactionResult>>>()
+                        {
+                            @Override
+                            public List<ListenableFuture<CuratorTransactionResult>> call() throws Exception
+                            {
+                                List<ListenableFuture<CuratorTransactionResult>> futures = Lists.newArrayList();
+                                for ( int j = 0; j < WRITES_PER_THREAD; ++j )
+                                {
+                                    futures.add(localWriter.create("/test/" + threadIndex + "-" + j, new byte[0], CreateMode.PERSISTENT));
+                                }
+                                return futures;
+                            }
+                        }
+                    )
+                );
+            }
+
+            List<ListenableFuture<CuratorTransactionResult>> futures = Lists.newArrayList();
+            for ( Future<List<ListenableFuture<CuratorTransactionResult>>> submitter : submitters )
+            {
+                futures.addAll(submitter.get());
+            }
+            List<CuratorTransactionResult> results = Futures.allAsList(futures).get(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+            for ( CuratorTransactionResult result : results )
+            {
+                Assert.assertEquals(result.getType(), OperationType.CREATE);
+                Assert.assertEquals(result.getResultPath(), result.getForPath());
+            }
+            Assert.assertEquals(client.getChildren().forPath("/test").size(), THREADS * WRITES_PER_THREAD);
+
+            long commits = driver.getLatencySnapshot("CuratorTransactionImpl-Foreground").getCount();
+            Assert.assertTrue(commits < (THREADS * WRITES_PER_THREAD), "commits: " + commits);
+        }
+        finally
+        {
+            Closeables.closeQuietly(writer);
+            executorService.shutdownNow();
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testFailedWriteIsIsolated() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        BatchingWriter writer = null;
+        try
+        {
+            client.start();
+            client.create().forPath("/exists");
+            writer = client.newBatchingWriter(4, timing.milliseconds());
+
+            ListenableFuture<CuratorTransactionResult> one = writer.create("/one", "1".getBytes(), CreateMode.PERSISTENT);
+            ListenableFuture<CuratorTransactionResult> bad = writer.create("/exists", "2".getBytes(), CreateMode.PERSISTENT);
+            ListenableFuture<CuratorTransactionResult> update = writer.setData("/one", "3".getBytes(), 0);
+            ListenableFuture<CuratorTransactionResult> badDelete = writer.delete("/missing", -1);
+
+            Assert.assertEquals(one.get(timing.forWaiting().seconds(), TimeUnit.SECONDS).getResultPath(), "/one");
+            Assert.assertEquals(update.get(timing.forWaiting().seconds(), TimeUnit.SECONDS).getResultStat().getVersion(), 1);
+            assertFailedWith(bad, KeeperException.NodeExistsException.class);
+            assertFailedWith(badDelete, KeeperException.NoNodeException.class);
+            Assert.assertEquals(client.getData().forPath("/one"), "3".getBytes());
+
+            writer.close();
+            assertFailedWith(writer.delete("/one", -1), IllegalStateException.class);
+        }
+        finally
+        {
+            Closeables.closeQuietly(writer);
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    private static void assertFailedWith(ListenableFuture<?> future, Class<? extends Exception> exceptionClass) throws Exception
+    {
+        try
+        {
+            future.get(new Timing().forWaiting().seconds(), TimeUnit.SECONDS);
+            Assert.fail("Should have failed with " + exceptionClass);
+        }
+        catch ( ExecutionException e )
+        {
+            Assert.assertTrue(exceptionClass.isInstance(e.getCause()), String.valueOf(e.getCause()));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Closeables;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.bulk.BulkResult;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.Timing;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class TestBulkRead extends BaseClassForTests
+{
+    @Test
+    public void testGetData() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+
+            List<String> paths = Lists.newArrayList();
+            for ( int i = 0; i < 50; ++i )
+            {
+                String path = "/test/" + i;
+                client.create().creatingParentsIfNeeded().forPath(path, Integer.toString(i).getBytes());
+                paths.add(path);
+            }
+            paths.add("/test/missing");
+            paths.add("/test/0");
+
+            Map<String, BulkResult<byte[]>> results = client.bulk().withWindow(5).getData().forPaths(paths);
+            Assert.assertEquals(results.size(), 51);
+            Assert.assertEquals(Lists.newArrayList(results.keySet()), paths.subList(0, 51));
+            for ( int i = 0; i < 50; ++i )
+            {
+                BulkResult<byte[]> result = results.get("/test/" + i);
+                Assert.assertTrue(result.isSuccess());
+                Assert.assertEquals(new String(result.getValue()), Integer.toString(i));
+                Assert.assertEquals(result.getStat().getDataLength(), result.getValue().length);
+            }
+
+            BulkResult<byte[]> missing = results.get("/test/missing");
+            Assert.assertFalse(missing.isSuccess());
+            Assert.assertNull(missing.getValue());
+            Assert.assertTrue(missing.getError() instanceof KeeperException.NoNodeException);
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testGetChildren() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            client.create().creatingParentsIfNeeded().forPath("/a/one");
+            client.create().creatingParentsIfNeeded().forPath("/b/two");
+
+            Map<String, BulkResult<List<String>>> results = client.usingNamespace(null).bulk().getChildren().forPaths(Lists.newArrayList("/a", "/b"));
+            Assert.assertEquals(results.get("/a").getValue(), Lists.newArrayList("one"));
+            Assert.assertEquals(results.get("/b").getValue(), Lists.newArrayList("two"));
+            Assert.assertEquals(results.get("/b").getStat().getNumChildren(), 1);
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testFromWatcher() throws Exception
+    {
+        Timing timing = new Timing();
+        final CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            client.create().forPath("/a", "one".getBytes());
+
+            final BlockingQueue<Object> results = new LinkedBlockingQueue<Object>();
+            Watcher watcher = new Watcher()
+            {
+                @Override
+                public void process(WatchedEvent event)
+                {
+                    try
+                    {
+                        results.add(client.bulk().getData().forPaths(Lists.newArrayList("/a", "/missing", "bad path")));
+                    }
+                    catch ( Exception e )
+                    {
+                        results.add(e);
+                    }
+                }
+            };
+            client.checkExists().usingWatcher(watcher).forPath("/trigger");
+            client.create().forPath("/trigger");
+
+            Object result = results.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+            Assert.assertTrue(result instanceof Map, "Bulk read from a watcher did not complete: " + result);
+            @SuppressWarnings("unchecked")
+            Map<String, BulkResult<byte[]>> map = (Map<String, BulkResult<byte[]>>)result;
+            Assert.assertEquals(new String(map.get("/a").getValue()), "one");
+            Assert.assertTrue(map.get("/missing").getError() instanceof KeeperException.NoNodeException);
+            Assert.assertTrue(map.get("bad path").getError() instanceof IllegalArgumentException);
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+}
@@ -18,14 +18,31 @@
  */
 package org.apache.curator.framework.imps;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Closeables;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.BufferCompressionProvider;
 import org.apache.curator.framework.api.CompressionProvider;
 import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.Timing;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
 import org.testng.Assert;
 import org.testng.annotations.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 public class TestCompression extends BaseClassForTests
 {
@@ -125,4 +142,356 @@ public class TestCompression extends BaseClassForTests
             Closeables.closeQuietly(client);
         }
     }
+
+    @Test
+    public void testGzipCompatibility() throws Exception
+    {
+        GzipCompressionProvider provider = new GzipCompressionProvider();
+        Random random = new Random();
+        for ( int size : new int[]{0, 1, 100, 10000, 1024 * 1024} )
+        {
+            byte[] randomData = new byte[size];
+            random.nextBytes(randomData);
+            byte[] repetitiveData = new byte[size];
+            Arrays.fill(repetitiveData, (byte)'x');
+
+            for ( byte[] data : new byte[][]{randomData, repetitiveData} )
+            {
+                byte[] compressed = provider.compress("/", data);
+                Assert.assertEquals(gunzip(compressed), data);
+                Assert.assertEquals(provider.decompress("/", gzip(data)), data);
+                Assert.assertEquals(provider.decompress("/", compressed), data);
+
+                ByteBuffer compressedBuffer = provider.compress("/", ByteBuffer.wrap(data).asReadOnlyBuffer());
+                Assert.assertEquals(ByteBufferUtils.toBytes(provider.decompress("/", compressedBuffer)), data);
+            }
+        }
+
+        // concatenated members - the trailer size is only that of the last member
+        byte[] one = gzip("one".getBytes());
+        byte[] two = gzip("two".getBytes());
+        byte[] both = Arrays.copyOf(one, one.length + two.length);
+        System.arraycopy(two, 0, both, one.length, two.length);
+        Assert.assertEquals(provider.decompress("/", both), "onetwo".getBytes());
+    }
+
+    @Test
+    public void testByteBuffers() throws Exception
+    {
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+
+            ByteBuffer buffer = ByteBuffer.wrap("xxhello worldxx".getBytes());
+            buffer.position(2);
+            ByteBuffer slice = buffer.slice();
+            slice.limit(slice.limit() - 2);
+            client.create().forPathFromBuffer("/a", slice.asReadOnlyBuffer());
+            Assert.assertEquals(slice.position(), 0);
+            Assert.assertEquals(client.getData().forPath("/a"), "hello world".getBytes());
+
+            client.setData().compressed().forPathFromBuffer("/a", ByteBuffer.wrap("compressed".getBytes()));
+            ByteBuffer result = client.getData().decompressed().forPathAsBuffer("/a");
+            Assert.assertTrue(result.isReadOnly());
+            Assert.assertEquals(ByteBufferUtils.toBytes(result), "compressed".getBytes());
+            Assert.assertEquals(ByteBufferUtils.toBytes(client.getData().forPathAsBuffer("/a")), client.getData().forPath("/a"));
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testByteBufferCompression() throws Exception
+    {
+        final AtomicInteger bufferCompressCounter = new AtomicInteger();
+        BufferCompressionProvider compressionProvider = new GzipCompressionProvider()
+        {
+            @Override
+            public ByteBuffer compress(String path, ByteBuffer data) throws Exception
+            {
+                bufferCompressCounter.incrementAndGet();
+                return super.compress(path, data);
+            }
+        };
+        CuratorFramework client = CuratorFrameworkFactory.builder().compressionProvider(compressionProvider).connectString(server.getConnectString()).retryPolicy(new RetryOneTime(1)).build();
+        try
+        {
+            client.start();
+
+            client.create().compressed().forPathFromBuffer("/a", ByteBuffer.wrap("one".getBytes()));
+            client.setData().compressed().forPathFromBuffer("/a", ByteBuffer.wrap("two".getBytes()));
+            Assert.assertEquals(bufferCompressCounter.get(), 2);
+            Assert.assertEquals(client.getData().decompressed().forPath("/a"), "two".getBytes());
+
+            client.create().forPath("/b", null);
+            client.setData().forPath("/b", null);
+            Assert.assertEquals(bufferCompressCounter.get(), 2);
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testLZ4() throws Exception
+    {
+        LZ4CompressionProvider provider = new LZ4CompressionProvider();
+        Random random = new Random();
+        for ( int size : new int[]{0, 1, 12, 13, 100, 10000, 70000, 1024 * 1024} )
+        {
+            byte[] randomData = new byte[size];
+            random.nextBytes(randomData);
+            byte[] repetitiveData = new byte[size];
+            Arrays.fill(repetitiveData, (byte)'x');
+            byte[] textData = new byte[size];
+            for ( int i = 0; i < size; ++i )
+            {
+                textData[i] = (byte)('a' + random.nextInt(4));
+            }
+
+            for ( byte[] data : new byte[][]{randomData, repetitiveData, textData} )
+            {
+                byte[] compressed = provider.compress("/", data);
+                Assert.assertEquals(provider.decompress("/", compressed), data);
+            }
+            if ( size > 100 )
+            {
+                Assert.assertTrue(provider.compress("/", repetitiveData).length < (size / 100));
+            }
+        }
+
+        byte[] compressed = provider.compress("/", "hello hello hello hello hello".getBytes());
+        try
+        {
+            provider.decompress("/", Arrays.copyOf(compressed, compressed.length - 1));
+            Assert.fail();
+        }
+        catch ( IOException expected )
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCodecs() throws Exception
+    {
+        byte[] data = "a string a string a string a string a string".getBytes();
+        byte[] randomData = new byte[1000];
+        new Random().nextBytes(randomData);
+
+        CodecCompressionProvider gzipCodec = new CodecCompressionProvider(CodecCompressionProvider.GZIP);
+        CodecCompressionProvider lz4Codec = new CodecCompressionProvider();
+        Assert.assertEquals(gzipCodec.compress("/", data)[0], CodecCompressionProvider.GZIP);
+        Assert.assertEquals(lz4Codec.compress("/", data)[0], CodecCompressionProvider.LZ4);
+        Assert.assertEquals(lz4Codec.compress("/", randomData)[0], CodecCompressionProvider.STORED);
+        Assert.assertEquals(lz4Codec.decompress("/", lz4Codec.compress("/", randomData)), randomData);
+
+        CompressionProvider reversing = new CompressionProvider()
+        {
+            @Override
+            public byte[] compress(String path, byte[] data) throws Exception
+            {
+                return reverse(data);
+            }
+
+            @Override
+            public byte[] decompress(String path, byte[] compressedData) throws Exception
+            {
+                return reverse(compressedData);
+            }
+        };
+        CodecCompressionProvider customCodec = new CodecCompressionProvider((byte)10, ImmutableMap.of((byte)10, reversing));
+        Assert.assertEquals(customCodec.compress("/", data)[0], (byte)10);
+
+        CuratorFramework client = CuratorFrameworkFactory.builder().
+            compressionProvider(customCodec).
+            connectString(server.getConnectString()).
+            retryPolicy(new RetryOneTime(1)).
+            build();
+        try
+        {
+            client.start();
+
+            // a tree written with a mix of codecs can be read with any codec provider
+            client.create().forPath("/gzip", new GzipCompressionProvider().compress("/gzip", data));
+            client.create().forPath("/codec-gzip", gzipCodec.compress("/codec-gzip", data));
+            client.create().forPath("/codec-lz4", lz4Codec.compress("/codec-lz4", data));
+            client.create().compressed().forPath("/custom", data);
+            for ( String path : new String[]{"/gzip", "/codec-gzip", "/codec-lz4", "/custom"} )
+            {
+                Assert.assertEquals(client.getData().decompressed().forPath(path), data, path);
+            }
+
+            try
+            {
+                lz4Codec.decompress("/custom", client.getData().forPath("/custom"));
+                Assert.fail();
+            }
+            catch ( IOException expected )
+            {
+                // expected - unknown codec id
+            }
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testDictionary() throws Exception
+    {
+        String template = "{\"name\":\"%s\",\"id\":\"%s\",\"address\":\"10.0.0.%d\",\"port\":%d,\"sslPort\":null,\"payload\":null,\"registrationTimeUTC\":%d,\"serviceType\":\"DYNAMIC\",\"uriSpec\":null}";
+        byte[] dictionary = (String.format(template, "service", "0123-4567", 1, 8080, 1370000000000L) + String.format(template, "service", "89ab-cdef", 2, 8081, 1370000000001L)).getBytes();
+        byte[] data = String.format(template, "service", "aaaa-bbbb", 3, 8082, 1371234567890L).getBytes();
+
+        DictionaryCompressionProvider provider = new DictionaryCompressionProvider("/dictionaries");
+        CuratorFramework client = CuratorFrameworkFactory.builder().
+            compressionProvider(provider).
+            connectString(server.getConnectString()).
+            retryPolicy(new RetryOneTime(1)).
+            build();
+        try
+        {
+            client.start();
+            provider.start(client);
+            Assert.assertEquals(provider.getDictionaryVersion(), -1);
+
+            client.create().compressed().forPath("/none", data);
+            Assert.assertEquals(client.getData().decompressed().forPath("/none"), data);
+
+            int version = DictionaryCompressionProvider.publishDictionary(client, "/dictionaries", dictionary);
+            Assert.assertEquals(provider.getDictionaryVersion(), -1);
+            provider.refresh();
+            Assert.assertEquals(provider.getDictionaryVersion(), version);
+
+            client.create().compressed().forPath("/v1", data);
+            byte[] compressed = client.getData().forPath("/v1");
+            Assert.assertTrue(compressed.length < (new GzipCompressionProvider().compress("/", data).length / 2), "Compressed length: " + compressed.length);
+            Assert.assertEquals(client.getData().decompressed().forPath("/v1"), data);
+
+            // a newer dictionary doesn't affect existing data
+            int newVersion = DictionaryCompressionProvider.publishDictionary(client, "/dictionaries", "something else".getBytes());
+            Assert.assertTrue(newVersion > version);
+            provider.refresh();
+            client.create().compressed().forPath("/v2", data);
+            Assert.assertEquals(client.getData().decompressed().forPath("/v1"), data);
+            Assert.assertEquals(client.getData().decompressed().forPath("/v2"), data);
+
+            // older dictionaries are loaded on demand
+            DictionaryCompressionProvider otherProvider = new DictionaryCompressionProvider("/dictionaries");
+            otherProvider.start(client);
+            Assert.assertEquals(otherProvider.decompress("/v1", compressed), data);
+            Assert.assertEquals(otherProvider.decompress("/none", client.getData().forPath("/none")), data);
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testDictionaryMissOnEventThread() throws Exception
+    {
+        byte[] data = "{\"name\":\"service\",\"id\":\"aaaa-bbbb\"}".getBytes();
+
+        Timing timing = new Timing();
+        DictionaryCompressionProvider provider = new DictionaryCompressionProvider("/dictionaries");
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            final DictionaryCompressionProvider otherProvider = new DictionaryCompressionProvider("/dictionaries");
+            otherProvider.start(client);
+
+            provider.start(client);
+            DictionaryCompressionProvider.publishDictionary(client, "/dictionaries", data);
+            provider.refresh();
+            final byte[] compressed = provider.compress("/test", data);
+
+            // the other provider hasn't loaded the new dictionary - it must not block the event thread to get it
+            client.create().forPath("/trigger");
+            Callable<byte[]> decompress = new Callable<byte[]>()
+            {
+                @Override
+                public byte[] call() throws Exception
+                {
+                    return otherProvider.decompress("/test", compressed);
+                }
+            };
+            Object result = callFromWatcher(client, decompress, timing);
+            Assert.assertTrue(result instanceof IOException, "Unexpected result: " + result);
+
+            // the dictionary is loaded in the background
+            for ( int i = 0; (i < 10) && !(result instanceof byte[]); ++i )
+            {
+                timing.sleepABit();
+                result = callFromWatcher(client, decompress, timing);
+            }
+            Assert.assertEquals(result, data);
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    private static Object callFromWatcher(CuratorFramework client, final Callable<byte[]> callable, Timing timing) throws Exception
+    {
+        final BlockingQueue<Object> results = new LinkedBlockingQueue<Object>();
+        Watcher watcher = new Watcher()
+        {
+            @Override
+            public void process(WatchedEvent event)
+            {
+                try
+                {
+                    results.add(callable.call());
+                }
+                catch ( Exception e )
+                {
+                    results.add(e);
+                }
+            }
+        };
+        client.checkExists().usingWatcher(watcher).forPath("/trigger");
+        client.setData().forPath("/trigger");
+        return results.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+    }
+
+    private static byte[] reverse(byte[] data)
+    {
+        byte[] bytes = new byte[data.length];
+        for ( int i = 0; i < data.length; ++i )
+        {
+            bytes[i] = data[data.length - 1 - i];
+        }
+        return bytes;
+    }
+
+    private static byte[] gzip(byte[] data) throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(bytes);
+        out.write(data);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws Exception
+    {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int bytesRead;
+        while ( (bytesRead = in.read(buffer)) >= 0 )
+        {
+            bytes.write(buffer, 0, bytesRead);
+        }
+        return bytes.toByteArray();
+    }
 }
@@ -25,16 +25,22 @@ import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.framework.api.BackgroundCallback;
 import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.CuratorEventType;
 import org.apache.curator.retry.RetryNTimes;
 import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.TestingServer;
 import org.apache.curator.test.Timing;
 import org.apache.zookeeper.KeeperException.Code;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class TestFrameworkBackground extends BaseClassForTests
@@ -120,6 +126,152 @@ public class TestFrameworkBackground extends BaseClassForTests
         }
     }
 
+    @Test
+    public void testMultipleBackgroundThreads() throws Exception
+    {
+        final int QTY = 50;
+
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryOneTime(1))
+            .backgroundThreads(4)
+            .build();
+        try
+        {
+            client.start();
+
+            final CountDownLatch latch = new CountDownLatch(QTY);
+            BackgroundCallback callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    if ( event.getResultCode() == Code.OK.intValue() )
+                    {
+                        latch.countDown();
+                    }
+                }
+            };
+            for ( int i = 0; i < QTY; ++i )
+            {
+                // creatingParentsIfNeeded() forces the operations through the background queues
+                client.create().creatingParentsIfNeeded().inBackground(callback).forPath("/parent" + i + "/child");
+            }
+
+            Assert.assertTrue(timing.awaitLatch(latch));
+            for ( int i = 0; i < QTY; ++i )
+            {
+                Assert.assertNotNull(client.checkExists().forPath("/parent" + i + "/child"));
+            }
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testPipelined() throws Exception
+    {
+        final int QTY = 100;
+
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryNTimes(50, 100))
+            .backgroundThreads(2)
+            .backgroundPipelining(10, 5)
+            .build();
+        try
+        {
+            client.start();
+            client.getZookeeperClient().blockUntilConnectedOrTimedOut();
+
+            final CountDownLatch latch = new CountDownLatch(QTY);
+            BackgroundCallback callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    if ( event.getResultCode() == Code.OK.intValue() )
+                    {
+                        latch.countDown();
+                    }
+                }
+            };
+
+            // operations that are retrying must not be blocked by operations waiting for an in-flight permit
+            server.stop();
+            for ( int i = 0; i < QTY; ++i )
+            {
+                client.create().inBackground(callback).forPath("/test" + i);
+            }
+            timing.sleepABit();
+            server = new TestingServer(server.getPort(), server.getTempDirectory());
+
+            Assert.assertTrue(timing.awaitLatch(latch));
+            Assert.assertEquals(client.getChildren().forPath("/").size(), QTY + 1);  // +1 for /zookeeper
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testPipelinedOrdering() throws Exception
+    {
+        final int QTY = 100;
+
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryOneTime(1))
+            .backgroundThreads(4)
+            .backgroundPipelining(10, 0)
+            .build();
+        try
+        {
+            client.start();
+
+            final CountDownLatch latch = new CountDownLatch(2 * QTY);
+            final List<Integer> errors = new CopyOnWriteArrayList<Integer>();
+            BackgroundCallback callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    if ( event.getResultCode() != Code.OK.intValue() )
+                    {
+                        errors.add(event.getResultCode());
+                    }
+                    latch.countDown();
+                }
+            };
+
+            // the child can only be created if the parent's create is issued first
+            for ( int i = 0; i < QTY; ++i )
+            {
+                client.create().inBackground(callback).forPath("/test" + i);
+                client.create().inBackground(callback).forPath("/test" + i + "/child");
+            }
+
+            Assert.assertTrue(timing.awaitLatch(latch));
+            Assert.assertEquals(errors, Lists.<Integer>newArrayList());
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
     /**
      * Attempt a background operation while Zookeeper server is down.
      * Return code must be {@link Code#CONNECTIONLOSS}
@@ -162,4 +314,110 @@ public class TestFrameworkBackground extends BaseClassForTests
         }
 
     }
+
+    @Test
+    public void testCallbackOnErrorWithoutResult() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+
+            // the bad path makes the operation throw instead of producing a ZooKeeper result code
+            final BlockingQueue<CuratorEvent> events = new LinkedBlockingQueue<CuratorEvent>();
+            BackgroundCallback callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    events.add(event);
+                }
+            };
+            client.getData().inBackground(callback, "context").forPath("bad path");
+
+            CuratorEvent event = events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+            Assert.assertNotNull(event, "Callback has not been called");
+            Assert.assertEquals(event.getType(), CuratorEventType.GET_DATA);
+            Assert.assertEquals(event.getResultCode(), Code.BADARGUMENTS.intValue());
+            Assert.assertEquals(event.getPath(), "bad path");
+            Assert.assertEquals(event.getContext(), "context");
+            Assert.assertNull(events.poll(1, TimeUnit.SECONDS));
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testConnectionLossReportedOnce() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            client.getChildren().forPath("/");
+
+            final BlockingQueue<CuratorEvent> events = new LinkedBlockingQueue<CuratorEvent>();
+            BackgroundCallback callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    events.add(event);
+                }
+            };
+            server.stop();
+            client.getChildren().inBackground(callback, "context").forPath("/");
+
+            // the connection loss event is the operation's result - no separate error event follows it
+            CuratorEvent event = events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+            Assert.assertNotNull(event, "Callback has not been called");
+            Assert.assertEquals(event.getType(), CuratorEventType.CHILDREN);
+            Assert.assertEquals(event.getResultCode(), Code.CONNECTIONLOSS.intValue());
+            Assert.assertEquals(event.getContext(), "context");
+            Assert.assertNull(events.poll(timing.multiple(2).seconds(), TimeUnit.SECONDS));
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testCallbackExceptionIsNotSentBack() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            client.create().forPath("/test");
+
+            final AtomicInteger callCount = new AtomicInteger();
+            final CountDownLatch latch = new CountDownLatch(1);
+            BackgroundCallback callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    callCount.incrementAndGet();
+                    latch.countDown();
+                    throw new Exception("callback failed");
+                }
+            };
+            client.getData().inBackground(callback).forPath("/test");
+
+            // the exception is logged - the callback is not called again with an error for its own exception
+            Assert.assertTrue(timing.awaitLatch(latch));
+            timing.sleepABit();
+            Assert.assertEquals(callCount.get(), 1);
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
 }
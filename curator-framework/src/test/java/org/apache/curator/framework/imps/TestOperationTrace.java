@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Closeables;
+import org.apache.curator.drivers.AdvancedTracerDriver;
+import org.apache.curator.drivers.OperationTrace;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.zookeeper.KeeperException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class TestOperationTrace extends BaseClassForTests
+{
+    private static class RecordingDriver implements AdvancedTracerDriver
+    {
+        private final List<OperationTrace> traces = new CopyOnWriteArrayList<OperationTrace>();
+
+        @Override
+        public void addTrace(OperationTrace trace)
+        {
+            traces.add(trace);
+        }
+
+        @Override
+        public void addTrace(String name, long time, TimeUnit unit)
+        {
+        }
+
+        @Override
+        public void addCount(String name, int increment)
+        {
+        }
+
+        List<OperationTrace> getTraces(String name)
+        {
+            List<OperationTrace> result = Lists.newArrayList();
+            for ( OperationTrace trace : traces )
+            {
+                if ( trace.getName().equals(name) )
+                {
+                    result.add(trace);
+                }
+            }
+            return result;
+        }
+    }
+
+    @Test
+    public void testForegroundTraces() throws Exception
+    {
+        RecordingDriver driver = new RecordingDriver();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            client.getZookeeperClient().setTracerDriver(driver);
+
+            client.create().forPath("/test", "hey".getBytes());
+            Assert.assertEquals(client.getData().forPath("/test"), "hey".getBytes());
+            try
+            {
+                client.getData().forPath("/missing");
+                Assert.fail();
+            }
+            catch ( KeeperException.NoNodeException expected )
+            {
+                // expected
+            }
+
+            List<OperationTrace> creates = driver.getTraces("CreateBuilderImpl-Foreground");
+            Assert.assertEquals(creates.size(), 1);
+            Assert.assertEquals(creates.get(0).getPath(), "/test");
+            Assert.assertEquals(creates.get(0).getRequestBytesLength(), 3);
+
+            List<OperationTrace> reads = driver.getTraces("GetDataBuilderImpl-Foreground");
+            Assert.assertEquals(reads.size(), 2);
+            Assert.assertEquals(reads.get(0).getPath(), "/test");
+            Assert.assertEquals(reads.get(0).getReturnCode(), KeeperException.Code.OK.intValue());
+            Assert.assertEquals(reads.get(0).getResponseBytesLength(), 3);
+            Assert.assertEquals(reads.get(1).getPath(), "/missing");
+            Assert.assertEquals(reads.get(1).getReturnCode(), KeeperException.Code.NONODE.intValue());
+            Assert.assertTrue(reads.get(1).getElapsedTimeNanos() > 0);
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.io.Closeables;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.cache.ReadCache;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.KillSession;
+import org.apache.curator.test.Timing;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+public class TestReadCache extends BaseClassForTests
+{
+    @Test
+    public void testBasic() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        ReadCache cache = null;
+        try
+        {
+            client.start();
+            client.create().forPath("/test", "one".getBytes());
+
+            cache = client.newReadCache(100);
+            Assert.assertEquals(cache.getData("/test"), "one".getBytes());
+            Stat stat = new Stat();
+            Assert.assertEquals(cache.getData("/test", stat), "one".getBytes());
+            Assert.assertEquals(stat.getVersion(), 0);
+            Assert.assertEquals(cache.getMissCount(), 1);
+            Assert.assertEquals(cache.getHitCount(), 1);
+
+            client.setData().forPath("/test", "two".getBytes());
+            final ReadCache localCache = cache;
+            waitFor(timing, new Callable<Boolean>()
+            {
+                @Override
+                public Boolean call() throws Exception
+                {
+                    return Arrays.equals(localCache.getData("/test"), "two".getBytes());
+                }
+            });
+            Assert.assertEquals(cache.getInvalidationCount(), 1);
+
+            Assert.assertNull(cache.checkExists("/test/child"));
+            Assert.assertEquals(cache.getChildren("/test").size(), 0);
+            client.create().forPath("/test/child");
+            waitFor(timing, new Callable<Boolean>()
+            {
+                @Override
+                public Boolean call() throws Exception
+                {
+                    return (localCache.checkExists("/test/child") != null) && localCache.getChildren("/test").contains("child");
+                }
+            });
+
+            client.delete().forPath("/test/child");
+            waitFor(timing, new Callable<Boolean>()
+            {
+                @Override
+                public Boolean call() throws Exception
+                {
+                    return (localCache.checkExists("/test/child") == null) && localCache.getChildren("/test").isEmpty();
+                }
+            });
+
+            try
+            {
+                cache.getData("/missing");
+                Assert.fail();
+            }
+            catch ( KeeperException.NoNodeException expected )
+            {
+                // expected
+            }
+        }
+        finally
+        {
+            Closeables.closeQuietly(cache);
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testEviction() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        ReadCache cache = null;
+        try
+        {
+            client.start();
+            for ( int i = 0; i < 20; ++i )
+            {
+                client.create().creatingParentsIfNeeded().forPath("/test/" + i, Integer.toString(i).getBytes());
+            }
+
+            cache = client.newReadCache(10);
+            for ( int i = 0; i < 20; ++i )
+            {
+                Assert.assertEquals(cache.getData("/test/" + i), Integer.toString(i).getBytes());
+            }
+            Assert.assertTrue(cache.size() <= 10);
+            Assert.assertTrue(cache.getEvictionCount() >= 10);
+        }
+        finally
+        {
+            Closeables.closeQuietly(cache);
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testNamespace() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        ReadCache cache = null;
+        try
+        {
+            client.start();
+            CuratorFramework namespaced = client.usingNamespace("ns");
+            namespaced.create().forPath("/test", "one".getBytes());
+            client.create().forPath("/test", "other".getBytes());
+
+            cache = namespaced.newReadCache(10);
+            Assert.assertEquals(cache.getData("/test"), "one".getBytes());
+
+            namespaced.setData().forPath("/test", "two".getBytes());
+            final ReadCache localCache = cache;
+            waitFor(timing, new Callable<Boolean>()
+            {
+                @Override
+                public Boolean call() throws Exception
+                {
+                    return Arrays.equals(localCache.getData("/test"), "two".getBytes());
+                }
+            });
+        }
+        finally
+        {
+            Closeables.closeQuietly(cache);
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testSessionLoss() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        ReadCache cache = null;
+        try
+        {
+            client.start();
+            client.create().forPath("/test", "one".getBytes());
+
+            cache = client.newReadCache(10);
+            cache.getData("/test");
+            cache.getChildren("/test");
+            Assert.assertEquals(cache.size(), 2);
+
+            KillSession.kill(client.getZookeeperClient().getZooKeeper(), server.getConnectString());
+            final ReadCache localCache = cache;
+            waitFor(timing, new Callable<Boolean>()
+            {
+                @Override
+                public Boolean call() throws Exception
+                {
+                    return localCache.size() == 0;
+                }
+            });
+
+            // watches are re-established on the next read
+            Assert.assertEquals(cache.getData("/test"), "one".getBytes());
+            client.setData().forPath("/test", "two".getBytes());
+            waitFor(timing, new Callable<Boolean>()
+            {
+                @Override
+                public Boolean call() throws Exception
+                {
+                    return Arrays.equals(localCache.getData("/test"), "two".getBytes());
+                }
+            });
+        }
+        finally
+        {
+            Closeables.closeQuietly(cache);
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testFailedLoad() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        ReadCacheImpl cache = null;
+        try
+        {
+            client.start();
+
+            cache = (ReadCacheImpl)client.newReadCache(100);
+            for ( int i = 0; i < 2; ++i )
+            {
+                try
+                {
+                    cache.getData("/missing");
+                    Assert.fail();
+                }
+                catch ( KeeperException.NoNodeException expected )
+                {
+                    // expected
+                }
+
+                try
+                {
+                    cache.getChildren("/missing");
+                    Assert.fail();
+                }
+                catch ( KeeperException.NoNodeException expected )
+                {
+                    // expected
+                }
+            }
+            Assert.assertEquals(cache.getLoadingCount(), 0);
+            Assert.assertEquals(cache.size(), 0);
+
+            client.create().forPath("/missing", "data".getBytes());
+            Assert.assertEquals(cache.getData("/missing"), "data".getBytes());
+            Assert.assertEquals(cache.size(), 1);
+            Assert.assertEquals(cache.getLoadingCount(), 0);
+        }
+        finally
+        {
+            Closeables.closeQuietly(cache);
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    private static void waitFor(Timing timing, Callable<Boolean> condition) throws Exception
+    {
+        long startMs = System.currentTimeMillis();
+        while ( !condition.call() )
+        {
+            Assert.assertTrue((System.currentTimeMillis() - startMs) < timing.forWaiting().milliseconds(), "Timed out");
+            Thread.sleep(10);
+        }
+    }
+}
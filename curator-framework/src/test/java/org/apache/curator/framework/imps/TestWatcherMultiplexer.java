@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.imps;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Closeables;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.KillSession;
+import org.apache.curator.test.Timing;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class TestWatcherMultiplexer extends BaseClassForTests
+{
+    private static class QueueWatcher implements CuratorWatcher
+    {
+        private final BlockingQueue<WatchedEvent> events = new LinkedBlockingQueue<WatchedEvent>();
+
+        @Override
+        public void process(WatchedEvent event) throws Exception
+        {
+            events.add(event);
+        }
+    }
+
+    @Test
+    public void testFanOut() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFrameworkImpl client = (CuratorFrameworkImpl)CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryOneTime(1))
+            .watcherMultiplexing(true)
+            .namespace("ns")
+            .build();
+        try
+        {
+            client.start();
+            client.create().forPath("/test");
+
+            List<QueueWatcher> watchers = Lists.newArrayList();
+            for ( int i = 0; i < 10; ++i )
+            {
+                QueueWatcher watcher = new QueueWatcher();
+                watchers.add(watcher);
+                client.getData().usingWatcher(watcher).forPath("/test");
+                client.checkExists().usingWatcher(watcher).forPath("/test");
+            }
+            QueueWatcher childWatcher = new QueueWatcher();
+            client.getChildren().usingWatcher(childWatcher).inBackground().forPath("/test");
+            timing.sleepABit();
+            Assert.assertEquals(client.getWatcherMultiplexer().size(), 2);
+
+            client.setData().forPath("/test", "changed".getBytes());
+            for ( QueueWatcher watcher : watchers )
+            {
+                WatchedEvent event = watcher.events.poll(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS);
+                Assert.assertNotNull(event);
+                Assert.assertEquals(event.getType(), Watcher.Event.EventType.NodeDataChanged);
+                Assert.assertEquals(event.getPath(), "/test");
+            }
+            timing.sleepABit();
+            for ( QueueWatcher watcher : watchers )
+            {
+                Assert.assertTrue(watcher.events.isEmpty());
+            }
+            Assert.assertTrue(childWatcher.events.isEmpty());
+            Assert.assertEquals(client.getWatcherMultiplexer().size(), 1);
+
+            client.getData().usingWatcher(watchers.get(0)).forPath("/test");
+            client.delete().forPath("/test");
+            Assert.assertEquals(watchers.get(0).events.poll(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS).getType(), Watcher.Event.EventType.NodeDeleted);
+            Assert.assertEquals(childWatcher.events.poll(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS).getType(), Watcher.Event.EventType.NodeDeleted);
+            timing.sleepABit();
+            Assert.assertEquals(client.getWatcherMultiplexer().size(), 0);
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testFailedSubscription() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFrameworkImpl client = (CuratorFrameworkImpl)CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryOneTime(1))
+            .watcherMultiplexing(true)
+            .build();
+        try
+        {
+            client.start();
+
+            // ZooKeeper does not register getData()/getChildren() watches for missing nodes
+            QueueWatcher watcher = new QueueWatcher();
+            try
+            {
+                client.getData().usingWatcher(watcher).forPath("/missing");
+                Assert.fail();
+            }
+            catch ( KeeperException.NoNodeException expected )
+            {
+                // expected
+            }
+            try
+            {
+                client.getChildren().usingWatcher(watcher).forPath("/missing");
+                Assert.fail();
+            }
+            catch ( KeeperException.NoNodeException expected )
+            {
+                // expected
+            }
+            Assert.assertEquals(client.getWatcherMultiplexer().size(), 0);
+
+            final CountDownLatch latch = new CountDownLatch(1);
+            BackgroundCallback callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    if ( event.getResultCode() == KeeperException.Code.NONODE.intValue() )
+                    {
+                        latch.countDown();
+                    }
+                }
+            };
+            client.getData().usingWatcher(watcher).inBackground(callback).forPath("/missing");
+            Assert.assertTrue(timing.awaitLatch(latch));
+            Assert.assertEquals(client.getWatcherMultiplexer().size(), 0);
+
+            // exists() registers a watch even if the node is missing
+            client.checkExists().usingWatcher(watcher).forPath("/test");
+            Assert.assertEquals(client.getWatcherMultiplexer().size(), 1);
+            client.create().forPath("/test");
+            Assert.assertEquals(watcher.events.poll(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS).getType(), Watcher.Event.EventType.NodeCreated);
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testSessionEvents() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFrameworkImpl client = (CuratorFrameworkImpl)CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryOneTime(1))
+            .watcherMultiplexing(true)
+            .build();
+        try
+        {
+            client.start();
+            client.create().forPath("/a");
+            client.create().forPath("/b");
+
+            QueueWatcher watcher = new QueueWatcher();
+            client.getData().usingWatcher(watcher).forPath("/a");
+            client.getData().usingWatcher(watcher).forPath("/b");
+            client.getChildren().usingWatcher(watcher).forPath("/a");
+            Assert.assertEquals(client.getWatcherMultiplexer().size(), 3);
+
+            KillSession.kill(client.getZookeeperClient().getZooKeeper(), server.getConnectString());
+
+            // each subscriber sees each session event once, as it would without multiplexing
+            boolean expired = false;
+            WatchedEvent event;
+            while ( (event = watcher.events.poll(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS)) != null )
+            {
+                Assert.assertEquals(event.getType(), Watcher.Event.EventType.None);
+                if ( event.getState() == Watcher.Event.KeeperState.Expired )
+                {
+                    Assert.assertFalse(expired);
+                    expired = true;
+                    timing.sleepABit();
+                    Assert.assertTrue(watcher.events.isEmpty());
+                    break;
+                }
+            }
+            Assert.assertTrue(expired);
+            Assert.assertEquals(client.getWatcherMultiplexer().size(), 0);
+        }
+        finally
+        {
+            Closeables.closeQuietly(client);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.listen;
+
+import com.google.common.collect.Lists;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class TestListenerContainer
+{
+    private static final ListenerFunction<StringBuilder, String> appendFunction = new ListenerFunction<StringBuilder, String>()
+    {
+        @Override
+        public void apply(StringBuilder listener, String event)
+        {
+            listener.append(event);
+        }
+    };
+
+    @Test
+    public void testAddRemove()
+    {
+        ListenerContainer<StringBuilder> container = new ListenerContainer<StringBuilder>();
+        StringBuilder one = new StringBuilder();
+        StringBuilder two = new StringBuilder();
+        StringBuilder three = new StringBuilder();
+        container.addListener(one);
+        container.addListener(two);
+        container.addListener(three);
+        container.addListener(two);
+        Assert.assertEquals(container.size(), 3);
+
+        container.forEach(appendFunction, "a");
+        container.removeListener(two);
+        Assert.assertEquals(container.size(), 2);
+        container.forEach(appendFunction, "b");
+
+        Assert.assertEquals(one.toString(), "ab");
+        Assert.assertEquals(two.toString(), "a");
+        Assert.assertEquals(three.toString(), "ab");
+
+        container.clear();
+        Assert.assertEquals(container.size(), 0);
+        container.forEach(appendFunction, "c");
+        Assert.assertEquals(one.toString(), "ab");
+    }
+
+    @Test
+    public void testExecutorAndExceptions() throws Exception
+    {
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try
+        {
+            final Thread callingThread = Thread.currentThread();
+            final List<Thread> threads = Lists.newArrayList();
+            final CountDownLatch latch = new CountDownLatch(1);
+            ListenerFunction<String, Void> function = new ListenerFunction<String, Void>()
+            {
+                @Override
+                public void apply(String listener, Void event)
+                {
+                    synchronized(threads)
+                    {
+                        threads.add(Thread.currentThread());
+                    }
+                    if ( listener.equals("executor") )
+                    {
+                        latch.countDown();
+                    }
+                    if ( listener.equals("throws") )
+                    {
+                        throw new RuntimeException("expected");
+                    }
+                }
+            };
+
+            ListenerContainer<String> stringContainer = new ListenerContainer<String>();
+            stringContainer.addListener("throws");
+            stringContainer.addListener("direct");
+            stringContainer.addListener("executor", executorService);
+            stringContainer.forEach(function, null);
+
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+            synchronized(threads)
+            {
+                Assert.assertEquals(threads.size(), 3);
+                Assert.assertEquals(threads.get(0), callingThread);
+                Assert.assertEquals(threads.get(1), callingThread);
+                Assert.assertFalse(threads.get(2).equals(callingThread));
+            }
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+    }
+}
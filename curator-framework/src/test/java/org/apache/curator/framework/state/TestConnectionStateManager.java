@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.state;
+
+import com.google.common.io.Closeables;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.Timing;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class TestConnectionStateManager
+{
+    @Test
+    public void testCoalescing() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient("localhost:1", new RetryOneTime(1));
+        ConnectionStateManager manager = new ConnectionStateManager(client, null, timing.milliseconds());
+        try
+        {
+            final BlockingQueue<ConnectionState> states = new LinkedBlockingQueue<ConnectionState>();
+            manager.getListenable().addListener
+            (
+                new ConnectionStateListener()
+                {
+                    @Override
+                    public void stateChanged(CuratorFramework client, ConnectionState newState)
+                    {
+                        states.add(newState);
+                    }
+                }
+            );
+            manager.start();
+
+            manager.addStateChange(ConnectionState.CONNECTED);
+            manager.addStateChange(ConnectionState.SUSPENDED);
+            manager.addStateChange(ConnectionState.RECONNECTED);
+            manager.addStateChange(ConnectionState.SUSPENDED);
+            manager.addStateChange(ConnectionState.LOST);
+
+            Assert.assertEquals(states.poll(timing.milliseconds(), TimeUnit.MILLISECONDS), ConnectionState.CONNECTED);
+            Assert.assertEquals(states.poll(timing.milliseconds(), TimeUnit.MILLISECONDS), ConnectionState.SUSPENDED);
+            Assert.assertEquals(states.poll(timing.milliseconds(), TimeUnit.MILLISECONDS), ConnectionState.LOST);
+            Assert.assertEquals(manager.getSuppressedEventCount(), 2);
+
+            // a SUSPENDED without a prompt RECONNECTED is still delivered
+            manager.addStateChange(ConnectionState.RECONNECTED);
+            manager.addStateChange(ConnectionState.SUSPENDED);
+            Assert.assertEquals(states.poll(timing.milliseconds(), TimeUnit.MILLISECONDS), ConnectionState.RECONNECTED);
+            Assert.assertEquals(states.poll(timing.milliseconds() * 2, TimeUnit.MILLISECONDS), ConnectionState.SUSPENDED);
+            Assert.assertEquals(manager.getSuppressedEventCount(), 2);
+        }
+        finally
+        {
+            manager.close();
+            Closeables.closeQuietly(client);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.cache;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.apache.zookeeper.data.Stat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sorted index of the child names of a {@link PathChildrenCache}'s path as of the last processed
+ * listing. New listings are diffed against it with a merge so that only real additions and removals
+ * cost any work. The index keeps its existing String instances for names that are unchanged so the
+ * names aren't duplicated for each listing.
+ */
+class ChildNameIndex
+{
+    private final Set<String> invalidated = Sets.newHashSet();
+    private String[] names = EMPTY;
+    private int cversion = NO_CVERSION;
+
+    private static final String[] EMPTY = new String[0];
+    private static final int NO_CVERSION = -1;
+
+    static class Diff
+    {
+        private final List<String> names;
+        private final List<String> added;
+        private final List<String> removed;
+
+        private Diff(List<String> names, List<String> added, List<String> removed)
+        {
+            this.names = names;
+            this.added = added;
+            this.removed = removed;
+        }
+
+        /**
+         * @return all names of the new listing in sorted order
+         */
+        List<String> getNames()
+        {
+            return names;
+        }
+
+        /**
+         * @return names that are in the new listing but weren't in the index
+         */
+        List<String> getAdded()
+        {
+            return added;
+        }
+
+        /**
+         * @return names that were in the index but aren't in the new listing
+         */
+        List<String> getRemoved()
+        {
+            return removed;
+        }
+    }
+
+    /**
+     * Returns true if the parent's stat shows that its children haven't changed since the
+     * last listing that was applied
+     *
+     * @param parentStat stat of the parent from the new listing or null
+     * @return true/false
+     */
+    synchronized boolean isUnchanged(Stat parentStat)
+    {
+        return (parentStat != null)
+            && invalidated.isEmpty()
+            && (cversion != NO_CVERSION)
+            && (parentStat.getCversion() == cversion)
+            && (parentStat.getNumChildren() == names.length);
+    }
+
+    /**
+     * Replace the index with a new listing
+     *
+     * @param children the new listing
+     * @param parentStat stat of the parent from the new listing or null
+     * @return the differences between the old index and the listing
+     */
+    synchronized Diff update(List<String> children, Stat parentStat)
+    {
+        String[] newNames = children.toArray(new String[children.size()]);
+        Arrays.sort(newNames);
+
+        List<String> added = Lists.newArrayList();
+        List<String> removed = Lists.newArrayList();
+        int oldIndex = 0;
+        int newIndex = 0;
+        while ( (oldIndex < names.length) || (newIndex < newNames.length) )
+        {
+            int comparison;
+            if ( oldIndex >= names.length )
+            {
+                comparison = 1;
+            }
+            else if ( newIndex >= newNames.length )
+            {
+                comparison = -1;
+            }
+            else
+            {
+                comparison = names[oldIndex].compareTo(newNames[newIndex]);
+            }
+
+            if ( comparison == 0 )
+            {
+                String name = names[oldIndex++];
+                newNames[newIndex++] = name;    // keep the existing instance
+                if ( invalidated.contains(name) )
+                {
+                    added.add(name);
+                }
+            }
+            else if ( comparison < 0 )
+            {
+                removed.add(names[oldIndex++]);
+            }
+            else
+            {
+                added.add(newNames[newIndex++]);
+            }
+        }
+
+        names = newNames;
+        cversion = (parentStat != null) ? parentStat.getCversion() : NO_CVERSION;
+        invalidated.clear();
+        // the array is never modified once it's been published as names
+        return new Diff(Collections.unmodifiableList(Arrays.asList(newNames)), added, removed);
+    }
+
+    /**
+     * Add a single name (e.g. when a node is rebuilt directly)
+     *
+     * @param name child name
+     */
+    synchronized void add(String name)
+    {
+        invalidated.remove(name);
+        int index = Arrays.binarySearch(names, name);
+        if ( index < 0 )
+        {
+            int insertionPoint = -(index + 1);
+            String[] newNames = new String[names.length + 1];
+            System.arraycopy(names, 0, newNames, 0, insertionPoint);
+            newNames[insertionPoint] = name;
+            System.arraycopy(names, insertionPoint, newNames, insertionPoint + 1, names.length - insertionPoint);
+            names = newNames;
+            cversion = NO_CVERSION;
+        }
+    }
+
+    /**
+     * Mark a name as removed (e.g. when a delete watch fires). It is treated as added by the next
+     * diff if it is in that listing, i.e. if the node was re-created in the interim.
+     *
+     * @param name child name
+     */
+    synchronized void remove(String name)
+    {
+        if ( Arrays.binarySearch(names, name) >= 0 )
+        {
+            invalidated.add(name);
+        }
+    }
+
+    /**
+     * Forget everything - the next listing will show every child as added
+     */
+    synchronized void reset()
+    {
+        invalidated.clear();
+        names = EMPTY;
+        cversion = NO_CVERSION;
+    }
+
+    synchronized int size()
+    {
+        return names.length;
+    }
+}
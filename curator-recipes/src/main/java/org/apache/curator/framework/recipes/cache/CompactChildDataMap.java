@@ -0,0 +1,551 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.cache;
+
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+import org.apache.zookeeper.data.Stat;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ * Memory compact storage for the children of a single parent path. Only the child name is kept as
+ * the key (the parent path is stored once) and only the version, mzxid and ephemeralOwner of each
+ * node's stat are retained. Node data is either held as-is or copied into an {@link OffHeapDataArena}.
+ * When the arena becomes fragmented, data in sparse chunks is moved so that the chunks can be released.
+ * </p>
+ *
+ * <p>
+ * {@link ChildData} values are materialized on each read. Their stats only have the retained fields
+ * set and they are copies - clearing a returned instance's data has no effect on the map (use
+ * {@link #clearData(String, int)}). The key, value and entry views are read-only.
+ * </p>
+ */
+class CompactChildDataMap extends AbstractMap<String, ChildData> implements ConcurrentMap<String, ChildData>
+{
+    private final String parentPath;
+    private final String prefix;
+    private final OffHeapDataArena arena;
+    private final ConcurrentMap<String, Entry> entries = Maps.newConcurrentMap();
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+
+    static final int NO_VERSION = -1;
+
+    private static class Entry
+    {
+        private final int version;
+        private final long mzxid;
+        private final long ephemeralOwner;
+        private final byte[] data;
+
+        private Entry(Stat stat, byte[] data)
+        {
+            version = stat.getVersion();
+            mzxid = stat.getMzxid();
+            ephemeralOwner = stat.getEphemeralOwner();
+            this.data = data;
+        }
+
+        private Entry(Entry entry, byte[] data)
+        {
+            version = entry.version;
+            mzxid = entry.mzxid;
+            ephemeralOwner = entry.ephemeralOwner;
+            this.data = data;
+        }
+    }
+
+    private static class OffHeapEntry extends Entry
+    {
+        private final long handle;
+        private final int length;
+
+        private OffHeapEntry(Stat stat, long handle, int length)
+        {
+            super(stat, null);
+            this.handle = handle;
+            this.length = length;
+        }
+
+        private OffHeapEntry(Entry entry, long handle, int length)
+        {
+            super(entry, null);
+            this.handle = handle;
+            this.length = length;
+        }
+    }
+
+    /**
+     * @param parentPath  the parent of all keys
+     * @param dataOffHeap if true, node data is copied into direct memory
+     */
+    CompactChildDataMap(String parentPath, boolean dataOffHeap)
+    {
+        this(parentPath, dataOffHeap ? new OffHeapDataArena() : null);
+    }
+
+    CompactChildDataMap(String parentPath, OffHeapDataArena arena)
+    {
+        this.parentPath = parentPath;
+        prefix = parentPath.endsWith("/") ? parentPath : (parentPath + "/");
+        this.arena = arena;
+    }
+
+    /**
+     * Drop the data of the given node
+     *
+     * @param fullPath  the path of the node
+     * @param ifVersion if non-negative, only clear the data if the node's version matches this version
+     * @return true if the data was cleared
+     */
+    boolean clearData(String fullPath, int ifVersion)
+    {
+        String name = nameFor(fullPath);
+        if ( name == null )
+        {
+            return false;
+        }
+
+        for(;;)
+        {
+            Entry entry = entries.get(name);
+            if ( (entry == null) || ((ifVersion >= 0) && (ifVersion != entry.version)) )
+            {
+                return false;
+            }
+
+            Entry cleared = new Entry(statFor(entry), null);
+            if ( entries.replace(name, entry, cleared) )
+            {
+                free(entry);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #put(String, ChildData)} but only returns the version of the previous value. Unlike
+     * put(), the previous value's data doesn't need to be copied out of the arena.
+     *
+     * @param key   the full path of the node
+     * @param value the new value
+     * @return the previous value's version or {@link #NO_VERSION} if there was no previous value
+     */
+    int putAndGetPreviousVersion(String key, ChildData value)
+    {
+        String name = checkedNameFor(key);
+        Entry previous = entries.put(name, newEntry(value));
+        if ( previous == null )
+        {
+            return NO_VERSION;
+        }
+        free(previous);
+        return previous.version;
+    }
+
+    /**
+     * @return the off-heap arena or null
+     */
+    OffHeapDataArena getArena()
+    {
+        return arena;
+    }
+
+    @Override
+    public int size()
+    {
+        return entries.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        String name = nameFor(key);
+        return (name != null) && entries.containsKey(name);
+    }
+
+    @Override
+    public ChildData get(Object key)
+    {
+        String name = nameFor(key);
+        return (name != null) ? getByName(name) : null;
+    }
+
+    @Override
+    public ChildData put(String key, ChildData value)
+    {
+        String name = checkedNameFor(key);
+        Entry previous = entries.put(name, newEntry(value));
+        return (previous != null) ? release(name, previous) : null;
+    }
+
+    @Override
+    public ChildData putIfAbsent(String key, ChildData value)
+    {
+        String name = checkedNameFor(key);
+        Entry entry = newEntry(value);
+        for(;;)
+        {
+            Entry existing = entries.putIfAbsent(name, entry);
+            if ( existing == null )
+            {
+                return null;
+            }
+
+            ChildData existingData = materialize(name, existing);
+            if ( existingData != null )
+            {
+                free(entry);
+                return existingData;
+            }
+            // the existing entry was replaced concurrently - try again
+        }
+    }
+
+    @Override
+    public ChildData remove(Object key)
+    {
+        String name = nameFor(key);
+        if ( name == null )
+        {
+            return null;
+        }
+        Entry previous = entries.remove(name);
+        return (previous != null) ? release(name, previous) : null;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value)
+    {
+        String name = nameFor(key);
+        if ( name == null )
+        {
+            return false;
+        }
+
+        Entry entry = entries.get(name);
+        if ( (entry != null) && Objects.equal(materialize(name, entry), value) && entries.remove(name, entry) )
+        {
+            free(entry);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public ChildData replace(String key, ChildData value)
+    {
+        String name = checkedNameFor(key);
+        Entry entry = newEntry(value);
+        Entry previous = entries.replace(name, entry);
+        if ( previous == null )
+        {
+            free(entry);
+            return null;
+        }
+        return release(name, previous);
+    }
+
+    @Override
+    public boolean replace(String key, ChildData oldValue, ChildData newValue)
+    {
+        String name = checkedNameFor(key);
+        Entry entry = entries.get(name);
+        if ( (entry == null) || !Objects.equal(materialize(name, entry), oldValue) )
+        {
+            return false;
+        }
+
+        Entry newEntry = newEntry(newValue);
+        if ( entries.replace(name, entry, newEntry) )
+        {
+            free(entry);
+            return true;
+        }
+        free(newEntry);
+        return false;
+    }
+
+    @Override
+    public void clear()
+    {
+        for ( String name : entries.keySet() )
+        {
+            Entry previous = entries.remove(name);
+            if ( previous != null )
+            {
+                free(previous);
+            }
+        }
+    }
+
+    @Override
+    public Set<String> keySet()
+    {
+        return new AbstractSet<String>()
+        {
+            @Override
+            public Iterator<String> iterator()
+            {
+                return Iterators.unmodifiableIterator(Iterators.transform(entries.keySet().iterator(), toFullPath));
+            }
+
+            @Override
+            public boolean contains(Object o)
+            {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size()
+            {
+                return entries.size();
+            }
+        };
+    }
+
+    @Override
+    public Collection<ChildData> values()
+    {
+        return new AbstractCollection<ChildData>()
+        {
+            @Override
+            public Iterator<ChildData> iterator()
+            {
+                Iterator<ChildData> values = Iterators.transform(entries.entrySet().iterator(), toChildData);
+                return Iterators.filter(values, Predicates.notNull());
+            }
+
+            @Override
+            public int size()
+            {
+                return entries.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<String, ChildData>> entrySet()
+    {
+        return new AbstractSet<Map.Entry<String, ChildData>>()
+        {
+            @Override
+            public Iterator<Map.Entry<String, ChildData>> iterator()
+            {
+                Iterator<Map.Entry<String, ChildData>> mapEntries = Iterators.transform(values().iterator(), toMapEntry);
+                return Iterators.unmodifiableIterator(mapEntries);
+            }
+
+            @Override
+            public int size()
+            {
+                return entries.size();
+            }
+        };
+    }
+
+    private final Function<String, String> toFullPath = new Function<String, String>()
+    {
+        @Override
+        public String apply(String name)
+        {
+            return prefix + name;
+        }
+    };
+
+    private final Function<Map.Entry<String, Entry>, ChildData> toChildData = new Function<Map.Entry<String, Entry>, ChildData>()
+    {
+        @Override
+        public ChildData apply(Map.Entry<String, Entry> entry)
+        {
+            ChildData data = materialize(entry.getKey(), entry.getValue());
+            return (data != null) ? data : getByName(entry.getKey());
+        }
+    };
+
+    private static final Function<ChildData, Map.Entry<String, ChildData>> toMapEntry = new Function<ChildData, Map.Entry<String, ChildData>>()
+    {
+        @Override
+        public Map.Entry<String, ChildData> apply(ChildData data)
+        {
+            return Maps.immutableEntry(data.getPath(), data);
+        }
+    };
+
+    private ChildData getByName(String name)
+    {
+        for(;;)
+        {
+            Entry entry = entries.get(name);
+            if ( entry == null )
+            {
+                return null;
+            }
+
+            ChildData data = materialize(name, entry);
+            if ( data != null )
+            {
+                return data;
+            }
+            // the entry's data was freed while reading - it has been replaced or removed
+        }
+    }
+
+    /**
+     * Materialize an entry that has just been taken out of the map and free its data
+     */
+    private ChildData release(String name, Entry entry)
+    {
+        ChildData data = materialize(name, entry);
+        free(entry);
+        return data;
+    }
+
+    /**
+     * @return the view or null if the entry's off-heap data has been freed
+     */
+    private ChildData materialize(String name, Entry entry)
+    {
+        byte[] data = entry.data;
+        if ( entry instanceof OffHeapEntry )
+        {
+            OffHeapEntry offHeapEntry = (OffHeapEntry)entry;
+            data = (offHeapEntry.length > 0) ? arena.read(offHeapEntry.handle, offHeapEntry.length) : new byte[0];
+            if ( data == null )
+            {
+                return null;
+            }
+        }
+        return new ChildData(prefix + name, statFor(entry), data);
+    }
+
+    private Entry newEntry(ChildData value)
+    {
+        Preconditions.checkNotNull(value.getStat(), "stat cannot be null");
+
+        byte[] data = value.getData();
+        if ( (data == null) || (arena == null) )
+        {
+            return new Entry(value.getStat(), data);
+        }
+        long handle = (data.length > 0) ? arena.allocate(data) : 0;
+        return new OffHeapEntry(value.getStat(), handle, data.length);
+    }
+
+    private void free(Entry entry)
+    {
+        if ( entry instanceof OffHeapEntry )
+        {
+            OffHeapEntry offHeapEntry = (OffHeapEntry)entry;
+            if ( offHeapEntry.length > 0 )
+            {
+                arena.free(offHeapEntry.handle, offHeapEntry.length);
+                compactIfNeeded();
+            }
+        }
+    }
+
+    private void compactIfNeeded()
+    {
+        if ( !arena.isFragmented() || !compacting.compareAndSet(false, true) )
+        {
+            return;
+        }
+
+        try
+        {
+            for ( Map.Entry<String, Entry> mapEntry : entries.entrySet() )
+            {
+                Entry entry = mapEntry.getValue();
+                if ( !(entry instanceof OffHeapEntry) )
+                {
+                    continue;
+                }
+
+                OffHeapEntry offHeapEntry = (OffHeapEntry)entry;
+                if ( (offHeapEntry.length == 0) || !arena.isSparse(offHeapEntry.handle) )
+                {
+                    continue;
+                }
+
+                byte[] data = arena.read(offHeapEntry.handle, offHeapEntry.length);
+                if ( data == null )
+                {
+                    continue;   // replaced or removed concurrently
+                }
+
+                // readers holding the old entry still see valid data until its chunk is released
+                OffHeapEntry moved = new OffHeapEntry(entry, arena.allocate(data), data.length);
+                if ( entries.replace(mapEntry.getKey(), entry, moved) )
+                {
+                    free(entry);
+                }
+                else
+                {
+                    free(moved);
+                }
+            }
+        }
+        finally
+        {
+            compacting.set(false);
+        }
+    }
+
+    private String checkedNameFor(String fullPath)
+    {
+        String name = nameFor(fullPath);
+        Preconditions.checkArgument(name != null, "Not a child of %s: %s", parentPath, fullPath);
+        return name;
+    }
+
+    private String nameFor(Object key)
+    {
+        if ( key instanceof String )
+        {
+            String fullPath = (String)key;
+            if ( (fullPath.length() > prefix.length()) && fullPath.startsWith(prefix) && (fullPath.indexOf('/', prefix.length()) < 0) )
+            {
+                return fullPath.substring(prefix.length());
+            }
+        }
+        return null;
+    }
+
+    private static Stat statFor(Entry entry)
+    {
+        Stat stat = new Stat();
+        stat.setVersion(entry.version);
+        stat.setMzxid(entry.mzxid);
+        stat.setEphemeralOwner(entry.ephemeralOwner);
+        return stat;
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Region allocator for node data kept in direct (off-heap) memory. Data is appended to fixed size
+ * chunks and a chunk is released as soon as all of the data in it has been freed. Chunk IDs are never
+ * reused so a reader holding a stale handle can detect that its data is gone (see {@link #read(long, int)}).
+ * Payloads larger than a quarter of the chunk size get a chunk of their own. Freed space is never reused
+ * in place - instead, once the arena {@link #isFragmented()}, the owner of the handles moves data out of
+ * sparse chunks (see {@link #isSparse(long)}) so that they can be released.
+ */
+class OffHeapDataArena
+{
+    private final int chunkSize;
+    private final Map<Integer, Chunk> chunks = Maps.newHashMap();
+    private Chunk current = null;
+    private int nextChunkId = 0;
+    private long allocatedBytes = 0;
+    private long liveBytes = 0;
+
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private static class Chunk
+    {
+        private final int id;
+        private final ByteBuffer buffer;
+        private int liveBytes = 0;
+
+        private Chunk(int id, int size)
+        {
+            this.id = id;
+            buffer = ByteBuffer.allocateDirect(size);
+        }
+    }
+
+    OffHeapDataArena()
+    {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    OffHeapDataArena(int chunkSize)
+    {
+        Preconditions.checkArgument(chunkSize > 0, "chunkSize must be greater than 0");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Copy the given data into the arena
+     *
+     * @param data the data - must not be empty
+     * @return handle to pass to {@link #read(long, int)} and {@link #free(long, int)}
+     */
+    synchronized long allocate(byte[] data)
+    {
+        Preconditions.checkArgument(data.length > 0, "data cannot be empty");
+
+        Chunk chunk;
+        if ( data.length > (chunkSize / 4) )
+        {
+            chunk = newChunk(data.length);
+        }
+        else
+        {
+            if ( (current == null) || (current.buffer.remaining() < data.length) )
+            {
+                current = newChunk(chunkSize);
+            }
+            chunk = current;
+        }
+
+        int offset = chunk.buffer.position();
+        chunk.buffer.put(data);
+        chunk.liveBytes += data.length;
+        liveBytes += data.length;
+        return ((long)chunk.id << 32) | offset;
+    }
+
+    /**
+     * Copy data out of the arena
+     *
+     * @param handle handle returned by {@link #allocate(byte[])}
+     * @param length length of the data
+     * @return the data or <code>null</code> if the data has been freed and its chunk released
+     */
+    synchronized byte[] read(long handle, int length)
+    {
+        Chunk chunk = chunks.get(chunkId(handle));
+        if ( chunk == null )
+        {
+            return null;
+        }
+
+        byte[] data = new byte[length];
+        ByteBuffer buffer = chunk.buffer.duplicate();
+        buffer.position(offset(handle));
+        buffer.get(data);
+        return data;
+    }
+
+    /**
+     * Mark data as no longer used. The space is reclaimed once its whole chunk is unused.
+     *
+     * @param handle handle returned by {@link #allocate(byte[])}
+     * @param length length of the data
+     */
+    synchronized void free(long handle, int length)
+    {
+        Chunk chunk = chunks.get(chunkId(handle));
+        if ( chunk != null )
+        {
+            chunk.liveBytes -= length;
+            liveBytes -= length;
+            if ( chunk.liveBytes <= 0 )
+            {
+                chunks.remove(chunk.id);
+                allocatedBytes -= chunk.buffer.capacity();
+                if ( chunk == current )
+                {
+                    current = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return total size of the chunks currently held
+     */
+    synchronized long getAllocatedBytes()
+    {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return total size of the data that has not been freed
+     */
+    synchronized long getLiveBytes()
+    {
+        return liveBytes;
+    }
+
+    /**
+     * Return true if the unused space in the chunks exceeds the live data by more than two chunks
+     *
+     * @return true/false
+     */
+    synchronized boolean isFragmented()
+    {
+        return (allocatedBytes - liveBytes) > (liveBytes + (2L * chunkSize));
+    }
+
+    /**
+     * Return true if the data for the given handle is in a chunk, other than the one currently being
+     * filled, that is less than half used. Moving such data (i.e. allocating a copy and freeing the
+     * original) lets the chunk be released.
+     *
+     * @param handle handle returned by {@link #allocate(byte[])}
+     * @return true/false
+     */
+    synchronized boolean isSparse(long handle)
+    {
+        Chunk chunk = chunks.get(chunkId(handle));
+        return (chunk != null) && (chunk != current) && ((chunk.liveBytes * 2L) < chunk.buffer.capacity());
+    }
+
+    private Chunk newChunk(int size)
+    {
+        Chunk chunk = new Chunk(nextChunkId++, size);
+        chunks.put(chunk.id, chunk);
+        allocatedBytes += size;
+        return chunk;
+    }
+
+    private static int chunkId(long handle)
+    {
+        return (int)(handle >>> 32);
+    }
+
+    private static int offset(long handle)
+    {
+        return (int)handle;
+    }
+}
@@ -20,17 +20,17 @@
 package org.apache.curator.framework.recipes.cache;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
-import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import org.apache.curator.TimeTrace;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.api.BackgroundCallback;
 import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.imps.CuratorFrameworkState;
 import org.apache.curator.framework.listen.ListenerContainer;
+import org.apache.curator.framework.listen.ListenerFunction;
 import org.apache.curator.framework.state.ConnectionState;
 import org.apache.curator.framework.state.ConnectionStateListener;
 import org.apache.curator.utils.CloseableExecutorService;
@@ -47,12 +47,18 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Exchanger;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -63,6 +69,11 @@ import java.util.concurrent.atomic.AtomicReference;
  * <p><b>IMPORTANT</b> - it's not possible to stay transactionally in sync. Users of this class must
  * be prepared for false-positives and false-negatives. Additionally, always use the version number
  * when updating data to avoid overwriting another process' change.</p>
+ * <p/>
+ * <p>Each cache runs its background work on its own thread by default. To share a small number of threads
+ * between many caches, pass each one a serial executor from a {@link org.apache.curator.utils.SerialExecutorPool},
+ * e.g. <code>new CloseableExecutorService(SerialExecutorPool.getDefault().newSerialExecutor(), true)</code>.
+ * Events for a single cache are still delivered in order.</p>
  */
 @SuppressWarnings("NullableProblems")
 public class PathChildrenCache implements Closeable
@@ -75,8 +86,30 @@ public class PathChildrenCache implements Closeable
     private final boolean dataIsCompressed;
     private final EnsurePath ensurePath;
     private final ListenerContainer<PathChildrenCacheListener> listeners = new ListenerContainer<PathChildrenCacheListener>();
-    private final ConcurrentMap<String, ChildData> currentData = Maps.newConcurrentMap();
+    private final ListenerFunction<PathChildrenCacheListener, PathChildrenCacheEvent> listenerFunction = new ListenerFunction<PathChildrenCacheListener, PathChildrenCacheEvent>()
+    {
+        @Override
+        public void apply(PathChildrenCacheListener listener, PathChildrenCacheEvent event)
+        {
+            try
+            {
+                listener.childEvent(client, event);
+            }
+            catch ( Exception e )
+            {
+                handleException(e);
+            }
+        }
+    };
+    private volatile ConcurrentMap<String, ChildData> currentData = Maps.newConcurrentMap();
+    private final ChildNameIndex childIndex = new ChildNameIndex();
     private final AtomicReference<Map<String, ChildData>> initialSet = new AtomicReference<Map<String, ChildData>>();
+    private final AtomicInteger uninitializedCount = new AtomicInteger();
+    private final AtomicReference<TimeTrace> initialLoadTrace = new AtomicReference<TimeTrace>();
+    private final Queue<String> pendingLoads = new ConcurrentLinkedQueue<String>();
+    private final Set<String> loadingPaths = Sets.newSetFromMap(Maps.<String, Boolean>newConcurrentMap());
+    private final AtomicInteger loadsInFlight = new AtomicInteger();
+    private volatile int maxLoadInFlight = DEFAULT_MAX_LOAD_IN_FLIGHT;
     private final Set<Operation> operationsQuantizer = Sets.newSetFromMap(Maps.<Operation, Boolean>newConcurrentMap());
     private final AtomicReference<State> state = new AtomicReference<State>(State.LATENT);
 
@@ -89,6 +122,11 @@ public class PathChildrenCache implements Closeable
 
     private static final ChildData NULL_CHILD_DATA = new ChildData(null, null, null);
 
+    /**
+     * Default for {@link #setMaxLoadInFlight(int)}
+     */
+    public static final int DEFAULT_MAX_LOAD_IN_FLIGHT = 1000;
+
     private final Watcher childrenWatcher = new Watcher()
     {
         @Override
@@ -221,6 +259,57 @@ public class PathChildrenCache implements Closeable
         ensurePath = client.newNamespaceAwareEnsurePath(path);
     }
 
+    /**
+     * Set the maximum number of child reads that the cache keeps in flight. This bounds the initial load
+     * (for {@link StartMode#BUILD_INITIAL_CACHE} and {@link StartMode#POST_INITIALIZED_EVENT}), {@link #rebuild()}
+     * and full refreshes after a reconnection. Must be called before the cache is started.
+     * Default is {@link #DEFAULT_MAX_LOAD_IN_FLIGHT}.
+     *
+     * @param maxLoadInFlight max concurrent reads
+     */
+    public void setMaxLoadInFlight(int maxLoadInFlight)
+    {
+        Preconditions.checkArgument(maxLoadInFlight > 0, "maxLoadInFlight must be greater than 0");
+        Preconditions.checkState(state.get() == State.LATENT, "Cannot be called after the cache is started");
+        this.maxLoadInFlight = maxLoadInFlight;
+    }
+
+    /**
+     * <p>Store the cached children in a compact form. Each child's path is stored as its name relative to the
+     * cache's path and only the version, mzxid and ephemeralOwner fields of its stat are kept. Optionally, node
+     * data is copied into direct (off-heap) memory. Must be called before the cache is started.</p>
+     *
+     * <p>{@link ChildData} instances returned by {@link #getCurrentData()} and {@link #getCurrentData(String)}
+     * are built on each call from the compact form: their stats only have the fields above set and
+     * {@link #clearDataBytes(String)} does not affect instances that have already been returned. Events
+     * carry the full data that was read.</p>
+     *
+     * @param dataOffHeap if true, node data is kept in direct memory instead of the heap
+     */
+    public void setCompactStorage(boolean dataOffHeap)
+    {
+        Preconditions.checkState(state.get() == State.LATENT, "Cannot be called after the cache is started");
+        currentData = new CompactChildDataMap(path, dataOffHeap);
+    }
+
+    /**
+     * Return the number of children whose initial data is still being loaded when started with
+     * {@link StartMode#POST_INITIALIZED_EVENT}. This is 0 once the {@link PathChildrenCacheEvent.Type#INITIALIZED}
+     * event has been posted (or if the cache was started in another mode).
+     *
+     * @return number of pending children
+     */
+    public int getPendingInitialLoadCount()
+    {
+        return (initialSet.get() != null) ? Math.max(uninitializedCount.get(), 0) : 0;
+    }
+
+    @VisibleForTesting
+    int getLoadsInFlight()
+    {
+        return loadsInFlight.get();
+    }
+
     /**
      * Start the cache. The cache is not started automatically. You must call this method.
      *
@@ -298,6 +387,7 @@ public class PathChildrenCache implements Closeable
 
             case POST_INITIALIZED_EVENT:
             {
+                initialLoadTrace.set(client.getZookeeperClient().startTracer("PathChildrenCache-initialLoad"));
                 initialSet.set(Maps.<String, ChildData>newConcurrentMap());
                 offerOperation(new RefreshOperation(this, RefreshMode.POST_INITIALIZED));
                 break;
@@ -307,7 +397,9 @@ public class PathChildrenCache implements Closeable
 
     /**
      * NOTE: this is a BLOCKING method. Completely rebuild the internal cache by querying
-     * for all needed data WITHOUT generating any events to send to listeners.
+     * for all needed data WITHOUT generating any events to send to listeners. The children
+     * are read concurrently (see {@link #setMaxLoadInFlight(int)}), except when called from
+     * ZooKeeper's event thread (e.g. from a watcher) which must read them one at a time.
      *
      * @throws Exception errors
      */
@@ -319,22 +411,84 @@ public class PathChildrenCache implements Closeable
 
         clear();
 
+        TimeTrace trace = client.getZookeeperClient().startTracer("PathChildrenCache-rebuild");
         List<String> children = client.getChildren().forPath(path);
-        for ( String child : children )
+        childIndex.update(children, null);
+        if ( client.getZookeeperClient().isEventThread() )
         {
-            String fullPath = ZKPaths.makePath(path, child);
-            internalRebuildNode(fullPath);
-
-            if ( rebuildTestExchanger != null )
+            // the event thread delivers the results of background reads so it can't wait for them
+            for ( String child : children )
             {
-                rebuildTestExchanger.exchange(new Object());
+                internalRebuildNode(ZKPaths.makePath(path, child));
+
+                if ( rebuildTestExchanger != null )
+                {
+                    rebuildTestExchanger.exchange(new Object());
+                }
             }
         }
+        else
+        {
+            rebuildInBackground(children);
+        }
+        trace.commit();
 
         // this is necessary so that any updates that occurred while rebuilding are taken
         offerOperation(new RefreshOperation(this, RefreshMode.FORCE_GET_DATA_AND_STAT));
     }
 
+    private void rebuildInBackground(List<String> children) throws Exception
+    {
+        final BlockingQueue<CuratorEvent> results = new LinkedBlockingQueue<CuratorEvent>();
+        BackgroundCallback callback = new BackgroundCallback()
+        {
+            @Override
+            public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+            {
+                results.add(event);
+            }
+        };
+
+        int issued = 0;
+        int completed = 0;
+        long lastProgressMs = System.currentTimeMillis();
+        while ( completed < children.size() )
+        {
+            while ( (issued < children.size()) && ((issued - completed) < maxLoadInFlight) )
+            {
+                internalRebuildNodeInBackground(ZKPaths.makePath(path, children.get(issued++)), callback);
+            }
+
+            CuratorEvent event = results.poll(1, TimeUnit.SECONDS);
+            if ( event == null )
+            {
+                Preconditions.checkState(!executorService.isShutdown(), "cache has been closed");
+                Preconditions.checkState(client.getState() == CuratorFrameworkState.STARTED, "client is not started");
+
+                // while disconnected the reads are retried and report failures to the callback once retries
+                // are exhausted. While connected, results should arrive promptly.
+                long now = System.currentTimeMillis();
+                if ( !client.getZookeeperClient().isConnected() )
+                {
+                    lastProgressMs = now;
+                }
+                else if ( (now - lastProgressMs) > client.getZookeeperClient().getConnectionTimeoutMs() )
+                {
+                    throw KeeperException.create(KeeperException.Code.OPERATIONTIMEOUT, path);
+                }
+                continue;
+            }
+            ++completed;
+            lastProgressMs = System.currentTimeMillis();
+            applyRebuildResult(event);
+
+            if ( rebuildTestExchanger != null )
+            {
+                rebuildTestExchanger.exchange(new Object());
+            }
+        }
+    }
+
     /**
      * NOTE: this is a BLOCKING method. Rebuild the internal cache for the given node by querying
      * for all needed data WITHOUT generating any events to send to listeners.
@@ -349,6 +503,10 @@ public class PathChildrenCache implements Closeable
 
         ensurePath.ensure(client.getZookeeperClient());
         internalRebuildNode(fullPath);
+        if ( currentData.containsKey(fullPath) )
+        {
+            childIndex.add(ZKPaths.getNodeFromPath(fullPath));
+        }
 
         // this is necessary so that any updates that occurred while rebuilding are taken
         // have to rebuild entire tree in case this node got deleted in the interim
@@ -425,7 +583,13 @@ public class PathChildrenCache implements Closeable
      */
     public boolean clearDataBytes(String fullPath, int ifVersion)
     {
-        ChildData data = currentData.get(fullPath);
+        ConcurrentMap<String, ChildData> localCurrentData = currentData;
+        if ( localCurrentData instanceof CompactChildDataMap )
+        {
+            return ((CompactChildDataMap)localCurrentData).clearData(fullPath, ifVersion);
+        }
+
+        ChildData data = localCurrentData.get(fullPath);
         if ( data != null )
         {
             if ( (ifVersion < 0) || (ifVersion == data.getStat().getVersion()) )
@@ -445,6 +609,7 @@ public class PathChildrenCache implements Closeable
     public void clearAndRefresh() throws Exception
     {
         currentData.clear();
+        childIndex.reset();
         offerOperation(new RefreshOperation(this, RefreshMode.STANDARD));
     }
 
@@ -455,6 +620,7 @@ public class PathChildrenCache implements Closeable
     public void clear()
     {
         currentData.clear();
+        childIndex.reset();
     }
 
     enum RefreshMode
@@ -473,7 +639,7 @@ public class PathChildrenCache implements Closeable
             @Override
             public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
             {
-                processChildren(event.getChildren(), mode);
+                processChildren(event.getChildren(), event.getStat(), mode);
             }
         };
 
@@ -482,25 +648,7 @@ public class PathChildrenCache implements Closeable
 
     void callListeners(final PathChildrenCacheEvent event)
     {
-        listeners.forEach
-            (
-                new Function<PathChildrenCacheListener, Void>()
-                {
-                    @Override
-                    public Void apply(PathChildrenCacheListener listener)
-                    {
-                        try
-                        {
-                            listener.childEvent(client, event);
-                        }
-                        catch ( Exception e )
-                        {
-                            handleException(e);
-                        }
-                        return null;
-                    }
-                }
-            );
+        listeners.forEach(listenerFunction, event);
     }
 
     void getDataAndStat(final String fullPath) throws Exception
@@ -510,6 +658,7 @@ public class PathChildrenCache implements Closeable
             @Override
             public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
             {
+                loadComplete(fullPath);
                 applyNewData(fullPath, event.getResultCode(), event.getStat(), null);
             }
         };
@@ -519,6 +668,7 @@ public class PathChildrenCache implements Closeable
             @Override
             public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
             {
+                loadComplete(fullPath);
                 applyNewData(fullPath, event.getResultCode(), event.getStat(), event.getData());
             }
         };
@@ -553,6 +703,8 @@ public class PathChildrenCache implements Closeable
     @VisibleForTesting
     protected void remove(String fullPath)
     {
+        childIndex.remove(ZKPaths.getNodeFromPath(fullPath));
+
         ChildData data = currentData.remove(fullPath);
         if ( data != null )
         {
@@ -562,11 +714,50 @@ public class PathChildrenCache implements Closeable
         Map<String, ChildData> localInitialSet = initialSet.get();
         if ( localInitialSet != null )
         {
-            localInitialSet.remove(fullPath);
+            if ( localInitialSet.remove(ZKPaths.getNodeFromPath(fullPath)) == NULL_CHILD_DATA )   // check against ref intentional
+            {
+                uninitializedCount.decrementAndGet();
+            }
             maybeOfferInitializedEvent(localInitialSet);
         }
     }
 
+    private void internalRebuildNodeInBackground(String fullPath, BackgroundCallback callback) throws Exception
+    {
+        if ( cacheData )
+        {
+            if ( dataIsCompressed )
+            {
+                client.getData().decompressed().inBackground(callback).forPath(fullPath);
+            }
+            else
+            {
+                client.getData().inBackground(callback).forPath(fullPath);
+            }
+        }
+        else
+        {
+            client.checkExists().inBackground(callback).forPath(fullPath);
+        }
+    }
+
+    private void applyRebuildResult(CuratorEvent event) throws Exception
+    {
+        if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+        {
+            putData(new ChildData(event.getPath(), event.getStat(), cacheData ? event.getData() : null));
+        }
+        else if ( event.getResultCode() == KeeperException.Code.NONODE.intValue() )
+        {
+            // node no longer exists - remove it
+            currentData.remove(event.getPath());
+        }
+        else
+        {
+            throw KeeperException.create(KeeperException.Code.get(event.getResultCode()), event.getPath());
+        }
+    }
+
     private void internalRebuildNode(String fullPath) throws Exception
     {
         if ( cacheData )
@@ -575,7 +766,7 @@ public class PathChildrenCache implements Closeable
             {
                 Stat stat = new Stat();
                 byte[] bytes = dataIsCompressed ? client.getData().decompressed().storingStatIn(stat).forPath(fullPath) : client.getData().storingStatIn(stat).forPath(fullPath);
-                currentData.put(fullPath, new ChildData(fullPath, stat, bytes));
+                putData(new ChildData(fullPath, stat, bytes));
             }
             catch ( KeeperException.NoNodeException ignore )
             {
@@ -588,7 +779,7 @@ public class PathChildrenCache implements Closeable
             Stat stat = client.checkExists().forPath(fullPath);
             if ( stat != null )
             {
-                currentData.put(fullPath, new ChildData(fullPath, stat, null));
+                putData(new ChildData(fullPath, stat, null));
             }
             else
             {
@@ -618,6 +809,7 @@ public class PathChildrenCache implements Closeable
         {
             try
             {
+                resetLoadWindow();
                 offerOperation(new RefreshOperation(this, RefreshMode.FORCE_GET_DATA_AND_STAT));
                 offerOperation(new EventOperation(this, new PathChildrenCacheEvent(PathChildrenCacheEvent.Type.CONNECTION_RECONNECTED, null)));
             }
@@ -630,40 +822,143 @@ public class PathChildrenCache implements Closeable
         }
     }
 
-    private void processChildren(List<String> children, RefreshMode mode) throws Exception
+    private void processChildren(List<String> children, Stat parentStat, RefreshMode mode) throws Exception
     {
-        List<String> fullPaths = Lists.newArrayList(Lists.transform
-            (
-                children,
-                new Function<String, String>()
+        if ( children == null )
+        {
+            return; // the listing failed - there will be another refresh when the path is available again
+        }
+
+        Map<String, ChildData> localInitialSet = initialSet.get();
+        if ( (mode == RefreshMode.STANDARD) && (localInitialSet == null) && childIndex.isUnchanged(parentStat) )
+        {
+            // same listing as last time - the watcher just needed to be reset
+            return;
+        }
+
+        ChildNameIndex.Diff diff = childIndex.update(children, parentStat);
+        for ( String name : diff.getRemoved() )
+        {
+            remove(ZKPaths.makePath(path, name));
+        }
+
+        if ( currentData.size() > diff.getNames().size() )
+        {
+            // nodes were added outside of the listings (e.g. by rebuildNode()) - fall back to a full scan for removals
+            Set<String> names = Sets.newHashSet(diff.getNames());
+            for ( String fullPath : currentData.keySet() )
+            {
+                if ( !names.contains(ZKPaths.getNodeFromPath(fullPath)) )
                 {
-                    @Override
-                    public String apply(String child)
+                    remove(fullPath);
+                }
+            }
+        }
+
+        // hold off the initialized event until every child has been marked as pending
+        uninitializedCount.incrementAndGet();
+        try
+        {
+            if ( localInitialSet != null )
+            {
+                for ( String name : diff.getNames() )
+                {
+                    String fullPath = ZKPaths.makePath(path, name);
+
+                    updateInitialSet(name, NULL_CHILD_DATA);
+
+                    if ( (mode == RefreshMode.FORCE_GET_DATA_AND_STAT) || !currentData.containsKey(fullPath) )
+                    {
+                        pendingLoads.add(fullPath);
+                    }
+                    else
                     {
-                        return ZKPaths.makePath(path, child);
+                        // already loaded
+                        ChildData data = currentData.get(fullPath);
+                        if ( data != null )
+                        {
+                            updateInitialSet(name, data);
+                        }
+                        else
+                        {
+                            remove(fullPath);
+                        }
                     }
                 }
-            ));
-        Set<String> removedNodes = Sets.newHashSet(currentData.keySet());
-        removedNodes.removeAll(fullPaths);
-
-        for ( String fullPath : removedNodes )
+            }
+            else
+            {
+                List<String> names = (mode == RefreshMode.FORCE_GET_DATA_AND_STAT) ? diff.getNames() : diff.getAdded();
+                for ( String name : names )
+                {
+                    pendingLoads.add(ZKPaths.makePath(path, name));
+                }
+            }
+        }
+        finally
         {
-            remove(fullPath);
+            uninitializedCount.decrementAndGet();
         }
+        maybeOfferInitializedEvent(initialSet.get());
 
-        for ( String name : children )
+        issuePendingLoads();
+    }
+
+    /**
+     * Issue queued child reads while there is room in the load window. This is called from
+     * ZooKeeper's event thread so it must never block - reads that don't fit are issued as
+     * earlier reads complete.
+     */
+    private void issuePendingLoads()
+    {
+        while ( loadsInFlight.incrementAndGet() <= maxLoadInFlight )
         {
-            String fullPath = ZKPaths.makePath(path, name);
+            String fullPath = pendingLoads.poll();
+            if ( fullPath == null )
+            {
+                loadsInFlight.decrementAndGet();
+                if ( pendingLoads.isEmpty() )
+                {
+                    return;
+                }
+                continue;   // added after the poll by a thread that saw the window as full
+            }
 
-            if ( (mode == RefreshMode.FORCE_GET_DATA_AND_STAT) || !currentData.containsKey(fullPath) )
+            if ( !loadingPaths.add(fullPath) )
+            {
+                // already being read (e.g. refreshed again while loading) - that read also sets the watch
+                // so it doesn't miss later changes. Only the first read holds a slot
+                loadsInFlight.decrementAndGet();
+                continue;
+            }
+            try
             {
                 getDataAndStat(fullPath);
             }
+            catch ( Exception e )
+            {
+                loadComplete(fullPath);
+                handleException(e);
+            }
+        }
+        loadsInFlight.decrementAndGet();
+    }
 
-            updateInitialSet(name, NULL_CHILD_DATA);
+    private void loadComplete(String fullPath)
+    {
+        if ( loadingPaths.remove(fullPath) )
+        {
+            loadsInFlight.decrementAndGet();
+            issuePendingLoads();
         }
-        maybeOfferInitializedEvent(initialSet.get());
+    }
+
+    private void resetLoadWindow()
+    {
+        // a read that fails without calling back (e.g. the connection was lost) would hold its slot forever.
+        // Forget all outstanding reads - any late callbacks for them are ignored by loadComplete()
+        loadingPaths.clear();
+        loadsInFlight.set(0);
     }
 
     private void applyNewData(String fullPath, int resultCode, Stat stat, byte[] bytes)
@@ -671,17 +966,42 @@ public class PathChildrenCache implements Closeable
         if ( resultCode == KeeperException.Code.OK.intValue() ) // otherwise - node must have dropped or something - we should be getting another event
         {
             ChildData data = new ChildData(fullPath, stat, bytes);
-            ChildData previousData = currentData.put(fullPath, data);
-            if ( previousData == null ) // i.e. new
+            int previousVersion = putData(data);
+            if ( previousVersion == CompactChildDataMap.NO_VERSION ) // i.e. new
             {
                 offerOperation(new EventOperation(this, new PathChildrenCacheEvent(PathChildrenCacheEvent.Type.CHILD_ADDED, data)));
             }
-            else if ( previousData.getStat().getVersion() != stat.getVersion() )
+            else if ( previousVersion != stat.getVersion() )
             {
                 offerOperation(new EventOperation(this, new PathChildrenCacheEvent(PathChildrenCacheEvent.Type.CHILD_UPDATED, data)));
             }
             updateInitialSet(ZKPaths.getNodeFromPath(fullPath), data);
         }
+        else if ( resultCode == KeeperException.Code.NONODE.intValue() )
+        {
+            // deleted before the watch could be set - no delete event will come for it
+            remove(fullPath);
+        }
+        else
+        {
+            // make sure the next listing tries again
+            childIndex.remove(ZKPaths.getNodeFromPath(fullPath));
+        }
+    }
+
+    /**
+     * @return the version of the data that was replaced or {@link CompactChildDataMap#NO_VERSION}
+     */
+    private int putData(ChildData data)
+    {
+        ConcurrentMap<String, ChildData> localCurrentData = currentData;
+        if ( localCurrentData instanceof CompactChildDataMap )
+        {
+            return ((CompactChildDataMap)localCurrentData).putAndGetPreviousVersion(data.getPath(), data);
+        }
+
+        ChildData previousData = localCurrentData.put(data.getPath(), data);
+        return (previousData != null) ? previousData.getStat().getVersion() : CompactChildDataMap.NO_VERSION;
     }
 
     private void updateInitialSet(String name, ChildData data)
@@ -689,19 +1009,35 @@ public class PathChildrenCache implements Closeable
         Map<String, ChildData> localInitialSet = initialSet.get();
         if ( localInitialSet != null )
         {
-            localInitialSet.put(name, data);
+            // count transitions into and out of the pending state so that checking for completion is O(1)
+            ChildData previous = localInitialSet.put(name, data);
+            if ( (data == NULL_CHILD_DATA) && (previous != NULL_CHILD_DATA) )   // check against ref intentional
+            {
+                uninitializedCount.incrementAndGet();
+            }
+            else if ( (data != NULL_CHILD_DATA) && (previous == NULL_CHILD_DATA) )
+            {
+                uninitializedCount.decrementAndGet();
+            }
             maybeOfferInitializedEvent(localInitialSet);
         }
     }
 
     private void maybeOfferInitializedEvent(Map<String, ChildData> localInitialSet)
     {
-        if ( !hasUninitialized(localInitialSet) )
+        if ( (localInitialSet != null) && (uninitializedCount.get() <= 0) )
         {
             // all initial children have been processed - send initialized message
 
-            if ( initialSet.getAndSet(null) != null )   // avoid edge case - don't send more than 1 INITIALIZED event
+            if ( initialSet.compareAndSet(localInitialSet, null) )   // avoid edge case - don't send more than 1 INITIALIZED event
             {
+                TimeTrace trace = initialLoadTrace.getAndSet(null);
+                if ( trace != null )
+                {
+                    trace.commit();
+                }
+                client.getZookeeperClient().getTracerDriver().addCount("PathChildrenCache-initialLoad-nodes", localInitialSet.size());
+
                 final List<ChildData> children = ImmutableList.copyOf(localInitialSet.values());
                 PathChildrenCacheEvent event = new PathChildrenCacheEvent(PathChildrenCacheEvent.Type.INITIALIZED, null)
                 {
@@ -716,28 +1052,6 @@ public class PathChildrenCache implements Closeable
         }
     }
 
-    private boolean hasUninitialized(Map<String, ChildData> localInitialSet)
-    {
-        if ( localInitialSet == null )
-        {
-            return false;
-        }
-
-        Map<String, ChildData> uninitializedChildren = Maps.filterValues
-            (
-                localInitialSet,
-                new Predicate<ChildData>()
-                {
-                    @Override
-                    public boolean apply(ChildData input)
-                    {
-                        return (input == NULL_CHILD_DATA);  // check against ref intentional
-                    }
-                }
-            );
-        return (uninitializedChildren.size() != 0);
-    }
-
     private void offerOperation(final Operation operation)
     {
         if ( operationsQuantizer.add(operation) )
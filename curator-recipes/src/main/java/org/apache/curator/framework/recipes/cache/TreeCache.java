@@ -0,0 +1,737 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.listen.ListenerContainer;
+import org.apache.curator.framework.listen.ListenerFunction;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.curator.utils.CloseableExecutorService;
+import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ThreadUtils;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.data.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * <p>A utility that attempts to keep all data from all nodes of a ZK subtree locally cached. This class
+ * will watch the ZK path and every node below it (optionally down to a maximum depth), respond to
+ * update/create/delete events, pull down the data, etc. You can register a listener that will get
+ * notified when changes occur.</p>
+ *
+ * <p>Unlike nesting {@link PathChildrenCache}s, a single TreeCache uses one executor and one connection
+ * state listener for the whole tree. Each cached node costs one small object plus its {@link ChildData};
+ * the map of children is only allocated for nodes that have children.</p>
+ *
+ * <p><b>IMPORTANT</b> - it's not possible to stay transactionally in sync. Users of this class must
+ * be prepared for false-positives and false-negatives. Additionally, always use the version number
+ * when updating data to avoid overwriting another process' change.</p>
+ */
+public class TreeCache implements Closeable
+{
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final CuratorFramework client;
+    private final TreeNode root;
+    private final boolean cacheData;
+    private final boolean dataIsCompressed;
+    private final int maxDepth;
+    private final CloseableExecutorService executorService;
+    private final ListenerContainer<TreeCacheListener> listeners = new ListenerContainer<TreeCacheListener>();
+    private final AtomicLong outstandingOps = new AtomicLong(0);
+    private final AtomicBoolean isInitialized = new AtomicBoolean(false);
+    private final AtomicReference<State> state = new AtomicReference<State>(State.LATENT);
+
+    private enum State
+    {
+        LATENT,
+        STARTED,
+        CLOSED
+    }
+
+    private final ConnectionStateListener connectionStateListener = new ConnectionStateListener()
+    {
+        @Override
+        public void stateChanged(CuratorFramework client, ConnectionState newState)
+        {
+            handleStateChange(newState);
+        }
+    };
+    private static final ThreadFactory defaultThreadFactory = ThreadUtils.newThreadFactory("TreeCache");
+
+    /**
+     * Builder for {@link TreeCache} instances
+     */
+    public static class Builder
+    {
+        private final CuratorFramework client;
+        private final String path;
+        private boolean cacheData = true;
+        private boolean dataIsCompressed = false;
+        private int maxDepth = Integer.MAX_VALUE;
+        private CloseableExecutorService executorService = null;
+
+        private Builder(CuratorFramework client, String path)
+        {
+            this.client = Preconditions.checkNotNull(client, "client cannot be null");
+            this.path = path;
+        }
+
+        /**
+         * @return new cache
+         */
+        public TreeCache build()
+        {
+            CloseableExecutorService localExecutorService = executorService;
+            if ( localExecutorService == null )
+            {
+                localExecutorService = new CloseableExecutorService(Executors.newSingleThreadExecutor(defaultThreadFactory), true);
+            }
+            return new TreeCache(client, path, cacheData, dataIsCompressed, maxDepth, localExecutorService);
+        }
+
+        /**
+         * @param cacheData if true (the default), node contents are cached in addition to the stat
+         * @return this
+         */
+        public Builder setCacheData(boolean cacheData)
+        {
+            this.cacheData = cacheData;
+            return this;
+        }
+
+        /**
+         * @param dataIsCompressed if true, data in the tree is compressed
+         * @return this
+         */
+        public Builder setDataIsCompressed(boolean dataIsCompressed)
+        {
+            this.dataIsCompressed = dataIsCompressed;
+            return this;
+        }
+
+        /**
+         * Limit the depth of the cached tree. The root has depth 0 so a max depth of 0 caches only the
+         * root node, 1 caches the root and its children (like a {@link PathChildrenCache}), etc. The default
+         * is unbounded.
+         *
+         * @param maxDepth max depth
+         * @return this
+         */
+        public Builder setMaxDepth(int maxDepth)
+        {
+            Preconditions.checkArgument(maxDepth >= 0, "maxDepth cannot be negative");
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        /**
+         * @param threadFactory factory to use when creating the cache's thread
+         * @return this
+         */
+        public Builder setExecutor(ThreadFactory threadFactory)
+        {
+            return setExecutor(new CloseableExecutorService(Executors.newSingleThreadExecutor(threadFactory), true));
+        }
+
+        /**
+         * @param executorService executor for the cache's background work and listener calls. It must execute
+         *                        tasks one at a time and in order (e.g. a single thread executor). It is not shut down
+         *                        when the cache is closed.
+         * @return this
+         */
+        public Builder setExecutor(ExecutorService executorService)
+        {
+            return setExecutor(new CloseableExecutorService(executorService));
+        }
+
+        /**
+         * @param executorService executor for the cache's background work and listener calls. It must execute
+         *                        tasks one at a time and in order (e.g. a single thread executor, or a serial
+         *                        executor from a {@link org.apache.curator.utils.SerialExecutorPool} to share threads
+         *                        with other caches).
+         * @return this
+         */
+        public Builder setExecutor(CloseableExecutorService executorService)
+        {
+            this.executorService = Preconditions.checkNotNull(executorService, "executorService cannot be null");
+            return this;
+        }
+    }
+
+    /**
+     * Allocate a new builder
+     *
+     * @param client the client
+     * @param path   path of the root of the tree to watch
+     * @return builder
+     */
+    public static Builder newBuilder(CuratorFramework client, String path)
+    {
+        return new Builder(client, path);
+    }
+
+    /**
+     * Create a cache with the default options: data is cached, depth is unbounded
+     *
+     * @param client the client
+     * @param path   path of the root of the tree to watch
+     */
+    public TreeCache(CuratorFramework client, String path)
+    {
+        this(client, path, true, false, Integer.MAX_VALUE, new CloseableExecutorService(Executors.newSingleThreadExecutor(defaultThreadFactory), true));
+    }
+
+    TreeCache(CuratorFramework client, String path, boolean cacheData, boolean dataIsCompressed, int maxDepth, CloseableExecutorService executorService)
+    {
+        PathUtils.validatePath(path);
+
+        this.client = client;
+        this.cacheData = cacheData;
+        this.dataIsCompressed = dataIsCompressed;
+        this.maxDepth = maxDepth;
+        this.executorService = executorService;
+        root = new TreeNode(this, path, null);
+    }
+
+    /**
+     * Start the cache. The cache is not started automatically. You must call this method.
+     * A {@link TreeCacheEvent.Type#INITIALIZED} event is posted once the tree has been loaded.
+     *
+     * @throws Exception errors
+     */
+    public void start() throws Exception
+    {
+        Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "already started");
+        client.getConnectionStateListenable().addListener(connectionStateListener);
+
+        // hold off the initialized event until the root's reads have been issued
+        outstandingOps.incrementAndGet();
+        try
+        {
+            root.wasCreated();
+        }
+        finally
+        {
+            operationComplete();
+        }
+    }
+
+    /**
+     * Close/end the cache
+     *
+     * @throws IOException errors
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if ( state.compareAndSet(State.STARTED, State.CLOSED) )
+        {
+            client.getConnectionStateListenable().removeListener(connectionStateListener);
+            executorService.close();
+        }
+    }
+
+    /**
+     * Return the cache listenable
+     *
+     * @return listenable
+     */
+    public ListenerContainer<TreeCacheListener> getListenable()
+    {
+        return listeners;
+    }
+
+    /**
+     * Return the current set of children of the given path mapped by child name. There are no
+     * guarantees of accuracy; this is merely the most recent view of the data.
+     *
+     * @param fullPath full path to the node to check
+     * @return children of the node or null if the node is not in the cache
+     */
+    public Map<String, ChildData> getCurrentChildren(String fullPath)
+    {
+        TreeNode node = find(fullPath);
+        if ( (node == null) || (node.nodeState != NodeState.LIVE) )
+        {
+            return null;
+        }
+
+        ConcurrentMap<String, TreeNode> children = node.children;
+        if ( children == null )
+        {
+            return ImmutableMap.of();
+        }
+
+        ImmutableMap.Builder<String, ChildData> builder = ImmutableMap.builder();
+        for ( Map.Entry<String, TreeNode> entry : children.entrySet() )
+        {
+            TreeNode child = entry.getValue();
+            ChildData childData = child.childData;
+            // double check the state in case it changed while reading the data
+            if ( (child.nodeState == NodeState.LIVE) && (childData != null) )
+            {
+                builder.put(entry.getKey(), childData);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Return the current data for the given path. There are no guarantees of accuracy. This is
+     * merely the most recent view of the data.
+     *
+     * @param fullPath full path to the node to check
+     * @return data or null if the node is not in the cache
+     */
+    public ChildData getCurrentData(String fullPath)
+    {
+        TreeNode node = find(fullPath);
+        return ((node != null) && (node.nodeState == NodeState.LIVE)) ? node.childData : null;
+    }
+
+    /**
+     * Default behavior is just to log the exception
+     *
+     * @param e the exception
+     */
+    protected void handleException(Throwable e)
+    {
+        log.error("", e);
+    }
+
+    private TreeNode find(String fullPath)
+    {
+        if ( !fullPath.startsWith(root.path) )
+        {
+            return null;
+        }
+
+        String relative = fullPath.substring(root.path.length());
+        if ( (relative.length() > 0) && !root.path.equals("/") && (relative.charAt(0) != '/') )
+        {
+            return null;    // e.g. root is /a and fullPath is /ab
+        }
+
+        TreeNode current = root;
+        for ( String name : Splitter.on('/').omitEmptyStrings().split(relative) )
+        {
+            ConcurrentMap<String, TreeNode> children = current.children;
+            current = (children != null) ? children.get(name) : null;
+            if ( current == null )
+            {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    private void handleStateChange(ConnectionState newState)
+    {
+        switch ( newState )
+        {
+        case SUSPENDED:
+        {
+            publishEvent(TreeCacheEvent.Type.CONNECTION_SUSPENDED, null);
+            break;
+        }
+
+        case LOST:
+        {
+            publishEvent(TreeCacheEvent.Type.CONNECTION_LOST, null);
+            break;
+        }
+
+        case RECONNECTED:
+        {
+            root.wasReconnected();
+            publishEvent(TreeCacheEvent.Type.CONNECTION_RECONNECTED, null);
+            break;
+        }
+        }
+    }
+
+    private void publishEvent(TreeCacheEvent.Type type, ChildData data)
+    {
+        final TreeCacheEvent event = new TreeCacheEvent(type, data);
+        submitToExecutor
+        (
+            new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    listeners.forEach
+                    (
+                        new ListenerFunction<TreeCacheListener, TreeCacheEvent>()
+                        {
+                            @Override
+                            public void apply(TreeCacheListener listener, TreeCacheEvent event)
+                            {
+                                try
+                                {
+                                    listener.childEvent(client, event);
+                                }
+                                catch ( Exception e )
+                                {
+                                    handleException(e);
+                                }
+                            }
+                        },
+                        event
+                    );
+                }
+            }
+        );
+    }
+
+    /**
+     * See {@link PathChildrenCache} for why this is synchronized
+     *
+     * @param command The runnable to run
+     */
+    private synchronized void submitToExecutor(final Runnable command)
+    {
+        if ( state.get() == State.STARTED )
+        {
+            executorService.submit(command);
+        }
+    }
+
+    private void operationComplete()
+    {
+        if ( (outstandingOps.decrementAndGet() == 0) && isInitialized.compareAndSet(false, true) )
+        {
+            publishEvent(TreeCacheEvent.Type.INITIALIZED, null);
+        }
+    }
+
+    private enum NodeState
+    {
+        PENDING,
+        LIVE,
+        DEAD
+    }
+
+    /**
+     * One node of the tree. The mutable fields are updated with field updaters rather than
+     * AtomicReferences to keep the per-node footprint small.
+     */
+    private static final class TreeNode implements Watcher, BackgroundCallback
+    {
+        private final TreeCache cache;
+        private final String path;
+        private final TreeNode parent;
+        private final int depth;
+
+        volatile NodeState nodeState = NodeState.PENDING;
+        volatile ChildData childData = null;
+        volatile ConcurrentMap<String, TreeNode> children = null;
+
+        private static final AtomicReferenceFieldUpdater<TreeNode, NodeState> nodeStateUpdater = AtomicReferenceFieldUpdater.newUpdater(TreeNode.class, NodeState.class, "nodeState");
+        private static final AtomicReferenceFieldUpdater<TreeNode, ChildData> childDataUpdater = AtomicReferenceFieldUpdater.newUpdater(TreeNode.class, ChildData.class, "childData");
+        // there is no class literal for ConcurrentMap<String, TreeNode>, so the raw updater is cast to the typed one
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static final AtomicReferenceFieldUpdater<TreeNode, ConcurrentMap<String, TreeNode>> childrenUpdater = (AtomicReferenceFieldUpdater)AtomicReferenceFieldUpdater.newUpdater(TreeNode.class, ConcurrentMap.class, "children");
+
+        TreeNode(TreeCache cache, String path, TreeNode parent)
+        {
+            this.cache = cache;
+            this.path = path;
+            this.parent = parent;
+            depth = (parent != null) ? (parent.depth + 1) : 0;
+        }
+
+        @Override
+        public void process(WatchedEvent event)
+        {
+            if ( cache.state.get() != State.STARTED )
+            {
+                return;
+            }
+
+            switch ( event.getType() )
+            {
+            case NodeCreated:
+            {
+                if ( parent == null )
+                {
+                    wasCreated();
+                }
+                break;
+            }
+
+            case NodeChildrenChanged:
+            {
+                refreshChildren();
+                break;
+            }
+
+            case NodeDataChanged:
+            {
+                refreshData();
+                break;
+            }
+
+            case NodeDeleted:
+            {
+                wasDeleted();
+                break;
+            }
+            }
+        }
+
+        @Override
+        public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+        {
+            try
+            {
+                switch ( event.getType() )
+                {
+                case EXISTS:
+                {
+                    // only used for the root while it doesn't exist
+                    if ( (event.getResultCode() == KeeperException.Code.OK.intValue()) && (nodeState == NodeState.DEAD) )
+                    {
+                        nodeStateUpdater.compareAndSet(this, NodeState.DEAD, NodeState.PENDING);
+                        wasCreated();
+                    }
+                    break;
+                }
+
+                case CHILDREN:
+                {
+                    if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+                    {
+                        processChildren(event.getStat(), event.getChildren());
+                    }
+                    else if ( event.getResultCode() == KeeperException.Code.NONODE.intValue() )
+                    {
+                        wasDeleted();
+                    }
+                    break;
+                }
+
+                case GET_DATA:
+                {
+                    if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+                    {
+                        processData(event.getStat(), event.getData());
+                    }
+                    else if ( event.getResultCode() == KeeperException.Code.NONODE.intValue() )
+                    {
+                        wasDeleted();
+                    }
+                    break;
+                }
+                }
+            }
+            finally
+            {
+                cache.operationComplete();
+            }
+        }
+
+        void wasCreated()
+        {
+            refreshData();
+            refreshChildren();
+        }
+
+        void wasReconnected()
+        {
+            wasCreated();
+            ConcurrentMap<String, TreeNode> localChildren = children;
+            if ( localChildren != null )
+            {
+                for ( TreeNode child : localChildren.values() )
+                {
+                    child.wasReconnected();
+                }
+            }
+        }
+
+        void wasDeleted()
+        {
+            ChildData oldChildData = childDataUpdater.getAndSet(this, null);
+            ConcurrentMap<String, TreeNode> oldChildren = childrenUpdater.getAndSet(this, null);
+            if ( oldChildren != null )
+            {
+                for ( TreeNode child : oldChildren.values() )
+                {
+                    child.wasDeleted();
+                }
+            }
+
+            if ( cache.state.get() != State.STARTED )
+            {
+                return;
+            }
+
+            NodeState oldState = nodeStateUpdater.getAndSet(this, NodeState.DEAD);
+            if ( (oldState == NodeState.LIVE) && (oldChildData != null) )
+            {
+                cache.publishEvent(TreeCacheEvent.Type.NODE_REMOVED, oldChildData);
+            }
+
+            if ( parent == null )
+            {
+                // the root - watch for it to be re-created
+                background(new Callback()
+                {
+                    @Override
+                    public void call() throws Exception
+                    {
+                        cache.client.checkExists().usingWatcher(TreeNode.this).inBackground(TreeNode.this).forPath(path);
+                    }
+                });
+            }
+            else
+            {
+                ConcurrentMap<String, TreeNode> parentChildren = parent.children;
+                if ( parentChildren != null )
+                {
+                    parentChildren.remove(ZKPaths.getNodeFromPath(path), this);
+                }
+            }
+        }
+
+        private void refreshData()
+        {
+            background(new Callback()
+            {
+                @Override
+                public void call() throws Exception
+                {
+                    if ( cache.dataIsCompressed )
+                    {
+                        cache.client.getData().decompressed().usingWatcher(TreeNode.this).inBackground(TreeNode.this).forPath(path);
+                    }
+                    else
+                    {
+                        cache.client.getData().usingWatcher(TreeNode.this).inBackground(TreeNode.this).forPath(path);
+                    }
+                }
+            });
+        }
+
+        private void refreshChildren()
+        {
+            if ( depth < cache.maxDepth )
+            {
+                background(new Callback()
+                {
+                    @Override
+                    public void call() throws Exception
+                    {
+                        cache.client.getChildren().usingWatcher(TreeNode.this).inBackground(TreeNode.this).forPath(path);
+                    }
+                });
+            }
+        }
+
+        private void processChildren(Stat newStat, Iterable<String> newChildren)
+        {
+            ChildData oldChildData = childData;
+            if ( (oldChildData != null) && (newStat != null) && (oldChildData.getStat().getMzxid() == newStat.getMzxid()) )
+            {
+                // only the child related fields of the stat have changed - no event needed
+                childDataUpdater.compareAndSet(this, oldChildData, new ChildData(path, newStat, oldChildData.getData()));
+            }
+
+            for ( String child : newChildren )
+            {
+                ConcurrentMap<String, TreeNode> localChildren = children;
+                if ( localChildren == null )
+                {
+                    childrenUpdater.compareAndSet(this, null, Maps.<String, TreeNode>newConcurrentMap());
+                    localChildren = children;
+                    if ( localChildren == null )
+                    {
+                        return; // deleted in the interim
+                    }
+                }
+
+                if ( !localChildren.containsKey(child) )
+                {
+                    TreeNode node = new TreeNode(cache, ZKPaths.makePath(path, child), this);
+                    if ( localChildren.putIfAbsent(child, node) == null )
+                    {
+                        node.wasCreated();
+                    }
+                }
+            }
+        }
+
+        private void processData(Stat newStat, byte[] bytes)
+        {
+            ChildData newChildData = new ChildData(path, newStat, cache.cacheData ? bytes : null);
+            ChildData oldChildData = childDataUpdater.getAndSet(this, newChildData);
+            NodeState oldState = nodeStateUpdater.getAndSet(this, NodeState.LIVE);
+            if ( oldState != NodeState.LIVE )
+            {
+                cache.publishEvent(TreeCacheEvent.Type.NODE_ADDED, newChildData);
+            }
+            else if ( (oldChildData == null) || (oldChildData.getStat().getMzxid() != newStat.getMzxid()) )
+            {
+                cache.publishEvent(TreeCacheEvent.Type.NODE_UPDATED, newChildData);
+            }
+        }
+
+        private void background(Callback callback)
+        {
+            cache.outstandingOps.incrementAndGet();
+            try
+            {
+                callback.call();
+            }
+            catch ( Exception e )
+            {
+                cache.operationComplete();
+                cache.handleException(e);
+            }
+        }
+
+        private interface Callback
+        {
+            void call() throws Exception;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.cache;
+
+import org.apache.curator.framework.state.ConnectionState;
+
+/**
+ * POJO that abstracts a change to a path in a {@link TreeCache}
+ */
+public class TreeCacheEvent
+{
+    private final Type type;
+    private final ChildData data;
+
+    /**
+     * Type of change
+     */
+    public enum Type
+    {
+        /**
+         * A node was added to the tree
+         */
+        NODE_ADDED,
+
+        /**
+         * A node's data was changed
+         */
+        NODE_UPDATED,
+
+        /**
+         * A node was removed from the tree
+         */
+        NODE_REMOVED,
+
+        /**
+         * Called when the connection has changed to {@link ConnectionState#SUSPENDED}. See
+         * {@link PathChildrenCacheEvent.Type#CONNECTION_SUSPENDED} for details.
+         */
+        CONNECTION_SUSPENDED,
+
+        /**
+         * Called when the connection has changed to {@link ConnectionState#RECONNECTED}. See
+         * {@link PathChildrenCacheEvent.Type#CONNECTION_RECONNECTED} for details.
+         */
+        CONNECTION_RECONNECTED,
+
+        /**
+         * Called when the connection has changed to {@link ConnectionState#LOST}. See
+         * {@link PathChildrenCacheEvent.Type#CONNECTION_LOST} for details.
+         */
+        CONNECTION_LOST,
+
+        /**
+         * Posted once after {@link TreeCache#start()} when every node of the tree (down to
+         * the maximum depth) has been loaded. The tree's state can then be read via
+         * {@link TreeCache#getCurrentData(String)} and {@link TreeCache#getCurrentChildren(String)}.
+         */
+        INITIALIZED
+    }
+
+    /**
+     * @param type event type
+     * @param data event data or null
+     */
+    public TreeCacheEvent(Type type, ChildData data)
+    {
+        this.type = type;
+        this.data = data;
+    }
+
+    /**
+     * @return change type
+     */
+    public Type getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return the node's data
+     */
+    public ChildData getData()
+    {
+        return data;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TreeCacheEvent{" +
+            "type=" + type +
+            ", data=" + data +
+            '}';
+    }
+}
@@ -23,7 +23,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -76,8 +75,6 @@ public class LockInternals
 
     static final byte[]             REVOKE_MESSAGE = "__REVOKE__".getBytes();
 
-    private static final Semaphore semaphore = new Semaphore(1);
-
     /**
      * Attempt to delete the lock node so that sequence numbers get reset
      *
@@ -219,10 +216,6 @@ public class LockInternals
 
             try
             {
-                if (semaphore.tryAcquire()) {
-                  Thread.currentThread().interrupt();
-                }
-
                 if ( localLockNodeBytes != null )
                 {
                     ourPath = client.create().creatingParentsIfNeeded().withProtection().withMode(CreateMode.EPHEMERAL_SEQUENTIAL).forPath(path, localLockNodeBytes);
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.cache;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.zookeeper.data.Stat;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.Arrays;
+
+public class TestChildNameIndex
+{
+    @Test
+    public void testDiff()
+    {
+        ChildNameIndex index = new ChildNameIndex();
+
+        ChildNameIndex.Diff diff = index.update(Arrays.asList("c", "a", "b"), makeStat(1, 3));
+        Assert.assertEquals(diff.getNames(), ImmutableList.of("a", "b", "c"));
+        Assert.assertEquals(diff.getAdded(), ImmutableList.of("a", "b", "c"));
+        Assert.assertEquals(diff.getRemoved(), ImmutableList.of());
+
+        Assert.assertTrue(index.isUnchanged(makeStat(1, 3)));
+        Assert.assertFalse(index.isUnchanged(makeStat(2, 3)));
+        Assert.assertFalse(index.isUnchanged(makeStat(1, 2)));
+        Assert.assertFalse(index.isUnchanged(null));
+
+        diff = index.update(Arrays.asList("d", "b", "a"), makeStat(3, 3));
+        Assert.assertEquals(diff.getNames(), ImmutableList.of("a", "b", "d"));
+        Assert.assertEquals(diff.getAdded(), ImmutableList.of("d"));
+        Assert.assertEquals(diff.getRemoved(), ImmutableList.of("c"));
+        Assert.assertTrue(index.isUnchanged(makeStat(3, 3)));
+
+        diff = index.update(ImmutableList.<String>of(), makeStat(4, 0));
+        Assert.assertEquals(diff.getAdded(), ImmutableList.of());
+        Assert.assertEquals(diff.getRemoved(), ImmutableList.of("a", "b", "d"));
+        Assert.assertEquals(index.size(), 0);
+    }
+
+    @Test
+    public void testKeepsExistingInstances()
+    {
+        ChildNameIndex index = new ChildNameIndex();
+        String name = new String("name");
+        index.update(Arrays.asList(name), null);
+
+        ChildNameIndex.Diff diff = index.update(Arrays.asList(new String("name"), "other"), null);
+        Assert.assertSame(diff.getNames().get(0), name);
+    }
+
+    @Test
+    public void testRemoveAndAdd()
+    {
+        ChildNameIndex index = new ChildNameIndex();
+        index.update(Arrays.asList("a", "b"), makeStat(1, 2));
+
+        // deleted and re-created between listings
+        index.remove("a");
+        Assert.assertFalse(index.isUnchanged(makeStat(1, 2)));
+        ChildNameIndex.Diff diff = index.update(Arrays.asList("a", "b"), makeStat(3, 2));
+        Assert.assertEquals(diff.getAdded(), ImmutableList.of("a"));
+        Assert.assertEquals(diff.getRemoved(), ImmutableList.of());
+
+        index.add("c");
+        Assert.assertEquals(index.size(), 3);
+        diff = index.update(Arrays.asList("a", "b"), makeStat(4, 2));
+        Assert.assertEquals(diff.getRemoved(), ImmutableList.of("c"));
+
+        index.reset();
+        Assert.assertEquals(index.size(), 0);
+        diff = index.update(Arrays.asList("a", "b"), makeStat(4, 2));
+        Assert.assertEquals(diff.getAdded(), ImmutableList.of("a", "b"));
+    }
+
+    private static Stat makeStat(int cversion, int numChildren)
+    {
+        Stat stat = new Stat();
+        stat.setCversion(cversion);
+        stat.setNumChildren(numChildren);
+        return stat;
+    }
+}
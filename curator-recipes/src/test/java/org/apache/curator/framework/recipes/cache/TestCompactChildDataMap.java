@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.cache;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.zookeeper.data.Stat;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.Map;
+import java.util.Random;
+
+public class TestCompactChildDataMap
+{
+    @Test
+    public void testBasic()
+    {
+        CompactChildDataMap map = new CompactChildDataMap("/parent", false);
+
+        Assert.assertNull(map.put("/parent/a", new ChildData("/parent/a", makeStat(1, 10, 100), "a".getBytes())));
+        Assert.assertNull(map.put("/parent/b", new ChildData("/parent/b", makeStat(2, 20, 0), null)));
+        Assert.assertEquals(map.size(), 2);
+        Assert.assertTrue(map.containsKey("/parent/a"));
+        Assert.assertFalse(map.containsKey("/parent/a/x"));
+        Assert.assertFalse(map.containsKey("/other/a"));
+        Assert.assertNull(map.get("/other/a"));
+
+        ChildData a = map.get("/parent/a");
+        Assert.assertEquals(a.getPath(), "/parent/a");
+        Assert.assertEquals(a.getData(), "a".getBytes());
+        Assert.assertEquals(a.getStat().getVersion(), 1);
+        Assert.assertEquals(a.getStat().getMzxid(), 10);
+        Assert.assertEquals(a.getStat().getEphemeralOwner(), 100);
+        Assert.assertNull(map.get("/parent/b").getData());
+        Assert.assertEquals(map.keySet(), ImmutableSet.of("/parent/a", "/parent/b"));
+        Assert.assertEquals(Sets.newTreeSet(map.values()).first(), a);
+
+        ChildData previous = map.put("/parent/a", new ChildData("/parent/a", makeStat(2, 11, 100), "aa".getBytes()));
+        Assert.assertEquals(previous, a);
+        Assert.assertFalse(map.clearData("/parent/a", 1));
+        Assert.assertTrue(map.clearData("/parent/a", 2));
+        Assert.assertNull(map.get("/parent/a").getData());
+        Assert.assertEquals(map.get("/parent/a").getStat().getVersion(), 2);
+
+        Assert.assertEquals(map.remove("/parent/b").getPath(), "/parent/b");
+        Assert.assertNull(map.remove("/parent/b"));
+        map.clear();
+        Assert.assertEquals(map.size(), 0);
+    }
+
+    @Test
+    public void testRootParent()
+    {
+        CompactChildDataMap map = new CompactChildDataMap("/", false);
+        map.put("/a", new ChildData("/a", makeStat(0, 1, 0), null));
+        Assert.assertEquals(map.get("/a").getPath(), "/a");
+        Assert.assertEquals(map.keySet(), ImmutableSet.of("/a"));
+    }
+
+    @Test
+    public void testOffHeap()
+    {
+        OffHeapDataArena arena = new OffHeapDataArena(64);
+        CompactChildDataMap map = new CompactChildDataMap("/parent", arena);
+
+        map.put("/parent/a", new ChildData("/parent/a", makeStat(0, 1, 0), "0123456789".getBytes()));
+        map.put("/parent/b", new ChildData("/parent/b", makeStat(0, 2, 0), "abcdefghij".getBytes()));
+        map.put("/parent/c", new ChildData("/parent/c", makeStat(0, 3, 0), new byte[100]));    // larger than a quarter chunk
+        map.put("/parent/d", new ChildData("/parent/d", makeStat(0, 4, 0), new byte[0]));
+        Assert.assertEquals(arena.getAllocatedBytes(), 64 + 100);
+
+        Assert.assertEquals(map.get("/parent/a").getData(), "0123456789".getBytes());
+        Assert.assertEquals(map.get("/parent/b").getData(), "abcdefghij".getBytes());
+        Assert.assertEquals(map.get("/parent/c").getData(), new byte[100]);
+        Assert.assertEquals(map.get("/parent/d").getData(), new byte[0]);
+
+        Assert.assertEquals(map.put("/parent/a", new ChildData("/parent/a", makeStat(1, 5, 0), "new".getBytes())).getData(), "0123456789".getBytes());
+        Assert.assertEquals(map.get("/parent/a").getData(), "new".getBytes());
+
+        map.remove("/parent/c");
+        Assert.assertEquals(arena.getAllocatedBytes(), 64);
+
+        map.clear();
+        Assert.assertEquals(arena.getAllocatedBytes(), 0);
+    }
+
+    @Test
+    public void testArenaChunks()
+    {
+        OffHeapDataArena arena = new OffHeapDataArena(16);
+
+        long first = arena.allocate("abcd".getBytes());
+        long second = arena.allocate("efgh".getBytes());
+        long third = arena.allocate("ijkl".getBytes());
+        long fourth = arena.allocate("mnop".getBytes());
+        long fifth = arena.allocate("qrst".getBytes());     // doesn't fit in the first chunk
+        Assert.assertEquals(arena.getAllocatedBytes(), 32);
+        Assert.assertEquals(arena.read(third, 4), "ijkl".getBytes());
+        Assert.assertEquals(arena.read(fifth, 4), "qrst".getBytes());
+
+        arena.free(first, 4);
+        arena.free(second, 4);
+        arena.free(third, 4);
+        Assert.assertEquals(arena.read(fourth, 4), "mnop".getBytes());
+        arena.free(fourth, 4);
+        Assert.assertEquals(arena.getAllocatedBytes(), 16);
+        Assert.assertNull(arena.read(first, 4));    // chunk has been released
+    }
+
+    @Test
+    public void testPutAndGetPreviousVersion()
+    {
+        OffHeapDataArena arena = new OffHeapDataArena(64);
+        CompactChildDataMap map = new CompactChildDataMap("/parent", arena);
+
+        Assert.assertEquals(map.putAndGetPreviousVersion("/parent/a", new ChildData("/parent/a", makeStat(3, 1, 0), "one".getBytes())), CompactChildDataMap.NO_VERSION);
+        Assert.assertEquals(map.putAndGetPreviousVersion("/parent/a", new ChildData("/parent/a", makeStat(4, 2, 0), "two".getBytes())), 3);
+        Assert.assertEquals(map.get("/parent/a").getData(), "two".getBytes());
+        Assert.assertEquals(arena.getLiveBytes(), 3);
+    }
+
+    @Test
+    public void testChurn()
+    {
+        final int CHUNK_SIZE = 1024;
+        final int NODE_QTY = 100;
+
+        OffHeapDataArena arena = new OffHeapDataArena(CHUNK_SIZE);
+        CompactChildDataMap map = new CompactChildDataMap("/parent", arena);
+        Map<String, byte[]> expected = Maps.newHashMap();
+        Random random = new Random();
+        long maxAllocatedBytes = 0;
+        for ( int i = 0; i < 100000; ++i )
+        {
+            String path = "/parent/" + random.nextInt(NODE_QTY);
+            byte[] data = new byte[1 + random.nextInt(CHUNK_SIZE / 4)];
+            random.nextBytes(data);
+            map.put(path, new ChildData(path, makeStat(i, i, 0), data));
+            expected.put(path, data);
+
+            maxAllocatedBytes = Math.max(maxAllocatedBytes, arena.getAllocatedBytes());
+        }
+
+        // without compaction, chunks that still hold a few live nodes are never released
+        long liveBytes = arena.getLiveBytes();
+        Assert.assertTrue(maxAllocatedBytes <= ((NODE_QTY * CHUNK_SIZE / 4) * 2) + (3 * CHUNK_SIZE), "Max allocated: " + maxAllocatedBytes);
+        Assert.assertTrue(arena.getAllocatedBytes() <= ((liveBytes * 2) + (3 * CHUNK_SIZE)), "Allocated: " + arena.getAllocatedBytes() + " live: " + liveBytes);
+        for ( Map.Entry<String, byte[]> entry : expected.entrySet() )
+        {
+            Assert.assertEquals(map.get(entry.getKey()).getData(), entry.getValue());
+        }
+
+        map.clear();
+        Assert.assertEquals(arena.getAllocatedBytes(), 0);
+    }
+
+    private static Stat makeStat(int version, long mzxid, long ephemeralOwner)
+    {
+        Stat stat = new Stat();
+        stat.setVersion(version);
+        stat.setMzxid(mzxid);
+        stat.setEphemeralOwner(ephemeralOwner);
+        return stat;
+    }
+}
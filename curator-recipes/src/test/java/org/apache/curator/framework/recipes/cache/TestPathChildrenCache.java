@@ -29,11 +29,14 @@ import org.apache.curator.test.KillSession;
 import org.apache.curator.test.Timing;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -75,6 +78,68 @@ public class TestPathChildrenCache extends BaseClassForTests
         }
     }
 
+    @Test
+    public void testWindowedInitialLoad() throws Exception
+    {
+        final int QTY = 250;
+
+        Timing timing = new Timing();
+        PathChildrenCache cache = null;
+        PathChildrenCache rebuiltCache = null;
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            client.create().forPath("/test");
+            for ( int i = 0; i < QTY; ++i )
+            {
+                client.create().inBackground().forPath("/test/" + i, Integer.toString(i).getBytes());
+            }
+            while ( client.checkExists().forPath("/test").getNumChildren() < QTY )
+            {
+                Thread.sleep(100);
+            }
+
+            final CountDownLatch initializedLatch = new CountDownLatch(1);
+            final AtomicReference<List<ChildData>> initialData = new AtomicReference<List<ChildData>>();
+            cache = new PathChildrenCache(client, "/test", true);
+            cache.setMaxLoadInFlight(10);
+            cache.getListenable().addListener
+                (
+                    new PathChildrenCacheListener()
+                    {
+                        @Override
+                        public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                        {
+                            if ( event.getType() == PathChildrenCacheEvent.Type.INITIALIZED )
+                            {
+                                initialData.set(event.getInitialData());
+                                initializedLatch.countDown();
+                            }
+                        }
+                    }
+                );
+            cache.start(PathChildrenCache.StartMode.POST_INITIALIZED_EVENT);
+            Assert.assertTrue(timing.awaitLatch(initializedLatch));
+            Assert.assertEquals(initialData.get().size(), QTY);
+            Assert.assertEquals(cache.getPendingInitialLoadCount(), 0);
+            Assert.assertEquals(cache.getCurrentData().size(), QTY);
+            Assert.assertEquals(cache.getCurrentData("/test/42").getData(), "42".getBytes());
+
+            rebuiltCache = new PathChildrenCache(client, "/test", true);
+            rebuiltCache.setMaxLoadInFlight(10);
+            rebuiltCache.start(PathChildrenCache.StartMode.BUILD_INITIAL_CACHE);
+            Assert.assertEquals(rebuiltCache.getCurrentData().size(), QTY);
+            Assert.assertEquals(rebuiltCache.getCurrentData("/test/42").getData(), "42".getBytes());
+        }
+        finally
+        {
+            Closeables.closeQuietly(rebuiltCache);
+            Closeables.closeQuietly(cache);
+            Closeables.closeQuietly(client);
+        }
+    }
+
     @Test
     public void testAsyncInitialPopulation() throws Exception
     {
@@ -600,6 +665,140 @@ public class TestPathChildrenCache extends BaseClassForTests
         }
     }
 
+    @Test
+    public void testRebuildFromWatcher() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            client.create().forPath("/test");
+            client.create().forPath("/test/one");
+            client.create().forPath("/test/two", "two".getBytes());
+
+            // background reads can't complete while the event thread is blocked in rebuild()
+            final PathChildrenCache cache = new PathChildrenCache(client, "/test", true);
+            final BlockingQueue<Object> results = new LinkedBlockingQueue<Object>();
+            Watcher watcher = new Watcher()
+            {
+                @Override
+                public void process(WatchedEvent event)
+                {
+                    try
+                    {
+                        cache.rebuild();
+                        results.add(Boolean.TRUE);
+                    }
+                    catch ( Exception e )
+                    {
+                        results.add(e);
+                    }
+                }
+            };
+            client.checkExists().usingWatcher(watcher).forPath("/trigger");
+            client.create().forPath("/trigger");
+
+            Assert.assertEquals(results.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS), Boolean.TRUE);
+            Assert.assertEquals(cache.getCurrentData().size(), 2);
+            Assert.assertEquals(cache.getCurrentData("/test/two").getData(), "two".getBytes());
+
+            cache.close();
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testRefreshWhileLoading() throws Exception
+    {
+        Timing timing = new Timing();
+        PathChildrenCache cache = null;
+        final ExecutorService loadExecutor = Executors.newCachedThreadPool();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            client.create().creatingParentsIfNeeded().forPath("/test/one", "one".getBytes());
+
+            // while holdLoads is set, reads stay in flight until the semaphore is released
+            final AtomicBoolean holdLoads = new AtomicBoolean(false);
+            final AtomicInteger heldLoads = new AtomicInteger();
+            final Semaphore semaphore = new Semaphore(0);
+            cache = new PathChildrenCache(client, "/test", true)
+            {
+                @Override
+                void getDataAndStat(final String fullPath) throws Exception
+                {
+                    if ( !holdLoads.get() )
+                    {
+                        super.getDataAndStat(fullPath);
+                        return;
+                    }
+
+                    heldLoads.incrementAndGet();
+                    loadExecutor.submit
+                    (
+                        new Callable<Void>()
+                        {
+                            @Override
+                            public Void call() throws Exception
+                            {
+                                semaphore.acquire();
+                                loadNow(fullPath);
+                                return null;
+                            }
+                        }
+                    );
+                }
+
+                private void loadNow(String fullPath) throws Exception
+                {
+                    super.getDataAndStat(fullPath);
+                }
+            };
+            cache.setMaxLoadInFlight(2);
+
+            final BlockingQueue<PathChildrenCacheEvent> events = new LinkedBlockingQueue<PathChildrenCacheEvent>();
+            cache.getListenable().addListener
+            (
+                new PathChildrenCacheListener()
+                {
+                    @Override
+                    public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                    {
+                        events.add(event);
+                    }
+                }
+            );
+            cache.start();
+            Assert.assertEquals(events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS).getType(), PathChildrenCacheEvent.Type.CHILD_ADDED);
+
+            // each rebuildNode() forces a refresh of every child. Refreshing a child that is still loading
+            // must not take another slot of the load window
+            holdLoads.set(true);
+            for ( int i = 0; i < 3; ++i )
+            {
+                cache.rebuildNode("/test/one");
+            }
+            timing.sleepABit();
+            Assert.assertEquals(cache.getLoadsInFlight(), 1);
+
+            holdLoads.set(false);
+            semaphore.release(heldLoads.getAndSet(0));
+            timing.sleepABit();
+            Assert.assertEquals(cache.getLoadsInFlight(), 0);
+        }
+        finally
+        {
+            loadExecutor.shutdownNow();
+            Closeables.closeQuietly(cache);
+            Closeables.closeQuietly(client);
+        }
+    }
+
     @Test
     public void testRebuildNode() throws Exception
     {
@@ -730,6 +929,65 @@ public class TestPathChildrenCache extends BaseClassForTests
         }
     }
 
+    @Test
+    public void testCompactStorage() throws Exception
+    {
+        Timing timing = new Timing();
+        PathChildrenCache cache = null;
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            client.create().forPath("/test");
+            client.create().forPath("/test/one", "hey there".getBytes());
+
+            final BlockingQueue<PathChildrenCacheEvent.Type> events = new LinkedBlockingQueue<PathChildrenCacheEvent.Type>();
+            cache = new PathChildrenCache(client, "/test", true);
+            cache.setCompactStorage(true);
+            cache.getListenable().addListener
+                (
+                    new PathChildrenCacheListener()
+                    {
+                        @Override
+                        public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                        {
+                            events.offer(event.getType());
+                        }
+                    }
+                );
+            cache.start(PathChildrenCache.StartMode.BUILD_INITIAL_CACHE);
+            Assert.assertEquals(new String(cache.getCurrentData("/test/one").getData()), "hey there");
+
+            client.create().forPath("/test/two", "two".getBytes());
+            Assert.assertEquals(events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS), PathChildrenCacheEvent.Type.CHILD_ADDED);
+
+            client.setData().forPath("/test/one", "sup!".getBytes());
+            Assert.assertEquals(events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS), PathChildrenCacheEvent.Type.CHILD_UPDATED);
+
+            List<ChildData> data = cache.getCurrentData();
+            Assert.assertEquals(data.size(), 2);
+            Assert.assertEquals(data.get(0).getPath(), "/test/one");
+            Assert.assertEquals(new String(data.get(0).getData()), "sup!");
+            Assert.assertEquals(data.get(0).getStat().getVersion(), 1);
+            Assert.assertEquals(data.get(1).getPath(), "/test/two");
+            Assert.assertEquals(new String(data.get(1).getData()), "two");
+
+            Assert.assertFalse(cache.clearDataBytes("/test/two", 5));
+            Assert.assertTrue(cache.clearDataBytes("/test/two", 0));
+            Assert.assertNull(cache.getCurrentData("/test/two").getData());
+
+            client.delete().forPath("/test/one");
+            Assert.assertEquals(events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS), PathChildrenCacheEvent.Type.CHILD_REMOVED);
+            Assert.assertNull(cache.getCurrentData("/test/one"));
+            Assert.assertEquals(cache.getCurrentData().size(), 1);
+        }
+        finally
+        {
+            Closeables.closeQuietly(cache);
+            Closeables.closeQuietly(client);
+        }
+    }
+
     @Test
     public void testBasicsOnTwoCachesWithSameExecutor() throws Exception
     {
@@ -0,0 +1,235 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.cache;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Closeables;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.recipes.BaseClassForTests;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.KillSession;
+import org.apache.curator.test.Timing;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class TestTreeCache extends BaseClassForTests
+{
+    @Test
+    public void testInitialLoad() throws Exception
+    {
+        Timing timing = new Timing();
+        TreeCache cache = null;
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            client.create().forPath("/test", "root".getBytes());
+            client.create().forPath("/test/1", "one".getBytes());
+            client.create().forPath("/test/2", "two".getBytes());
+            client.create().forPath("/test/2/sub", "sub".getBytes());
+            client.create().forPath("/test/2/sub/deep", "deep".getBytes());
+            client.create().forPath("/testnot", "x".getBytes());
+
+            EventQueue events = new EventQueue();
+            cache = new TreeCache(client, "/test");
+            cache.getListenable().addListener(events);
+            cache.start();
+
+            for ( int i = 0; i < 5; ++i )
+            {
+                Assert.assertEquals(events.take(timing).getType(), TreeCacheEvent.Type.NODE_ADDED);
+            }
+            Assert.assertEquals(events.take(timing).getType(), TreeCacheEvent.Type.INITIALIZED);
+
+            Assert.assertEquals(cache.getCurrentChildren("/test").keySet(), ImmutableSet.of("1", "2"));
+            Assert.assertEquals(cache.getCurrentChildren("/test/2/sub").keySet(), ImmutableSet.of("deep"));
+            Assert.assertEquals(cache.getCurrentChildren("/test/1").size(), 0);
+            Assert.assertEquals(cache.getCurrentData("/test/2/sub/deep").getData(), "deep".getBytes());
+            Assert.assertNull(cache.getCurrentData("/test/3"));
+            Assert.assertNull(cache.getCurrentData("/testnot"));
+            Assert.assertNull(cache.getCurrentChildren("/test/3"));
+        }
+        finally
+        {
+            Closeables.closeQuietly(cache);
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testUpdates() throws Exception
+    {
+        Timing timing = new Timing();
+        TreeCache cache = null;
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+
+            EventQueue events = new EventQueue();
+            cache = new TreeCache(client, "/test");
+            cache.getListenable().addListener(events);
+            cache.start();
+            Assert.assertEquals(events.take(timing).getType(), TreeCacheEvent.Type.INITIALIZED);
+
+            client.create().forPath("/test");
+            events.assertEvent(timing, TreeCacheEvent.Type.NODE_ADDED, "/test");
+
+            client.create().creatingParentsIfNeeded().forPath("/test/a/b", "b".getBytes());
+            events.assertEvent(timing, TreeCacheEvent.Type.NODE_ADDED, "/test/a");
+            events.assertEvent(timing, TreeCacheEvent.Type.NODE_ADDED, "/test/a/b");
+
+            client.setData().forPath("/test/a/b", "new".getBytes());
+            TreeCacheEvent event = events.assertEvent(timing, TreeCacheEvent.Type.NODE_UPDATED, "/test/a/b");
+            Assert.assertEquals(event.getData().getData(), "new".getBytes());
+            Assert.assertEquals(cache.getCurrentData("/test/a/b").getData(), "new".getBytes());
+
+            client.delete().forPath("/test/a/b");
+            events.assertEvent(timing, TreeCacheEvent.Type.NODE_REMOVED, "/test/a/b");
+            Assert.assertNull(cache.getCurrentData("/test/a/b"));
+            Assert.assertEquals(cache.getCurrentChildren("/test/a").size(), 0);
+
+            // the root can be deleted and re-created
+            client.delete().forPath("/test/a");
+            events.assertEvent(timing, TreeCacheEvent.Type.NODE_REMOVED, "/test/a");
+            client.delete().forPath("/test");
+            events.assertEvent(timing, TreeCacheEvent.Type.NODE_REMOVED, "/test");
+            client.create().forPath("/test", "again".getBytes());
+            events.assertEvent(timing, TreeCacheEvent.Type.NODE_ADDED, "/test");
+            Assert.assertEquals(cache.getCurrentData("/test").getData(), "again".getBytes());
+        }
+        finally
+        {
+            Closeables.closeQuietly(cache);
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testMaxDepthAndNoData() throws Exception
+    {
+        Timing timing = new Timing();
+        TreeCache cache = null;
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            client.create().creatingParentsIfNeeded().forPath("/test/a/b", "b".getBytes());
+
+            EventQueue events = new EventQueue();
+            cache = TreeCache.newBuilder(client, "/test").setMaxDepth(1).setCacheData(false).build();
+            cache.getListenable().addListener(events);
+            cache.start();
+
+            events.assertEvent(timing, TreeCacheEvent.Type.NODE_ADDED, null);
+            events.assertEvent(timing, TreeCacheEvent.Type.NODE_ADDED, null);
+            Assert.assertEquals(events.take(timing).getType(), TreeCacheEvent.Type.INITIALIZED);
+
+            Assert.assertNotNull(cache.getCurrentData("/test/a"));
+            Assert.assertNull(cache.getCurrentData("/test/a").getData());
+            Assert.assertNull(cache.getCurrentData("/test/a/b"));
+            Assert.assertEquals(cache.getCurrentChildren("/test/a").size(), 0);
+
+            // changes below the max depth are not seen
+            client.create().forPath("/test/a/c");
+            client.create().forPath("/test/d");
+            events.assertEvent(timing, TreeCacheEvent.Type.NODE_ADDED, "/test/d");
+        }
+        finally
+        {
+            Closeables.closeQuietly(cache);
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testSessionExpiration() throws Exception
+    {
+        Timing timing = new Timing();
+        TreeCache cache = null;
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            client.create().creatingParentsIfNeeded().forPath("/test/a", "a".getBytes());
+
+            EventQueue events = new EventQueue();
+            cache = new TreeCache(client, "/test");
+            cache.getListenable().addListener(events);
+            cache.start();
+            events.assertEvent(timing, TreeCacheEvent.Type.NODE_ADDED, null);
+            events.assertEvent(timing, TreeCacheEvent.Type.NODE_ADDED, null);
+            Assert.assertEquals(events.take(timing).getType(), TreeCacheEvent.Type.INITIALIZED);
+
+            KillSession.kill(client.getZookeeperClient().getZooKeeper(), server.getConnectString());
+            events.skipUntil(timing, TreeCacheEvent.Type.CONNECTION_RECONNECTED);
+
+            // watches are re-established after the reconnect
+            client.setData().forPath("/test/a", "new".getBytes());
+            events.skipUntil(timing, TreeCacheEvent.Type.NODE_UPDATED);
+            Assert.assertEquals(cache.getCurrentData("/test/a").getData(), "new".getBytes());
+        }
+        finally
+        {
+            Closeables.closeQuietly(cache);
+            Closeables.closeQuietly(client);
+        }
+    }
+
+    private static class EventQueue implements TreeCacheListener
+    {
+        private final BlockingQueue<TreeCacheEvent> events = new LinkedBlockingQueue<TreeCacheEvent>();
+
+        @Override
+        public void childEvent(CuratorFramework client, TreeCacheEvent event) throws Exception
+        {
+            events.add(event);
+        }
+
+        TreeCacheEvent take(Timing timing) throws InterruptedException
+        {
+            TreeCacheEvent event = events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+            Assert.assertNotNull(event, "Timed out waiting for an event");
+            return event;
+        }
+
+        TreeCacheEvent assertEvent(Timing timing, TreeCacheEvent.Type type, String path) throws InterruptedException
+        {
+            TreeCacheEvent event = take(timing);
+            Assert.assertEquals(event.getType(), type, event.toString());
+            if ( path != null )
+            {
+                Assert.assertEquals(event.getData().getPath(), path);
+            }
+            return event;
+        }
+
+        void skipUntil(Timing timing, TreeCacheEvent.Type type) throws InterruptedException
+        {
+            while ( take(timing).getType() != type )
+            {
+                // skip
+            }
+        }
+    }
+}
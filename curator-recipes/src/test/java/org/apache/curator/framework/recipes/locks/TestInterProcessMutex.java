@@ -21,6 +21,7 @@ package org.apache.curator.framework.recipes.locks;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.Timing;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import java.util.Collection;
@@ -41,6 +42,30 @@ public class TestInterProcessMutex extends TestInterProcessMutexBase
         return new InterProcessMutex(client, LOCK_PATH);
     }
 
+    // runs first so that it is the first lock attempt in this JVM
+    @Test(priority = -1)
+    public void     testAcquireDoesNotInterrupt() throws Exception
+    {
+        Timing                  timing = new Timing();
+        CuratorFramework        client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            InterProcessMutex       lock = new InterProcessMutex(client, LOCK_PATH);
+            for ( int i = 0; i < 2; ++i )
+            {
+                Assert.assertTrue(lock.acquire(timing.forWaiting().seconds(), TimeUnit.SECONDS));
+                Assert.assertFalse(Thread.currentThread().isInterrupted());
+                lock.release();
+            }
+            Assert.assertEquals(client.getChildren().forPath(LOCK_PATH).size(), 0);
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
     @Test
     public void     testRevoking() throws Exception
     {
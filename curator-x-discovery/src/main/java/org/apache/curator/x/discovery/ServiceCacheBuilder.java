@@ -18,6 +18,7 @@
  */
 package org.apache.curator.x.discovery;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 
 public interface ServiceCacheBuilder<T>
@@ -44,4 +45,14 @@ public interface ServiceCacheBuilder<T>
      * @return this
      */
     public ServiceCacheBuilder<T> threadFactory(ThreadFactory threadFactory);
+
+    /**
+     * Optional executor service to use for the cache's background work instead of an internal thread. It must
+     * run tasks one at a time and in order. A serial executor from a {@link org.apache.curator.utils.SerialExecutorPool}
+     * lets many caches share a few threads. The executor service is not shut down when the cache is closed.
+     *
+     * @param executorService executor service
+     * @return this
+     */
+    public ServiceCacheBuilder<T> executorService(ExecutorService executorService);
 }
@@ -20,6 +20,7 @@ package org.apache.curator.x.discovery.details;
 
 import org.apache.curator.x.discovery.ServiceCache;
 import org.apache.curator.x.discovery.ServiceCacheBuilder;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 
 /**
@@ -30,6 +31,7 @@ class ServiceCacheBuilderImpl<T> implements ServiceCacheBuilder<T>
     private ServiceDiscoveryImpl<T> discovery;
     private String name;
     private ThreadFactory threadFactory;
+    private ExecutorService executorService;
 
     ServiceCacheBuilderImpl(ServiceDiscoveryImpl<T> discovery)
     {
@@ -44,7 +46,7 @@ class ServiceCacheBuilderImpl<T> implements ServiceCacheBuilder<T>
     @Override
     public ServiceCache<T> build()
     {
-        return new ServiceCacheImpl<T>(discovery, name, threadFactory);
+        return new ServiceCacheImpl<T>(discovery, name, threadFactory, executorService);
     }
 
     /**
@@ -72,4 +74,19 @@ class ServiceCacheBuilderImpl<T> implements ServiceCacheBuilder<T>
         this.threadFactory = threadFactory;
         return this;
     }
+
+    /**
+     * Optional executor service to use for the cache's background work instead of an internal thread. It must
+     * run tasks one at a time and in order. A serial executor from a {@link org.apache.curator.utils.SerialExecutorPool}
+     * lets many caches share a few threads. The executor service is not shut down when the cache is closed.
+     *
+     * @param executorService executor service
+     * @return this
+     */
+    @Override
+    public ServiceCacheBuilder<T> executorService(ExecutorService executorService)
+    {
+        this.executorService = executorService;
+        return this;
+    }
 }
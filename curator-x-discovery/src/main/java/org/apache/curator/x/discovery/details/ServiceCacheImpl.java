@@ -36,6 +36,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -54,13 +55,19 @@ public class ServiceCacheImpl<T> implements ServiceCache<T>, PathChildrenCacheLi
         STOPPED
     }
 
-    ServiceCacheImpl(ServiceDiscoveryImpl<T> discovery, String name, ThreadFactory threadFactory)
+    ServiceCacheImpl(ServiceDiscoveryImpl<T> discovery, String name, ThreadFactory threadFactory, ExecutorService executorService)
     {
-        Preconditions.checkNotNull(threadFactory, "threadFactory cannot be null");
-
         this.discovery = discovery;
 
-        cache = new PathChildrenCache(discovery.getClient(), discovery.pathForName(name), true, threadFactory);
+        if ( executorService != null )
+        {
+            cache = new PathChildrenCache(discovery.getClient(), discovery.pathForName(name), true, false, executorService);
+        }
+        else
+        {
+            Preconditions.checkNotNull(threadFactory, "threadFactory cannot be null");
+            cache = new PathChildrenCache(discovery.getClient(), discovery.pathForName(name), true, threadFactory);
+        }
         cache.getListenable().addListener(this);
     }
 
@@ -26,6 +26,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.io.Closeables;
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.bulk.BulkResult;
 import org.apache.curator.framework.state.ConnectionState;
 import org.apache.curator.framework.state.ConnectionStateListener;
 import org.apache.curator.utils.ThreadUtils;
@@ -337,12 +338,20 @@ public class ServiceDiscoveryImpl<T> implements ServiceDiscovery<T>
             }
         }
 
+        List<String>            instancePaths = Lists.newArrayList();
         for ( String id : instanceIds )
         {
-            ServiceInstance<T> instance = queryForInstance(name, id);
-            if ( instance != null )
+            instancePaths.add(pathForInstance(name, id));
+        }
+        for ( BulkResult<byte[]> result : client.bulk().getData().forPaths(instancePaths).values() )
+        {
+            if ( result.isSuccess() )
+            {
+                builder.add(serializer.deserialize(result.getValue()));
+            }
+            else if ( !(result.getError() instanceof KeeperException.NoNodeException) )
             {
-                builder.add(instance);
+                throw result.getError();
             }
         }
         return builder.build();
@@ -25,12 +25,15 @@ import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.framework.state.ConnectionState;
 import org.apache.curator.retry.RetryOneTime;
 import org.apache.curator.test.TestingServer;
+import org.apache.curator.utils.SerialExecutorPool;
+import org.apache.curator.utils.ThreadUtils;
 import org.apache.curator.x.discovery.details.ServiceCacheListener;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import java.io.Closeable;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -98,6 +101,71 @@ public class TestServiceCache
         }
     }
 
+    @Test
+    public void     testSharedExecutor() throws Exception
+    {
+        List<Closeable> closeables = Lists.newArrayList();
+        TestingServer server = new TestingServer();
+        closeables.add(server);
+        try
+        {
+            CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+            closeables.add(client);
+            client.start();
+
+            ServiceDiscovery<String>    discovery = ServiceDiscoveryBuilder.builder(String.class).basePath("/discovery").client(client).build();
+            closeables.add(discovery);
+            discovery.start();
+
+            final SerialExecutorPool    pool = new SerialExecutorPool(1, ThreadUtils.newThreadFactory("TestServiceCache"));
+            closeables.add(pool);
+
+            final CountDownLatch        latch = new CountDownLatch(2);
+            final List<String>          threadNames = new CopyOnWriteArrayList<String>();
+            for ( int i = 0; i < 2; ++i )
+            {
+                ServiceCache<String>    cache = discovery.serviceCacheBuilder().name("test").executorService(pool.newSerialExecutor()).build();
+                closeables.add(cache);
+                cache.addListener
+                (
+                    new ServiceCacheListener()
+                    {
+                        @Override
+                        public void cacheChanged()
+                        {
+                            threadNames.add(Thread.currentThread().getName());
+                            latch.countDown();
+                        }
+
+                        @Override
+                        public void stateChanged(CuratorFramework client, ConnectionState newState)
+                        {
+                        }
+                    }
+                );
+                cache.start();
+            }
+
+            discovery.registerService(ServiceInstance.<String>builder().payload("test").name("test").port(10064).build());
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+            // both caches ran on the pool's single thread
+            Assert.assertEquals(threadNames.size(), 2);
+            for ( String threadName : threadNames )
+            {
+                Assert.assertTrue(threadName.startsWith("TestServiceCache"), threadName);
+            }
+        }
+        finally
+        {
+            Collections.reverse(closeables);
+            for ( Closeable c : closeables )
+            {
+                Closeables.closeQuietly(c);
+            }
+        }
+    }
+
     @Test
     public void     testViaProvider() throws Exception
     {
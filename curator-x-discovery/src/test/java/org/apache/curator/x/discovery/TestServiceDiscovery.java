@@ -29,6 +29,8 @@ import org.apache.curator.test.TestingServer;
 import org.apache.curator.test.Timing;
 import org.apache.curator.x.discovery.details.JsonInstanceSerializer;
 import org.apache.curator.x.discovery.details.ServiceDiscoveryImpl;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import java.io.Closeable;
@@ -36,7 +38,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 public class TestServiceDiscovery
 {
@@ -273,4 +278,56 @@ public class TestServiceDiscovery
             }
         }
     }
+
+    @Test
+    public void         testQueryFromWatcher() throws Exception
+    {
+        List<Closeable>     closeables = Lists.newArrayList();
+        TestingServer       server = new TestingServer();
+        closeables.add(server);
+        try
+        {
+            Timing              timing = new Timing();
+            CuratorFramework    client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+            closeables.add(client);
+            client.start();
+
+            ServiceInstance<String>     instance = ServiceInstance.<String>builder().payload("thing").name("test").port(10064).build();
+            final ServiceDiscovery<String>  discovery = ServiceDiscoveryBuilder.builder(String.class).basePath("/test").client(client).thisInstance(instance).build();
+            closeables.add(discovery);
+            discovery.start();
+
+            // watchers are called on ZooKeeper's event thread - querying from there must not deadlock
+            final BlockingQueue<Object>     results = new LinkedBlockingQueue<Object>();
+            Watcher                         watcher = new Watcher()
+            {
+                @Override
+                public void process(WatchedEvent event)
+                {
+                    try
+                    {
+                        results.add(discovery.queryForInstances("test"));
+                    }
+                    catch ( Exception e )
+                    {
+                        results.add(e);
+                    }
+                }
+            };
+            client.checkExists().usingWatcher(watcher).forPath("/trigger");
+            client.create().forPath("/trigger");
+
+            Object      result = results.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+            Assert.assertNotNull(result, "queryForInstances() did not return");
+            Assert.assertEquals(result, Lists.<ServiceInstance<String>>newArrayList(instance));
+        }
+        finally
+        {
+            Collections.reverse(closeables);
+            for ( Closeable c : closeables )
+            {
+                Closeables.closeQuietly(c);
+            }
+        }
+    }
 }